@@ -0,0 +1,120 @@
+package fr.umontpellier.iut.graphes.benchmarks;
+
+import fr.umontpellier.iut.graphes.Arete;
+import fr.umontpellier.iut.graphes.Graphe;
+import fr.umontpellier.iut.rails.Route;
+import fr.umontpellier.iut.rails.data.GenerateurPlateau;
+import fr.umontpellier.iut.rails.data.Plateau;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Plateau sur lequel portent les mesures : le plateau Monde ({@code taille = "monde"}) ou un plateau généré de
+ * {@code taille} villes (voir {@link GenerateurPlateau}), toujours avec la même graine pour que deux exécutions
+ * mesurent les mêmes graphes.
+ * <p>
+ * Les requêtes entre deux villes portent sur {@link #NB_REQUETES} couples de villes tirés au hasard ; les recherches
+ * exhaustives de chemins, dont la durée est exponentielle, portent sur un voisinage de {@link #TAILLE_VOISINAGE}
+ * villes du plateau.
+ */
+@State(Scope.Benchmark)
+public class EtatPlateau {
+    static final long GRAINE = 2023;
+    static final int NB_REQUETES = 16;
+    static final int TAILLE_VOISINAGE = 10;
+    static final int NB_WAGONS = 25;
+    static final int NB_BATEAUX = 35;
+
+    @Param({"monde", "500", "2000", "8000"})
+    public String taille;
+
+    Plateau plateau;
+    Graphe graphe;
+    List<Arete> aretes;
+    /**
+     * Un graphe isomorphe à graphe, construit une seconde fois (les villes ont d'autres identifiants)
+     */
+    Graphe copie;
+    List<Integer> sequence;
+    int[] departs;
+    int[] arrivees;
+    /**
+     * Itinéraires de trois villes : departs[i], etapes[i], arrivees[i]
+     */
+    int[] etapes;
+    Arete[] aretesTestees;
+    /**
+     * Voisinage d'une ville, et un départ, une arrivée et un itinéraire dans ce voisinage
+     */
+    Graphe voisinage;
+    int departLocal;
+    int arriveeLocal;
+    List<Integer> itineraireLocal;
+
+    @Setup(Level.Trial)
+    public void preparer() {
+        plateau = construirePlateau();
+        graphe = plateau.getGraphe();
+        copie = construirePlateau().getGraphe();
+        aretes = new ArrayList<>();
+        for (Route route : plateau.getRoutes()) {
+            aretes.add(new Arete(route.getVille1().getId(), route.getVille2().getId(), route));
+        }
+        sequence = graphe.getSequenceDegre();
+
+        Random aleatoire = new Random(GRAINE);
+        List<Integer> sommets = new ArrayList<>(graphe.ensembleSommets());
+        departs = new int[NB_REQUETES];
+        arrivees = new int[NB_REQUETES];
+        etapes = new int[NB_REQUETES];
+        aretesTestees = new Arete[NB_REQUETES];
+        for (int i = 0; i < NB_REQUETES; i++) {
+            departs[i] = sommets.get(aleatoire.nextInt(sommets.size()));
+            arrivees[i] = sommets.get(aleatoire.nextInt(sommets.size()));
+            etapes[i] = sommets.get(aleatoire.nextInt(sommets.size()));
+            aretesTestees[i] = aretes.get(aleatoire.nextInt(aretes.size()));
+        }
+
+        List<Integer> proches = new ArrayList<>(plusProches(departs[0], TAILLE_VOISINAGE));
+        voisinage = new Graphe(graphe, Set.copyOf(proches));
+        departLocal = proches.get(0);
+        arriveeLocal = proches.get(proches.size() - 1);
+        itineraireLocal = List.of(departLocal, proches.get(proches.size() / 2), arriveeLocal);
+    }
+
+    private Plateau construirePlateau() {
+        if (taille.equals("monde")) {
+            return Plateau.makePlateauMonde();
+        }
+        return new GenerateurPlateau(GRAINE).genererPlateau(Integer.parseInt(taille));
+    }
+
+    /**
+     * @return les nb sommets les plus proches de depart (en nombre d'arêtes), dans l'ordre du parcours en largeur
+     */
+    private Set<Integer> plusProches(int depart, int nb) {
+        Set<Integer> vus = new LinkedHashSet<>();
+        Queue<Integer> file = new ArrayDeque<>();
+        vus.add(depart);
+        file.add(depart);
+        while (!file.isEmpty() && vus.size() < nb) {
+            for (int v : graphe.getVoisins(file.remove())) {
+                if (vus.size() < nb && vus.add(v)) {
+                    file.add(v);
+                }
+            }
+        }
+        return vus;
+    }
+}
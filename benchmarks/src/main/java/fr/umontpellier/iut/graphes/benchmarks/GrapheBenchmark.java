@@ -0,0 +1,125 @@
+package fr.umontpellier.iut.graphes.benchmarks;
+
+import fr.umontpellier.iut.graphes.Arete;
+import fr.umontpellier.iut.graphes.Graphe;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction et opérations de base de {@link Graphe} (voisinage, connexité, isthmes, isomorphisme, séquences de
+ * degrés, ensembles bloquants). Les requêtes portant sur plusieurs couples de villes sont ramenées au temps d'une
+ * requête.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GrapheBenchmark {
+
+    /**
+     * Copies fraîches du graphe et de son isomorphe : leur forme canonique n'est pas encore calculée
+     */
+    @State(Scope.Thread)
+    public static class Copies {
+        Graphe graphe;
+        Graphe copie;
+
+        @Setup(Level.Invocation)
+        public void copier(EtatPlateau etat) {
+            graphe = new Graphe(etat.graphe);
+            copie = new Graphe(etat.copie);
+        }
+    }
+
+    @Benchmark
+    public Graphe constructionDepuisPlateau(EtatPlateau etat) {
+        return etat.plateau.getGraphe();
+    }
+
+    @Benchmark
+    public Graphe constructionDepuisAretes(EtatPlateau etat) {
+        return new Graphe(etat.aretes);
+    }
+
+    @Benchmark
+    public Graphe copie(EtatPlateau etat) {
+        return new Graphe(etat.graphe);
+    }
+
+    @Benchmark
+    public void getVoisins(EtatPlateau etat, Blackhole trou) {
+        for (int v : etat.graphe.ensembleSommets()) {
+            trou.consume(etat.graphe.getVoisins(v));
+        }
+    }
+
+    @Benchmark
+    public boolean estConnexe(EtatPlateau etat) {
+        return etat.graphe.estConnexe();
+    }
+
+    @Benchmark
+    public Set<Set<Integer>> getEnsembleClassesConnexite(EtatPlateau etat) {
+        return etat.graphe.getEnsembleClassesConnexite();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EtatPlateau.NB_REQUETES)
+    public void getClasseConnexite(EtatPlateau etat, Blackhole trou) {
+        for (int v : etat.departs) {
+            trou.consume(etat.graphe.getClasseConnexite(v));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EtatPlateau.NB_REQUETES)
+    public void estUnIsthme(EtatPlateau etat, Blackhole trou) {
+        for (Arete a : etat.aretesTestees) {
+            trou.consume(etat.graphe.estUnIsthme(a));
+        }
+    }
+
+    /**
+     * Isomorphisme de deux graphes dont les formes canoniques sont déjà calculées (appels répétés)
+     */
+    @Benchmark
+    public boolean sontIsomorphes(EtatPlateau etat) {
+        return Graphe.sontIsomorphes(etat.graphe, etat.copie);
+    }
+
+    /**
+     * Isomorphisme de deux graphes neufs, calcul des formes canoniques compris
+     */
+    @Benchmark
+    public boolean sontIsomorphesSansCache(Copies copies) {
+        return Graphe.sontIsomorphes(copies.graphe, copies.copie);
+    }
+
+    @Benchmark
+    public boolean sequenceEstGraphe(EtatPlateau etat) {
+        return Graphe.sequenceEstGraphe(etat.sequence);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EtatPlateau.NB_REQUETES)
+    public void ensembleBloquant(EtatPlateau etat, Blackhole trou) {
+        for (int i = 0; i < EtatPlateau.NB_REQUETES; i++) {
+            trou.consume(etat.graphe.ensembleBloquant(etat.departs[i], etat.arrivees[i]));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package fr.umontpellier.iut.graphes.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+/**
+ * Point d'entrée de benchmarks.jar. Accepte les mêmes options que le lanceur de JMH (par exemple
+ * {@code -p taille=monde,2000} ou {@code ParcoursBenchmark}), avec deux valeurs par défaut différentes :
+ * <ul>
+ *     <li>le profileur de ramasse-miettes (gc) est toujours actif, pour suivre les allocations de chaque opération ;</li>
+ *     <li>les résultats sont écrits au format JSON dans {@value #RESULTATS}, sauf si {@code -rf}/{@code -rff} sont
+ *     donnés, pour pouvoir comparer deux versions (par exemple avec jmh.morethan.io).</li>
+ * </ul>
+ */
+public final class Lanceur {
+    static final String RESULTATS = "jmh-resultats.json";
+
+    private Lanceur() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions ligneDeCommande = new CommandLineOptions(args);
+        if (ligneDeCommande.shouldHelp()) {
+            ligneDeCommande.showHelp();
+            return;
+        }
+        if (ligneDeCommande.shouldList()) {
+            new Runner(ligneDeCommande).list();
+            return;
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(ligneDeCommande).addProfiler(GCProfiler.class);
+        if (!ligneDeCommande.getResultFormat().hasValue() && !ligneDeCommande.getResult().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON).result(RESULTATS);
+        }
+        new Runner(options.build()).run();
+    }
+}
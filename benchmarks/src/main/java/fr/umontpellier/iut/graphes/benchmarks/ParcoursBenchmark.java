@@ -0,0 +1,102 @@
+package fr.umontpellier.iut.graphes.benchmarks;
+
+import fr.umontpellier.iut.graphes.Budget;
+import fr.umontpellier.iut.graphes.Graphe;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Toutes les versions de {@link Graphe#parcoursSansRepetition}. Les recherches exhaustives portent sur le voisinage
+ * de {@link EtatPlateau#TAILLE_VOISINAGE} villes de l'état (elles ne terminent pas en un temps raisonnable sur un
+ * plateau entier) ; les recherches avec budget portent sur tout le plateau, avec un budget de
+ * {@link #NOEUDS} sommets développés par requête.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParcoursBenchmark {
+    static final long NOEUDS = 100_000;
+
+    @Benchmark
+    public List<Integer> exhaustif(EtatPlateau etat) {
+        return etat.voisinage.parcoursSansRepetition(etat.departLocal, etat.arriveeLocal, false);
+    }
+
+    @Benchmark
+    public List<Integer> exhaustifPondere(EtatPlateau etat) {
+        return etat.voisinage.parcoursSansRepetition(etat.departLocal, etat.arriveeLocal, true);
+    }
+
+    @Benchmark
+    public List<Integer> exhaustifPions(EtatPlateau etat) {
+        return etat.voisinage.parcoursSansRepetition(etat.departLocal, etat.arriveeLocal, EtatPlateau.NB_WAGONS,
+                EtatPlateau.NB_BATEAUX);
+    }
+
+    @Benchmark
+    public List<Integer> exhaustifItineraire(EtatPlateau etat) {
+        return etat.voisinage.parcoursSansRepetition(etat.itineraireLocal);
+    }
+
+    @Benchmark
+    public List<Integer> exhaustifItinerairePondere(EtatPlateau etat) {
+        return etat.voisinage.parcoursSansRepetition(etat.itineraireLocal, true);
+    }
+
+    @Benchmark
+    public List<Integer> exhaustifItinerairePions(EtatPlateau etat) {
+        return etat.voisinage.parcoursSansRepetition(etat.itineraireLocal, EtatPlateau.NB_WAGONS,
+                EtatPlateau.NB_BATEAUX);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EtatPlateau.NB_REQUETES)
+    public void budgetPondere(EtatPlateau etat, Blackhole trou) {
+        for (int i = 0; i < EtatPlateau.NB_REQUETES; i++) {
+            trou.consume(etat.graphe.parcoursSansRepetition(etat.departs[i], etat.arrivees[i], true,
+                    Budget.noeuds(NOEUDS)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EtatPlateau.NB_REQUETES)
+    public void budgetPions(EtatPlateau etat, Blackhole trou) {
+        for (int i = 0; i < EtatPlateau.NB_REQUETES; i++) {
+            trou.consume(etat.graphe.parcoursSansRepetition(etat.departs[i], etat.arrivees[i],
+                    EtatPlateau.NB_WAGONS, EtatPlateau.NB_BATEAUX, Budget.noeuds(NOEUDS)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EtatPlateau.NB_REQUETES)
+    public void budgetItinerairePondere(EtatPlateau etat, Blackhole trou) {
+        for (int i = 0; i < EtatPlateau.NB_REQUETES; i++) {
+            trou.consume(etat.graphe.parcoursSansRepetition(itineraire(etat, i), true, Budget.noeuds(NOEUDS)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EtatPlateau.NB_REQUETES)
+    public void budgetItinerairePions(EtatPlateau etat, Blackhole trou) {
+        for (int i = 0; i < EtatPlateau.NB_REQUETES; i++) {
+            trou.consume(etat.graphe.parcoursSansRepetition(itineraire(etat, i), EtatPlateau.NB_WAGONS,
+                    EtatPlateau.NB_BATEAUX, Budget.noeuds(NOEUDS)));
+        }
+    }
+
+    private static List<Integer> itineraire(EtatPlateau etat, int i) {
+        return List.of(etat.departs[i], etat.etapes[i], etat.arrivees[i]);
+    }
+}
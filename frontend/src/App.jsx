@@ -7,6 +7,39 @@ import { Piles } from './components/Piles';
 import { Plateau } from './components/Plateau';
 import { Prompt } from './components/Prompt';
 
+/**
+ * Applique à un objet une différence calculée par le serveur (entrées remplacées, intervalles
+ * de listes remplacés, différences des objets imbriqués), et renvoie le nouvel objet
+ */
+function appliquerDifference(objet, difference) {
+  const resultat = { ...objet, ...difference.modifications };
+  for (const [cle, intervalle] of Object.entries(difference.listes ?? {})) {
+    const liste = objet[cle];
+    resultat[cle] = liste.slice(0, intervalle.debut)
+      .concat(intervalle.elements, liste.slice(intervalle.debut + intervalle.retires));
+  }
+  for (const [cle, sousDifference] of Object.entries(difference.objets ?? {})) {
+    resultat[cle] = appliquerDifference(objet[cle], sousDifference);
+  }
+  return resultat;
+}
+
+/**
+ * Applique un patch reçu du serveur (différences des joueurs modifiés et du reste de l'état)
+ * à l'état courant, et renvoie le nouvel état
+ */
+function appliquerPatch(etat, patch) {
+  const joueurs = etat.joueurs.slice();
+  for (const [index, difference] of Object.entries(patch.joueurs)) {
+    joueurs[Number(index)] = appliquerDifference(joueurs[Number(index)], difference);
+  }
+  return {
+    ...appliquerDifference(etat, patch),
+    joueurs: joueurs,
+    version: patch.version,
+  };
+}
+
 function App() {
   const [ws, setWs] = useState(undefined);
   const [data, setData] = useState(undefined);
@@ -18,11 +51,28 @@ function App() {
       if (hostname === "") {
         hostname = "localhost";
       }
-      const websocket = new WebSocket(`ws://${hostname}:3232`);
+      // la salle (et donc la partie) à rejoindre est donnée par l'adresse de la page : ?salle=...
+      // les états suivants sont reçus sous forme de patchs (delta)
+      const salle = new URLSearchParams(window.location.search).get("salle");
+      const parametres = salle ? `?salle=${encodeURIComponent(salle)}&delta` : "?delta";
+      const websocket = new WebSocket(`ws://${hostname}:3232/${parametres}`);
+      let etat = undefined;
       websocket.onmessage = function (event) {
+        if (event.data === "") {
+          return;
+        }
         const receivedData = JSON.parse(event.data);
         console.log(receivedData);
-        setData(receivedData);
+        if (receivedData.base === undefined) {
+          etat = receivedData;
+        } else if (etat !== undefined && etat.version === receivedData.base) {
+          etat = appliquerPatch(etat, receivedData);
+        } else {
+          // patch d'une version que le client n'a pas : il redemande l'état complet
+          websocket._send("__resynchronisation__");
+          return;
+        }
+        setData(etat);
       };
       websocket._send = websocket.send;
       websocket.send = function (message) {
@@ -0,0 +1,80 @@
+package fr.umontpellier.iut.graphes;
+
+import java.time.Duration;
+
+/**
+ * Budget d'une recherche de chemin : un nombre maximal de sommets développés et/ou une échéance.
+ * <p>
+ * Un budget se consomme : il est créé pour une recherche (ou une suite de recherches qui doivent tenir ensemble
+ * dans le même budget), et son échéance court à partir de sa création. Une fois épuisé, il le reste.
+ */
+public final class Budget {
+    /**
+     * L'horloge n'est consultée que tous les 2^BITS_HORLOGE sommets développés
+     */
+    private static final int BITS_HORLOGE = 10;
+
+    private final long noeudsMax;
+    /**
+     * Échéance (au sens de System.nanoTime()), Long.MAX_VALUE s'il n'y en a pas
+     */
+    private final long echeance;
+    private long noeuds;
+    private boolean epuise;
+
+    /**
+     * @param noeudsMax nombre maximal de sommets développés
+     * @param duree     durée maximale à partir de maintenant, ou null pour ne pas limiter la durée
+     */
+    public Budget(long noeudsMax, Duration duree) {
+        this.noeudsMax = noeudsMax;
+        if (duree == null) {
+            echeance = Long.MAX_VALUE;
+        } else {
+            long maintenant = System.nanoTime();
+            long nanos = duree.toNanos();
+            echeance = nanos >= Long.MAX_VALUE - maintenant ? Long.MAX_VALUE : maintenant + nanos;
+        }
+    }
+
+    public static Budget illimite() {
+        return new Budget(Long.MAX_VALUE, null);
+    }
+
+    public static Budget noeuds(long noeudsMax) {
+        return new Budget(noeudsMax, null);
+    }
+
+    public static Budget duree(Duration duree) {
+        return new Budget(Long.MAX_VALUE, duree);
+    }
+
+    /**
+     * Décompte le développement d'un sommet
+     *
+     * @return true si la recherche peut continuer, false si le budget est épuisé
+     */
+    boolean consommer() {
+        if (epuise) {
+            return false;
+        }
+        noeuds++;
+        if (noeuds > noeudsMax
+                || (echeance != Long.MAX_VALUE && (noeuds & ((1 << BITS_HORLOGE) - 1)) == 0
+                && System.nanoTime() > echeance)) {
+            epuise = true;
+        }
+        return !epuise;
+    }
+
+    public boolean estEpuise() {
+        return epuise;
+    }
+
+    /**
+     * @return le nombre de sommets développés jusqu'ici
+     */
+    public long getNoeuds() {
+        return noeuds;
+    }
+}
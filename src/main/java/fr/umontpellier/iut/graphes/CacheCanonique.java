@@ -0,0 +1,117 @@
+package fr.umontpellier.iut.graphes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache de résultats indexé par classe d'isomorphisme : un résultat calculé pour un graphe est réutilisé pour tout
+ * graphe isomorphe. Par exemple, pour évaluer des milliers de plateaux générés dont beaucoup sont identiques à
+ * une renumérotation des villes près, chaque plateau distinct n'est évalué qu'une fois.
+ * <p>
+ * Les entrées sont rangées par hachage de forme canonique (voir {@link FormeCanonique}), puis comparées par forme
+ * complète. Un graphe dont la forme canonique est incomplète n'est jamais mis en cache : son résultat est calculé
+ * à chaque fois.
+ * <p>
+ * Le cache peut être utilisé par plusieurs fils à la fois. Deux fils qui demandent en même temps le résultat de
+ * graphes isomorphes absents du cache peuvent le calculer tous les deux ; un seul résultat est conservé.
+ *
+ * @param <V> type des résultats
+ */
+public final class CacheCanonique<V> {
+    private final Map<Long, List<Entree<V>>> entrees = new ConcurrentHashMap<>();
+    private final AtomicLong nbSucces = new AtomicLong();
+    private final AtomicLong nbEchecs = new AtomicLong();
+
+    private record Entree<V>(FormeCanonique forme, V valeur) {
+    }
+
+    /**
+     * @return le résultat déjà calculé pour un graphe isomorphe à g, ou null s'il n'y en a pas
+     */
+    public V obtenir(Graphe g) {
+        FormeCanonique forme = g.getFormeCanonique();
+        Entree<V> entree = chercher(forme);
+        (entree == null ? nbEchecs : nbSucces).incrementAndGet();
+        return entree == null ? null : entree.valeur();
+    }
+
+    /**
+     * Renvoie le résultat déjà calculé pour un graphe isomorphe à g, ou le calcule et le conserve s'il n'y en a pas.
+     * Pour dédoublonner des graphes, calculerSiAbsent(g, x -> x) renvoie le premier graphe rencontré de la classe
+     * d'isomorphisme de g.
+     *
+     * @param calcul calcul du résultat (appelé sans verrou)
+     */
+    public V calculerSiAbsent(Graphe g, Function<Graphe, V> calcul) {
+        FormeCanonique forme = g.getFormeCanonique();
+        Entree<V> entree = chercher(forme);
+        if (entree != null) {
+            nbSucces.incrementAndGet();
+            return entree.valeur();
+        }
+        nbEchecs.incrementAndGet();
+        V valeur = calcul.apply(g);
+        if (!forme.estComplete()) {
+            return valeur;
+        }
+        List<Entree<V>> liste = entrees.computeIfAbsent(forme.hachage(), h -> new ArrayList<>());
+        synchronized (liste) {
+            for (Entree<V> existante : liste) {
+                if (existante.forme().equals(forme)) {
+                    return existante.valeur();
+                }
+            }
+            liste.add(new Entree<>(forme, valeur));
+        }
+        return valeur;
+    }
+
+    private Entree<V> chercher(FormeCanonique forme) {
+        if (!forme.estComplete()) {
+            return null;
+        }
+        List<Entree<V>> liste = entrees.get(forme.hachage());
+        if (liste == null) {
+            return null;
+        }
+        synchronized (liste) {
+            for (Entree<V> entree : liste) {
+                if (entree.forme().equals(forme)) {
+                    return entree;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return le nombre de classes d'isomorphisme en cache
+     */
+    public int taille() {
+        int taille = 0;
+        for (List<Entree<V>> liste : entrees.values()) {
+            synchronized (liste) {
+                taille += liste.size();
+            }
+        }
+        return taille;
+    }
+
+    /**
+     * @return le nombre de demandes satisfaites par le cache
+     */
+    public long getNbSucces() {
+        return nbSucces.get();
+    }
+
+    /**
+     * @return le nombre de demandes pour lesquelles le résultat a dû être calculé (ou était absent)
+     */
+    public long getNbEchecs() {
+        return nbEchecs.get();
+    }
+}
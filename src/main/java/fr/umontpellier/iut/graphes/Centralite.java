@@ -0,0 +1,193 @@
+package fr.umontpellier.iut.graphes;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Calcul de la centralité d'intermédiarité (betweenness) des sommets et des arêtes avec l'algorithme de Brandes.
+ * <p>
+ * Les sources sont réparties entre les tâches d'un {@link ForkJoinPool} : chaque tâche feuille possède ses propres
+ * tableaux de travail (distances, nombres de plus courts chemins, dépendances) et ses propres accumulateurs, qui
+ * sont additionnés au moment de la jointure. Aucune synchronisation n'est donc nécessaire pendant le calcul.
+ * <p>
+ * Dans la version pondérée, le poids d'une arête est la longueur de sa route (prérequis : longueurs > 0).
+ * Les arêtes parallèles comptent comme des chemins distincts.
+ */
+final class Centralite {
+
+    /**
+     * Centralités indexées comme dans le {@link GrapheCompact} : sommets[u] pour le sommet d'indice u,
+     * aretes[e] pour l'arête de numéro e
+     */
+    record Resultat(double[] sommets, double[] aretes) {
+    }
+
+    private Centralite() {
+    }
+
+    static Resultat calculer(GrapheCompact g, boolean pondere, ForkJoinPool pool) {
+        int n = g.nbSommets();
+        if (n == 0) {
+            return new Resultat(new double[0], new double[g.nbAretes()]);
+        }
+        int grain = Math.max(1, n / (4 * pool.getParallelism()));
+        Resultat brut = pool.invoke(new Tache(g, pondere, 0, n, grain));
+        // le graphe est non orienté : chaque paire {s,t} a été comptée deux fois
+        for (int u = 0; u < n; u++) {
+            brut.sommets[u] /= 2;
+        }
+        for (int e = 0; e < brut.aretes.length; e++) {
+            brut.aretes[e] /= 2;
+        }
+        return brut;
+    }
+
+    /**
+     * Tâche traitant les sources d'indices debut .. fin-1
+     */
+    @SuppressWarnings("serial")
+    private static final class Tache extends RecursiveTask<Resultat> {
+        private final GrapheCompact g;
+        private final boolean pondere;
+        private final int debut;
+        private final int fin;
+        private final int grain;
+
+        Tache(GrapheCompact g, boolean pondere, int debut, int fin, int grain) {
+            this.g = g;
+            this.pondere = pondere;
+            this.debut = debut;
+            this.fin = fin;
+            this.grain = grain;
+        }
+
+        @Override
+        protected Resultat compute() {
+            if (fin - debut <= grain) {
+                Espace espace = new Espace(g, pondere);
+                for (int s = debut; s < fin; s++) {
+                    espace.traiterSource(s);
+                }
+                return new Resultat(espace.centraliteSommets, espace.centraliteAretes);
+            }
+            int milieu = (debut + fin) >>> 1;
+            Tache gauche = new Tache(g, pondere, debut, milieu, grain);
+            gauche.fork();
+            Resultat droite = new Tache(g, pondere, milieu, fin, grain).compute();
+            Resultat resultat = gauche.join();
+            for (int u = 0; u < resultat.sommets.length; u++) {
+                resultat.sommets[u] += droite.sommets[u];
+            }
+            for (int e = 0; e < resultat.aretes.length; e++) {
+                resultat.aretes[e] += droite.aretes[e];
+            }
+            return resultat;
+        }
+    }
+
+    /**
+     * Tableaux de travail propres à une tâche, réutilisés d'une source à l'autre
+     */
+    private static final class Espace {
+        private final GrapheCompact g;
+        private final boolean pondere;
+        private final long[] distances;
+        private final double[] nbChemins;
+        private final double[] dependances;
+        /**
+         * Sommets dans l'ordre où leur distance est définitive (ordre croissant des distances)
+         */
+        private final int[] ordre;
+        private final TasBinaire tas;
+        private final double[] centraliteSommets;
+        private final double[] centraliteAretes;
+
+        Espace(GrapheCompact g, boolean pondere) {
+            this.g = g;
+            this.pondere = pondere;
+            int n = g.nbSommets();
+            distances = new long[n];
+            nbChemins = new double[n];
+            dependances = new double[n];
+            ordre = new int[n];
+            tas = pondere ? new TasBinaire(n) : null;
+            centraliteSommets = new double[n];
+            centraliteAretes = new double[g.nbAretes()];
+        }
+
+        private long poids(int e) {
+            return pondere ? g.longueur(e) : 1;
+        }
+
+        void traiterSource(int s) {
+            Arrays.fill(distances, -1);
+            Arrays.fill(nbChemins, 0);
+            Arrays.fill(dependances, 0);
+            int nbVisites = pondere ? dijkstra(s) : largeur(s);
+
+            // accumulation des dépendances dans l'ordre décroissant des distances
+            for (int i = nbVisites - 1; i >= 0; i--) {
+                int w = ordre[i];
+                for (int k = g.debut(w); k < g.fin(w); k++) {
+                    int v = g.voisin(k);
+                    int e = g.areteIncidente(k);
+                    if (distances[v] >= 0 && distances[v] + poids(e) == distances[w]) {
+                        double c = nbChemins[v] / nbChemins[w] * (1 + dependances[w]);
+                        dependances[v] += c;
+                        centraliteAretes[e] += c;
+                    }
+                }
+                if (w != s) {
+                    centraliteSommets[w] += dependances[w];
+                }
+            }
+        }
+
+        private int largeur(int s) {
+            int tete = 0;
+            int queue = 0;
+            distances[s] = 0;
+            nbChemins[s] = 1;
+            ordre[queue++] = s;
+            while (tete < queue) {
+                int u = ordre[tete++];
+                for (int k = g.debut(u); k < g.fin(u); k++) {
+                    int v = g.voisin(k);
+                    if (distances[v] < 0) {
+                        distances[v] = distances[u] + 1;
+                        ordre[queue++] = v;
+                    }
+                    if (distances[v] == distances[u] + 1) {
+                        nbChemins[v] += nbChemins[u];
+                    }
+                }
+            }
+            return queue;
+        }
+
+        private int dijkstra(int s) {
+            int nbVisites = 0;
+            tas.vider();
+            distances[s] = 0;
+            nbChemins[s] = 1;
+            tas.inserer(s, 0);
+            while (!tas.estVide()) {
+                int u = tas.extraireMin();
+                ordre[nbVisites++] = u;
+                for (int k = g.debut(u); k < g.fin(u); k++) {
+                    int v = g.voisin(k);
+                    long d = distances[u] + g.longueur(g.areteIncidente(k));
+                    if (distances[v] < 0 || d < distances[v]) {
+                        distances[v] = d;
+                        nbChemins[v] = nbChemins[u];
+                        tas.inserer(v, d);
+                    } else if (d == distances[v]) {
+                        nbChemins[v] += nbChemins[u];
+                    }
+                }
+            }
+            return nbVisites;
+        }
+    }
+}
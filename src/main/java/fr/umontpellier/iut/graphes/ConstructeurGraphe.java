@@ -0,0 +1,286 @@
+package fr.umontpellier.iut.graphes;
+
+import fr.umontpellier.iut.rails.Route;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Construction en masse d'un {@link Graphe} à partir d'un grand nombre d'arêtes.
+ * <p>
+ * Les arêtes sont accumulées dans des tableaux d'entiers (et un tableau de routes), sans créer d'objet par arête
+ * ni faire de recherche dans des ensembles. Au moment de la construction :
+ * <ol>
+ *     <li>les identifiants des sommets sont renumérotés de 0 à n-1 par ordre croissant ;</li>
+ *     <li>les arêtes sont triées par (plus petite extrémité, plus grande extrémité) avec deux tris par
+ *     dénombrement successifs, en O(n + m) ;</li>
+ *     <li>les doublons (arêtes égales au sens de {@link Arete#equals}) sont éliminés en une seule passe, puisque
+ *     des arêtes égales sont consécutives après le tri ;</li>
+ *     <li>les tableaux de la représentation compacte sont alloués directement à leur taille exacte.</li>
+ * </ol>
+ * Le graphe obtenu ne construit ses ensembles d'arêtes incidentes que si une méthode en a besoin.
+ * <p>
+ * Pour un graphe plus grand que le tas de la JVM, les arêtes ajoutées peuvent être stockées hors du tas (voir
+ * {@link #ConstructeurGraphe(int, boolean)}), et {@link #construireHorsTas()} alloue hors du tas tous les tableaux
+ * proportionnels au nombre d'arêtes, y compris ceux des étapes intermédiaires : seuls des tableaux proportionnels
+ * au nombre de sommets (et les routes éventuelles) passent alors par le tas.
+ */
+public final class ConstructeurGraphe {
+    private TableauEntiers extremites1;
+    private TableauEntiers extremites2;
+    /**
+     * Route de chaque arête, alloué seulement à l'ajout de la première arête qui a une route
+     */
+    private Route[] routes;
+    private int nbAretes;
+    /**
+     * Sommets ajoutés explicitement (éventuellement isolés)
+     */
+    private int[] sommets;
+    private int nbSommets;
+
+    public ConstructeurGraphe() {
+        this(16);
+    }
+
+    /**
+     * @param capaciteAretes nombre d'arêtes attendues (les tableaux s'agrandissent si nécessaire)
+     */
+    public ConstructeurGraphe(int capaciteAretes) {
+        this(capaciteAretes, false);
+    }
+
+    /**
+     * @param capaciteAretes nombre d'arêtes attendues (les tableaux s'agrandissent si nécessaire, en étant recopiés :
+     *                       pour un très grand graphe, mieux vaut donner une capacité suffisante)
+     * @param horsTas        true pour stocker les extrémités des arêtes ajoutées hors du tas de la JVM (voir
+     *                       {@link TableauEntiers#horsTas})
+     */
+    public ConstructeurGraphe(int capaciteAretes, boolean horsTas) {
+        int capacite = Math.max(1, capaciteAretes);
+        extremites1 = TableauEntiers.allouer(capacite, horsTas);
+        extremites2 = TableauEntiers.allouer(capacite, horsTas);
+        sommets = new int[16];
+    }
+
+    /**
+     * Ajoute un sommet (sans effet s'il est déjà présent, ou s'il est l'extrémité d'une arête ajoutée)
+     */
+    public void ajouterSommet(int v) {
+        if (nbSommets == sommets.length) {
+            sommets = Arrays.copyOf(sommets, 2 * nbSommets);
+        }
+        sommets[nbSommets++] = v;
+    }
+
+    public void ajouterArete(int i, int j) {
+        ajouterArete(i, j, null);
+    }
+
+    /**
+     * Ajoute l'arête {i,j} portant la route donnée (qui peut être null). Comme dans {@link Graphe#ajouterArete},
+     * une arête égale à une arête déjà ajoutée est ignorée.
+     */
+    public void ajouterArete(int i, int j, Route route) {
+        if (nbAretes == extremites1.longueur()) {
+            extremites1 = extremites1.copie(2 * nbAretes);
+            extremites2 = extremites2.copie(2 * nbAretes);
+            if (routes != null) {
+                routes = Arrays.copyOf(routes, 2 * nbAretes);
+            }
+        }
+        if (route != null && routes == null) {
+            routes = new Route[extremites1.longueur()];
+        }
+        extremites1.modifier(nbAretes, i);
+        extremites2.modifier(nbAretes, j);
+        if (routes != null) {
+            routes[nbAretes] = route;
+        }
+        nbAretes++;
+    }
+
+    public void ajouterArete(Arete a) {
+        ajouterArete(a.i(), a.j(), a.route());
+    }
+
+    public void ajouterAretes(Collection<Arete> aretes) {
+        for (Arete a : aretes) {
+            ajouterArete(a);
+        }
+    }
+
+    /**
+     * @return le graphe formé des sommets et des arêtes ajoutés
+     */
+    public Graphe construire() {
+        return construire(new HashMap<>());
+    }
+
+    /**
+     * @param proprietaires propriétaire de chaque route déjà capturée (voir {@link Graphe#definirProprietaire}),
+     *                      renseigné dans la représentation compacte pendant sa construction
+     * @return le graphe formé des sommets et des arêtes ajoutés
+     */
+    public Graphe construire(Map<Route, Integer> proprietaires) {
+        return new Graphe(construireCompact(proprietaires, false), proprietaires);
+    }
+
+    /**
+     * Construit le graphe en stockant sa représentation compacte hors du tas de la JVM (dans des tampons directs) :
+     * pour un très grand graphe, le ramasse-miettes n'a alors presque rien à parcourir. Les tableaux intermédiaires
+     * de la construction sont eux aussi alloués hors du tas, et abandonnés dès qu'ils ne servent plus. Les
+     * algorithmes qui lisent la représentation compacte (parcours, composantes connexes, centralités, flots...)
+     * s'exécutent sans changement ; une modification du graphe le ramène en revanche dans le tas.
+     *
+     * @return le graphe formé des sommets et des arêtes ajoutés
+     */
+    public Graphe construireHorsTas() {
+        return new Graphe(construireCompact(new HashMap<>(), true));
+    }
+
+    GrapheCompact construireCompact(Map<Route, Integer> proprietaires) {
+        return construireCompact(proprietaires, false);
+    }
+
+    /**
+     * @param horsTas true pour allouer hors du tas les tableaux proportionnels au nombre d'arêtes (ceux des étapes
+     *                intermédiaires comme ceux de la représentation compacte)
+     */
+    GrapheCompact construireCompact(Map<Route, Integer> proprietaires, boolean horsTas) {
+        int m = nbAretes;
+
+        // renumérotation des sommets par identifiant croissant
+        IndexSommets rencontres = new IndexSommets(nbSommets + Math.min(m, 1 << 20));
+        for (int k = 0; k < nbSommets; k++) {
+            rencontres.ajouter(sommets[k]);
+        }
+        for (int e = 0; e < m; e++) {
+            rencontres.ajouter(extremites1.valeur(e));
+            rencontres.ajouter(extremites2.valeur(e));
+        }
+        int n = rencontres.taille();
+        int[] identifiants = new int[n];
+        for (int u = 0; u < n; u++) {
+            identifiants[u] = rencontres.identifiant(u);
+        }
+        Arrays.sort(identifiants);
+        IndexSommets index = new IndexSommets(n);
+        for (int u = 0; u < n; u++) {
+            index.ajouter(identifiants[u]);
+        }
+        TableauEntiers a = TableauEntiers.allouer(m, horsTas);
+        TableauEntiers b = TableauEntiers.allouer(m, horsTas);
+        for (int e = 0; e < m; e++) {
+            int x = index.indice(extremites1.valeur(e));
+            int y = index.indice(extremites2.valeur(e));
+            a.modifier(e, Math.min(x, y));
+            b.modifier(e, Math.max(x, y));
+        }
+
+        // tri (stable) par b, puis par a : les arêtes sont alors rangées par (a, b)
+        TableauEntiers ordre = trierParDenombrement(null, b, n, m, horsTas);
+        ordre = trierParDenombrement(ordre, a, n, m, horsTas);
+
+        // élimination des doublons : des arêtes égales ont les mêmes (a, b) et sont donc voisines dans l'ordre. Les
+        // arêtes gardées sont rangées au début de ordre (la case écrite n'est jamais après la case lue).
+        TableauEntiers gardees = ordre;
+        int nbGardees = 0;
+        int debutGroupe = 0;
+        for (int r = 0; r < m; r++) {
+            int e = ordre.valeur(r);
+            if (nbGardees > 0) {
+                int precedente = gardees.valeur(nbGardees - 1);
+                if (a.valeur(e) != a.valeur(precedente) || b.valeur(e) != b.valeur(precedente)) {
+                    debutGroupe = nbGardees;
+                }
+            }
+            boolean doublon = false;
+            for (int q = debutGroupe; q < nbGardees && !doublon; q++) {
+                doublon = Objects.equals(route(gardees.valeur(q)), route(e));
+            }
+            if (!doublon) {
+                gardees.modifier(nbGardees++, e);
+            }
+        }
+
+        // représentation compacte, tableaux alloués à leur taille exacte
+        int[] degres = new int[n + 1];
+        for (int r = 0; r < nbGardees; r++) {
+            int e = gardees.valeur(r);
+            degres[a.valeur(e) + 1]++;
+            if (a.valeur(e) != b.valeur(e)) {
+                degres[b.valeur(e) + 1]++;
+            }
+        }
+        for (int u = 0; u < n; u++) {
+            degres[u + 1] += degres[u];
+        }
+        TableauEntiers debuts = TableauEntiers.allouer(n + 1, horsTas);
+        for (int u = 0; u <= n; u++) {
+            debuts.modifier(u, degres[u]);
+        }
+        // degres sert maintenant de prochaine case libre de chaque sommet
+        TableauEntiers voisins = TableauEntiers.allouer(degres[n], horsTas);
+        TableauEntiers aretesIncidentes = TableauEntiers.allouer(degres[n], horsTas);
+        TableauEntiers nouvellesExtremites1 = TableauEntiers.allouer(nbGardees, horsTas);
+        TableauEntiers nouvellesExtremites2 = TableauEntiers.allouer(nbGardees, horsTas);
+        Route[] nouvellesRoutes = routes == null ? null : new Route[nbGardees];
+        for (int f = 0; f < nbGardees; f++) {
+            int e = gardees.valeur(f);
+            int x = a.valeur(e);
+            int y = b.valeur(e);
+            int k = degres[x]++;
+            voisins.modifier(k, y);
+            aretesIncidentes.modifier(k, f);
+            if (x != y) {
+                k = degres[y]++;
+                voisins.modifier(k, x);
+                aretesIncidentes.modifier(k, f);
+            }
+            // l'arête garde le sens dans lequel elle a été ajoutée
+            int extremite1 = index.indice(extremites1.valeur(e));
+            nouvellesExtremites1.modifier(f, extremite1);
+            nouvellesExtremites2.modifier(f, extremite1 == x ? y : x);
+            if (nouvellesRoutes != null) {
+                nouvellesRoutes[f] = routes[e];
+            }
+        }
+        if (horsTas) {
+            return new GrapheCompact(index, debuts, voisins, aretesIncidentes, nouvellesExtremites1,
+                    nouvellesExtremites2, nouvellesRoutes, proprietaires);
+        }
+        return new GrapheCompact(index, debuts.tableau(), voisins.tableau(), aretesIncidentes.tableau(),
+                nouvellesExtremites1.tableau(), nouvellesExtremites2.tableau(), nouvellesRoutes, proprietaires);
+    }
+
+    private Route route(int e) {
+        return routes == null ? null : routes[e];
+    }
+
+    /**
+     * Tri par dénombrement (stable) des m éléments de ordre selon leur clé cles[e], comprise entre 0 et n-1
+     *
+     * @param ordre les éléments à trier, ou null pour trier 0 .. m-1
+     * @return un nouveau tableau (stocké hors du tas si horsTas) contenant les éléments de ordre triés
+     */
+    private static TableauEntiers trierParDenombrement(TableauEntiers ordre, TableauEntiers cles, int n, int m,
+                                                       boolean horsTas) {
+        int[] positions = new int[n + 1];
+        for (int r = 0; r < m; r++) {
+            positions[cles.valeur(ordre == null ? r : ordre.valeur(r)) + 1]++;
+        }
+        for (int c = 0; c < n; c++) {
+            positions[c + 1] += positions[c];
+        }
+        TableauEntiers trie = TableauEntiers.allouer(m, horsTas);
+        for (int r = 0; r < m; r++) {
+            int e = ordre == null ? r : ordre.valeur(r);
+            trie.modifier(positions[cles.valeur(e)]++, e);
+        }
+        return trie;
+    }
+}
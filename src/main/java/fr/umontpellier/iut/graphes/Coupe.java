@@ -0,0 +1,14 @@
+package fr.umontpellier.iut.graphes;
+
+import java.util.Set;
+
+/**
+ * Coupe d'un graphe : une partition des sommets en deux parties non vides.
+ *
+ * @param valeur  le nombre d'arêtes qui traversent la coupe (c'est-à-dire le nombre de routes
+ *                qu'il suffit de retirer pour séparer les deux parties)
+ * @param partie  les sommets de l'une des deux parties (l'autre partie est le complémentaire)
+ * @param aretes  les arêtes qui traversent la coupe
+ */
+public record Coupe(int valeur, Set<Integer> partie, Set<Arete> aretes) {
+}
@@ -0,0 +1,320 @@
+package fr.umontpellier.iut.graphes;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Algorithmes de coupe minimale globale d'un multigraphe (chaque arête compte pour 1, les arêtes parallèles
+ * s'additionnent).
+ * <ul>
+ *     <li>Stoer-Wagner : déterministe, en O(n³) sur une matrice d'adjacence d'entiers, pour les petits graphes ;</li>
+ *     <li>Karger-Stein : contractions aléatoires récursives sur des tableaux d'arêtes, probabiliste, dont les
+ *     essais indépendants sont exécutés en parallèle, pour les grands graphes.</li>
+ * </ul>
+ * Les deux algorithmes supposent le graphe connexe (le cas non connexe est traité par {@link #calculer}).
+ */
+final class CoupeMinimale {
+    /**
+     * Nombre de sommets au-delà duquel on préfère Karger-Stein à Stoer-Wagner
+     */
+    static final int SEUIL_STOER_WAGNER = 600;
+    /**
+     * En dessous de ce nombre de sommets, Karger-Stein termine avec Stoer-Wagner
+     */
+    private static final int TAILLE_BASE_KARGER_STEIN = 6;
+
+    private CoupeMinimale() {
+    }
+
+    /**
+     * Calcule une coupe minimale avec l'algorithme le plus adapté à la taille du graphe.
+     *
+     * @return la coupe, ou null si le graphe a moins de 2 sommets
+     */
+    static Coupe calculer(GrapheCompact g) {
+        if (g.nbSommets() <= SEUIL_STOER_WAGNER) {
+            return stoerWagner(g);
+        }
+        int log = 32 - Integer.numberOfLeadingZeros(g.nbSommets());
+        return kargerStein(g, log * log, System.nanoTime(), ForkJoinPool.commonPool());
+    }
+
+    static Coupe stoerWagner(GrapheCompact g) {
+        int n = g.nbSommets();
+        if (n < 2) {
+            return null;
+        }
+        int[] composante = composanteDe0(g);
+        if (composante != null) {
+            return construireCoupe(g, composante);
+        }
+        int[] eu = new int[g.nbAretes()];
+        int[] ev = new int[g.nbAretes()];
+        remplirExtremites(g, eu, ev);
+        boolean[] cote = stoerWagner(n, eu, ev, eu.length);
+        return construireCoupe(g, indicesMarques(cote));
+    }
+
+    static Coupe kargerStein(GrapheCompact g, int nbEssais, long graine, ForkJoinPool pool) {
+        int n = g.nbSommets();
+        if (n < 2) {
+            return null;
+        }
+        int[] composante = composanteDe0(g);
+        if (composante != null) {
+            return construireCoupe(g, composante);
+        }
+        int[] eu = new int[g.nbAretes()];
+        int[] ev = new int[g.nbAretes()];
+        remplirExtremites(g, eu, ev);
+        Essai meilleur = pool.submit(() -> IntStream.range(0, Math.max(1, nbEssais))
+                .parallel()
+                .mapToObj(i -> kargerStein(n, eu, ev, eu.length,
+                        new SplittableRandom(graine + 0x9E3779B97F4A7C15L * i)))
+                .min(Comparator.comparingInt(Essai::valeur))
+                .orElseThrow()).join();
+        return construireCoupe(g, indicesMarques(meilleur.cote()));
+    }
+
+    /**
+     * Résultat d'un essai : valeur de la coupe et côté de chaque sommet du multigraphe traité
+     */
+    private record Essai(int valeur, boolean[] cote) {
+    }
+
+    /**
+     * Karger-Stein sur un multigraphe à n sommets donné par ses m premières arêtes (eu[i], ev[i]).
+     */
+    private static Essai kargerStein(int n, int[] eu, int[] ev, int m, SplittableRandom aleatoire) {
+        if (n <= TAILLE_BASE_KARGER_STEIN) {
+            boolean[] cote = stoerWagner(n, eu, ev, m);
+            int valeur = 0;
+            for (int i = 0; i < m; i++) {
+                if (cote[eu[i]] != cote[ev[i]]) {
+                    valeur++;
+                }
+            }
+            return new Essai(valeur, cote);
+        }
+        int cible = (int) Math.ceil(1 + n / Math.sqrt(2));
+        Essai meilleur = null;
+        for (int r = 0; r < 2; r++) {
+            Contraction c = contracter(n, eu, ev, m, cible, aleatoire);
+            Essai essai = kargerStein(c.n, c.eu, c.ev, c.m, aleatoire);
+            if (meilleur == null || essai.valeur < meilleur.valeur) {
+                // on ramène la coupe sur les sommets de ce niveau
+                boolean[] cote = new boolean[n];
+                for (int u = 0; u < n; u++) {
+                    cote[u] = essai.cote[c.renumerotation[u]];
+                }
+                meilleur = new Essai(essai.valeur, cote);
+            }
+        }
+        return meilleur;
+    }
+
+    /**
+     * Résultat d'une contraction : le nouveau multigraphe et la correspondance ancien sommet -> nouveau sommet
+     */
+    record Contraction(int n, int[] eu, int[] ev, int m, int[] renumerotation) {
+    }
+
+    /**
+     * Contraction en lot : fusionne des arêtes tirées au hasard jusqu'à ce qu'il ne reste que cible sommets,
+     * puis renumérote les sommets et élimine les boucles, en une seule passe sur les tableaux d'arêtes.
+     */
+    static Contraction contracter(int n, int[] eu, int[] ev, int m, int cible, SplittableRandom aleatoire) {
+        int[] parent = new int[n];
+        for (int u = 0; u < n; u++) {
+            parent[u] = u;
+        }
+        int[] ordre = new int[m];
+        for (int i = 0; i < m; i++) {
+            ordre[i] = i;
+        }
+        int nbComposantes = n;
+        for (int i = 0; i < m && nbComposantes > cible; i++) {
+            // mélange de Fisher-Yates effectué au fur et à mesure
+            int j = i + aleatoire.nextInt(m - i);
+            int tmp = ordre[i];
+            ordre[i] = ordre[j];
+            ordre[j] = tmp;
+            int ru = trouver(parent, eu[ordre[i]]);
+            int rv = trouver(parent, ev[ordre[i]]);
+            if (ru != rv) {
+                parent[ru] = rv;
+                nbComposantes--;
+            }
+        }
+        return renumeroter(n, eu, ev, m, parent, nbComposantes);
+    }
+
+    /**
+     * Construit le multigraphe quotient défini par la forêt union-find parent (boucles éliminées)
+     */
+    static Contraction renumeroter(int n, int[] eu, int[] ev, int m, int[] parent, int nbComposantes) {
+        int[] renumerotation = new int[n];
+        Arrays.fill(renumerotation, -1);
+        int suivant = 0;
+        for (int u = 0; u < n; u++) {
+            int r = trouver(parent, u);
+            if (renumerotation[r] < 0) {
+                renumerotation[r] = suivant++;
+            }
+            renumerotation[u] = renumerotation[r];
+        }
+        int[] nu = new int[m];
+        int[] nv = new int[m];
+        int nm = 0;
+        for (int i = 0; i < m; i++) {
+            int a = renumerotation[eu[i]];
+            int b = renumerotation[ev[i]];
+            if (a != b) {
+                nu[nm] = a;
+                nv[nm] = b;
+                nm++;
+            }
+        }
+        return new Contraction(nbComposantes, nu, nv, nm, renumerotation);
+    }
+
+    static int trouver(int[] parent, int u) {
+        while (parent[u] != u) {
+            parent[u] = parent[parent[u]];
+            u = parent[u];
+        }
+        return u;
+    }
+
+    /**
+     * Stoer-Wagner sur une matrice d'adjacence n x n (à plat) construite à partir des arêtes.
+     *
+     * @return pour chaque sommet, true s'il est du côté de la coupe minimale trouvée
+     */
+    private static boolean[] stoerWagner(int n, int[] eu, int[] ev, int m) {
+        int[] poids = new int[n * n];
+        for (int i = 0; i < m; i++) {
+            if (eu[i] != ev[i]) {
+                poids[eu[i] * n + ev[i]]++;
+                poids[ev[i] * n + eu[i]]++;
+            }
+        }
+        // chaque sommet fusionné est une liste chaînée de sommets d'origine
+        int[] suivant = new int[n];
+        int[] dernier = new int[n];
+        for (int u = 0; u < n; u++) {
+            suivant[u] = -1;
+            dernier[u] = u;
+        }
+        boolean[] fusionne = new boolean[n];
+        long[] attache = new long[n];
+        boolean[] dansA = new boolean[n];
+        long meilleure = Long.MAX_VALUE;
+        boolean[] meilleurCote = new boolean[n];
+
+        for (int phase = 0; phase < n - 1; phase++) {
+            Arrays.fill(attache, 0);
+            Arrays.fill(dansA, false);
+            int precedent = -1;
+            int nbRestants = n - phase;
+            for (int i = 0; i < nbRestants; i++) {
+                int choisi = -1;
+                for (int u = 0; u < n; u++) {
+                    if (!fusionne[u] && !dansA[u] && (choisi < 0 || attache[u] > attache[choisi])) {
+                        choisi = u;
+                    }
+                }
+                dansA[choisi] = true;
+                if (i == nbRestants - 1) {
+                    // coupe de la phase : le dernier sommet ajouté contre tous les autres
+                    if (attache[choisi] < meilleure) {
+                        meilleure = attache[choisi];
+                        Arrays.fill(meilleurCote, false);
+                        for (int x = choisi; x >= 0; x = suivant[x]) {
+                            meilleurCote[x] = true;
+                        }
+                    }
+                    // fusion de choisi dans precedent
+                    for (int x = 0; x < n; x++) {
+                        poids[precedent * n + x] += poids[choisi * n + x];
+                        poids[x * n + precedent] = poids[precedent * n + x];
+                    }
+                    poids[precedent * n + precedent] = 0;
+                    fusionne[choisi] = true;
+                    suivant[dernier[precedent]] = choisi;
+                    dernier[precedent] = dernier[choisi];
+                } else {
+                    for (int x = 0; x < n; x++) {
+                        attache[x] += poids[choisi * n + x];
+                    }
+                    precedent = choisi;
+                }
+            }
+        }
+        return meilleurCote;
+    }
+
+    private static void remplirExtremites(GrapheCompact g, int[] eu, int[] ev) {
+        for (int u = 0; u < g.nbSommets(); u++) {
+            for (int k = g.debut(u); k < g.fin(u); k++) {
+                // chaque arête est vue depuis ses deux extrémités (une seule fois pour une boucle)
+                eu[g.areteIncidente(k)] = u;
+            }
+        }
+        for (int u = 0; u < g.nbSommets(); u++) {
+            for (int k = g.debut(u); k < g.fin(u); k++) {
+                int e = g.areteIncidente(k);
+                if (eu[e] == u) {
+                    ev[e] = g.voisin(k);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return les indices des sommets de la composante connexe du sommet 0 si le graphe n'est pas connexe,
+     * null si le graphe est connexe
+     */
+    private static int[] composanteDe0(GrapheCompact g) {
+        int n = g.nbSommets();
+        int[] file = new int[n];
+        int nb = g.parcoursLargeur(0, new boolean[n], file);
+        return nb == n ? null : Arrays.copyOf(file, nb);
+    }
+
+    private static int[] indicesMarques(boolean[] marques) {
+        int nb = 0;
+        for (boolean b : marques) {
+            if (b) {
+                nb++;
+            }
+        }
+        int[] indices = new int[nb];
+        nb = 0;
+        for (int u = 0; u < marques.length; u++) {
+            if (marques[u]) {
+                indices[nb++] = u;
+            }
+        }
+        return indices;
+    }
+
+    private static Coupe construireCoupe(GrapheCompact g, int[] cote) {
+        boolean[] dedans = new boolean[g.nbSommets()];
+        Set<Integer> partie = new HashSet<>();
+        for (int u : cote) {
+            dedans[u] = true;
+            partie.add(g.sommet(u));
+        }
+        Set<Arete> aretes = new HashSet<>();
+        for (int u : cote) {
+            for (int k = g.debut(u); k < g.fin(u); k++) {
+                if (!dedans[g.voisin(k)]) {
+                    aretes.add(g.arete(g.areteIncidente(k)));
+                }
+            }
+        }
+        return new Coupe(aretes.size(), partie, aretes);
+    }
+}
@@ -0,0 +1,318 @@
+package fr.umontpellier.iut.graphes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Enregistrement d'un {@link Graphe} dans un fichier binaire, et chargement d'un tel fichier sans recopie.
+ * <p>
+ * Le fichier contient la représentation compacte du graphe ({@link GrapheCompact}), uniquement sous forme
+ * d'entiers de 32 bits petit-boutistes :
+ * <ol>
+ *     <li>l'en-tête : {@link #MAGIE}, {@link #VERSION}, n (nombre de sommets), m (nombre d'arêtes), c (nombre de
+ *     cases du tableau des voisins) et les drapeaux ({@link #AVEC_ATTRIBUTS}) ;</li>
+ *     <li>les identifiants des sommets (n entiers, croissants), puis les débuts des listes de voisins (n+1
+ *     entiers) ;</li>
+ *     <li>les voisins (c entiers), puis les numéros des arêtes incidentes (c entiers) ;</li>
+ *     <li>les deux extrémités de chaque arête (2 fois m entiers) ;</li>
+ *     <li>si le drapeau {@link #AVEC_ATTRIBUTS} est présent, les colonnes longueurs, coûts en wagons, coûts en
+ *     bateaux, couleurs et propriétaires (5 fois m entiers).</li>
+ * </ol>
+ * Au chargement, chaque partie du fichier est projetée en mémoire ({@link FileChannel#map}) et les algorithmes
+ * lisent directement ces projections : c'est le système qui charge les pages du fichier à la demande. Une partie
+ * de plus de 2 Go est projetée en plusieurs morceaux. Les routes elles-mêmes ne sont pas enregistrées (seuls leurs
+ * attributs le sont) et le graphe chargé est figé.
+ */
+public final class FichierGraphe {
+    /**
+     * Premier entier du fichier (les octets "GRPH")
+     */
+    static final int MAGIE = 0x48505247;
+    static final int VERSION = 1;
+    /**
+     * Drapeau indiquant que le fichier contient les colonnes d'attributs des arêtes
+     */
+    static final int AVEC_ATTRIBUTS = 1;
+    /**
+     * Taille de l'en-tête, en entiers
+     */
+    private static final int TAILLE_ENTETE = 6;
+    private static final int NB_COLONNES = 5;
+
+    private FichierGraphe() {
+    }
+
+    /**
+     * Enregistre le graphe dans le fichier (qui est créé ou remplacé)
+     */
+    public static void ecrire(Graphe graphe, Path fichier) throws IOException {
+        ecrire(graphe.getCompact(), fichier);
+    }
+
+    static void ecrire(GrapheCompact g, Path fichier) throws IOException {
+        int n = g.nbSommets();
+        int m = g.nbAretes();
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Sortie sortie = new Sortie(canal);
+            sortie.ecrire(MAGIE);
+            sortie.ecrire(VERSION);
+            sortie.ecrire(n);
+            sortie.ecrire(m);
+            sortie.ecrire(g.nbCases());
+            sortie.ecrire(g.aDesAttributs() ? AVEC_ATTRIBUTS : 0);
+            for (int u = 0; u < n; u++) {
+                sortie.ecrire(g.sommet(u));
+            }
+            for (int u = 0; u < n; u++) {
+                sortie.ecrire(g.debut(u));
+            }
+            sortie.ecrire(g.nbCases());
+            for (int k = 0; k < g.nbCases(); k++) {
+                sortie.ecrire(g.voisin(k));
+            }
+            for (int k = 0; k < g.nbCases(); k++) {
+                sortie.ecrire(g.areteIncidente(k));
+            }
+            for (int e = 0; e < m; e++) {
+                sortie.ecrire(g.extremite1(e));
+            }
+            for (int e = 0; e < m; e++) {
+                sortie.ecrire(g.extremite2(e));
+            }
+            if (g.aDesAttributs()) {
+                for (int e = 0; e < m; e++) {
+                    sortie.ecrire(g.longueur(e));
+                }
+                for (int e = 0; e < m; e++) {
+                    sortie.ecrire(g.coutWagon(e));
+                }
+                for (int e = 0; e < m; e++) {
+                    sortie.ecrire(g.coutBateau(e));
+                }
+                for (int e = 0; e < m; e++) {
+                    sortie.ecrire(g.couleur(e));
+                }
+                for (int e = 0; e < m; e++) {
+                    sortie.ecrire(g.proprietaire(e));
+                }
+            }
+            sortie.vider();
+        }
+    }
+
+    /**
+     * Charge un graphe enregistré par {@link #ecrire}. Le fichier est projeté en mémoire et n'est pas recopié :
+     * il ne doit pas être modifié tant que le graphe est utilisé.
+     *
+     * @return un graphe figé, dont les arêtes n'ont pas de route
+     * @throws IOException si le fichier ne peut pas être lu ou n'est pas un fichier de graphe valide
+     */
+    public static Graphe charger(Path fichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            ByteBuffer entete = ByteBuffer.allocate(4 * TAILLE_ENTETE).order(ByteOrder.LITTLE_ENDIAN);
+            while (entete.hasRemaining()) {
+                if (canal.read(entete) < 0) {
+                    break;
+                }
+            }
+            if (entete.hasRemaining() || entete.getInt(0) != MAGIE) {
+                throw new IOException(fichier + " n'est pas un fichier de graphe");
+            }
+            if (entete.getInt(4) != VERSION) {
+                throw new IOException(fichier + " : version " + entete.getInt(4) + " non prise en charge");
+            }
+            int n = entete.getInt(8);
+            int m = entete.getInt(12);
+            int c = entete.getInt(16);
+            boolean avecAttributs = (entete.getInt(20) & AVEC_ATTRIBUTS) != 0;
+            int colonnesAretes = avecAttributs ? 2 + NB_COLONNES : 2;
+            long taille = 4L * (TAILLE_ENTETE + n + (n + 1L) + 2L * c + colonnesAretes * (long) m);
+            if (n < 0 || m < 0 || c < 0 || canal.size() != taille) {
+                throw new IOException(fichier + " : taille incohérente avec l'en-tête");
+            }
+
+            long position = 4L * TAILLE_ENTETE;
+            TableauEntiers identifiants = projeter(canal, position, n);
+            position += 4L * n;
+            TableauEntiers debuts = projeter(canal, position, n + 1);
+            position += 4L * (n + 1);
+            TableauEntiers voisins = projeter(canal, position, c);
+            position += 4L * c;
+            TableauEntiers aretesIncidentes = projeter(canal, position, c);
+            position += 4L * c;
+            TableauEntiers extremites1 = projeter(canal, position, m);
+            position += 4L * m;
+            TableauEntiers extremites2 = projeter(canal, position, m);
+            position += 4L * m;
+            TableauEntiers[] colonnes = null;
+            if (avecAttributs) {
+                colonnes = new TableauEntiers[NB_COLONNES];
+                for (int i = 0; i < NB_COLONNES; i++) {
+                    colonnes[i] = projeter(canal, position, m);
+                    position += 4L * m;
+                }
+            }
+            Graphe graphe = new Graphe(new GrapheCompact(identifiants, debuts, voisins, aretesIncidentes,
+                    extremites1, extremites2, colonnes));
+            graphe.figer();
+            return graphe;
+        }
+    }
+
+    /**
+     * Projette en mémoire (en lecture seule) les longueur entiers du fichier qui commencent à la position donnée
+     * (en octets), par morceaux de 2^{@link TableauEntiers#BITS_MORCEAU} entiers
+     */
+    private static TableauEntiers projeter(FileChannel canal, long position, int longueur) throws IOException {
+        return projeter(canal, position, longueur, TableauEntiers.BITS_MORCEAU);
+    }
+
+    static TableauEntiers projeter(FileChannel canal, long position, int longueur, int bitsMorceau)
+            throws IOException {
+        int nbMorceaux = Math.max(1, (int) ((longueur + (1L << bitsMorceau) - 1) >>> bitsMorceau));
+        IntBuffer[] morceaux = new IntBuffer[nbMorceaux];
+        for (int i = 0; i < nbMorceaux; i++) {
+            long debut = (long) i << bitsMorceau;
+            long taille = Math.min(1L << bitsMorceau, longueur - debut);
+            ByteBuffer projection = canal.map(FileChannel.MapMode.READ_ONLY, position + 4 * debut, 4 * taille);
+            morceaux[i] = projection.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        }
+        return TableauEntiers.enMorceaux(morceaux, bitsMorceau);
+    }
+
+    /**
+     * Convertit une liste d'arêtes au format texte en un fichier de graphe binaire (voir {@link #ecrire}).
+     * <p>
+     * Chaque ligne du texte décrit une arête par les identifiants de ses deux extrémités, séparés par des espaces
+     * ou des tabulations ; les valeurs suivantes sur la ligne sont ignorées, ainsi que les lignes vides et celles
+     * qui commencent par '#' ou '%'. Le texte est lu par blocs d'octets, sans créer de chaîne par ligne.
+     * <p>
+     * La conversion n'est pas faite en plusieurs passes sur le disque : les identifiants des extrémités sont gardés
+     * en mémoire (dans un {@link ConstructeurGraphe}, qui élimine les arêtes répétées), puis la représentation
+     * compacte est construite en mémoire avant d'être écrite. Toutes ces données sont stockées hors du tas (voir
+     * {@link ConstructeurGraphe#construireHorsTas()}) : le tas n'a besoin que d'une place proportionnelle au nombre
+     * de sommets, mais les arêtes occupent environ 60 octets chacune hors du tas au plus fort de la conversion. Cette
+     * mémoire est limitée par l'option -XX:MaxDirectMemorySize (par défaut, la taille maximale du tas) ; une liste
+     * d'arêtes qui ne tient pas dans la mémoire de la machine ne peut pas être convertie.
+     *
+     * @throws IOException si le texte ne peut pas être lu ou contient une ligne mal formée
+     */
+    public static void convertirListeAretes(Path texte, Path fichier) throws IOException {
+        ConstructeurGraphe constructeur = new ConstructeurGraphe(1 << 16, true);
+        try (InputStream entree = Files.newInputStream(texte)) {
+            lireListeAretes(entree, constructeur);
+        }
+        ecrire(constructeur.construireCompact(Map.of(), true), fichier);
+    }
+
+    static void lireListeAretes(InputStream entree, ConstructeurGraphe constructeur) throws IOException {
+        byte[] tampon = new byte[1 << 16];
+        int ligne = 1;
+        // nombre d'entiers déjà lus sur la ligne courante
+        int champs = 0;
+        int premier = 0;
+        // true pour un commentaire, ou une fois les deux extrémités lues : on passe à la ligne suivante
+        boolean ignorer = false;
+        boolean dansNombre = false;
+        boolean negatif = false;
+        int chiffres = 0;
+        long valeur = 0;
+        int lus;
+        boolean fin = false;
+        while (!fin) {
+            lus = entree.read(tampon);
+            if (lus < 0) {
+                // la dernière ligne est traitée comme si elle se terminait par un saut de ligne
+                fin = true;
+                tampon[0] = '\n';
+                lus = 1;
+            }
+            for (int p = 0; p < lus; p++) {
+                byte b = tampon[p];
+                if (b == '\n' || (!ignorer && (b == ' ' || b == '\t' || b == '\r'))) {
+                    if (dansNombre) {
+                        if (chiffres == 0) {
+                            throw new IOException("Ligne " + ligne + " : nombre attendu après '-'");
+                        }
+                        int v = (int) (negatif ? -valeur : valeur);
+                        if (champs == 0) {
+                            premier = v;
+                        } else {
+                            constructeur.ajouterArete(premier, v);
+                            ignorer = true;
+                        }
+                        champs++;
+                        dansNombre = false;
+                    }
+                    if (b == '\n') {
+                        if (champs == 1) {
+                            throw new IOException("Ligne " + ligne + " : une seule extrémité");
+                        }
+                        ligne++;
+                        champs = 0;
+                        ignorer = false;
+                    }
+                } else if (ignorer) {
+                    // reste de la ligne sans intérêt
+                } else if (!dansNombre && champs == 0 && (b == '#' || b == '%')) {
+                    ignorer = true;
+                } else if (b >= '0' && b <= '9') {
+                    if (!dansNombre) {
+                        dansNombre = true;
+                        negatif = false;
+                        chiffres = 0;
+                        valeur = 0;
+                    }
+                    valeur = 10 * valeur + (b - '0');
+                    chiffres++;
+                    if (valeur > (negatif ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE)) {
+                        throw new IOException("Ligne " + ligne + " : identifiant hors des bornes d'un int");
+                    }
+                } else if (b == '-' && !dansNombre) {
+                    dansNombre = true;
+                    negatif = true;
+                    chiffres = 0;
+                    valeur = 0;
+                } else {
+                    throw new IOException("Ligne " + ligne + " : caractère inattendu '" + (char) (b & 0xff) + "'");
+                }
+            }
+        }
+    }
+
+    /**
+     * Écriture d'entiers petit-boutistes dans un canal, par l'intermédiaire d'un tampon
+     */
+    private static final class Sortie {
+        private final FileChannel canal;
+        private final ByteBuffer tampon = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+        private Sortie(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        void ecrire(int x) throws IOException {
+            if (!tampon.hasRemaining()) {
+                vider();
+            }
+            tampon.putInt(x);
+        }
+
+        void vider() throws IOException {
+            tampon.flip();
+            while (tampon.hasRemaining()) {
+                canal.write(tampon);
+            }
+            tampon.clear();
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package fr.umontpellier.iut.graphes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Flot maximal (algorithme de Dinic) sur un réseau construit à partir d'un {@link GrapheCompact}.
+ * <p>
+ * Les arcs sont rangés par paires : l'arc a et son arc inverse a ^ 1. Le tableau residuel donne la capacité
+ * résiduelle de chaque arc, et le flot qui passe sur l'arc a vaut capacite[a] - residuel[a] (il est négatif quand
+ * le flot passe en réalité dans l'autre sens).
+ * Chaque arc qui provient d'une arête du graphe retient le numéro de cette arête, ce qui permet de traduire
+ * les chemins et les coupes du réseau en arêtes (et donc en routes).
+ * <ul>
+ *     <li>{@link #pourAretes} : chaque arête devient une paire d'arcs de capacité 1 dans les deux sens,
+ *     les chemins obtenus sont deux à deux sans arête commune ;</li>
+ *     <li>{@link #pourSommets} : chaque sommet u est dédoublé en une entrée 2u et une sortie 2u+1 reliées par un
+ *     arc de capacité 1, les chemins obtenus sont deux à deux sans sommet intermédiaire commun.</li>
+ * </ul>
+ */
+final class FlotMaximal {
+    private final int nbNoeuds;
+    /**
+     * premier[x] est le premier arc qui part du noeud x (-1 s'il n'y en a pas), suivant[a] l'arc suivant
+     */
+    private final int[] premier;
+    private final int[] suivant;
+    private final int[] cible;
+    private final int[] capacite;
+    private final int[] residuel;
+    /**
+     * arete[a] est le numéro de l'arête dont provient l'arc a, ou -1 pour les arcs internes d'un sommet dédoublé
+     */
+    private final int[] arete;
+    private int nbArcs;
+
+    private final int[] niveaux;
+    private final int[] courant;
+    /**
+     * Tableau de travail (file du parcours en largeur, pile des arcs du chemin en cours)
+     */
+    private final int[] travail;
+
+    private FlotMaximal(int nbNoeuds, int nbArcsMax) {
+        this.nbNoeuds = nbNoeuds;
+        premier = new int[nbNoeuds];
+        Arrays.fill(premier, -1);
+        suivant = new int[nbArcsMax];
+        cible = new int[nbArcsMax];
+        capacite = new int[nbArcsMax];
+        residuel = new int[nbArcsMax];
+        arete = new int[nbArcsMax];
+        niveaux = new int[nbNoeuds];
+        courant = new int[nbNoeuds];
+        travail = new int[nbNoeuds];
+    }
+
+    /**
+     * Réseau dont les noeuds sont les sommets de g, pour les chemins sans arête commune
+     */
+    static FlotMaximal pourAretes(GrapheCompact g) {
+        FlotMaximal reseau = new FlotMaximal(g.nbSommets(), 2 * g.nbAretes());
+        for (int u = 0; u < g.nbSommets(); u++) {
+            for (int k = g.debut(u); k < g.fin(u); k++) {
+                int v = g.voisin(k);
+                // chaque arête est vue depuis ses deux extrémités : on ne l'ajoute qu'une fois (et jamais les boucles)
+                if (u < v) {
+                    reseau.ajouterPaire(u, v, 1, 1, g.areteIncidente(k));
+                }
+            }
+        }
+        return reseau;
+    }
+
+    /**
+     * Réseau dont les noeuds sont les entrées (2u) et sorties (2u+1) des sommets de g, pour les chemins sans sommet
+     * intermédiaire commun. Les sommets s et t (indices dans g) ne sont pas limités.
+     */
+    static FlotMaximal pourSommets(GrapheCompact g, int s, int t) {
+        int n = g.nbSommets();
+        FlotMaximal reseau = new FlotMaximal(2 * n, 2 * n + 4 * g.nbAretes());
+        for (int u = 0; u < n; u++) {
+            reseau.ajouterPaire(2 * u, 2 * u + 1, u == s || u == t ? n : 1, 0, -1);
+        }
+        for (int u = 0; u < n; u++) {
+            for (int k = g.debut(u); k < g.fin(u); k++) {
+                int v = g.voisin(k);
+                if (u != v) {
+                    reseau.ajouterPaire(2 * u + 1, 2 * v, 1, 0, g.areteIncidente(k));
+                }
+            }
+        }
+        return reseau;
+    }
+
+    /**
+     * Ajoute l'arc x -> y de capacité c et l'arc inverse y -> x de capacité cInverse
+     */
+    private void ajouterPaire(int x, int y, int c, int cInverse, int numeroArete) {
+        ajouterArc(x, y, c, numeroArete);
+        ajouterArc(y, x, cInverse, numeroArete);
+    }
+
+    private void ajouterArc(int x, int y, int c, int numeroArete) {
+        int a = nbArcs++;
+        cible[a] = y;
+        capacite[a] = c;
+        residuel[a] = c;
+        arete[a] = numeroArete;
+        suivant[a] = premier[x];
+        premier[x] = a;
+    }
+
+    /**
+     * Calcule un flot maximal de s à t (noeuds du réseau) et renvoie sa valeur
+     */
+    int calculer(int s, int t) {
+        if (s == t) {
+            return 0;
+        }
+        int total = 0;
+        while (calculerNiveaux(s, t)) {
+            System.arraycopy(premier, 0, courant, 0, nbNoeuds);
+            int f;
+            while ((f = augmenter(s, t)) > 0) {
+                total += f;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Parcours en largeur du réseau résiduel depuis s
+     *
+     * @return true si t est atteint
+     */
+    private boolean calculerNiveaux(int s, int t) {
+        Arrays.fill(niveaux, -1);
+        int[] file = travail;
+        int tete = 0;
+        int queue = 0;
+        niveaux[s] = 0;
+        file[queue++] = s;
+        while (tete < queue) {
+            int x = file[tete++];
+            for (int a = premier[x]; a >= 0; a = suivant[a]) {
+                if (residuel[a] > 0 && niveaux[cible[a]] < 0) {
+                    niveaux[cible[a]] = niveaux[x] + 1;
+                    file[queue++] = cible[a];
+                }
+            }
+        }
+        return niveaux[t] >= 0;
+    }
+
+    /**
+     * Cherche (de manière itérative) un chemin de s à t dans le graphe de niveaux et y pousse le plus de flot
+     * possible. Les arcs qui ne mènent plus à t sont abandonnés (courant[x] avance) et les noeuds sans issue sont
+     * retirés du graphe de niveaux.
+     *
+     * @return la quantité de flot poussée, 0 s'il n'y a plus de chemin
+     */
+    private int augmenter(int s, int t) {
+        int[] pile = travail;
+        int hauteur = 0;
+        int x = s;
+        while (true) {
+            if (x == t) {
+                int f = Integer.MAX_VALUE;
+                for (int i = 0; i < hauteur; i++) {
+                    f = Math.min(f, residuel[pile[i]]);
+                }
+                for (int i = 0; i < hauteur; i++) {
+                    residuel[pile[i]] -= f;
+                    residuel[pile[i] ^ 1] += f;
+                }
+                return f;
+            }
+            int a = courant[x];
+            while (a >= 0 && (residuel[a] == 0 || niveaux[cible[a]] != niveaux[x] + 1)) {
+                a = suivant[a];
+            }
+            courant[x] = a;
+            if (a >= 0) {
+                pile[hauteur++] = a;
+                x = cible[a];
+            } else {
+                // impasse : on retire x et on revient en arrière
+                niveaux[x] = -1;
+                if (hauteur == 0) {
+                    return 0;
+                }
+                a = pile[--hauteur];
+                x = cible[a ^ 1];
+                courant[x] = suivant[a];
+            }
+        }
+    }
+
+    /**
+     * Décompose le flot courant de s à t en chemins (listes de numéros d'arêtes, dans l'ordre de s vers t).
+     * Les circuits éventuels du flot sont éliminés au passage, de sorte que chaque chemin est élémentaire.
+     * Le flot est consommé par cette opération.
+     */
+    List<List<Integer>> decomposer(int s, int t) {
+        List<List<Integer>> chemins = new ArrayList<>();
+        if (s == t) {
+            return chemins;
+        }
+        int[] position = new int[nbNoeuds];
+        Arrays.fill(position, -1);
+        int[] arcs = new int[nbNoeuds];
+        System.arraycopy(premier, 0, courant, 0, nbNoeuds);
+        while (true) {
+            int longueur = 0;
+            int x = s;
+            position[s] = 0;
+            while (x != t) {
+                int a = courant[x];
+                while (a >= 0 && capacite[a] - residuel[a] <= 0) {
+                    a = suivant[a];
+                }
+                courant[x] = a;
+                if (a < 0) {
+                    break;
+                }
+                residuel[a]++;
+                residuel[a ^ 1]--;
+                int y = cible[a];
+                if (position[y] >= 0) {
+                    // circuit : on revient à la première visite de y
+                    while (longueur > position[y]) {
+                        position[cible[arcs[--longueur]]] = -1;
+                    }
+                    position[y] = longueur;
+                } else {
+                    arcs[longueur++] = a;
+                    position[y] = longueur;
+                }
+                x = y;
+            }
+            for (int i = 0; i < longueur; i++) {
+                position[cible[arcs[i]]] = -1;
+            }
+            position[s] = -1;
+            if (x != t) {
+                return chemins;
+            }
+            List<Integer> chemin = new ArrayList<>();
+            for (int i = 0; i < longueur; i++) {
+                if (arete[arcs[i]] >= 0) {
+                    chemin.add(arete[arcs[i]]);
+                }
+            }
+            chemins.add(chemin);
+        }
+    }
+
+    /**
+     * Après {@link #calculer}, renvoie les numéros des arêtes de la coupe minimale : les arêtes dont un arc va d'un
+     * noeud accessible depuis s dans le réseau résiduel à un noeud qui ne l'est pas.
+     */
+    List<Integer> aretesCoupe(int s) {
+        boolean[] accessible = new boolean[nbNoeuds];
+        int[] file = new int[nbNoeuds];
+        int tete = 0;
+        int queue = 0;
+        accessible[s] = true;
+        file[queue++] = s;
+        while (tete < queue) {
+            int x = file[tete++];
+            for (int a = premier[x]; a >= 0; a = suivant[a]) {
+                if (residuel[a] > 0 && !accessible[cible[a]]) {
+                    accessible[cible[a]] = true;
+                    file[queue++] = cible[a];
+                }
+            }
+        }
+        List<Integer> coupe = new ArrayList<>();
+        for (int a = 0; a < nbArcs; a++) {
+            if (capacite[a] > 0 && accessible[cible[a ^ 1]] && !accessible[cible[a]] && arete[a] >= 0) {
+                coupe.add(arete[a]);
+            }
+        }
+        return coupe;
+    }
+}
@@ -0,0 +1,391 @@
+package fr.umontpellier.iut.graphes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Forme canonique d'un graphe (sans tenir compte des routes ni des identifiants des sommets) : deux graphes ont la
+ * même forme canonique si et seulement s'ils sont isomorphes. Les arêtes multiples et les boucles sont prises en
+ * compte.
+ * <p>
+ * La forme est calculée par affinage de couleurs et individualisation :
+ * <ul>
+ *     <li>l'affinage donne à chaque sommet une couleur qui ne dépend que de la structure du graphe : on part d'une
+ *     seule couleur, puis on sépare les sommets d'une même couleur selon les couleurs de leurs voisins, jusqu'à ce
+ *     que plus rien ne change ;</li>
+ *     <li>si tous les sommets ont alors des couleurs distinctes (cas le plus courant), ces couleurs numérotent les
+ *     sommets de façon canonique. Sinon, on choisit tour à tour chaque sommet de la première couleur partagée, on
+ *     lui donne une couleur à lui seul, et l'on recommence ; la forme retenue est la plus petite parmi toutes les
+ *     numérotations obtenues. Deux sommets de même voisinage (en comptant, ou non, chacun dans son propre
+ *     voisinage) sont interchangeables : un seul des deux est essayé. De même, deux numérotations qui donnent les
+ *     mêmes arêtes révèlent un automorphisme du graphe : un sommet que les automorphismes déjà trouvés (qui fixent
+ *     les sommets déjà choisis) envoient sur un sommet déjà essayé n'est pas essayé.</li>
+ * </ul>
+ * Pour les graphes très symétriques, le nombre de numérotations à comparer peut exploser : au-delà de
+ * {@link #FEUILLES_MAX}, le calcul s'arrête et la forme est incomplète ({@link #estComplete()} renvoie false). Seul
+ * l'invariant issu de l'affinage est alors disponible : deux graphes d'invariants différents ne sont pas isomorphes,
+ * mais deux graphes de même invariant peuvent ne pas l'être.
+ */
+public final class FormeCanonique {
+    /**
+     * Nombre maximal de numérotations complètes comparées
+     */
+    static final int FEUILLES_MAX = 1 << 12;
+
+    private final int nbSommets;
+    /**
+     * Arêtes dans la numérotation canonique, chacune codée (min << 32) | max, triées ; null si la forme est incomplète
+     */
+    private final long[] aretes;
+    /**
+     * Invariant calculé à partir de la coloration stable de départ
+     */
+    private final long invariant;
+    private final long hachage;
+
+    private FormeCanonique(int nbSommets, long[] aretes, long invariant) {
+        this.nbSommets = nbSommets;
+        this.aretes = aretes;
+        this.invariant = invariant;
+        long h = melanger(invariant, nbSommets);
+        if (aretes != null) {
+            for (long code : aretes) {
+                h = melanger(h, code);
+            }
+        }
+        hachage = h;
+    }
+
+    /**
+     * Calcule la forme canonique d'un graphe (de préférence via {@link Graphe#getFormeCanonique()}, qui la conserve)
+     */
+    static FormeCanonique calculer(GrapheCompact g) {
+        return calculer(g, FEUILLES_MAX);
+    }
+
+    /**
+     * Calcule la forme canonique d'un graphe en comparant au plus feuillesMax numérotations complètes
+     */
+    static FormeCanonique calculer(GrapheCompact g, int feuillesMax) {
+        return new Calcul(g, feuillesMax).calculer();
+    }
+
+    /**
+     * @return true si la forme a pu être calculée entièrement : l'égalité des formes équivaut alors à l'isomorphisme
+     */
+    public boolean estComplete() {
+        return aretes != null;
+    }
+
+    /**
+     * @return une valeur de hachage sur 64 bits : deux graphes isomorphes ont le même hachage
+     */
+    public long hachage() {
+        return hachage;
+    }
+
+    /**
+     * @return false si les graphes ne sont sûrement pas isomorphes, true s'ils peuvent l'être (ils le sont
+     * sûrement si les deux formes sont complètes)
+     */
+    public boolean peutEtreIsomorphe(FormeCanonique autre) {
+        if (nbSommets != autre.nbSommets || invariant != autre.invariant) {
+            return false;
+        }
+        return !estComplete() || !autre.estComplete() || Arrays.equals(aretes, autre.aretes);
+    }
+
+    /**
+     * Deux formes complètes sont égales si et seulement si leurs graphes sont isomorphes. Une forme incomplète n'est
+     * égale qu'à elle-même.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FormeCanonique autre) || !estComplete() || !autre.estComplete()) {
+            return false;
+        }
+        return nbSommets == autre.nbSommets && invariant == autre.invariant && Arrays.equals(aretes, autre.aretes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hachage);
+    }
+
+    private static long melanger(long h, long x) {
+        h = (h ^ x) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 31);
+    }
+
+    /**
+     * État d'un calcul de forme canonique
+     */
+    private static final class Calcul {
+        private final GrapheCompact g;
+        private final int n;
+        /**
+         * voisinages[v] : indices des voisins de v (avec répétitions pour les arêtes multiples), triés
+         */
+        private final int[][] voisinages;
+        private final int feuillesMax;
+        private long[] meilleure;
+        /**
+         * Numérotations (couleurs finales) de la première feuille et de la meilleure feuille
+         */
+        private int[] premiereNumerotation;
+        private long[] premiere;
+        private int[] meilleureNumerotation;
+        /**
+         * Automorphismes découverts : deux feuilles de même codage donnent un automorphisme du graphe
+         */
+        private final List<int[]> automorphismes = new ArrayList<>();
+        private final List<Integer> individualises = new ArrayList<>();
+        private int nbFeuilles;
+        private boolean interrompu;
+
+        Calcul(GrapheCompact g, int feuillesMax) {
+            this.g = g;
+            this.feuillesMax = feuillesMax;
+            n = g.nbSommets();
+            voisinages = new int[n][];
+            for (int v = 0; v < n; v++) {
+                voisinages[v] = new int[g.degre(v)];
+                for (int k = g.debut(v); k < g.fin(v); k++) {
+                    voisinages[v][k - g.debut(v)] = g.voisin(k);
+                }
+                Arrays.sort(voisinages[v]);
+            }
+        }
+
+        FormeCanonique calculer() {
+            int[] couleurs = new int[n];
+            affiner(couleurs);
+            long invariant = invariant(couleurs);
+            explorer(couleurs);
+            return new FormeCanonique(n, interrompu ? null : meilleure, invariant);
+        }
+
+        /**
+         * Affine la coloration jusqu'à ce qu'elle soit stable. Les nouvelles couleurs sont les rangs 0..k-1 des
+         * couples (ancienne couleur, couleurs triées des voisins) : l'ordre des anciennes couleurs est conservé.
+         *
+         * @return le nombre de couleurs
+         */
+        private int affiner(int[] couleurs) {
+            Integer[] ordre = new Integer[n];
+            for (int v = 0; v < n; v++) {
+                ordre[v] = v;
+            }
+            int[][] signatures = new int[n][];
+            int nbCouleurs = -1;
+            while (true) {
+                for (int v = 0; v < n; v++) {
+                    int[] signature = new int[voisinages[v].length];
+                    for (int i = 0; i < signature.length; i++) {
+                        signature[i] = couleurs[voisinages[v][i]];
+                    }
+                    Arrays.sort(signature);
+                    signatures[v] = signature;
+                }
+                Arrays.sort(ordre, (u, v) -> couleurs[u] != couleurs[v] ? Integer.compare(couleurs[u], couleurs[v])
+                        : Arrays.compare(signatures[u], signatures[v]));
+                int[] nouvelles = new int[n];
+                int rang = 0;
+                for (int i = 0; i < n; i++) {
+                    int v = ordre[i];
+                    if (i > 0) {
+                        int u = ordre[i - 1];
+                        if (couleurs[u] != couleurs[v] || !Arrays.equals(signatures[u], signatures[v])) {
+                            rang++;
+                        }
+                    }
+                    nouvelles[v] = rang;
+                }
+                int nouveauNombre = n == 0 ? 0 : rang + 1;
+                System.arraycopy(nouvelles, 0, couleurs, 0, n);
+                if (nouveauNombre == nbCouleurs) {
+                    return nbCouleurs;
+                }
+                nbCouleurs = nouveauNombre;
+            }
+        }
+
+        /**
+         * Invariant d'une coloration stable : pour chaque couleur, dans l'ordre, son nombre de sommets et les couleurs
+         * des voisins de l'un d'eux (les mêmes pour tous, puisque la coloration est stable)
+         */
+        private long invariant(int[] couleurs) {
+            int[] tailles = new int[n];
+            int[] representants = new int[n];
+            for (int v = n - 1; v >= 0; v--) {
+                tailles[couleurs[v]]++;
+                representants[couleurs[v]] = v;
+            }
+            long h = n;
+            for (int c = 0; c < n && tailles[c] > 0; c++) {
+                h = melanger(h, tailles[c]);
+                int[] signature = new int[voisinages[representants[c]].length];
+                for (int i = 0; i < signature.length; i++) {
+                    signature[i] = couleurs[voisinages[representants[c]][i]];
+                }
+                Arrays.sort(signature);
+                for (int x : signature) {
+                    h = melanger(h, x);
+                }
+            }
+            return h;
+        }
+
+        private void explorer(int[] couleurs) {
+            if (nbFeuilles >= feuillesMax) {
+                interrompu = true;
+                return;
+            }
+            if (affiner(couleurs) == n) {
+                feuille(couleurs);
+                return;
+            }
+            // première couleur partagée par plusieurs sommets
+            int[] tailles = new int[n];
+            for (int v = 0; v < n; v++) {
+                tailles[couleurs[v]]++;
+            }
+            int cible = 0;
+            while (tailles[cible] < 2) {
+                cible++;
+            }
+            List<Integer> cellule = new ArrayList<>();
+            for (int v = 0; v < n; v++) {
+                if (couleurs[v] == cible) {
+                    cellule.add(v);
+                }
+            }
+            // un seul sommet par voisinage, ouvert ou fermé : échanger deux sommets qui ont le même est un
+            // automorphisme qui ne touche pas aux sommets déjà individualisés
+            Map<List<Integer>, Integer> voisinagesEssayes = new HashMap<>();
+            Map<List<Integer>, Integer> voisinagesFermesEssayes = new HashMap<>();
+            List<Integer> essayes = new ArrayList<>();
+            for (int v : cellule) {
+                if (interrompu) {
+                    return;
+                }
+                List<Integer> ferme = voisinage(v);
+                ferme.add(v);
+                ferme.sort(null);
+                boolean jumeau = voisinagesEssayes.putIfAbsent(voisinage(v), v) != null;
+                jumeau |= voisinagesFermesEssayes.putIfAbsent(ferme, v) != null;
+                if (jumeau || dansUneOrbiteEssayee(v, essayes, cellule)) {
+                    continue;
+                }
+                essayes.add(v);
+                int[] individualisees = new int[n];
+                for (int x = 0; x < n; x++) {
+                    individualisees[x] = 2 * couleurs[x] + 1;
+                }
+                individualisees[v] = 2 * couleurs[v];
+                individualises.add(v);
+                explorer(individualisees);
+                individualises.remove(individualises.size() - 1);
+            }
+        }
+
+        /**
+         * @return true si un automorphisme déjà découvert qui fixe les sommets individualisés envoie l'un des
+         * sommets essayés sur v : les numérotations obtenues en individualisant v sont alors les images de celles
+         * déjà obtenues, et ne peuvent pas être plus petites
+         */
+        private boolean dansUneOrbiteEssayee(int v, List<Integer> essayes, List<Integer> cellule) {
+            if (essayes.isEmpty() || automorphismes.isEmpty()) {
+                return false;
+            }
+            // orbites des sommets de la cellule (stable par ces automorphismes) : union-find sur les sommets
+            int[] parents = new int[n];
+            for (int x : cellule) {
+                parents[x] = x;
+            }
+            for (int[] gamma : automorphismes) {
+                boolean fixe = true;
+                for (int p : individualises) {
+                    fixe &= gamma[p] == p;
+                }
+                if (fixe) {
+                    for (int x : cellule) {
+                        int a = racine(parents, x);
+                        int b = racine(parents, gamma[x]);
+                        parents[a] = b;
+                    }
+                }
+            }
+            for (int w : essayes) {
+                if (racine(parents, w) == racine(parents, v)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static int racine(int[] parents, int x) {
+            while (parents[x] != x) {
+                parents[x] = parents[parents[x]];
+                x = parents[x];
+            }
+            return x;
+        }
+
+        private List<Integer> voisinage(int v) {
+            List<Integer> voisinage = new ArrayList<>(voisinages[v].length);
+            for (int u : voisinages[v]) {
+                voisinage.add(u);
+            }
+            return voisinage;
+        }
+
+        /**
+         * Compare la numérotation obtenue (toutes les couleurs sont distinctes) à la meilleure trouvée jusque-là
+         */
+        private void feuille(int[] couleurs) {
+            nbFeuilles++;
+            long[] codes = new long[g.nbAretes()];
+            for (int e = 0; e < codes.length; e++) {
+                int a = couleurs[g.extremite1(e)];
+                int b = couleurs[g.extremite2(e)];
+                codes[e] = ((long) Math.min(a, b) << 32) | Math.max(a, b);
+            }
+            Arrays.sort(codes);
+            if (premiere == null) {
+                premiere = codes;
+                premiereNumerotation = couleurs.clone();
+            } else if (Arrays.equals(codes, premiere)) {
+                automorphismes.add(automorphisme(premiereNumerotation, couleurs));
+            } else if (Arrays.equals(codes, meilleure)) {
+                automorphismes.add(automorphisme(meilleureNumerotation, couleurs));
+            }
+            if (meilleure == null || Arrays.compare(codes, meilleure) < 0) {
+                meilleure = codes;
+                meilleureNumerotation = couleurs.clone();
+            }
+        }
+
+        /**
+         * @return l'automorphisme qui envoie chaque sommet sur le sommet de même numéro dans l'autre numérotation
+         * (les deux numérotations donnent le même codage des arêtes)
+         */
+        private int[] automorphisme(int[] autre, int[] numerotation) {
+            int[] sommetsDeNumero = new int[n];
+            for (int x = 0; x < n; x++) {
+                sommetsDeNumero[autre[x]] = x;
+            }
+            int[] gamma = new int[n];
+            for (int x = 0; x < n; x++) {
+                gamma[x] = sommetsDeNumero[numerotation[x]];
+            }
+            return gamma;
+        }
+    }
+}
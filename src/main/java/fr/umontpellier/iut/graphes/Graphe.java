@@ -2,6 +2,7 @@ package fr.umontpellier.iut.graphes;
 
 import java.lang.reflect.Array;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.swing.event.ListDataListener;
 
@@ -25,8 +26,41 @@ public class Graphe {
      * Liste d'incidences :
      * mapAretes.get(1) donne l'ensemble d'arêtes incidentes au sommet dont l'identifiant est 1
      * Si mapAretes.get(u) contient l'arête {u,v} alors, mapAretes.get(v) contient aussi cette arête
+     * <p>
+     * Pour un graphe construit en masse (voir {@link ConstructeurGraphe}), la liste d'incidences vaut null tant
+     * qu'aucune méthode n'en a besoin : le graphe est alors entièrement décrit par sa représentation compacte.
+     * Il faut donc toujours passer par {@link #incidences()}.
+     * <p>
+     * Les caches (liste d'incidences construite à la demande, représentation compacte, centralités) sont publiés de
+     * façon sûre : un graphe figé peut être lu par plusieurs fils à la fois (voir {@link GrapheConcurrent}).
      */
-    private Map<Integer, HashSet<Arete>> mapAretes;
+    private volatile Map<Integer, HashSet<Arete>> mapAretes;
+
+    /**
+     * true si le graphe a été figé (voir {@link #figer()}) : il ne peut plus être modifié
+     */
+    private boolean fige;
+
+    /**
+     * Représentation compacte du graphe, calculée à la demande et oubliée à chaque modification du graphe
+     */
+    private volatile GrapheCompact compact;
+
+    /**
+     * Centralités d'intermédiarité déjà calculées (indice 0 : non pondérée, indice 1 : pondérée),
+     * oubliées à chaque modification du graphe
+     */
+    private final Centralite.Resultat[] centralites = new Centralite.Resultat[2];
+
+    /**
+     * Forme canonique déjà calculée, oubliée à chaque modification du graphe
+     */
+    private FormeCanonique formeCanonique;
+
+    /**
+     * Propriétaire (identifiant de joueur) des routes déjà capturées ; les routes absentes de la table sont libres
+     */
+    private final Map<Route, Integer> proprietaires = new HashMap<>();
 
 
     /**
@@ -48,9 +82,10 @@ public class Graphe {
 
     public Graphe(Graphe g) {
         this();
-        for(int i : g.mapAretes.keySet()){
-            mapAretes.put(i, new HashSet<>(g.mapAretes.get(i)));
+        for(int i : g.incidences().keySet()){
+            incidences().put(i, new HashSet<>(g.incidences().get(i)));
         }
+        proprietaires.putAll(g.proprietaires);
     }
 
     /**
@@ -59,12 +94,26 @@ public class Graphe {
      * @param aretes la collection d'arêtes
      */
     public Graphe(Collection<Arete> aretes) {
-        this();
-        for (Arete a : aretes) {
-            if(!existeArete(a)){
-                this.ajouterArete(a);
-            }
-        }
+        ConstructeurGraphe constructeur = new ConstructeurGraphe(aretes.size());
+        constructeur.ajouterAretes(aretes);
+        this.compact = constructeur.construireCompact(proprietaires);
+    }
+
+    /**
+     * Construit un graphe décrit uniquement par sa représentation compacte (sa liste d'incidences sera construite
+     * à la demande)
+     */
+    Graphe(GrapheCompact compact) {
+        this.compact = compact;
+    }
+
+    /**
+     * Construit un graphe décrit uniquement par sa représentation compacte, dont la colonne des propriétaires a été
+     * remplie à partir de la table proprietaires
+     */
+    Graphe(GrapheCompact compact, Map<Route, Integer> proprietaires) {
+        this.compact = compact;
+        this.proprietaires.putAll(proprietaires);
     }
 
     /**
@@ -78,26 +127,27 @@ public class Graphe {
     public Graphe(Graphe graphe, Set<Integer> X) {
         this();
         for(Integer i : X){
-            for(Arete a : graphe.mapAretes.get(i)){
+            for(Arete a : graphe.incidences().get(i)){
                 if(X.contains(a.i()) && X.contains(a.j())){
                     ajouterArete(a);
                 }
             }
         }
+        proprietaires.putAll(graphe.proprietaires);
     }
 
     /**
      * @return l'ensemble de sommets du graphe
      */
     public Set<Integer> ensembleSommets() {
-        return mapAretes.keySet();
+        return fige ? Collections.unmodifiableSet(incidences().keySet()) : incidences().keySet();
     }
 
     /**
      * @return l'ordre du graphe (le nombre de sommets)
      */
     public int nbSommets() {
-        return mapAretes.size();
+        return mapAretes == null ? compact.nbSommets() : mapAretes.size();
     }
 
     /**
@@ -105,16 +155,20 @@ public class Graphe {
      * toutes les compter)
      */
     public int nbAretes() {
+        if (mapAretes == null) {
+            // même décompte que ci-dessous (une boucle n'occupe qu'une case)
+            return compact.nbCases() / 2;
+        }
         int compteur = 0;
-        for(Integer m : mapAretes.keySet()){
-            compteur+= mapAretes.get(m).size();
+        for(Integer m : incidences().keySet()){
+            compteur+= incidences().get(m).size();
         }
         return compteur/2;
     }
 
 
     public boolean contientSommet(Integer v) {
-        return mapAretes.containsKey(v);
+        return mapAretes == null ? compact.indice(v) >= 0 : mapAretes.containsKey(v);
     }
 
     /**
@@ -124,7 +178,9 @@ public class Graphe {
      */
     public void ajouterSommet(Integer v) {
         if(!contientSommet(v)){
-            mapAretes.put(v, new HashSet<>());
+            verifierModifiable();
+            incidences().put(v, new HashSet<>());
+            invaliderCaches();
         }
     }
 
@@ -138,8 +194,10 @@ public class Graphe {
         ajouterSommet(a.i());
         ajouterSommet(a.j());
         if(!existeArete(a)){
-            mapAretes.get(a.i()).add(a);
-            mapAretes.get(a.j()).add(a);
+            verifierModifiable();
+            incidences().get(a.i()).add(a);
+            incidences().get(a.j()).add(a);
+            invaliderCaches();
         }
     }
 
@@ -151,8 +209,10 @@ public class Graphe {
      */
     public void supprimerArete(Arete a) {
         if(existeArete(a)){
-            mapAretes.get(a.i()).remove(a);
-            mapAretes.get(a.j()).remove(a);
+            verifierModifiable();
+            incidences().get(a.i()).remove(a);
+            incidences().get(a.j()).remove(a);
+            invaliderCaches();
         }
     }
 
@@ -161,19 +221,138 @@ public class Graphe {
      * @return true si a est présente dans le graphe
      */
     public boolean existeArete(Arete a) {
+        if (mapAretes == null) {
+            int u = compact.indice(a.i());
+            int v = compact.indice(a.j());
+            if (u >= 0 && v >= 0) {
+                for (int k = compact.debut(u); k < compact.fin(u); k++) {
+                    if (compact.voisin(k) == v && Objects.equals(compact.route(compact.areteIncidente(k)), a.route())) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
         if(contientSommet(a.i())){
-            return mapAretes.get(a.i()).contains(a);
+            return incidences().get(a.i()).contains(a);
         }
         else{
             return false;
         }
     }
 
+    /**
+     * Fige le graphe : toute tentative de modification ultérieure lève une UnsupportedOperationException.
+     * Les résultats des calculs coûteux (représentation compacte, centralités) restent alors valables
+     * pour toute la durée de vie du graphe.
+     */
+    public void figer() {
+        fige = true;
+    }
+
+    public boolean estFige() {
+        return fige;
+    }
+
+    private void verifierModifiable() {
+        if (fige) {
+            throw new UnsupportedOperationException("Le graphe est figé");
+        }
+    }
+
+    private synchronized void invaliderCaches() {
+        compact = null;
+        Arrays.fill(centralites, null);
+        formeCanonique = null;
+    }
+
+    /**
+     * Indique qu'une route du graphe appartient à un joueur. Cette information n'est pas portée par la route
+     * elle-même : elle est recopiée dans la colonne des propriétaires de la représentation compacte quand celle-ci
+     * est construite, où les algorithmes peuvent la lire sans repasser par les objets. La représentation compacte
+     * est immuable : comme toute modification du graphe, un changement de propriétaire l'oublie (celles déjà
+     * obtenues ne changent pas).
+     *
+     * @param joueur identifiant du joueur (par exemple son rang dans la partie), ou -1 pour rendre la route libre
+     */
+    public void definirProprietaire(Route route, int joueur) {
+        verifierModifiable();
+        Integer ancien = joueur < 0 ? proprietaires.remove(route) : proprietaires.put(route, joueur);
+        if (!Objects.equals(ancien, joueur < 0 ? null : joueur)) {
+            // la liste d'incidences doit exister avant d'oublier la représentation compacte
+            incidences();
+            invaliderCaches();
+        }
+    }
+
+    /**
+     * @return l'identifiant du joueur propriétaire de la route, ou -1 si elle est libre
+     */
+    public int getProprietaire(Route route) {
+        return proprietaires.getOrDefault(route, -1);
+    }
+
+    /**
+     * @return la représentation compacte du graphe si elle est déjà construite ou si le graphe est figé (elle est
+     * alors construite une fois pour toutes), null sinon. Les requêtes ponctuelles (arête entre deux sommets, coût
+     * d'un chemin, composante connexe) lisent dans ce cas directement la liste d'incidences : un graphe qui alterne
+     * modifications et requêtes ne reconstruit pas toute sa représentation compacte après chaque modification.
+     */
+    private GrapheCompact compactSiDisponible() {
+        GrapheCompact resultat = compact;
+        return resultat != null || !fige ? resultat : getCompact();
+    }
+
+    /**
+     * @return la représentation compacte du graphe (calculée une seule fois tant que le graphe n'est pas modifié)
+     */
+    GrapheCompact getCompact() {
+        GrapheCompact resultat = compact;
+        if (resultat == null) {
+            synchronized (this) {
+                resultat = compact;
+                if (resultat == null) {
+                    resultat = GrapheCompact.depuisIncidences(mapAretes, proprietaires);
+                    compact = resultat;
+                }
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * @return la liste d'incidences du graphe, construite à partir de la représentation compacte si le graphe
+     * a été construit en masse
+     */
+    private Map<Integer, HashSet<Arete>> incidences() {
+        Map<Integer, HashSet<Arete>> resultat = mapAretes;
+        if (resultat == null) {
+            synchronized (this) {
+                resultat = mapAretes;
+                if (resultat == null) {
+                    GrapheCompact g = compact;
+                    resultat = new HashMap<>(2 * g.nbSommets());
+                    for (int u = 0; u < g.nbSommets(); u++) {
+                        resultat.put(g.sommet(u), new HashSet<>(2 * g.degre(u)));
+                    }
+                    for (int e = 0; e < g.nbAretes(); e++) {
+                        Arete a = g.arete(e);
+                        resultat.get(a.i()).add(a);
+                        resultat.get(a.j()).add(a);
+                    }
+                    // publiée une fois complète
+                    mapAretes = resultat;
+                }
+            }
+        }
+        return resultat;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        for (Integer v : mapAretes.keySet()) {
-            sb.append("sommet").append(v).append(" : ").append(mapAretes.get(v)).append("\n");
+        for (Integer v : incidences().keySet()) {
+            sb.append("sommet").append(v).append(" : ").append(incidences().get(v)).append("\n");
         }
         return sb.toString();
     }
@@ -186,7 +365,16 @@ public class Graphe {
      */
     public Set<Integer> getVoisins(int v) {
         Set<Integer> voisins = new HashSet<>();
-        for (Arete a : this.mapAretes.get(v)) {
+        if (mapAretes == null) {
+            int u = compact.indice(v);
+            if (u >= 0) {
+                for (int k = compact.debut(u); k < compact.fin(u); k++) {
+                    voisins.add(compact.sommet(compact.voisin(k)));
+                }
+            }
+            return voisins;
+        }
+        for (Arete a : incidences().get(v)) {
             if (a.i() == v) {
                 voisins.add(a.j());
             } else {
@@ -198,7 +386,7 @@ public class Graphe {
 
     public Map<Integer, Arete> getVoisinsAvecArete(int v) {
         HashMap<Integer, Arete> voisins = new HashMap<>();
-        for (Arete a : this.mapAretes.get(v)) {
+        for (Arete a : incidences().get(v)) {
             if (a.i() == v) {
                 voisins.put(a.j(), a);
             } else {
@@ -218,17 +406,23 @@ public class Graphe {
      */
     public void supprimerSommet(int v) {
         if(contientSommet(v)){
-            for(Integer m : mapAretes.keySet()){
-                mapAretes.get(m).removeIf(arete -> arete.incidenteA(v));
+            verifierModifiable();
+            for(Integer m : incidences().keySet()){
+                incidences().get(m).removeIf(arete -> arete.incidenteA(v));
             }
-            mapAretes.remove(v);
+            incidences().remove(v);
+            invaliderCaches();
         }
     }
 
     public int degre(int v) {
         //TODO que faire si le sommet n'existe pas
-        if(mapAretes.containsKey(v)){
-            return mapAretes.get(v).size();
+        if (mapAretes == null) {
+            int u = compact.indice(v);
+            return u < 0 ? 0 : compact.degre(u);
+        }
+        if(incidences().containsKey(v)){
+            return incidences().get(v).size();
         }
         else{
             return 0;
@@ -240,11 +434,11 @@ public class Graphe {
      * @return le degré max, et Integer.MIN_VALUE si le graphe est vide
      */
     public int degreMax() {
-        if (mapAretes.isEmpty()) {
+        if (incidences().isEmpty()) {
             return Integer.MIN_VALUE;
         }
         int degreMax = Integer.MIN_VALUE;
-        for (Integer sommet : mapAretes.keySet()) {
+        for (Integer sommet : incidences().keySet()) {
             int degreSommet = degre(sommet);
             if (degreSommet > degreMax) {
                 degreMax = degreSommet;
@@ -255,9 +449,9 @@ public class Graphe {
 
 
     public boolean estSimple() {
-        for(int sommet : mapAretes.keySet()){
+        for(int sommet : incidences().keySet()){
             HashMap<Integer, Integer> compteur = new HashMap<>();
-            for(Arete a : mapAretes.get(sommet)){
+            for(Arete a : incidences().get(sommet)){
                 if(compteur.keySet().contains(a.getAutreSommet(sommet))){
                     return false;
                 }
@@ -279,9 +473,9 @@ public class Graphe {
         else{
             return false;
         }
-        for(Integer i : mapAretes.keySet()){
+        for(Integer i : incidences().keySet()){
             HashMap<Integer, Integer> compteur = new HashMap<>();
-            for(Arete a : mapAretes.get(i)){
+            for(Arete a : incidences().get(i)){
                 if(!compteur.keySet().contains(a.getAutreSommet(i))){
                     compteur.put(a.getAutreSommet(i),0);
                 }
@@ -328,7 +522,7 @@ public class Graphe {
 
     private int nbSommetDeDegre(int n){
         int compteur=0;
-        for(Integer i : mapAretes.keySet()){
+        for(Integer i : incidences().keySet()){
             if(degre(i)==n){
                 compteur++;
             }
@@ -355,36 +549,17 @@ public class Graphe {
 
     public boolean estConnexe(){
         if(nbSommets()>=2){
-            return estConnexe( (int) mapAretes.keySet().toArray()[0], new ArrayList<>());
+            GrapheCompact g = compactSiDisponible();
+            if (g == null) {
+                return classeConnexiteIncidences(mapAretes.keySet().iterator().next()).size() == nbSommets();
+            }
+            return g.parcoursLargeur(0, new boolean[g.nbSommets()], new int[g.nbSommets()]) == g.nbSommets();
         }
         else{
             return true;
         }
     }
 
-    private boolean estConnexe(int sommetCourant, ArrayList<Integer> dejaVu){
-        ArrayList<Integer> voisins = new ArrayList<>(getVoisins(sommetCourant));
-        dejaVu.add(sommetCourant);
-        if(dejaVu.containsAll(mapAretes.keySet())){
-            return true;
-        }
-        else if(dejaVu.containsAll(voisins)){
-            return false;
-        }
-        else{
-            boolean result = false;
-            int i=0;
-
-            while(i<voisins.size()&& result==false){
-                if(!dejaVu.contains(voisins.get(i))){
-                    result = result || estConnexe(voisins.get(i), dejaVu);
-                }
-                i++;
-            }
-            return result;
-        }
-    }
-
     public boolean estAcyclique(){
         Set<Set<Integer>> ensembleConnexes = getEnsembleClassesConnexite();
         boolean result = true;
@@ -392,7 +567,7 @@ public class Graphe {
         for(Set<Integer> groupe : ensembleConnexes){
             if(groupe.size()>2){
                 tempo = new Graphe(this, groupe);
-                result = tempo.estAcyclique( (int) mapAretes.keySet().toArray()[0], new ArrayList<>(), new Graphe(this) );
+                result = tempo.estAcyclique( (int) incidences().keySet().toArray()[0], new ArrayList<>(), new Graphe(this) );
                 if(result == false){
                     return false;
                 }
@@ -438,35 +613,140 @@ public class Graphe {
     }
 
     public Set<Integer> getClasseConnexite(int v) {
-        return getClasseConnexite(v, new HashSet<Integer>());
+        GrapheCompact g = compactSiDisponible();
+        if (g == null) {
+            return classeConnexiteIncidences(v);
+        }
+        // parcours en largeur sur les indices denses de la représentation compacte
+        Set<Integer> classe = new HashSet<>();
+        int s = g.indice(v);
+        if (s >= 0) {
+            int[] file = new int[g.nbSommets()];
+            int nb = g.parcoursLargeur(s, new boolean[g.nbSommets()], file);
+            for (int i = 0; i < nb; i++) {
+                classe.add(g.sommet(file[i]));
+            }
+        }
+        return classe;
     }
 
-    private Set<Integer> getClasseConnexite(int sommetCourant, Set<Integer> dejaVu){
-        ArrayList<Integer> voisins = new ArrayList<>(getVoisins(sommetCourant));
-        dejaVu.add(sommetCourant);
-        if(dejaVu.containsAll(voisins)){
-            return dejaVu;
-        }
-        else{
-            for(int i : voisins){
-                if(!dejaVu.contains(i)){
-                    getClasseConnexite(i, dejaVu);
+    /**
+     * Parcours en largeur depuis v sur la liste d'incidences (voir {@link #compactSiDisponible()})
+     */
+    private Set<Integer> classeConnexiteIncidences(int v) {
+        Map<Integer, HashSet<Arete>> incidences = mapAretes;
+        Set<Integer> classe = new HashSet<>();
+        if (!incidences.containsKey(v)) {
+            return classe;
+        }
+        ArrayDeque<Integer> file = new ArrayDeque<>();
+        classe.add(v);
+        file.add(v);
+        while (!file.isEmpty()) {
+            int u = file.poll();
+            for (Arete a : incidences.get(u)) {
+                int w = a.getAutreSommet(u);
+                if (classe.add(w)) {
+                    file.add(w);
                 }
             }
-            return dejaVu;
         }
+        return classe;
     }
 
     public Set<Set<Integer>> getEnsembleClassesConnexite() {
-        ArrayList<Integer> listeSommet = new ArrayList<>(mapAretes.keySet());
-        Set<Set<Integer>> ensemble = new HashSet<>();
-        Set<Integer> tempo = new HashSet<>();
-        while(!listeSommet.isEmpty()){
-            tempo = getClasseConnexite(listeSommet.get(0));
-            listeSommet.removeAll(tempo);
-            ensemble.add(tempo);
+        return getEnsembleClassesConnexite(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Calcule les classes de connexité en temps linéaire : les composantes sont d'abord étiquetées en parallèle
+     * sur le pool donné (voir {@link ParcoursParallele#composantes}), puis chaque sommet est rangé dans la classe
+     * de son étiquette.
+     */
+    public Set<Set<Integer>> getEnsembleClassesConnexite(ForkJoinPool pool) {
+        GrapheCompact g = getCompact();
+        int[] etiquettes = ParcoursParallele.composantes(g, pool);
+        List<Set<Integer>> classes = new ArrayList<>();
+        // etiquettes[u] <= u : la classe d'un sommet est créée au plus tard quand on rencontre son étiquette
+        int[] numeroClasse = new int[g.nbSommets()];
+        for (int u = 0; u < g.nbSommets(); u++) {
+            if (etiquettes[u] == u) {
+                numeroClasse[u] = classes.size();
+                classes.add(new HashSet<>());
+            }
+            classes.get(numeroClasse[etiquettes[u]]).add(g.sommet(u));
         }
-        return ensemble;
+        return new HashSet<>(classes);
+    }
+
+    /**
+     * @return pour chaque sommet accessible depuis v, le nombre minimal d'arêtes qui le séparent de v (table vide
+     * si v n'est pas un sommet du graphe)
+     */
+    public Map<Integer, Integer> distancesEnAretes(int v) {
+        return distancesEnAretes(v, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Même calcul que {@link #distancesEnAretes(int)}, par un parcours en largeur parallèle sur le pool donné (voir
+     * {@link ParcoursParallele#distancesLargeur})
+     */
+    public Map<Integer, Integer> distancesEnAretes(int v, ForkJoinPool pool) {
+        GrapheCompact g = getCompact();
+        Map<Integer, Integer> distances = new HashMap<>();
+        int s = g.indice(v);
+        if (s >= 0) {
+            int[] d = ParcoursParallele.distancesLargeur(g, s, pool);
+            for (int u = 0; u < d.length; u++) {
+                if (d[u] >= 0) {
+                    distances.put(g.sommet(u), d[u]);
+                }
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * Répond en une fois à un lot de questions "les sommets sources[q] et cibles[q] sont-ils reliés ?" : les
+     * classes de connexité ne sont calculées qu'une fois pour tout le lot.
+     *
+     * @return un tableau de booléens indexé comme les requêtes
+     */
+    public boolean[] sontConnectes(int[] sources, int[] cibles) {
+        return sontConnectes(sources, cibles, ForkJoinPool.commonPool());
+    }
+
+    public boolean[] sontConnectes(int[] sources, int[] cibles, ForkJoinPool pool) {
+        return RequetesGroupees.connectes(getCompact(), sources, cibles, pool);
+    }
+
+    /**
+     * Calcule en une fois les distances de sources[q] à cibles[q] pour toutes les requêtes q. Les requêtes sont
+     * regroupées par source : un seul parcours est fait par source distincte (voir {@link RequetesGroupees}).
+     *
+     * @param pondere true pour utiliser la longueur des routes comme poids, false pour compter les arêtes
+     * @return un tableau indexé comme les requêtes, qui vaut -1 pour les requêtes sans chemin
+     */
+    public int[] distances(int[] sources, int[] cibles, boolean pondere) {
+        return distances(sources, cibles, pondere, ForkJoinPool.commonPool());
+    }
+
+    public int[] distances(int[] sources, int[] cibles, boolean pondere, ForkJoinPool pool) {
+        return RequetesGroupees.distances(getCompact(), sources, cibles, pondere, pool);
+    }
+
+    /**
+     * Même regroupement que {@link #distances(int[], int[], boolean)}, pour obtenir les chemins eux-mêmes
+     *
+     * @return un tableau indexé comme les requêtes : chaque case contient les sommets d'un plus court chemin, de la
+     * source à la cible (tableau vide s'il n'y a pas de chemin)
+     */
+    public int[][] plusCourtsChemins(int[] sources, int[] cibles, boolean pondere) {
+        return plusCourtsChemins(sources, cibles, pondere, ForkJoinPool.commonPool());
+    }
+
+    public int[][] plusCourtsChemins(int[] sources, int[] cibles, boolean pondere, ForkJoinPool pool) {
+        return RequetesGroupees.chemins(getCompact(), sources, cibles, pondere, pool);
     }
 
     /**
@@ -505,6 +785,61 @@ public class Graphe {
         }
     }
 
+    /**
+     * Fusionne en une seule passe plusieurs groupes de sommets (contraction en lot).
+     * Chaque groupe est remplacé par son plus petit sommet, les arêtes internes à un groupe sont supprimées
+     * (pas de création de boucle) et les autres arêtes sont rattachées aux nouveaux sommets en conservant leur route.
+     * Les sommets absents du graphe sont ignorés.
+     * Contrairement à des appels successifs à {@link #fusionnerSommets(int, int)}, qui parcourent tout le graphe
+     * pour chaque fusion, le graphe n'est reconstruit qu'une seule fois, en O(n + m).
+     *
+     * @param groupes des ensembles de sommets deux à deux disjoints
+     */
+    public void fusionnerGroupes(Collection<? extends Collection<Integer>> groupes) {
+        Map<Integer, Integer> representants = new HashMap<>();
+        for (Collection<Integer> groupe : groupes) {
+            int min = Integer.MAX_VALUE;
+            for (int v : groupe) {
+                if (contientSommet(v)) {
+                    min = Math.min(min, v);
+                }
+            }
+            for (int v : groupe) {
+                if (contientSommet(v) && v != min) {
+                    representants.put(v, min);
+                }
+            }
+        }
+        if (representants.isEmpty()) {
+            return;
+        }
+        verifierModifiable();
+        Map<Integer, HashSet<Arete>> nouvelleMap = new HashMap<>();
+        for (int v : incidences().keySet()) {
+            if (!representants.containsKey(v)) {
+                nouvelleMap.put(v, new HashSet<>());
+            }
+        }
+        for (int v : incidences().keySet()) {
+            for (Arete a : incidences().get(v)) {
+                if (a.i() != v) {
+                    // chaque arête n'est traitée que depuis sa première extrémité
+                    continue;
+                }
+                int ri = representants.getOrDefault(a.i(), a.i());
+                int rj = representants.getOrDefault(a.j(), a.j());
+                if (ri == rj && a.i() != a.j()) {
+                    continue;
+                }
+                Arete b = (ri == a.i() && rj == a.j()) ? a : new Arete(ri, rj, a.route());
+                nouvelleMap.get(ri).add(b);
+                nouvelleMap.get(rj).add(b);
+            }
+        }
+        mapAretes = nouvelleMap;
+        invaliderCaches();
+    }
+
     /**
      * @return true si et seulement si la séquence d'entiers passée en paramètre correspond à un graphe simple valide.
      * La pondération des arêtes devrait être ignorée.
@@ -621,11 +956,39 @@ public class Graphe {
         return sequence;
     }
 
+    /**
+     * @return la forme canonique du graphe (calculée une seule fois tant que le graphe n'est pas modifié) : deux
+     * graphes sont isomorphes si et seulement s'ils ont la même forme canonique (voir {@link FormeCanonique})
+     */
+    public synchronized FormeCanonique getFormeCanonique() {
+        if (formeCanonique == null) {
+            formeCanonique = FormeCanonique.calculer(getCompact());
+        }
+        return formeCanonique;
+    }
+
     /**
      * @return true si les deux graphes passés en paramètre sont isomorphes.
-     * pré-requis : les deux graphes sont des graphes simples.
+     * Les formes canoniques des graphes suffisent à conclure, sauf si l'une d'elles n'a pas pu être calculée
+     * entièrement (graphe très symétrique) : on essaie alors les bijections une à une.
      */
     public static boolean sontIsomorphes(Graphe g1, Graphe g2) {
+        FormeCanonique f1 = g1.getFormeCanonique();
+        FormeCanonique f2 = g2.getFormeCanonique();
+        if (!f1.peutEtreIsomorphe(f2)) {
+            return false;
+        }
+        if (f1.estComplete() && f2.estComplete()) {
+            return true;
+        }
+        return sontIsomorphesParBijections(g1, g2);
+    }
+
+    /**
+     * Recherche exhaustive d'une bijection qui préserve les arêtes.
+     * pré-requis : les deux graphes sont des graphes simples.
+     */
+    private static boolean sontIsomorphesParBijections(Graphe g1, Graphe g2) {
         List<Integer> sequence1 = g1.getSequenceDegre();
         List<Integer> sequence2 = g2.getSequenceDegre();
         if(sequence1.equals(sequence2)){
@@ -633,9 +996,9 @@ public class Graphe {
             HashMap<Integer, Integer> compteurBijections = new HashMap<>();
             boolean fini = false;
             //-créations des différentes bijections possibles-
-            for (Integer i : g1.mapAretes.keySet()) {
+            for (Integer i : g1.incidences().keySet()) {
                 bijections.put(i, new ArrayList<Integer>());
-                for (Integer j : g2.mapAretes.keySet()) {
+                for (Integer j : g2.incidences().keySet()) {
                     if(g1.degre(i) == g2.degre(j)){
                         bijections.get(i).add(j);
                     }
@@ -661,7 +1024,7 @@ public class Graphe {
 
     private static boolean bijectionEstIsomorphe(Graphe g1, Graphe g2, Map<Integer, List<Integer>> bijection, Map<Integer, Integer> compteurBijection){
         Set<Integer> voisins = new HashSet<>();
-        for (Integer i : g1.mapAretes.keySet()) {
+        for (Integer i : g1.incidences().keySet()) {
             voisins = g1.getVoisins(i);
             for (Integer v : voisins) {
                 if(!g2.sontAdjacents(bijection.get(i).get(compteurBijection.get(i)), bijection.get(v).get(compteurBijection.get(v)))){
@@ -705,7 +1068,7 @@ public class Graphe {
 
     public List<Integer> getSequenceDegre(){
         List<Integer> sequence = new ArrayList<>();
-        for(Integer i : mapAretes.keySet()){
+        for(Integer i : incidences().keySet()){
             sequence.add(degre(i));
         }
         return ordonnerSequence(sequence);
@@ -730,21 +1093,42 @@ public class Graphe {
     }
 
     public Arete getArete(int i, int j){
-        if(getVoisins(i).contains(j)){
-            for (Arete a : mapAretes.get(i)) {
-                if(a.incidenteA(j)){
-                    return a;
+        // même arête que celle dont coutPionsChemin et ponderationChemin lisent les attributs
+        GrapheCompact g = compactSiDisponible();
+        if (g == null) {
+            // les cases de la représentation compacte suivent l'ordre des listes d'incidences : c'est la même arête
+            HashSet<Arete> aretes = mapAretes.get(i);
+            if (aretes != null) {
+                for (Arete a : aretes) {
+                    if (a.getAutreSommet(i) == j) {
+                        return a;
+                    }
                 }
             }
+            return null;
+        }
+        int u = g.indice(i);
+        int v = g.indice(j);
+        if (u < 0 || v < 0) {
+            return null;
         }
-        return null;
+        int e = g.premiereArete(u, v);
+        return e < 0 ? null : g.arete(e);
     }
 
     private int ponderationChemin(List<Integer> chemin, boolean pondere){
         if(pondere){
+            GrapheCompact g = compactSiDisponible();
             int result = 0;
+            if (g == null) {
+                for(int i=0; i<chemin.size()-1; i++){
+                    Route route = getArete(chemin.get(i), chemin.get(i+1)).route();
+                    result += route == null ? 1 : route.getLongueur();
+                }
+                return result;
+            }
             for(int i=0; i<chemin.size()-1; i++){
-                result+= getArete(chemin.get(i), chemin.get(i+1)).route().getLongueur();
+                result+= g.longueur(g.premiereArete(g.indice(chemin.get(i)), g.indice(chemin.get(i+1))));
             }
             return result;
         }
@@ -859,16 +1243,26 @@ public class Graphe {
     //indice 0 nbPionsWagon
     //indice 1 nbPionsBateau
     private int[] coutPionsChemin(List<Integer> chemin){
+        GrapheCompact g = compactSiDisponible();
         int[] compteurs = new int[2];
-        Route tempo;
-        for(int i=0; i<chemin.size()-1; i++){
-            tempo = getArete(chemin.get(i), chemin.get(i+1)).route();
-            if(tempo instanceof RouteMaritime){
-                compteurs[1]+= tempo.getLongueur();
-            }
-            else{
-                compteurs[0]+= tempo.getLongueur();
+        if (g == null) {
+            // mêmes valeurs que les colonnes coutsWagon et coutsBateau (voir GrapheCompact)
+            for(int i=0; i<chemin.size()-1; i++){
+                Route route = getArete(chemin.get(i), chemin.get(i+1)).route();
+                if (route == null) {
+                    compteurs[0]++;
+                } else if (route instanceof RouteMaritime) {
+                    compteurs[1] += route.getLongueur();
+                } else {
+                    compteurs[0] += route.getLongueur();
+                }
             }
+            return compteurs;
+        }
+        for(int i=0; i<chemin.size()-1; i++){
+            int e = g.premiereArete(g.indice(chemin.get(i)), g.indice(chemin.get(i+1)));
+            compteurs[0]+= g.coutWagon(e);
+            compteurs[1]+= g.coutBateau(e);
         }
         return compteurs;
     }
@@ -915,6 +1309,88 @@ public class Graphe {
         return chemin;
     }
 
+    /**
+     * Comme {@link #parcoursSansRepetition(int, int, boolean)}, mais la recherche s'arrête quand le budget est épuisé
+     * (voir {@link RechercheCheminBornee}).
+     *
+     * @param budget le budget (nombre de sommets développés et/ou durée) ; le même budget peut être partagé
+     *               entre plusieurs recherches
+     * @return le meilleur chemin trouvé (vide si aucun chemin n'a été trouvé), et true si ce chemin est
+     * garanti optimal (ou, s'il est vide, s'il est garanti qu'il n'existe pas de chemin)
+     */
+    public ResultatParcours parcoursSansRepetition(int depart, int arrivee, boolean pondere, Budget budget) {
+        return parcoursBorne(List.of(depart, arrivee), pondere ? RechercheCheminBornee.Cout.LONGUEUR
+                : RechercheCheminBornee.Cout.ARETES, Integer.MAX_VALUE, Integer.MAX_VALUE, budget);
+    }
+
+    /**
+     * Comme {@link #parcoursSansRepetition(int, int, int, int)}, mais la recherche s'arrête quand le budget est
+     * épuisé (voir {@link #parcoursSansRepetition(int, int, boolean, Budget)})
+     */
+    public ResultatParcours parcoursSansRepetition(int depart, int arrivee, int nbWagons, int nbBateaux,
+                                                   Budget budget) {
+        return parcoursBorne(List.of(depart, arrivee), RechercheCheminBornee.Cout.PIONS, nbWagons, nbBateaux, budget);
+    }
+
+    /**
+     * Comme {@link #parcoursSansRepetition(List, boolean)}, mais la recherche s'arrête quand le budget, partagé
+     * entre les portions du chemin, est épuisé. Le chemin n'est optimal que si chacune de ses portions l'est.
+     */
+    public ResultatParcours parcoursSansRepetition(List<Integer> listeSommets, boolean ponderation, Budget budget) {
+        return parcoursBorne(listeSommets, ponderation ? RechercheCheminBornee.Cout.LONGUEUR
+                : RechercheCheminBornee.Cout.ARETES, Integer.MAX_VALUE, Integer.MAX_VALUE, budget);
+    }
+
+    /**
+     * Comme {@link #parcoursSansRepetition(List, int, int)}, mais la recherche s'arrête quand le budget, partagé
+     * entre les portions du chemin, est épuisé. Le chemin n'est optimal que si chacune de ses portions l'est.
+     */
+    public ResultatParcours parcoursSansRepetition(List<Integer> listeSommets, int nbWagons, int nbBateaux,
+                                                   Budget budget) {
+        return parcoursBorne(listeSommets, RechercheCheminBornee.Cout.PIONS, nbWagons, nbBateaux, budget);
+    }
+
+    /**
+     * Enchaîne les recherches bornées entre sommets consécutifs de la liste, avec les mêmes sommets interdits que
+     * les versions sans budget : les sommets de la liste déjà sur le chemin et ceux qui restent à atteindre
+     */
+    private ResultatParcours parcoursBorne(List<Integer> listeSommets, RechercheCheminBornee.Cout cout,
+                                           int nbWagons, int nbBateaux, Budget budget) {
+        GrapheCompact g = getCompact();
+        int[] etapes = new int[listeSommets.size()];
+        for (int i = 0; i < etapes.length; i++) {
+            etapes[i] = g.indice(listeSommets.get(i));
+            if (etapes[i] < 0) {
+                return new ResultatParcours(new ArrayList<>(), true);
+            }
+        }
+        boolean[] interdits = new boolean[g.nbSommets()];
+        for (int u : etapes) {
+            interdits[u] = true;
+        }
+        List<Integer> chemin = new ArrayList<>();
+        chemin.add(listeSommets.get(0));
+        boolean optimal = true;
+        for (int i = 0; i < etapes.length - 1; i++) {
+            interdits[etapes[i]] = false;
+            interdits[etapes[i + 1]] = false;
+            ResultatParcours portion = etapes[i] == etapes[i + 1]
+                    ? new ResultatParcours(List.of(listeSommets.get(i)), true)
+                    : RechercheCheminBornee.chercher(g, etapes[i], etapes[i + 1], interdits, cout, nbWagons,
+                    nbBateaux, budget);
+            optimal &= portion.optimal();
+            if (portion.chemin().isEmpty()) {
+                return new ResultatParcours(new ArrayList<>(), optimal);
+            }
+            chemin.addAll(subTab(portion.chemin(), 1, portion.chemin().size()));
+            int[] nbPions = coutPionsChemin(portion.chemin());
+            nbWagons = nbWagons == Integer.MAX_VALUE ? nbWagons : nbWagons - nbPions[0];
+            nbBateaux = nbBateaux == Integer.MAX_VALUE ? nbBateaux : nbBateaux - nbPions[1];
+            interdits[etapes[i]] = true;
+        }
+        return new ResultatParcours(chemin, optimal);
+    }
+
     private List<Integer> intersect(List<Integer> a, List<Integer> b){
         List<Integer> result = new ArrayList<Integer>();
         for(int i : b){
@@ -934,6 +1410,107 @@ public class Graphe {
     }
 
 
+    /**
+     * Retourne la centralité d'intermédiarité (betweenness) de chaque sommet : la somme, sur toutes les paires
+     * de sommets {s,t}, de la proportion des plus courts chemins de s à t qui passent par le sommet.
+     * Le calcul (algorithme de Brandes) est parallélisé sur le pool commun et son résultat est conservé
+     * tant que le graphe n'est pas modifié.
+     *
+     * @param pondere true pour utiliser la longueur des routes comme poids, false pour compter les arêtes
+     */
+    public Map<Integer, Double> centraliteIntermediaireSommets(boolean pondere) {
+        return centraliteIntermediaireSommets(pondere, ForkJoinPool.commonPool());
+    }
+
+    public Map<Integer, Double> centraliteIntermediaireSommets(boolean pondere, ForkJoinPool pool) {
+        GrapheCompact g = getCompact();
+        double[] valeurs = getCentralite(pondere, pool).sommets();
+        Map<Integer, Double> resultat = new HashMap<>();
+        for (int u = 0; u < g.nbSommets(); u++) {
+            resultat.put(g.sommet(u), valeurs[u]);
+        }
+        return resultat;
+    }
+
+    /**
+     * Retourne la centralité d'intermédiarité de chaque arête : la somme, sur toutes les paires de sommets {s,t},
+     * de la proportion des plus courts chemins de s à t qui empruntent l'arête.
+     * Les routes de plus forte centralité sont les points de passage obligés du plateau.
+     *
+     * @param pondere true pour utiliser la longueur des routes comme poids, false pour compter les arêtes
+     */
+    public Map<Arete, Double> centraliteIntermediaireAretes(boolean pondere) {
+        return centraliteIntermediaireAretes(pondere, ForkJoinPool.commonPool());
+    }
+
+    public Map<Arete, Double> centraliteIntermediaireAretes(boolean pondere, ForkJoinPool pool) {
+        GrapheCompact g = getCompact();
+        double[] valeurs = getCentralite(pondere, pool).aretes();
+        Map<Arete, Double> resultat = new HashMap<>();
+        for (int e = 0; e < g.nbAretes(); e++) {
+            resultat.put(g.arete(e), valeurs[e]);
+        }
+        return resultat;
+    }
+
+    /**
+     * @return les nb arêtes de plus forte centralité d'intermédiarité, par ordre décroissant
+     */
+    public List<Arete> aretesLesPlusCentrales(int nb, boolean pondere) {
+        GrapheCompact g = getCompact();
+        double[] valeurs = getCentralite(pondere, ForkJoinPool.commonPool()).aretes();
+        List<Integer> numeros = new ArrayList<>();
+        for (int e = 0; e < g.nbAretes(); e++) {
+            numeros.add(e);
+        }
+        numeros.sort((e1, e2) -> Double.compare(valeurs[e2], valeurs[e1]));
+        List<Arete> resultat = new ArrayList<>();
+        for (int i = 0; i < Math.min(nb, numeros.size()); i++) {
+            resultat.add(g.arete(numeros.get(i)));
+        }
+        return resultat;
+    }
+
+    private synchronized Centralite.Resultat getCentralite(boolean pondere, ForkJoinPool pool) {
+        int i = pondere ? 1 : 0;
+        if (centralites[i] == null) {
+            centralites[i] = Centralite.calculer(getCompact(), pondere, pool);
+        }
+        return centralites[i];
+    }
+
+    /**
+     * Retourne une coupe minimale globale du graphe : un plus petit ensemble d'arêtes dont la suppression
+     * déconnecte le graphe (chaque arête compte pour 1). Sa valeur mesure la fragilité du réseau :
+     * un réseau de coupe minimale 1 peut être coupé en bloquant une seule route.
+     * L'algorithme de Stoer-Wagner (exact) est utilisé pour les graphes de taille raisonnable, et
+     * l'algorithme de Karger-Stein (probabiliste, essais en parallèle) pour les grands graphes.
+     *
+     * @return la coupe, ou null si le graphe a moins de 2 sommets. Si le graphe n'est pas connexe,
+     * la coupe retournée est de valeur 0.
+     */
+    public Coupe coupeMinimale() {
+        return CoupeMinimale.calculer(getCompact());
+    }
+
+    /**
+     * Coupe minimale globale calculée de manière déterministe par l'algorithme de Stoer-Wagner, en O(n³).
+     */
+    public Coupe coupeMinimaleStoerWagner() {
+        return CoupeMinimale.stoerWagner(getCompact());
+    }
+
+    /**
+     * Coupe minimale globale calculée par l'algorithme de Karger-Stein. Le résultat est exact avec une
+     * probabilité qui augmente avec le nombre d'essais (de l'ordre de log²(n) essais suffisent en pratique).
+     *
+     * @param nbEssais nombre d'essais indépendants, exécutés en parallèle sur le pool commun
+     * @param graine   graine du générateur aléatoire (deux appels avec la même graine donnent la même coupe)
+     */
+    public Coupe coupeMinimaleKargerStein(int nbEssais, long graine) {
+        return CoupeMinimale.kargerStein(getCompact(), nbEssais, graine, ForkJoinPool.commonPool());
+    }
+
     /**
      * Retourne un plus petit ensemble bloquant de routes entre deux villes. Cette fonction supposera que `this` est
      * bien un graphe issu du jeu avec des vraies routes (les objets routes ne sont pas null).
@@ -945,7 +1522,73 @@ public class Graphe {
      * Un seul est à retourner (au choix).
      */
     public Set<Route> ensembleBloquant(int ville1, int ville2) {
-        throw new RuntimeException("Méthode non implémentée");
+        // théorème de Menger : une coupe minimale du réseau de flot (capacité 1 par route) sépare les deux villes
+        GrapheCompact g = getCompact();
+        int s = g.indice(ville1);
+        int t = g.indice(ville2);
+        Set<Route> resultat = new HashSet<>();
+        if (s < 0 || t < 0 || s == t) {
+            return resultat;
+        }
+        FlotMaximal reseau = FlotMaximal.pourAretes(g);
+        reseau.calculer(s, t);
+        for (int e : reseau.aretesCoupe(s)) {
+            resultat.add(g.route(e));
+        }
+        return resultat;
+    }
+
+    /**
+     * Retourne un nombre maximum de chemins deux à deux sans arête commune entre deux villes (théorème de Menger :
+     * ce nombre est aussi la taille d'un plus petit ensemble bloquant). Le calcul repose sur un flot maximal où
+     * chaque arête a une capacité de 1, et ne demande donc pas d'énumérer les chemins.
+     *
+     * @return la liste des chemins, chacun donné par la liste de ses routes dans l'ordre de ville1 vers ville2
+     * (liste vide si les villes sont identiques, absentes du graphe ou non reliées)
+     */
+    public List<List<Route>> cheminsAretesDisjoints(int ville1, int ville2) {
+        GrapheCompact g = getCompact();
+        int s = g.indice(ville1);
+        int t = g.indice(ville2);
+        if (s < 0 || t < 0 || s == t) {
+            return new ArrayList<>();
+        }
+        FlotMaximal reseau = FlotMaximal.pourAretes(g);
+        reseau.calculer(s, t);
+        return routesDesChemins(g, reseau.decomposer(s, t));
+    }
+
+    /**
+     * Retourne un nombre maximum de chemins entre deux villes qui n'ont deux à deux aucune ville intermédiaire
+     * commune (chaque sommet autre que ville1 et ville2 est dédoublé avec une capacité de 1). Ces chemins sont
+     * en particulier sans arête commune.
+     *
+     * @return la liste des chemins, chacun donné par la liste de ses routes dans l'ordre de ville1 vers ville2
+     * (liste vide si les villes sont identiques, absentes du graphe ou non reliées)
+     */
+    public List<List<Route>> cheminsSommetsDisjoints(int ville1, int ville2) {
+        GrapheCompact g = getCompact();
+        int s = g.indice(ville1);
+        int t = g.indice(ville2);
+        if (s < 0 || t < 0 || s == t) {
+            return new ArrayList<>();
+        }
+        FlotMaximal reseau = FlotMaximal.pourSommets(g, s, t);
+        // on part de la sortie de s et on arrive à l'entrée de t
+        reseau.calculer(2 * s + 1, 2 * t);
+        return routesDesChemins(g, reseau.decomposer(2 * s + 1, 2 * t));
+    }
+
+    private static List<List<Route>> routesDesChemins(GrapheCompact g, List<List<Integer>> chemins) {
+        List<List<Route>> resultat = new ArrayList<>();
+        for (List<Integer> chemin : chemins) {
+            List<Route> routes = new ArrayList<>();
+            for (int e : chemin) {
+                routes.add(g.route(e));
+            }
+            resultat.add(routes);
+        }
+        return resultat;
     }
 
 
@@ -0,0 +1,461 @@
+package fr.umontpellier.iut.graphes;
+
+import fr.umontpellier.iut.rails.Route;
+import fr.umontpellier.iut.rails.RouteMaritime;
+
+import java.util.*;
+
+/**
+ * Représentation compacte et immuable d'un graphe, au format CSR (Compressed Sparse Row).
+ * Les sommets sont renumérotés de 0 à n-1 (par identifiant croissant) et les arêtes de 0 à m-1.
+ * Les voisins du sommet d'indice u se trouvent dans les cases debut(u) .. fin(u)-1, et pour chaque case k,
+ * voisin(k) donne l'indice du voisin et areteIncidente(k) le numéro de l'arête correspondante.
+ * <p>
+ * Cette représentation est construite une seule fois à partir d'un {@link Graphe} (tant que celui-ci n'est pas
+ * modifié) et sert de support aux algorithmes qui parcourent beaucoup le graphe : ils travaillent sur des
+ * tableaux d'entiers plutôt que sur les ensembles d'arêtes.
+ * <p>
+ * Les attributs des routes sont recopiés en colonnes (un tableau d'entiers par attribut, indexé par le numéro
+ * d'arête) : les algorithmes pondérés lisent longueurs[e] au lieu de suivre la route de l'arête. Une arête sans
+ * route est considérée comme une route terrestre grise de longueur 1, sans propriétaire. Comme les autres colonnes,
+ * celle des propriétaires est remplie à la construction et ne change plus : un changement de propriétaire oublie la
+ * représentation compacte du graphe (voir {@link Graphe#definirProprietaire}).
+ * <p>
+ * Les tableaux d'un graphe construit en mémoire sont des tableaux Java, lus directement par les accesseurs appelés
+ * dans les boucles internes des algorithmes. Les tableaux peuvent aussi être stockés hors du tas de la JVM ou projetés
+ * depuis un fichier (voir {@link FichierGraphe}) : ce sont alors des {@link TableauEntiers}, rangés à part (voir
+ * {@link Tampons}), et lus seulement quand la représentation n'a pas de tableaux Java. Dans le cas d'un fichier, les
+ * colonnes d'attributs sont lues dans le fichier et il n'y a pas d'objets Route.
+ */
+final class GrapheCompact {
+    /**
+     * identifiants[u] est l'identifiant (dans le Graphe) du sommet d'indice u ; les identifiants sont croissants
+     */
+    private final int[] identifiants;
+    /**
+     * Correspondance identifiant -> indice du sommet, ou null si la recherche se fait par dichotomie dans les
+     * identifiants
+     */
+    private final IndexSommets index;
+    /**
+     * Les voisins de u sont rangés dans voisins[debuts[u]] .. voisins[debuts[u+1]-1]
+     */
+    private final int[] debuts;
+    private final int[] voisins;
+    /**
+     * aretesIncidentes[k] est le numéro de l'arête qui relie le sommet à son voisin voisins[k]
+     */
+    private final int[] aretesIncidentes;
+    /**
+     * L'arête de numéro e relie les sommets d'indices extremites1[e] et extremites2[e] (dans cet ordre, qui est
+     * celui de l'arête d'origine)
+     */
+    private final int[] extremites1;
+    private final int[] extremites2;
+    /**
+     * routes[e] est la route de l'arête e ; le tableau vaut null si aucune arête n'a de route
+     */
+    private final Route[] routes;
+
+    /*
+     * Colonnes d'attributs, indexées par numéro d'arête (null si aucune arête n'a de route : toutes les arêtes ont
+     * alors les attributs par défaut)
+     */
+    private final int[] longueurs;
+    /**
+     * Nombre de pions wagon (resp. bateau) nécessaires pour capturer la route de l'arête
+     */
+    private final int[] coutsWagon;
+    private final int[] coutsBateau;
+    /**
+     * Rang (ordinal) de la couleur de la route, -1 si l'arête n'a pas de route
+     */
+    private final int[] couleurs;
+    /**
+     * Identifiant du joueur propriétaire de la route, -1 si la route est libre (voir {@link Graphe#definirProprietaire})
+     */
+    private final int[] proprietaires;
+    /**
+     * Tableaux de la représentation quand ils sont stockés dans des tampons (null s'ils sont stockés dans les
+     * tableaux Java ci-dessus, qui valent alors null)
+     */
+    private final Tampons tampons;
+
+    /**
+     * Tableaux d'une représentation stockée hors du tas de la JVM ou projetée depuis un fichier. Ils ont la même
+     * signification que les tableaux Java de {@link GrapheCompact}.
+     */
+    private record Tampons(TableauEntiers identifiants, TableauEntiers debuts, TableauEntiers voisins,
+                           TableauEntiers aretesIncidentes, TableauEntiers extremites1, TableauEntiers extremites2,
+                           TableauEntiers longueurs, TableauEntiers coutsWagon, TableauEntiers coutsBateau,
+                           TableauEntiers couleurs, TableauEntiers proprietaires) {
+    }
+
+    /**
+     * Construit la représentation compacte à partir de ses tableaux (qui ne sont pas recopiés)
+     *
+     * @param routes        route de chaque arête, ou null si aucune arête n'a de route
+     * @param proprietaires propriétaire de chaque route (les routes absentes de la table sont libres)
+     */
+    GrapheCompact(IndexSommets index, int[] debuts, int[] voisins, int[] aretesIncidentes,
+                  int[] extremites1, int[] extremites2, Route[] routes, Map<Route, Integer> proprietaires) {
+        identifiants = new int[index.taille()];
+        for (int u = 0; u < identifiants.length; u++) {
+            identifiants[u] = index.identifiant(u);
+        }
+        this.index = index;
+        this.debuts = debuts;
+        this.voisins = voisins;
+        this.aretesIncidentes = aretesIncidentes;
+        this.extremites1 = extremites1;
+        this.extremites2 = extremites2;
+        this.routes = routes;
+        tampons = null;
+        if (routes == null) {
+            longueurs = null;
+            coutsWagon = null;
+            coutsBateau = null;
+            couleurs = null;
+            this.proprietaires = null;
+            return;
+        }
+        int m = routes.length;
+        longueurs = new int[m];
+        coutsWagon = new int[m];
+        coutsBateau = new int[m];
+        couleurs = new int[m];
+        this.proprietaires = new int[m];
+        remplirColonnes(routes, proprietaires, TableauEntiers.de(longueurs), TableauEntiers.de(coutsWagon),
+                TableauEntiers.de(coutsBateau), TableauEntiers.de(couleurs), TableauEntiers.de(this.proprietaires));
+    }
+
+    /**
+     * Construit la représentation compacte à partir de ses tableaux stockés hors du tas (qui ne sont pas recopiés).
+     * Les identifiants des sommets et les colonnes d'attributs sont eux aussi stockés hors du tas ; seuls la table
+     * des sommets et les routes éventuelles restent dans le tas.
+     *
+     * @param routes        route de chaque arête, ou null si aucune arête n'a de route
+     * @param proprietaires propriétaire de chaque route (les routes absentes de la table sont libres)
+     */
+    GrapheCompact(IndexSommets index, TableauEntiers debuts, TableauEntiers voisins, TableauEntiers aretesIncidentes,
+                  TableauEntiers extremites1, TableauEntiers extremites2, Route[] routes,
+                  Map<Route, Integer> proprietaires) {
+        this(index, tamponsHorsTas(index, debuts, voisins, aretesIncidentes, extremites1, extremites2, routes,
+                proprietaires), routes);
+    }
+
+    private static Tampons tamponsHorsTas(IndexSommets index, TableauEntiers debuts, TableauEntiers voisins,
+                                          TableauEntiers aretesIncidentes, TableauEntiers extremites1,
+                                          TableauEntiers extremites2, Route[] routes,
+                                          Map<Route, Integer> proprietaires) {
+        TableauEntiers identifiants = TableauEntiers.horsTas(index.taille());
+        for (int u = 0; u < index.taille(); u++) {
+            identifiants.modifier(u, index.identifiant(u));
+        }
+        if (routes == null) {
+            return new Tampons(identifiants, debuts, voisins, aretesIncidentes, extremites1, extremites2,
+                    null, null, null, null, null);
+        }
+        int m = routes.length;
+        Tampons tampons = new Tampons(identifiants, debuts, voisins, aretesIncidentes, extremites1, extremites2,
+                TableauEntiers.horsTas(m), TableauEntiers.horsTas(m), TableauEntiers.horsTas(m),
+                TableauEntiers.horsTas(m), TableauEntiers.horsTas(m));
+        remplirColonnes(routes, proprietaires, tampons.longueurs(), tampons.coutsWagon(), tampons.coutsBateau(),
+                tampons.couleurs(), tampons.proprietaires());
+        return tampons;
+    }
+
+    /**
+     * Remplit les colonnes d'attributs (remplies de 0) à partir de la route de chaque arête
+     */
+    private static void remplirColonnes(Route[] routes, Map<Route, Integer> proprietaires, TableauEntiers longueurs,
+                                        TableauEntiers coutsWagon, TableauEntiers coutsBateau,
+                                        TableauEntiers couleurs, TableauEntiers colonneProprietaires) {
+        for (int e = 0; e < routes.length; e++) {
+            Route route = routes[e];
+            if (route == null) {
+                longueurs.modifier(e, 1);
+                coutsWagon.modifier(e, 1);
+                couleurs.modifier(e, -1);
+                colonneProprietaires.modifier(e, -1);
+            } else {
+                longueurs.modifier(e, route.getLongueur());
+                if (route instanceof RouteMaritime) {
+                    coutsBateau.modifier(e, route.getLongueur());
+                } else {
+                    coutsWagon.modifier(e, route.getLongueur());
+                }
+                couleurs.modifier(e, route.getCouleur() == null ? -1 : route.getCouleur().ordinal());
+                colonneProprietaires.modifier(e, proprietaires.getOrDefault(route, -1));
+            }
+        }
+    }
+
+    /**
+     * Construit la représentation compacte directement à partir de ses tableaux, sans routes (c'est le cas d'un
+     * graphe lu dans un fichier). Les sommets sont retrouvés par dichotomie dans identifiants.
+     *
+     * @param identifiants identifiants des sommets, par ordre croissant
+     * @param colonnes     colonnes longueurs, coutsWagon, coutsBateau, couleurs et proprietaires (dans cet ordre),
+     *                     ou null si toutes les arêtes ont les attributs par défaut
+     */
+    GrapheCompact(TableauEntiers identifiants, TableauEntiers debuts, TableauEntiers voisins,
+                  TableauEntiers aretesIncidentes, TableauEntiers extremites1, TableauEntiers extremites2,
+                  TableauEntiers[] colonnes) {
+        this(null, new Tampons(identifiants, debuts, voisins, aretesIncidentes, extremites1, extremites2,
+                colonnes == null ? null : colonnes[0], colonnes == null ? null : colonnes[1],
+                colonnes == null ? null : colonnes[2], colonnes == null ? null : colonnes[3],
+                colonnes == null ? null : colonnes[4]), null);
+    }
+
+    private GrapheCompact(IndexSommets index, Tampons tampons, Route[] routes) {
+        identifiants = null;
+        this.index = index;
+        debuts = null;
+        voisins = null;
+        aretesIncidentes = null;
+        extremites1 = null;
+        extremites2 = null;
+        this.routes = routes;
+        longueurs = null;
+        coutsWagon = null;
+        coutsBateau = null;
+        couleurs = null;
+        proprietaires = null;
+        this.tampons = tampons;
+    }
+
+    /**
+     * Construit la représentation compacte à partir d'une liste d'incidences.
+     * Pour chaque sommet, les cases de voisins sont rangées dans l'ordre d'itération de son ensemble d'arêtes.
+     *
+     * @param proprietaires propriétaire de chaque route (les routes absentes de la table sont libres)
+     */
+    static GrapheCompact depuisIncidences(Map<Integer, ? extends Collection<Arete>> incidences,
+                                          Map<Route, Integer> proprietaires) {
+        int n = incidences.size();
+        int[] sommets = new int[n];
+        int u = 0;
+        for (int id : incidences.keySet()) {
+            sommets[u++] = id;
+        }
+        Arrays.sort(sommets);
+        IndexSommets index = new IndexSommets(n);
+        for (u = 0; u < n; u++) {
+            index.ajouter(sommets[u]);
+        }
+
+        int[] debuts = new int[n + 1];
+        for (u = 0; u < n; u++) {
+            debuts[u + 1] = debuts[u] + incidences.get(sommets[u]).size();
+        }
+        int[] voisins = new int[debuts[n]];
+        int[] aretesIncidentes = new int[debuts[n]];
+
+        Map<Arete, Integer> numeros = new HashMap<>();
+        List<Arete> aretes = new ArrayList<>();
+        boolean avecRoutes = false;
+        int k = 0;
+        for (u = 0; u < n; u++) {
+            for (Arete a : incidences.get(sommets[u])) {
+                Integer e = numeros.get(a);
+                if (e == null) {
+                    e = aretes.size();
+                    numeros.put(a, e);
+                    aretes.add(a);
+                    avecRoutes |= a.route() != null;
+                }
+                voisins[k] = index.indice(a.getAutreSommet(sommets[u]));
+                aretesIncidentes[k] = e;
+                k++;
+            }
+        }
+
+        int m = aretes.size();
+        int[] extremites1 = new int[m];
+        int[] extremites2 = new int[m];
+        Route[] routes = avecRoutes ? new Route[m] : null;
+        for (int e = 0; e < m; e++) {
+            Arete a = aretes.get(e);
+            extremites1[e] = index.indice(a.i());
+            extremites2[e] = index.indice(a.j());
+            if (avecRoutes) {
+                routes[e] = a.route();
+            }
+        }
+        return new GrapheCompact(index, debuts, voisins, aretesIncidentes, extremites1, extremites2, routes,
+                proprietaires);
+    }
+
+    int nbSommets() {
+        return tampons == null ? identifiants.length : tampons.identifiants().longueur();
+    }
+
+    int nbAretes() {
+        return tampons == null ? extremites1.length : tampons.extremites1().longueur();
+    }
+
+    /**
+     * @return le nombre de cases du tableau des voisins (deux par arête, une seule pour une boucle)
+     */
+    int nbCases() {
+        return tampons == null ? voisins.length : tampons.voisins().longueur();
+    }
+
+    /**
+     * @return l'identifiant du sommet d'indice u
+     */
+    int sommet(int u) {
+        return tampons == null ? identifiants[u] : tampons.identifiants().valeur(u);
+    }
+
+    /**
+     * @return l'indice du sommet d'identifiant id, ou -1 si le sommet n'existe pas
+     */
+    int indice(int id) {
+        if (index != null) {
+            return index.indice(id);
+        }
+        int bas = 0;
+        int haut = nbSommets() - 1;
+        while (bas <= haut) {
+            int milieu = (bas + haut) >>> 1;
+            int x = sommet(milieu);
+            if (x < id) {
+                bas = milieu + 1;
+            } else if (x > id) {
+                haut = milieu - 1;
+            } else {
+                return milieu;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return true si les arêtes ont des colonnes d'attributs (sinon, elles ont toutes les attributs par défaut)
+     */
+    boolean aDesAttributs() {
+        return tampons == null ? longueurs != null : tampons.longueurs() != null;
+    }
+
+    /**
+     * Parcours en largeur depuis le sommet d'indice s : les sommets atteints sont marqués dans vu et rangés
+     * (dans l'ordre de visite) au début de file
+     *
+     * @return le nombre de sommets atteints (y compris s)
+     */
+    int parcoursLargeur(int s, boolean[] vu, int[] file) {
+        int tete = 0;
+        int queue = 0;
+        vu[s] = true;
+        file[queue++] = s;
+        while (tete < queue) {
+            int u = file[tete++];
+            for (int k = debut(u); k < fin(u); k++) {
+                int v = voisin(k);
+                if (!vu[v]) {
+                    vu[v] = true;
+                    file[queue++] = v;
+                }
+            }
+        }
+        return queue;
+    }
+
+    int debut(int u) {
+        return tampons == null ? debuts[u] : tampons.debuts().valeur(u);
+    }
+
+    int fin(int u) {
+        return tampons == null ? debuts[u + 1] : tampons.debuts().valeur(u + 1);
+    }
+
+    int degre(int u) {
+        return fin(u) - debut(u);
+    }
+
+    int voisin(int k) {
+        return tampons == null ? voisins[k] : tampons.voisins().valeur(k);
+    }
+
+    int areteIncidente(int k) {
+        return tampons == null ? aretesIncidentes[k] : tampons.aretesIncidentes().valeur(k);
+    }
+
+    /**
+     * @return l'arête de numéro e (une nouvelle instance, égale à l'arête d'origine)
+     */
+    Arete arete(int e) {
+        return new Arete(sommet(extremite1(e)), sommet(extremite2(e)), route(e));
+    }
+
+    /**
+     * @return la route de l'arête e (null si l'arête n'a pas de route)
+     */
+    Route route(int e) {
+        return routes == null ? null : routes[e];
+    }
+
+    /**
+     * @return l'indice de la première (resp. seconde) extrémité de l'arête e
+     */
+    int extremite1(int e) {
+        return tampons == null ? extremites1[e] : tampons.extremites1().valeur(e);
+    }
+
+    int extremite2(int e) {
+        return tampons == null ? extremites2[e] : tampons.extremites2().valeur(e);
+    }
+
+    /**
+     * @return le numéro de l'arête de la première case de u dont le voisin est v (c'est l'arête que renvoie
+     * {@link Graphe#getArete} pour les sommets correspondants), ou -1 si u et v ne sont pas adjacents
+     */
+    int premiereArete(int u, int v) {
+        for (int k = debut(u); k < fin(u); k++) {
+            if (voisin(k) == v) {
+                return areteIncidente(k);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return la longueur de la route de l'arête e (1 si l'arête n'a pas de route)
+     */
+    int longueur(int e) {
+        if (tampons == null) {
+            return longueurs == null ? 1 : longueurs[e];
+        }
+        return tampons.longueurs() == null ? 1 : tampons.longueurs().valeur(e);
+    }
+
+    int coutWagon(int e) {
+        if (tampons == null) {
+            return coutsWagon == null ? 1 : coutsWagon[e];
+        }
+        return tampons.coutsWagon() == null ? 1 : tampons.coutsWagon().valeur(e);
+    }
+
+    int coutBateau(int e) {
+        if (tampons == null) {
+            return coutsBateau == null ? 0 : coutsBateau[e];
+        }
+        return tampons.coutsBateau() == null ? 0 : tampons.coutsBateau().valeur(e);
+    }
+
+    int couleur(int e) {
+        if (tampons == null) {
+            return couleurs == null ? -1 : couleurs[e];
+        }
+        return tampons.couleurs() == null ? -1 : tampons.couleurs().valeur(e);
+    }
+
+    int proprietaire(int e) {
+        if (tampons == null) {
+            return proprietaires == null ? -1 : proprietaires[e];
+        }
+        return tampons.proprietaires() == null ? -1 : tampons.proprietaires().valeur(e);
+    }
+}
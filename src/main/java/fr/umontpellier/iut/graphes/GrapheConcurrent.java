@@ -0,0 +1,89 @@
+package fr.umontpellier.iut.graphes;
+
+import fr.umontpellier.iut.rails.Route;
+
+import java.util.function.Consumer;
+
+/**
+ * Graphe partagé entre plusieurs fils (par exemple le plateau commun à plusieurs parties), lu beaucoup plus souvent
+ * qu'il n'est modifié.
+ * <p>
+ * Le graphe est publié sous forme d'instantanés figés (voir {@link Graphe#figer()}) : une lecture se contente de
+ * prendre l'instantané courant, sans verrou, et peut ensuite l'interroger aussi longtemps qu'elle le souhaite (un
+ * instantané ne change jamais, et ses caches sont publiés de façon sûre). Une modification copie l'instantané
+ * courant, modifie la copie, la fige puis la publie à la place de l'ancien. Les modifications sont faites l'une
+ * après l'autre ; elles sont coûteuses (copie de tout le graphe) et ne conviennent donc qu'à un graphe rarement
+ * modifié.
+ */
+public final class GrapheConcurrent {
+    /**
+     * Instantané courant (figé)
+     */
+    private volatile Graphe instantane;
+    /**
+     * Nombre de modifications publiées depuis la création
+     */
+    private volatile long version;
+
+    /**
+     * @param graphe le graphe initial, recopié s'il n'est pas figé (il peut alors continuer à être modifié sans
+     *               effet sur ce graphe partagé)
+     */
+    public GrapheConcurrent(Graphe graphe) {
+        instantane = figer(graphe);
+    }
+
+    private static Graphe figer(Graphe graphe) {
+        if (graphe.estFige()) {
+            return graphe;
+        }
+        Graphe copie = new Graphe(graphe);
+        copie.figer();
+        return copie;
+    }
+
+    /**
+     * @return l'instantané courant du graphe : il est figé, et n'est pas affecté par les modifications ultérieures
+     */
+    public Graphe lire() {
+        return instantane;
+    }
+
+    /**
+     * @return le nombre de modifications publiées jusqu'ici (permet de savoir si un instantané déjà lu est toujours
+     * le plus récent)
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Applique une modification à une copie de l'instantané courant et publie le résultat. La modification est
+     * exécutée pendant que les autres écrivains attendent : elle doit être courte, et ne doit pas elle-même
+     * modifier ce graphe partagé.
+     *
+     * @param modification modification à appliquer (à un graphe modifiable, qui n'est visible que d'elle)
+     */
+    public synchronized void modifier(Consumer<Graphe> modification) {
+        Graphe copie = new Graphe(instantane);
+        modification.accept(copie);
+        copie.figer();
+        instantane = copie;
+        version++;
+    }
+
+    public void ajouterArete(Arete a) {
+        modifier(g -> g.ajouterArete(a));
+    }
+
+    public void supprimerArete(Arete a) {
+        modifier(g -> g.supprimerArete(a));
+    }
+
+    /**
+     * Voir {@link Graphe#definirProprietaire}
+     */
+    public void definirProprietaire(Route route, int joueur) {
+        modifier(g -> g.definirProprietaire(route, joueur));
+    }
+}
@@ -0,0 +1,116 @@
+package fr.umontpellier.iut.graphes;
+
+import java.util.Arrays;
+
+/**
+ * Correspondance bijective entre les identifiants des sommets (entiers quelconques, par exemple les identifiants
+ * des villes, qui croissent sans cesse au fil des plateaux créés) et des indices denses 0..n-1.
+ * <p>
+ * La table est à adressage ouvert (sondage linéaire) sur des tableaux d'entiers : aucune boîte Integer n'est créée,
+ * ni à la construction ni à la recherche. Les indices sont attribués dans l'ordre d'ajout.
+ */
+final class IndexSommets {
+    /**
+     * Les cases sont occupées par des couples (cles[c], indices[c] + 1) : une case dont indices[c] vaut 0 est libre
+     */
+    private int[] cles;
+    private int[] indices;
+    private int masque;
+    /**
+     * identifiants[u] est l'identifiant du sommet d'indice u
+     */
+    private int[] identifiants;
+    private int taille;
+
+    /**
+     * @param capacite nombre de sommets attendus (la table s'agrandit si nécessaire)
+     */
+    IndexSommets(int capacite) {
+        int nbCases = Integer.highestOneBit(Math.max(2, 2 * capacite) - 1) << 1;
+        cles = new int[nbCases];
+        indices = new int[nbCases];
+        masque = nbCases - 1;
+        identifiants = new int[Math.max(1, capacite)];
+    }
+
+    int taille() {
+        return taille;
+    }
+
+    /**
+     * @return l'indice du sommet d'identifiant id, ou -1 s'il n'est pas dans la table
+     */
+    int indice(int id) {
+        for (int c = melanger(id) & masque; indices[c] != 0; c = (c + 1) & masque) {
+            if (cles[c] == id) {
+                return indices[c] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return l'identifiant du sommet d'indice u
+     */
+    int identifiant(int u) {
+        return identifiants[u];
+    }
+
+    /**
+     * Ajoute l'identifiant s'il n'est pas déjà présent
+     *
+     * @return l'indice (nouveau ou existant) de l'identifiant
+     */
+    int ajouter(int id) {
+        int c = melanger(id) & masque;
+        while (indices[c] != 0) {
+            if (cles[c] == id) {
+                return indices[c] - 1;
+            }
+            c = (c + 1) & masque;
+        }
+        int u = taille++;
+        cles[c] = id;
+        indices[c] = u + 1;
+        if (u == identifiants.length) {
+            identifiants = Arrays.copyOf(identifiants, 2 * u);
+        }
+        identifiants[u] = id;
+        // facteur de remplissage maximal : 1/2
+        if (2 * taille > cles.length) {
+            agrandir();
+        }
+        return u;
+    }
+
+    private void agrandir() {
+        int[] anciennesCles = cles;
+        int[] anciensIndices = indices;
+        cles = new int[2 * anciennesCles.length];
+        indices = new int[2 * anciennesCles.length];
+        masque = cles.length - 1;
+        for (int c = 0; c < anciennesCles.length; c++) {
+            if (anciensIndices[c] != 0) {
+                int d = melanger(anciennesCles[c]) & masque;
+                while (indices[d] != 0) {
+                    d = (d + 1) & masque;
+                }
+                cles[d] = anciennesCles[c];
+                indices[d] = anciensIndices[c];
+            }
+        }
+    }
+
+    /**
+     * Mélange les bits de l'identifiant (finalisation de MurmurHash3) : des identifiants consécutifs ou espacés
+     * régulièrement ne tombent pas dans des cases voisines
+     */
+    private static int melanger(int x) {
+        x ^= x >>> 16;
+        x *= 0x85ebca6b;
+        x ^= x >>> 13;
+        x *= 0xc2b2ae35;
+        x ^= x >>> 16;
+        return x;
+    }
+}
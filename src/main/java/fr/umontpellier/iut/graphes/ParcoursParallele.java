@@ -0,0 +1,236 @@
+package fr.umontpellier.iut.graphes;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Composantes connexes et parcours en largeur parallèles sur un {@link GrapheCompact}, pour les grands graphes.
+ * <p>
+ * Le travail est découpé en tâches d'un {@link ForkJoinPool} (fourni par l'appelant) sur des intervalles d'arêtes
+ * ou de sommets. Les tâches partagent des tableaux d'entiers qu'elles modifient par compareAndSet, sans verrou :
+ * <ul>
+ *     <li>{@link #composantes} : union-find concurrente (famille Shiloach-Vishkin). Chaque arête accroche la racine
+ *     la plus grande de ses extrémités sous la plus petite, puis chaque sommet remonte jusqu'à sa racine.
+ *     La racine d'une composante est ainsi toujours son plus petit indice, quel que soit l'ordre d'exécution ;</li>
+ *     <li>{@link #distancesLargeur} : parcours en largeur niveau par niveau qui choisit son sens à chaque niveau
+ *     (Beamer et al.). Tant que la frontière est petite, on part de ses sommets ("haut-bas") ; quand elle touche
+ *     une grande partie des arêtes restantes, chaque sommet non atteint cherche plutôt un voisin dans la frontière
+ *     ("bas-haut"), ce qui évite de tester des arêtes inutilement.</li>
+ * </ul>
+ * Pour un petit graphe (une seule tâche), le calcul se fait dans le fil appelant sans passer par le pool.
+ */
+final class ParcoursParallele {
+    private static final VarHandle CASES = MethodHandles.arrayElementVarHandle(int[].class);
+    /**
+     * Nombre minimal d'éléments (arêtes, sommets) traités par une tâche
+     */
+    private static final int GRAIN_MINIMAL = 1 << 12;
+    /**
+     * Paramètres du changement de sens du parcours en largeur : on passe en bas-haut quand les arêtes de la
+     * frontière dépassent 1/ALPHA des arêtes non explorées, et on revient en haut-bas quand la frontière compte
+     * moins de 1/BETA des sommets
+     */
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+
+    private ParcoursParallele() {
+    }
+
+    /**
+     * @return le tableau etiquettes, tel que etiquettes[u] est le plus petit indice de la composante connexe du sommet
+     * d'indice u
+     */
+    static int[] composantes(GrapheCompact g, ForkJoinPool pool) {
+        int n = g.nbSommets();
+        int[] parents = new int[n];
+        for (int u = 0; u < n; u++) {
+            parents[u] = u;
+        }
+        executer(pool, g.nbAretes(), (debut, fin) -> {
+            for (int e = debut; e < fin; e++) {
+                unir(parents, g.extremite1(e), g.extremite2(e));
+            }
+        });
+        executer(pool, n, (debut, fin) -> {
+            for (int u = debut; u < fin; u++) {
+                // chaque tâche n'écrit que dans ses propres cases
+                parents[u] = racine(parents, u);
+            }
+        });
+        return parents;
+    }
+
+    private static void unir(int[] parents, int u, int v) {
+        while (true) {
+            int ru = racine(parents, u);
+            int rv = racine(parents, v);
+            if (ru == rv) {
+                return;
+            }
+            if (ru < rv) {
+                int t = ru;
+                ru = rv;
+                rv = t;
+            }
+            // ru n'est peut-être plus une racine : dans ce cas, on recommence
+            if (CASES.compareAndSet(parents, ru, ru, rv)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Remonte jusqu'à la racine de u en raccourcissant le chemin (chaque sommet visité est rattaché à son
+     * grand-parent, qui est aussi un de ses ancêtres : l'opération reste correcte en concurrence)
+     */
+    private static int racine(int[] parents, int u) {
+        int p = (int) CASES.getVolatile(parents, u);
+        while (p != u) {
+            int gp = (int) CASES.getVolatile(parents, p);
+            if (gp != p) {
+                CASES.compareAndSet(parents, u, p, gp);
+            }
+            u = p;
+            p = gp;
+        }
+        return u;
+    }
+
+    /**
+     * @return le tableau distances, tel que distances[u] est le nombre minimal d'arêtes entre s et le sommet
+     * d'indice u (-1 si u n'est pas accessible depuis s)
+     */
+    static int[] distancesLargeur(GrapheCompact g, int s, ForkJoinPool pool) {
+        int n = g.nbSommets();
+        int[] distances = new int[n];
+        Arrays.fill(distances, -1);
+        distances[s] = 0;
+        int[] frontiere = new int[n];
+        int[] suivante = new int[n];
+        int tailleFrontiere = 1;
+        frontiere[0] = s;
+        long aretesFrontiere = g.degre(s);
+        long aretesNonExplorees = g.nbCases() - aretesFrontiere;
+        boolean basHaut = false;
+        for (int profondeur = 0; tailleFrontiere > 0; profondeur++) {
+            int niveau = profondeur;
+            int prochain = profondeur + 1;
+            if (!basHaut && aretesFrontiere > aretesNonExplorees / ALPHA) {
+                basHaut = true;
+            } else if (basHaut && tailleFrontiere < n / BETA) {
+                basHaut = false;
+            }
+            AtomicInteger taille = new AtomicInteger();
+            AtomicLong aretes = new AtomicLong();
+            if (basHaut) {
+                executer(pool, n, (debut, fin) -> {
+                    int nb = 0;
+                    long degres = 0;
+                    for (int v = debut; v < fin; v++) {
+                        if (distances[v] < 0) {
+                            for (int k = g.debut(v); k < g.fin(v); k++) {
+                                if (distances[g.voisin(k)] == niveau) {
+                                    distances[v] = prochain;
+                                    nb++;
+                                    degres += g.degre(v);
+                                    break;
+                                }
+                            }
+                        }
+                    }
+                    taille.addAndGet(nb);
+                    aretes.addAndGet(degres);
+                });
+                tailleFrontiere = taille.get();
+                // la frontière (sommets au niveau suivant) n'est reconstruite que si l'on revient en haut-bas
+                if (tailleFrontiere < n / BETA) {
+                    int nb = 0;
+                    for (int v = 0; v < n; v++) {
+                        if (distances[v] == prochain) {
+                            frontiere[nb++] = v;
+                        }
+                    }
+                }
+            } else {
+                int[] courante = frontiere;
+                int[] cible = suivante;
+                executer(pool, tailleFrontiere, (debut, fin) -> {
+                    int[] locale = new int[64];
+                    int nb = 0;
+                    long degres = 0;
+                    for (int i = debut; i < fin; i++) {
+                        int u = courante[i];
+                        for (int k = g.debut(u); k < g.fin(u); k++) {
+                            int v = g.voisin(k);
+                            if (distances[v] < 0 && CASES.compareAndSet(distances, v, -1, prochain)) {
+                                if (nb == locale.length) {
+                                    locale = Arrays.copyOf(locale, 2 * nb);
+                                }
+                                locale[nb++] = v;
+                                degres += g.degre(v);
+                            }
+                        }
+                    }
+                    System.arraycopy(locale, 0, cible, taille.getAndAdd(nb), nb);
+                    aretes.addAndGet(degres);
+                });
+                tailleFrontiere = taille.get();
+                frontiere = cible;
+                suivante = courante;
+            }
+            aretesFrontiere = aretes.get();
+            aretesNonExplorees -= aretesFrontiere;
+        }
+        return distances;
+    }
+
+    /**
+     * Traitement des éléments d'indices debut .. fin-1
+     */
+    @FunctionalInterface
+    private interface Intervalle {
+        void traiter(int debut, int fin);
+    }
+
+    /**
+     * Applique le traitement à tous les éléments 0 .. nb-1, découpés en intervalles répartis sur le pool
+     */
+    private static void executer(ForkJoinPool pool, int nb, Intervalle traitement) {
+        int grain = Math.max(GRAIN_MINIMAL, nb / (4 * pool.getParallelism()));
+        if (nb <= grain) {
+            traitement.traiter(0, nb);
+        } else {
+            pool.invoke(new Tache(traitement, 0, nb, grain));
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class Tache extends RecursiveAction {
+        private final Intervalle traitement;
+        private final int debut;
+        private final int fin;
+        private final int grain;
+
+        Tache(Intervalle traitement, int debut, int fin, int grain) {
+            this.traitement = traitement;
+            this.debut = debut;
+            this.fin = fin;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (fin - debut <= grain) {
+                traitement.traiter(debut, fin);
+                return;
+            }
+            int milieu = (debut + fin) >>> 1;
+            invokeAll(new Tache(traitement, debut, milieu, grain), new Tache(traitement, milieu, fin, grain));
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package fr.umontpellier.iut.graphes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Recherche d'un chemin élémentaire de coût minimal entre deux sommets d'un {@link GrapheCompact}, à budget limité
+ * (voir {@link Budget}), éventuellement sous contrainte de pions (wagons et bateaux disponibles).
+ * <p>
+ * Le coût d'un pas u -> v est celui de l'arête que renvoie {@link Graphe#getArete} (première case de u dont le
+ * voisin est v), comme dans les parcoursSansRepetition de {@link Graphe}. La recherche procède ainsi :
+ * <ol>
+ *     <li>un Dijkstra depuis l'arrivée, sur ces seuls pas, donne pour chaque sommet le coût minimal restant (et, sous
+ *     contrainte, un minorant du nombre de wagons et de bateaux restant à poser) ;</li>
+ *     <li>si le chemin qui suit ces minorants depuis le départ respecte les contraintes, il est optimal et la
+ *     recherche s'arrête là (c'est toujours le cas sans contrainte de pions) ;</li>
+ *     <li>sinon, une recherche en profondeur par séparation et évaluation explore les chemins élémentaires, les
+ *     voisins les plus prometteurs d'abord, en coupant toute branche dont le minorant ne peut plus améliorer le
+ *     meilleur chemin trouvé ou dépasse les pions disponibles. Chaque sommet développé consomme le budget : s'il
+ *     s'épuise, le meilleur chemin trouvé jusque-là est renvoyé, sans garantie d'optimalité.</li>
+ * </ol>
+ */
+final class RechercheCheminBornee {
+    private static final long INFINI = Long.MAX_VALUE / 4;
+
+    /**
+     * Coût minimisé par la recherche
+     */
+    enum Cout {
+        /**
+         * nombre d'arêtes
+         */
+        ARETES,
+        /**
+         * somme des longueurs des routes
+         */
+        LONGUEUR,
+        /**
+         * nombre total de pions (wagons et bateaux)
+         */
+        PIONS
+    }
+
+    private final GrapheCompact g;
+    private final Cout cout;
+    private final boolean[] interdits;
+    private final int nbWagons;
+    private final int nbBateaux;
+    private final Budget budget;
+    private final boolean sousContrainte;
+    /**
+     * Minorants, pour chaque sommet, du coût (resp. du nombre de wagons, de bateaux) nécessaire pour rejoindre
+     * l'arrivée ; INFINI si l'arrivée est inaccessible
+     */
+    private final long[] minorants;
+    private final long[] minorantsWagons;
+    private final long[] minorantsBateaux;
+    /**
+     * Pas v -> u rangés par sommet d'arrivée : les pas qui arrivent en u sont ceux d'indices debutsPas[u] ..
+     * debutsPas[u + 1] - 1, de départ departsPas[i] et d'arête aretesPas[i] (celle que renvoie getArete(v, u))
+     */
+    private int[] debutsPas;
+    private int[] departsPas;
+    private int[] aretesPas;
+
+    private RechercheCheminBornee(GrapheCompact g, int t, boolean[] interdits, Cout cout, int nbWagons,
+                                  int nbBateaux, Budget budget) {
+        this.g = g;
+        this.cout = cout;
+        this.interdits = interdits;
+        this.nbWagons = nbWagons;
+        this.nbBateaux = nbBateaux;
+        this.budget = budget;
+        sousContrainte = nbWagons != Integer.MAX_VALUE || nbBateaux != Integer.MAX_VALUE;
+        indexerPas();
+        minorants = dijkstra(t, 0);
+        minorantsWagons = sousContrainte ? dijkstra(t, 1) : null;
+        minorantsBateaux = sousContrainte ? dijkstra(t, 2) : null;
+    }
+
+    /**
+     * Cherche un chemin élémentaire de s à t (indices de sommets) qui ne passe par aucun sommet interdit
+     *
+     * @param nbWagons  nombre de wagons disponibles (Integer.MAX_VALUE, ainsi que nbBateaux, pour ne pas limiter)
+     * @param nbBateaux nombre de bateaux disponibles
+     * @return le chemin (indices des sommets de s à t, vide si aucun chemin n'a été trouvé) et s'il est optimal
+     */
+    static ResultatParcours chercher(GrapheCompact g, int s, int t, boolean[] interdits, Cout cout, int nbWagons,
+                                     int nbBateaux, Budget budget) {
+        return new RechercheCheminBornee(g, t, interdits, cout, nbWagons, nbBateaux, budget).chercher(s, t);
+    }
+
+    private long cout(int e) {
+        return switch (cout) {
+            case ARETES -> 1;
+            case LONGUEUR -> g.longueur(e);
+            case PIONS -> g.coutWagon(e) + g.coutBateau(e);
+        };
+    }
+
+    /**
+     * @param critere 0 pour le coût, 1 pour les wagons, 2 pour les bateaux
+     */
+    private long poids(int e, int critere) {
+        return switch (critere) {
+            case 0 -> cout(e);
+            case 1 -> g.coutWagon(e);
+            default -> g.coutBateau(e);
+        };
+    }
+
+    /**
+     * Remplit debutsPas, departsPas et aretesPas : chaque pas v -> u n'y figure qu'une fois, avec l'arête de la
+     * première case de v dont le voisin est u (les arêtes parallèles suivantes ne sont jamais empruntées)
+     */
+    private void indexerPas() {
+        int n = g.nbSommets();
+        debutsPas = new int[n + 1];
+        int[] marques = new int[n];
+        Arrays.fill(marques, -1);
+        for (int v = 0; v < n; v++) {
+            for (int k = g.debut(v); k < g.fin(v); k++) {
+                int u = g.voisin(k);
+                if (marques[u] != v) {
+                    marques[u] = v;
+                    debutsPas[u + 1]++;
+                }
+            }
+        }
+        for (int u = 0; u < n; u++) {
+            debutsPas[u + 1] += debutsPas[u];
+        }
+        departsPas = new int[debutsPas[n]];
+        aretesPas = new int[debutsPas[n]];
+        int[] positions = Arrays.copyOf(debutsPas, n);
+        Arrays.fill(marques, -1);
+        for (int v = 0; v < n; v++) {
+            for (int k = g.debut(v); k < g.fin(v); k++) {
+                int u = g.voisin(k);
+                if (marques[u] != v) {
+                    marques[u] = v;
+                    departsPas[positions[u]] = v;
+                    aretesPas[positions[u]++] = g.areteIncidente(k);
+                }
+            }
+        }
+    }
+
+    /**
+     * Plus courtes distances jusqu'à t, chaque pas v -> u coûtant l'arête que renvoie getArete(v, u) : pour le coût,
+     * ce sont exactement les coûts minimaux des marches jusqu'à t (des minorants pour les chemins élémentaires)
+     */
+    private long[] dijkstra(int t, int critere) {
+        int n = g.nbSommets();
+        long[] d = new long[n];
+        Arrays.fill(d, INFINI);
+        TasBinaire tas = new TasBinaire(n);
+        d[t] = 0;
+        tas.inserer(t, 0);
+        while (!tas.estVide()) {
+            int u = tas.extraireMin();
+            for (int i = debutsPas[u]; i < debutsPas[u + 1]; i++) {
+                int v = departsPas[i];
+                long dv = d[u] + poids(aretesPas[i], critere);
+                if (!interdits[v] && dv < d[v]) {
+                    d[v] = dv;
+                    tas.inserer(v, dv);
+                }
+            }
+        }
+        return d;
+    }
+
+    private ResultatParcours chercher(int s, int t) {
+        if (minorants[s] >= INFINI) {
+            return new ResultatParcours(new ArrayList<>(), true);
+        }
+        List<Integer> direct = cheminDesMinorants(s, t);
+        if (direct != null) {
+            return new ResultatParcours(direct, true);
+        }
+
+        int n = g.nbSommets();
+        int[] pile = new int[n];
+        long[] couts = new long[n];
+        long[] wagons = new long[n];
+        long[] bateaux = new long[n];
+        // candidats[positions[p]] .. candidats[fins[p]-1] : cases des voisins restant à essayer depuis pile[p]
+        int[] candidats = new int[g.nbCases() + 1];
+        long[] cles = new long[g.nbCases() + 1];
+        int[] positions = new int[n];
+        int[] fins = new int[n];
+        boolean[] surChemin = new boolean[n];
+
+        long meilleur = INFINI;
+        int[] meilleurChemin = null;
+        int profondeur = 0;
+        pile[0] = s;
+        surChemin[s] = true;
+        fins[0] = preparerCandidats(s, 0, candidats, cles, surChemin);
+        while (profondeur >= 0) {
+            int u = pile[profondeur];
+            if (positions[profondeur] == fins[profondeur]) {
+                surChemin[u] = false;
+                profondeur--;
+                continue;
+            }
+            int i = positions[profondeur]++;
+            int k = candidats[i];
+            int v = g.voisin(k);
+            int e = g.areteIncidente(k);
+            if (couts[profondeur] + cles[i] >= meilleur) {
+                // les candidats suivants sont encore moins prometteurs
+                positions[profondeur] = fins[profondeur];
+                continue;
+            }
+            long c = couts[profondeur] + cout(e);
+            long w = wagons[profondeur] + g.coutWagon(e);
+            long b = bateaux[profondeur] + g.coutBateau(e);
+            if (sousContrainte && (w + minorantsWagons[v] > nbWagons || b + minorantsBateaux[v] > nbBateaux)) {
+                continue;
+            }
+            if (!budget.consommer()) {
+                return new ResultatParcours(enIdentifiants(meilleurChemin), false);
+            }
+            if (v == t) {
+                meilleur = c;
+                meilleurChemin = Arrays.copyOf(pile, profondeur + 2);
+                meilleurChemin[profondeur + 1] = t;
+                continue;
+            }
+            profondeur++;
+            pile[profondeur] = v;
+            couts[profondeur] = c;
+            wagons[profondeur] = w;
+            bateaux[profondeur] = b;
+            surChemin[v] = true;
+            positions[profondeur] = fins[profondeur - 1];
+            fins[profondeur] = preparerCandidats(v, fins[profondeur - 1], candidats, cles, surChemin);
+        }
+        return new ResultatParcours(enIdentifiants(meilleurChemin), true);
+    }
+
+    /**
+     * Range à partir de candidats[debut] les cases de u qui mènent à un voisin autorisé (une seule case par voisin :
+     * celle de l'arête que renvoie getArete), par ordre croissant de coût de l'arête plus minorant du voisin
+     *
+     * @return la position qui suit le dernier candidat rangé
+     */
+    private int preparerCandidats(int u, int debut, int[] candidats, long[] cles, boolean[] surChemin) {
+        int fin = debut;
+        for (int k = g.debut(u); k < g.fin(u); k++) {
+            int v = g.voisin(k);
+            int e = g.areteIncidente(k);
+            if (!surChemin[v] && !interdits[v] && minorants[v] < INFINI && g.premiereArete(u, v) == e) {
+                long cle = cout(e) + minorants[v];
+                // tri par insertion : les degrés sont petits
+                int i = fin++;
+                while (i > debut && cles[i - 1] > cle) {
+                    candidats[i] = candidats[i - 1];
+                    cles[i] = cles[i - 1];
+                    i--;
+                }
+                candidats[i] = k;
+                cles[i] = cle;
+            }
+        }
+        return fin;
+    }
+
+    /**
+     * Suit depuis s des arêtes qui réalisent exactement les minorants (arêtes de getArete uniquement)
+     *
+     * @return ce chemin s'il mène à t en respectant les contraintes (il est alors optimal), null sinon
+     */
+    private List<Integer> cheminDesMinorants(int s, int t) {
+        List<Integer> chemin = new ArrayList<>();
+        boolean[] vu = new boolean[g.nbSommets()];
+        long wagons = 0;
+        long bateaux = 0;
+        int u = s;
+        chemin.add(g.sommet(s));
+        vu[s] = true;
+        while (u != t) {
+            int suivant = -1;
+            for (int k = g.debut(u); k < g.fin(u) && suivant < 0; k++) {
+                int v = g.voisin(k);
+                int e = g.areteIncidente(k);
+                if (!vu[v] && !interdits[v] && cout(e) + minorants[v] == minorants[u]
+                        && g.premiereArete(u, v) == e) {
+                    suivant = v;
+                    wagons += g.coutWagon(e);
+                    bateaux += g.coutBateau(e);
+                }
+            }
+            if (suivant < 0) {
+                return null;
+            }
+            u = suivant;
+            vu[u] = true;
+            chemin.add(g.sommet(u));
+        }
+        return wagons <= nbWagons && bateaux <= nbBateaux ? chemin : null;
+    }
+
+    private List<Integer> enIdentifiants(int[] chemin) {
+        List<Integer> resultat = new ArrayList<>();
+        if (chemin != null) {
+            for (int u : chemin) {
+                resultat.add(g.sommet(u));
+            }
+        }
+        return resultat;
+    }
+}
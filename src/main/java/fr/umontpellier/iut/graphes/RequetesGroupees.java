@@ -0,0 +1,287 @@
+package fr.umontpellier.iut.graphes;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Traitement d'un lot de requêtes (source, cible) sur un {@link GrapheCompact} : connexité, distance et plus court
+ * chemin.
+ * <p>
+ * Les requêtes sont regroupées par source (tri des couples (source, numéro de requête) codés dans des long), et
+ * un seul parcours est fait par source distincte, quel que soit le nombre de cibles demandées. Le parcours
+ * s'arrête dès que toutes les cibles de sa source ont une distance définitive. Les groupes sont découpés en
+ * intervalles de numéros répartis entre les tâches d'un {@link ForkJoinPool}. Une tâche feuille alloue un seul
+ * espace de travail (distances, prédécesseurs, sommets touchés) qu'elle remet à zéro entre deux groupes, et comme
+ * chaque requête appartient à un seul groupe, chaque case du résultat n'est écrite que par une tâche.
+ * <p>
+ * Les résultats sont des tableaux indexés comme les requêtes. Une requête dont une extrémité n'est pas un sommet
+ * du graphe est traitée comme une requête sans chemin.
+ */
+final class RequetesGroupees {
+    private final GrapheCompact g;
+    private final boolean pondere;
+    private final int[] sources;
+    private final int[] cibles;
+    /**
+     * Numéros des requêtes valides, triés par source
+     */
+    private final int[] ordre;
+    /**
+     * Les requêtes du i-ème groupe (même source) sont ordre[debutsGroupes[i]] .. ordre[debutsGroupes[i+1]-1]
+     */
+    private final int[] debutsGroupes;
+    private final int[] distances;
+    /**
+     * null si les chemins ne sont pas demandés
+     */
+    private final int[][] chemins;
+
+    private RequetesGroupees(GrapheCompact g, int[] identifiantsSources, int[] identifiantsCibles, boolean pondere,
+                             boolean avecChemins) {
+        if (identifiantsSources.length != identifiantsCibles.length) {
+            throw new IllegalArgumentException("Il doit y avoir autant de sources que de cibles");
+        }
+        this.g = g;
+        this.pondere = pondere;
+        int nb = identifiantsSources.length;
+        sources = new int[nb];
+        cibles = new int[nb];
+        distances = new int[nb];
+        Arrays.fill(distances, -1);
+        chemins = avecChemins ? new int[nb][] : null;
+        long[] cles = new long[nb];
+        int nbValides = 0;
+        for (int q = 0; q < nb; q++) {
+            sources[q] = g.indice(identifiantsSources[q]);
+            cibles[q] = g.indice(identifiantsCibles[q]);
+            if (avecChemins) {
+                chemins[q] = new int[0];
+            }
+            if (sources[q] >= 0 && cibles[q] >= 0) {
+                cles[nbValides++] = ((long) sources[q] << 32) | q;
+            }
+        }
+        Arrays.sort(cles, 0, nbValides);
+        ordre = new int[nbValides];
+        int[] debuts = new int[nbValides + 1];
+        int nbGroupes = 0;
+        for (int r = 0; r < nbValides; r++) {
+            ordre[r] = (int) cles[r];
+            if (r == 0 || (cles[r] >>> 32) != (cles[r - 1] >>> 32)) {
+                debuts[nbGroupes++] = r;
+            }
+        }
+        debuts[nbGroupes] = nbValides;
+        debutsGroupes = Arrays.copyOf(debuts, nbGroupes + 1);
+    }
+
+    /**
+     * @return resultat[q] vaut true si et seulement si sources[q] et cibles[q] sont dans la même classe de connexité
+     */
+    static boolean[] connectes(GrapheCompact g, int[] sources, int[] cibles, ForkJoinPool pool) {
+        if (sources.length != cibles.length) {
+            throw new IllegalArgumentException("Il doit y avoir autant de sources que de cibles");
+        }
+        // une seule numérotation des composantes suffit pour toutes les requêtes
+        int[] etiquettes = ParcoursParallele.composantes(g, pool);
+        boolean[] resultat = new boolean[sources.length];
+        for (int q = 0; q < sources.length; q++) {
+            int u = g.indice(sources[q]);
+            int v = g.indice(cibles[q]);
+            resultat[q] = u >= 0 && v >= 0 && etiquettes[u] == etiquettes[v];
+        }
+        return resultat;
+    }
+
+    /**
+     * @return resultat[q] est la distance de sources[q] à cibles[q] (nombre d'arêtes, ou somme des longueurs si
+     * pondere), -1 s'il n'y a pas de chemin
+     */
+    static int[] distances(GrapheCompact g, int[] sources, int[] cibles, boolean pondere, ForkJoinPool pool) {
+        RequetesGroupees lot = new RequetesGroupees(g, sources, cibles, pondere, false);
+        lot.executer(pool);
+        return lot.distances;
+    }
+
+    /**
+     * @return resultat[q] est un plus court chemin de sources[q] à cibles[q] (identifiants des sommets, de la source
+     * à la cible), vide s'il n'y a pas de chemin
+     */
+    static int[][] chemins(GrapheCompact g, int[] sources, int[] cibles, boolean pondere, ForkJoinPool pool) {
+        RequetesGroupees lot = new RequetesGroupees(g, sources, cibles, pondere, true);
+        lot.executer(pool);
+        return lot.chemins;
+    }
+
+    private void executer(ForkJoinPool pool) {
+        int nbGroupes = debutsGroupes.length - 1;
+        if (nbGroupes == 0) {
+            return;
+        }
+        int grain = Math.max(1, nbGroupes / (4 * pool.getParallelism()));
+        if (nbGroupes <= grain) {
+            traiterGroupes(0, nbGroupes);
+        } else {
+            pool.invoke(new Tache(0, nbGroupes, grain));
+        }
+    }
+
+    private void traiterGroupes(int debut, int fin) {
+        Espace espace = new Espace();
+        for (int i = debut; i < fin; i++) {
+            espace.traiterGroupe(debutsGroupes[i], debutsGroupes[i + 1]);
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private final class Tache extends RecursiveAction {
+        private final int debut;
+        private final int fin;
+        private final int grain;
+
+        Tache(int debut, int fin, int grain) {
+            this.debut = debut;
+            this.fin = fin;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (fin - debut <= grain) {
+                traiterGroupes(debut, fin);
+                return;
+            }
+            int milieu = (debut + fin) >>> 1;
+            invokeAll(new Tache(debut, milieu, grain), new Tache(milieu, fin, grain));
+        }
+    }
+
+    /**
+     * Tableaux de travail propres à une tâche. Seules les cases touchées par un parcours sont remises à zéro
+     * avant le suivant, pour que le coût d'un groupe ne dépende pas de la taille du graphe.
+     */
+    private final class Espace {
+        private final long[] dist;
+        private final int[] predecesseurs;
+        /**
+         * Sommets touchés par le parcours en cours (dans l'ordre de visite pour le parcours en largeur)
+         */
+        private final int[] touches;
+        private int nbTouches;
+        /**
+         * attendus[v] vaut numeroGroupe si v est une cible du groupe en cours qui n'est pas encore atteinte
+         */
+        private final int[] attendus;
+        private int numeroGroupe;
+        private final TasBinaire tas;
+
+        Espace() {
+            int n = g.nbSommets();
+            dist = new long[n];
+            Arrays.fill(dist, -1);
+            predecesseurs = new int[n];
+            touches = new int[n];
+            attendus = new int[n];
+            tas = pondere ? new TasBinaire(n) : null;
+        }
+
+        void traiterGroupe(int debut, int fin) {
+            numeroGroupe++;
+            int s = sources[ordre[debut]];
+            int restantes = 0;
+            for (int r = debut; r < fin; r++) {
+                int v = cibles[ordre[r]];
+                if (attendus[v] != numeroGroupe) {
+                    attendus[v] = numeroGroupe;
+                    restantes++;
+                }
+            }
+            if (pondere) {
+                dijkstra(s, restantes);
+            } else {
+                largeur(s, restantes);
+            }
+            for (int r = debut; r < fin; r++) {
+                int q = ordre[r];
+                int v = cibles[q];
+                distances[q] = (int) dist[v];
+                if (chemins != null && dist[v] >= 0) {
+                    chemins[q] = chemin(s, v);
+                }
+            }
+            for (int i = 0; i < nbTouches; i++) {
+                dist[touches[i]] = -1;
+            }
+            nbTouches = 0;
+        }
+
+        /**
+         * Indique qu'un sommet a atteint sa distance définitive
+         *
+         * @return le nombre de cibles du groupe restant à atteindre
+         */
+        private int atteindre(int v, int restantes) {
+            if (attendus[v] == numeroGroupe) {
+                attendus[v] = 0;
+                return restantes - 1;
+            }
+            return restantes;
+        }
+
+        private void largeur(int s, int restantes) {
+            int tete = 0;
+            dist[s] = 0;
+            touches[nbTouches++] = s;
+            restantes = atteindre(s, restantes);
+            while (tete < nbTouches && restantes > 0) {
+                int u = touches[tete++];
+                for (int k = g.debut(u); k < g.fin(u) && restantes > 0; k++) {
+                    int v = g.voisin(k);
+                    if (dist[v] < 0) {
+                        dist[v] = dist[u] + 1;
+                        predecesseurs[v] = u;
+                        touches[nbTouches++] = v;
+                        restantes = atteindre(v, restantes);
+                    }
+                }
+            }
+        }
+
+        private void dijkstra(int s, int restantes) {
+            tas.vider();
+            dist[s] = 0;
+            touches[nbTouches++] = s;
+            tas.inserer(s, 0);
+            while (!tas.estVide() && restantes > 0) {
+                int u = tas.extraireMin();
+                restantes = atteindre(u, restantes);
+                for (int k = g.debut(u); k < g.fin(u); k++) {
+                    int v = g.voisin(k);
+                    long d = dist[u] + g.longueur(g.areteIncidente(k));
+                    if (dist[v] < 0) {
+                        touches[nbTouches++] = v;
+                    }
+                    if (dist[v] < 0 || d < dist[v]) {
+                        dist[v] = d;
+                        predecesseurs[v] = u;
+                        tas.inserer(v, d);
+                    }
+                }
+            }
+            // si le tas n'est pas vide, toutes les cibles en sont déjà sorties : leurs distances sont définitives
+        }
+
+        private int[] chemin(int s, int v) {
+            int longueur = 1;
+            for (int w = v; w != s; w = predecesseurs[w]) {
+                longueur++;
+            }
+            int[] chemin = new int[longueur];
+            for (int w = v, i = longueur - 1; i >= 0; w = predecesseurs[w], i--) {
+                chemin[i] = g.sommet(w);
+            }
+            return chemin;
+        }
+    }
+}
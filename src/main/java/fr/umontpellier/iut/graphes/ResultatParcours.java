@@ -0,0 +1,14 @@
+package fr.umontpellier.iut.graphes;
+
+import java.util.List;
+
+/**
+ * Résultat d'une recherche de chemin à budget limité (voir {@link Budget}).
+ *
+ * @param chemin  le meilleur chemin trouvé (identifiants des sommets, du départ à l'arrivée), vide si aucun chemin
+ *                n'a été trouvé
+ * @param optimal true si la recherche est allée jusqu'au bout : le chemin est alors optimal, et un chemin vide
+ *                signifie qu'il n'existe pas de chemin
+ */
+public record ResultatParcours(List<Integer> chemin, boolean optimal) {
+}
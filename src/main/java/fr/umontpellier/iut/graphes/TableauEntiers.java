@@ -0,0 +1,196 @@
+package fr.umontpellier.iut.graphes;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Tableau d'entiers de taille fixe, qui sert de stockage aux tableaux de la représentation compacte
+ * ({@link GrapheCompact}).
+ * <p>
+ * Le stockage est soit un tableau Java (cas des graphes construits en mémoire), soit un tampon d'entiers, par exemple
+ * la projection en mémoire d'une partie d'un fichier (voir {@link FichierGraphe}) : les algorithmes qui travaillent
+ * sur la représentation compacte lisent alors directement le fichier, sans recopie.
+ * <p>
+ * Un tampon ne peut pas dépasser 2 Go : au-delà, le tableau est découpé en morceaux de 2^{@link #BITS_MORCEAU}
+ * entiers, chacun dans son propre tampon.
+ */
+abstract class TableauEntiers {
+    /**
+     * Les tableaux découpés le sont en morceaux de 2^BITS_MORCEAU entiers (1 Go)
+     */
+    static final int BITS_MORCEAU = 28;
+
+    /**
+     * @return un tableau qui utilise t comme stockage (t n'est pas recopié)
+     */
+    static TableauEntiers de(int[] t) {
+        return new SurTableau(t);
+    }
+
+    /**
+     * @return un tableau qui utilise les cases 0 .. limit()-1 du tampon comme stockage (le tampon n'est pas recopié)
+     */
+    static TableauEntiers de(IntBuffer tampon) {
+        return new SurTampon(tampon);
+    }
+
+    /**
+     * @return un tableau dont les morceaux (de 2^bitsMorceau entiers, sauf le dernier qui peut être plus court)
+     * sont les tampons donnés, qui ne sont pas recopiés
+     */
+    static TableauEntiers enMorceaux(IntBuffer[] morceaux, int bitsMorceau) {
+        return morceaux.length == 1 ? new SurTampon(morceaux[0]) : new EnMorceaux(morceaux, bitsMorceau);
+    }
+
+    /**
+     * Alloue un tableau de la longueur donnée (rempli de 0) hors du tas de la JVM, dans des tampons directs.
+     * Cette mémoire n'est pas parcourue par le ramasse-miettes ; sa taille totale est limitée par l'option
+     * -XX:MaxDirectMemorySize (par défaut, la taille maximale du tas).
+     */
+    static TableauEntiers horsTas(int longueur) {
+        int nbMorceaux = Math.max(1, (int) ((longueur + (1L << BITS_MORCEAU) - 1) >>> BITS_MORCEAU));
+        IntBuffer[] morceaux = new IntBuffer[nbMorceaux];
+        for (int i = 0; i < nbMorceaux; i++) {
+            int taille = (int) Math.min(1L << BITS_MORCEAU, longueur - ((long) i << BITS_MORCEAU));
+            morceaux[i] = ByteBuffer.allocateDirect(4 * taille).order(ByteOrder.nativeOrder()).asIntBuffer();
+        }
+        return enMorceaux(morceaux, BITS_MORCEAU);
+    }
+
+    /**
+     * Alloue un tableau de la longueur donnée (rempli de 0), hors du tas (voir {@link #horsTas(int)}) ou dans un
+     * tableau Java
+     */
+    static TableauEntiers allouer(int longueur, boolean horsTas) {
+        return horsTas ? horsTas(longueur) : de(new int[longueur]);
+    }
+
+    /**
+     * @return une copie de ce tableau, allongée (avec des 0) ou tronquée à la longueur donnée, stockée comme ce
+     * tableau : dans un tableau Java s'il l'est, hors du tas sinon
+     */
+    TableauEntiers copie(int longueur) {
+        TableauEntiers copie = horsTas(longueur);
+        for (int i = 0, fin = Math.min(longueur, longueur()); i < fin; i++) {
+            copie.modifier(i, valeur(i));
+        }
+        return copie;
+    }
+
+    /**
+     * @return le tableau Java qui sert de stockage (il n'est pas recopié), ou null si le stockage est un tampon
+     */
+    int[] tableau() {
+        return null;
+    }
+
+    /**
+     * @return une copie de ce tableau, hors du tas (voir {@link #horsTas(int)})
+     */
+    TableauEntiers copieHorsTas() {
+        TableauEntiers copie = horsTas(longueur());
+        for (int i = 0; i < longueur(); i++) {
+            copie.modifier(i, valeur(i));
+        }
+        return copie;
+    }
+
+    abstract int longueur();
+
+    /**
+     * @return la valeur de la case i
+     */
+    abstract int valeur(int i);
+
+    /**
+     * Remplace la valeur de la case i (lève une exception si le stockage est en lecture seule)
+     */
+    abstract void modifier(int i, int valeur);
+
+    private static final class SurTableau extends TableauEntiers {
+        private final int[] cases;
+
+        private SurTableau(int[] cases) {
+            this.cases = cases;
+        }
+
+        @Override
+        TableauEntiers copie(int longueur) {
+            return new SurTableau(Arrays.copyOf(cases, longueur));
+        }
+
+        @Override
+        int[] tableau() {
+            return cases;
+        }
+
+        @Override
+        int longueur() {
+            return cases.length;
+        }
+
+        @Override
+        int valeur(int i) {
+            return cases[i];
+        }
+
+        @Override
+        void modifier(int i, int valeur) {
+            cases[i] = valeur;
+        }
+    }
+
+    private static final class SurTampon extends TableauEntiers {
+        private final IntBuffer cases;
+
+        private SurTampon(IntBuffer cases) {
+            this.cases = cases;
+        }
+
+        @Override
+        int longueur() {
+            return cases.limit();
+        }
+
+        @Override
+        int valeur(int i) {
+            return cases.get(i);
+        }
+
+        @Override
+        void modifier(int i, int valeur) {
+            cases.put(i, valeur);
+        }
+    }
+
+    private static final class EnMorceaux extends TableauEntiers {
+        private final IntBuffer[] morceaux;
+        private final int bitsMorceau;
+        private final int masque;
+        private final int longueur;
+
+        private EnMorceaux(IntBuffer[] morceaux, int bitsMorceau) {
+            this.morceaux = morceaux;
+            this.bitsMorceau = bitsMorceau;
+            masque = (1 << bitsMorceau) - 1;
+            longueur = ((morceaux.length - 1) << bitsMorceau) + morceaux[morceaux.length - 1].limit();
+        }
+
+        @Override
+        int longueur() {
+            return longueur;
+        }
+
+        @Override
+        int valeur(int i) {
+            return morceaux[i >>> bitsMorceau].get(i & masque);
+        }
+
+        @Override
+        void modifier(int i, int valeur) {
+            morceaux[i >>> bitsMorceau].put(i & masque, valeur);
+        }
+    }
+}
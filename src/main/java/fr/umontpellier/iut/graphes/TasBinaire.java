@@ -0,0 +1,109 @@
+package fr.umontpellier.iut.graphes;
+
+import java.util.Arrays;
+
+/**
+ * File de priorité (tas binaire min) sur les indices de sommets 0..n-1, avec diminution de clé.
+ * Utilisée par les variantes pondérées des parcours (Dijkstra) pour éviter d'allouer un objet par entrée.
+ */
+final class TasBinaire {
+    private final int[] tas;
+    /**
+     * position[u] donne la place de u dans le tas, ou -1 si u n'est pas dans le tas
+     */
+    private final int[] position;
+    private final long[] cles;
+    private int taille;
+
+    TasBinaire(int n) {
+        tas = new int[n];
+        position = new int[n];
+        cles = new long[n];
+        Arrays.fill(position, -1);
+    }
+
+    boolean estVide() {
+        return taille == 0;
+    }
+
+    boolean contient(int u) {
+        return position[u] >= 0;
+    }
+
+    /**
+     * Ajoute u avec la clé donnée, ou diminue sa clé s'il est déjà présent
+     */
+    void inserer(int u, long cle) {
+        if (position[u] < 0) {
+            tas[taille] = u;
+            position[u] = taille;
+            taille++;
+            cles[u] = cle;
+            monter(position[u]);
+        } else if (cle < cles[u]) {
+            cles[u] = cle;
+            monter(position[u]);
+        }
+    }
+
+    /**
+     * Retire et renvoie le sommet de plus petite clé
+     */
+    int extraireMin() {
+        int min = tas[0];
+        taille--;
+        position[min] = -1;
+        if (taille > 0) {
+            tas[0] = tas[taille];
+            position[tas[0]] = 0;
+            descendre(0);
+        }
+        return min;
+    }
+
+    /**
+     * Vide le tas (en O(taille)) pour pouvoir le réutiliser
+     */
+    void vider() {
+        for (int i = 0; i < taille; i++) {
+            position[tas[i]] = -1;
+        }
+        taille = 0;
+    }
+
+    private void monter(int i) {
+        int u = tas[i];
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (cles[tas[parent]] <= cles[u]) {
+                break;
+            }
+            tas[i] = tas[parent];
+            position[tas[i]] = i;
+            i = parent;
+        }
+        tas[i] = u;
+        position[u] = i;
+    }
+
+    private void descendre(int i) {
+        int u = tas[i];
+        while (true) {
+            int fils = 2 * i + 1;
+            if (fils >= taille) {
+                break;
+            }
+            if (fils + 1 < taille && cles[tas[fils + 1]] < cles[tas[fils]]) {
+                fils++;
+            }
+            if (cles[tas[fils]] >= cles[u]) {
+                break;
+            }
+            tas[i] = tas[fils];
+            position[tas[i]] = i;
+            i = fils;
+        }
+        tas[i] = u;
+        position[u] = i;
+    }
+}
@@ -0,0 +1,194 @@
+package fr.umontpellier.iut.gui;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.google.gson.Gson;
+
+/**
+ * Encodage des états successifs d'une partie envoyés aux clients d'une salle : chaque état reçoit un numéro de
+ * version, et peut être envoyé soit complet, soit sous la forme d'un patch qui ne contient que ce qui a changé
+ * depuis la version précédente. Le patch contient {@code version} et {@code base} (la version de l'état et celle à
+ * laquelle le patch s'applique), {@code joueurs} (les différences des joueurs qui ont changé, indexées par leur
+ * position) et la différence du reste de l'état. Une différence entre deux objets ne contient que ses sections non
+ * vides parmi :
+ * <ul>
+ * <li>{@code modifications} : les entrées remplacées, avec leur nouvelle valeur</li>
+ * <li>{@code listes} : les listes modifiées, décrites par le seul intervalle qui a changé ({@code debut}, nombre
+ * d'éléments {@code retires} et nouveaux {@code elements}), ce qui couvre les lignes ajoutées au log, les cartes
+ * ajoutées à une défausse, une carte insérée dans la main d'un joueur ou la carte visible remplacée</li>
+ * <li>{@code objets} : la différence des entrées qui sont elles-mêmes des objets (les piles de cartes)</li>
+ * </ul>
+ * Un état complet contient toutes les entrées de l'état et sa {@code version}.
+ * <p>
+ * Les états sont comparés entrée par entrée (avec {@code equals}, jusque dans les éléments des listes) avant
+ * d'être convertis en JSON : seules les parties modifiées sont converties pour le patch, et l'état complet n'est
+ * converti que s'il est demandé.
+ */
+class EncodeurEtat {
+    private static final Gson GSON = new Gson();
+
+    private long version;
+    /**
+     * Dernier état (vide avant le premier)
+     */
+    private Map<String, Object> etat = Map.of();
+    /**
+     * Patch de la version précédente à la version courante (null si le dernier état ne peut pas être envoyé sous
+     * forme de patch)
+     */
+    private Map<String, Object> patch;
+    private String patchJson;
+    private String completJson;
+
+    long getVersion() {
+        return version;
+    }
+
+    /**
+     * Enregistre un nouvel état de la partie (qui ne doit plus être modifié ensuite), et calcule le patch depuis
+     * l'état précédent
+     */
+    void mettreAJour(Map<String, Object> nouvelEtat) {
+        patch = version == 0 ? null : calculerPatch(etat, nouvelEtat);
+        version++;
+        etat = nouvelEtat;
+        patchJson = null;
+        completJson = null;
+    }
+
+    /**
+     * @return le patch de la version précédente à la version courante, au format JSON, ou null si l'état courant
+     * doit être envoyé complet
+     */
+    String getPatch() {
+        if (patch != null && patchJson == null) {
+            Map<String, Object> donnees = new LinkedHashMap<>(patch);
+            donnees.put("version", version);
+            donnees.put("base", version - 1);
+            patchJson = GSON.toJson(donnees);
+        }
+        return patchJson;
+    }
+
+    /**
+     * @return l'état courant complet, au format JSON (une chaîne vide avant le premier état)
+     */
+    String getComplet() {
+        if (completJson == null) {
+            if (version == 0) {
+                completJson = "";
+            } else {
+                Map<String, Object> donnees = new LinkedHashMap<>(etat);
+                donnees.put("version", version);
+                completJson = GSON.toJson(donnees);
+            }
+        }
+        return completJson;
+    }
+
+    /**
+     * @return le patch de l'ancien état au nouveau, ou null si le nouvel état ne peut pas être décrit par un patch
+     * (entrées retirées, joueurs ajoutés ou retirés, log raccourci)
+     */
+    private static Map<String, Object> calculerPatch(Map<String, Object> ancien, Map<String, Object> nouveau) {
+        List<?> anciensJoueurs = (List<?>) ancien.getOrDefault("joueurs", List.of());
+        List<?> nouveauxJoueurs = (List<?>) nouveau.getOrDefault("joueurs", List.of());
+        List<?> ancienLog = (List<?>) ancien.getOrDefault("log", List.of());
+        List<?> log = (List<?>) nouveau.getOrDefault("log", List.of());
+        if (anciensJoueurs.size() != nouveauxJoueurs.size() || log.size() < ancienLog.size()) {
+            return null;
+        }
+        Map<String, Object> patch = difference(ancien, nouveau, "joueurs");
+        if (patch == null) {
+            return null;
+        }
+
+        Map<String, Object> joueurs = new LinkedHashMap<>();
+        for (int i = 0; i < nouveauxJoueurs.size(); i++) {
+            Map<String, Object> difference = difference((Map<?, ?>) anciensJoueurs.get(i),
+                    (Map<?, ?>) nouveauxJoueurs.get(i), null);
+            if (difference == null) {
+                return null;
+            }
+            if (!difference.isEmpty()) {
+                joueurs.put(String.valueOf(i), difference);
+            }
+        }
+        patch.put("joueurs", joueurs);
+        return patch;
+    }
+
+    /**
+     * @param ignoree clé qui n'est pas comparée (null si toutes les clés le sont)
+     * @return la différence de l'ancien objet au nouveau (vide s'ils sont égaux), ou null si des entrées ont été
+     * retirées
+     */
+    private static Map<String, Object> difference(Map<?, ?> ancien, Map<?, ?> nouveau, String ignoree) {
+        for (Object cle : ancien.keySet()) {
+            if (!nouveau.containsKey(cle)) {
+                return null;
+            }
+        }
+        Map<String, Object> modifications = new LinkedHashMap<>();
+        Map<String, Object> listes = new LinkedHashMap<>();
+        Map<String, Object> objets = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> entree : nouveau.entrySet()) {
+            String cle = String.valueOf(entree.getKey());
+            Object ancienneValeur = ancien.get(entree.getKey());
+            Object valeur = entree.getValue();
+            if (cle.equals(ignoree) || Objects.equals(ancienneValeur, valeur)) {
+                continue;
+            }
+            if (ancienneValeur instanceof List<?> a && valeur instanceof List<?> n) {
+                listes.put(cle, intervalleModifie(a, n));
+                continue;
+            }
+            if (ancienneValeur instanceof Map<?, ?> a && valeur instanceof Map<?, ?> n) {
+                Map<String, Object> differenceObjet = difference(a, n, null);
+                if (differenceObjet != null) {
+                    objets.put(cle, differenceObjet);
+                    continue;
+                }
+            }
+            modifications.put(cle, valeur);
+        }
+        Map<String, Object> difference = new LinkedHashMap<>();
+        if (!modifications.isEmpty()) {
+            difference.put("modifications", modifications);
+        }
+        if (!listes.isEmpty()) {
+            difference.put("listes", listes);
+        }
+        if (!objets.isEmpty()) {
+            difference.put("objets", objets);
+        }
+        return difference;
+    }
+
+    /**
+     * @return le plus petit intervalle de l'ancienne liste qui, remplacé, donne la nouvelle : les éléments en
+     * dehors de l'intervalle (préfixe et suffixe communs) sont égaux dans les deux listes
+     */
+    private static Map<String, Object> intervalleModifie(List<?> ancienne, List<?> nouvelle) {
+        int debut = 0;
+        int max = Math.min(ancienne.size(), nouvelle.size());
+        while (debut < max && Objects.equals(ancienne.get(debut), nouvelle.get(debut))) {
+            debut++;
+        }
+        int finAncienne = ancienne.size();
+        int finNouvelle = nouvelle.size();
+        while (finAncienne > debut && finNouvelle > debut
+                && Objects.equals(ancienne.get(finAncienne - 1), nouvelle.get(finNouvelle - 1))) {
+            finAncienne--;
+            finNouvelle--;
+        }
+        Map<String, Object> intervalle = new LinkedHashMap<>();
+        intervalle.put("debut", debut);
+        intervalle.put("retires", finAncienne - debut);
+        intervalle.put("elements", nouvelle.subList(debut, finNouvelle));
+        return intervalle;
+    }
+}
@@ -0,0 +1,94 @@
+package fr.umontpellier.iut.gui;
+
+import java.util.ArrayDeque;
+import java.util.function.Supplier;
+
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+
+/**
+ * File des messages à envoyer à un client. Les messages sont envoyés de manière asynchrone, un seul à la fois (le
+ * suivant est envoyé quand le précédent est parti) : le fil qui ajoute un message n'attend jamais le client.
+ * <p>
+ * La file est bornée. Quand un client prend du retard et que sa file est pleine, les messages en attente sont
+ * remplacés par le seul état complet le plus récent (les états intermédiaires, ou les patchs qui y mènent, sont
+ * inutiles). Un client dont la file déborde trop de fois de suite sans se vider est considéré comme trop lent.
+ */
+class FileEnvoi {
+    /**
+     * Nombre maximal de messages en attente
+     */
+    static final int TAILLE_MAX = 8;
+    /**
+     * Nombre de débordements successifs (sans que la file se vide) au-delà duquel le client est trop lent
+     */
+    static final int DEBORDEMENTS_MAX = 3;
+
+    private final Session session;
+    private final ArrayDeque<String> messages = new ArrayDeque<>();
+    private boolean envoiEnCours;
+    private int nbDebordements;
+    private boolean fermee;
+
+    FileEnvoi(Session session) {
+        this.session = session;
+    }
+
+    /**
+     * Ajoute un message à envoyer au client
+     *
+     * @param message l'état de la partie (complet ou patch)
+     * @param complet l'état complet correspondant, qui remplace les messages en attente si la file est pleine
+     * @return false si le client est trop lent (il doit être déconnecté)
+     */
+    synchronized boolean ajouter(String message, Supplier<String> complet) {
+        if (fermee) {
+            return true;
+        }
+        if (!envoiEnCours) {
+            envoyer(message);
+        } else if (messages.size() < TAILLE_MAX) {
+            messages.add(message);
+        } else {
+            messages.clear();
+            messages.add(complet.get());
+            nbDebordements++;
+            if (nbDebordements > DEBORDEMENTS_MAX) {
+                fermer();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    synchronized int getNbMessagesEnAttente() {
+        return messages.size();
+    }
+
+    /**
+     * Abandonne les messages en attente (le client est déconnecté)
+     */
+    synchronized void fermer() {
+        fermee = true;
+        messages.clear();
+    }
+
+    private void envoyer(String message) {
+        envoiEnCours = true;
+        session.getAsyncRemote().sendText(message, this::envoiTermine);
+    }
+
+    private synchronized void envoiTermine(SendResult resultat) {
+        if (!resultat.isOK()) {
+            // connexion perdue : le conteneur ferme la session
+            fermer();
+        }
+        String suivant = messages.poll();
+        if (suivant == null) {
+            envoiEnCours = false;
+            nbDebordements = 0;
+        } else {
+            envoyer(suivant);
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package fr.umontpellier.iut.gui;
 
-import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Scanner;
 
 import javax.websocket.DeploymentException;
@@ -10,92 +8,84 @@ import javax.websocket.Session;
 import org.glassfish.tyrus.server.Server;
 
 import fr.umontpellier.iut.rails.Jeu;
+import fr.umontpellier.iut.rails.data.Identifiants;
 
 public class GameServer {
     /**
-     * Liste des clients connectés au serveur
+     * Nombre maximal de parties hébergées en même temps par défaut
      */
-    private static ArrayList<Session> clients = new ArrayList<>();
+    private static final int NB_SALLES_MAX = 4096;
     /**
-     * Description de l'état du jeu, envoyé aux clients pour la mise à jour de l'interface graphique
+     * Délai au bout duquel une salle sans client est fermée
      */
-    private static String etatJeu = "";
+    private static final long DELAI_ABANDON_MILLIS = 10 * 60 * 1000;
     /**
-     * Instance de jeu exécutée par le serveur
+     * Salles du serveur, chacune avec sa partie (voir {@link GestionnaireSalles})
      */
-    private static Jeu jeu;
+    private static GestionnaireSalles salles;
 
+    /**
+     * Lance le serveur. Argument facultatif : le nombre maximal de parties hébergées en même temps.
+     * Les lignes lues sur l'entrée standard sont transmises à la partie de la salle par défaut, dont l'état est aussi
+     * tracé dans la console.
+     */
     public static void main(String[] args) {
-        // Lancement de la partie
-        jeu = new Jeu(new String[]{"Guybrush", "Largo", "LeChuck", "Elaine"});
-        // jeu = new Jeu(new String[]{"Guybrush", "Largo"});
+        int nbSallesMax = args.length > 0 ? Integer.parseInt(args[0]) : NB_SALLES_MAX;
+        // Chaque salle a sa propre partie, numérotée indépendamment des autres
+        salles = new GestionnaireSalles(nbSallesMax, DELAI_ABANDON_MILLIS, id -> {
+            Jeu jeu = new Identifiants().creer(() -> new Jeu(new String[]{"Guybrush", "Largo", "LeChuck", "Elaine"}));
+            // Jeu jeu = new Identifiants().creer(() -> new Jeu(new String[]{"Guybrush", "Largo"}));
+            // la partie de la salle par défaut se joue aussi sur la console (voir la boucle ci-dessous)
+            jeu.setAffichageConsole(id.equals(GestionnaireSalles.SALLE_PAR_DEFAUT));
+            return jeu;
+        });
 
         // Prépare le serveur websocket
         Server server = new Server("localhost", 3232, "/", WebSocketClient.class);
 
         try (Scanner scanner = new Scanner(System.in)) {
             server.start();             // lance le serveur
-            new Thread(jeu).start();    // démarre le jeu (exécute la méthode Jeu.run() dans un nouveau thread)
+            Salle salleParDefaut = salles.getSalle(GestionnaireSalles.SALLE_PAR_DEFAUT); // démarre la partie
 
             while (true) {
-                jeu.addInput(scanner.nextLine());
+                salleParDefaut.addInput(scanner.nextLine());
             }
         } catch (DeploymentException e) {
             throw new RuntimeException(e);
         } finally {
             server.stop();
+            salles.arreter();
         }
     }
 
     /**
-     * Ajoute une nouvelle instruction à la file d'instructions
+     * Ajoute une nouvelle instruction à la file d'instructions de la partie du client
      * (cette méthode est appelée lorsqu'un message est reçue sur la websocket)
-     * 
+     *
+     * @param session la session du client
      * @param message l'instruction à ajouter
      */
-    public static void addInput(String message) {
-        jeu.addInput(message);
+    public static void addInput(Session session, String message) {
+        salles.addInput(session, message);
     }
 
     /**
-     * Met à jour l'état de la partie, et envoie le nouvel état à tous les clients connectés
-     * 
-     * @param etatJeu l'état de la partie
-     */
-    public static void setEtatJeu(String etatJeu) {
-        GameServer.etatJeu = etatJeu;
-        // Envoie l'état de la partie à tous les clients
-        try {
-            for (Session session : clients) {
-                session.getBasicRemote().sendText(etatJeu);
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    }
-
-    /**
-     * Ajoute un nouveau client à la liste, et lui transmet l'état actuel de la partie
+     * Ajoute un nouveau client à sa salle, et lui transmet l'état actuel de la partie
      * (cette méthode est appelée lorsqu'une nouvelle connexion est établie)
-     * 
+     *
      * @param session la session du nouveau client
      */
     public static void addClient(Session session) {
-        GameServer.clients.add(session);
-        try {
-            session.getBasicRemote().sendText(etatJeu);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        salles.rejoindre(session);
     }
 
     /**
-     * Retire un client de la liste
+     * Retire un client de sa salle
      * (cette méthode est appelée lorsqu'une connexion est fermée)
-     * 
+     *
      * @param session la session du client à retirer
      */
     public static void removeClient(Session session) {
-        GameServer.clients.remove(session);
+        salles.quitter(session);
     }
 }
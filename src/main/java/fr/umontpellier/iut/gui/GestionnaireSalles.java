@@ -0,0 +1,255 @@
+package fr.umontpellier.iut.gui;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import javax.websocket.CloseReason;
+import javax.websocket.Session;
+
+import fr.umontpellier.iut.rails.Jeu;
+
+/**
+ * Gestionnaire des salles du serveur : chaque salle héberge sa propre partie, et les clients sont dirigés vers la
+ * salle dont ils donnent l'identifiant (paramètre {@code salle} de l'adresse de connexion, par exemple
+ * {@code ws://localhost:3232/?salle=table4}, ou la salle par défaut s'il est absent).
+ * <p>
+ * Une salle est créée (et sa partie démarrée) à la première connexion d'un client. Le nombre de salles ouvertes en
+ * même temps est borné : au-delà, les connexions à de nouvelles salles sont refusées. Une salle restée vide pendant
+ * le délai d'abandon est fermée et sa partie abandonnée, sauf la salle par défaut.
+ * <p>
+ * Les parties sont exécutées par des fils virtuels quand la JVM en dispose (Java 21 et plus) : une partie qui attend
+ * le choix d'un joueur est alors suspendue sur sa file d'entrées sans occuper de fil système, et un même processus
+ * peut héberger des milliers de parties. Sinon, chaque partie occupe un fil d'un ensemble borné par le nombre de
+ * salles.
+ * <p>
+ * Les états des parties sont encodés et envoyés aux clients par un exécuteur de diffusion partagé par toutes les
+ * salles, avec un fil par cœur (voir {@link Salle}).
+ */
+public class GestionnaireSalles {
+    /**
+     * Identifiant de la salle des clients qui n'en précisent pas
+     */
+    public static final String SALLE_PAR_DEFAUT = "/";
+    /**
+     * Nom du paramètre de l'adresse de connexion qui donne l'identifiant de la salle
+     */
+    public static final String PARAMETRE_SALLE = "salle";
+    /**
+     * Paramètre de l'adresse de connexion par lequel un client demande à recevoir les états de la partie sous forme
+     * de patchs (par exemple {@code ws://localhost:3232/?salle=table4&delta}, voir {@link EncodeurEtat})
+     */
+    public static final String PARAMETRE_PATCHS = "delta";
+    /**
+     * Message d'un client qui demande à recevoir de nouveau l'état complet de la partie (il n'est pas transmis à la
+     * partie)
+     */
+    public static final String MESSAGE_RESYNCHRONISATION = "__resynchronisation__";
+    private static final String PROPRIETE_SALLE = "salle";
+
+    /**
+     * Salles ouvertes, par identifiant : chaque salle est d'abord réservée dans la table, puis créée hors de la
+     * table (voir {@link #getSalle(String)})
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<Salle>> salles = new ConcurrentHashMap<>();
+    private final AtomicInteger nbSalles = new AtomicInteger();
+    private final int nbSallesMax;
+    private final long delaiAbandonMillis;
+    /**
+     * Création de la partie d'une nouvelle salle, à partir de son identifiant
+     */
+    private final Function<String, Jeu> creationJeu;
+    private final ExecutorService executeur;
+    private final ExecutorService diffusion;
+    private final ScheduledExecutorService minuterie;
+
+    /**
+     * @param nbSallesMax        nombre maximal de salles ouvertes en même temps
+     * @param delaiAbandonMillis délai au bout duquel une salle vide est fermée
+     * @param creationJeu        création de la partie d'une nouvelle salle à partir de son identifiant (appelée
+     *                           par le fil du client qui ouvre la salle)
+     */
+    public GestionnaireSalles(int nbSallesMax, long delaiAbandonMillis, Function<String, Jeu> creationJeu) {
+        this.nbSallesMax = nbSallesMax;
+        this.delaiAbandonMillis = delaiAbandonMillis;
+        this.creationJeu = creationJeu;
+        executeur = creerExecuteur(nbSallesMax);
+        diffusion = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                filsDemons("salles-diffusion"));
+        minuterie = Executors.newSingleThreadScheduledExecutor(filsDemons("salles-minuterie"));
+    }
+
+    /**
+     * @return un exécuteur à fils virtuels si la JVM en dispose (cherché par réflexion, le projet étant compilé
+     * pour Java 17), sinon un ensemble d'au plus nbFilsMax fils
+     */
+    private static ExecutorService creerExecuteur(int nbFilsMax) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(nbFilsMax, filsDemons("salle"));
+        }
+    }
+
+    private static ThreadFactory filsDemons(String nom) {
+        return tache -> {
+            Thread fil = new Thread(tache, nom);
+            fil.setDaemon(true);
+            return fil;
+        };
+    }
+
+    /**
+     * Renvoie la salle d'identifiant donné, en la créant (et en démarrant sa partie) si elle n'existe pas encore.
+     * <p>
+     * La salle est d'abord réservée dans la table des salles, puis sa partie est créée et démarrée hors de la
+     * table, pour ne pas bloquer les autres accès à la table pendant sa création. Les clients qui ouvrent la même
+     * salle en même temps attendent qu'elle soit créée.
+     *
+     * @return la salle, ou null si elle n'existe pas et que le nombre maximal de salles est atteint
+     */
+    public Salle getSalle(String id) {
+        CompletableFuture<Salle> ouverture = salles.get(id);
+        if (ouverture == null) {
+            CompletableFuture<Salle> reservation = new CompletableFuture<>();
+            ouverture = salles.putIfAbsent(id, reservation);
+            if (ouverture == null) {
+                return ouvrir(id, reservation);
+            }
+        }
+        return ouverture.join();
+    }
+
+    /**
+     * Crée et démarre la salle réservée, si le nombre maximal de salles n'est pas atteint (la réservation est
+     * retirée sinon)
+     */
+    private Salle ouvrir(String id, CompletableFuture<Salle> reservation) {
+        if (nbSalles.incrementAndGet() > nbSallesMax) {
+            nbSalles.decrementAndGet();
+            salles.remove(id, reservation);
+            reservation.complete(null);
+            return null;
+        }
+        try {
+            Salle salle = new Salle(id, creationJeu.apply(id), diffusion);
+            salle.demarrer(executeur);
+            reservation.complete(salle);
+            return salle;
+        } catch (RuntimeException e) {
+            nbSalles.decrementAndGet();
+            salles.remove(id, reservation);
+            reservation.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public int getNbSalles() {
+        return nbSalles.get();
+    }
+
+    /**
+     * Ajoute un client à la salle demandée dans son adresse de connexion, et lui transmet l'état actuel de la partie
+     * (la connexion est fermée si la salle ne peut pas être créée)
+     *
+     * @return la salle rejointe, ou null
+     */
+    public Salle rejoindre(Session session) {
+        String id = SALLE_PAR_DEFAUT;
+        Map<String, List<String>> parametres = session.getRequestParameterMap();
+        List<String> parametre = parametres.get(PARAMETRE_SALLE);
+        if (parametre != null && !parametre.isEmpty() && !parametre.get(0).isEmpty()) {
+            id = parametre.get(0);
+        }
+        List<String> patchs = parametres.get(PARAMETRE_PATCHS);
+        boolean acceptePatchs = patchs != null && !patchs.contains("false");
+        while (true) {
+            Salle salle = getSalle(id);
+            if (salle == null) {
+                try {
+                    session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "Serveur complet"));
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+                return null;
+            }
+            if (salle.ajouterClient(session, acceptePatchs)) {
+                session.getUserProperties().put(PROPRIETE_SALLE, salle);
+                return salle;
+            }
+            // la salle vient d'être fermée : une nouvelle est créée
+            retirer(salle);
+        }
+    }
+
+    /**
+     * @return la salle du client, ou null s'il n'en a pas rejoint
+     */
+    public Salle getSalle(Session session) {
+        return (Salle) session.getUserProperties().get(PROPRIETE_SALLE);
+    }
+
+    /**
+     * Transmet une instruction reçue d'un client à la partie de sa salle (ou lui renvoie l'état complet de la partie
+     * s'il le demande)
+     */
+    public void addInput(Session session, String message) {
+        Salle salle = getSalle(session);
+        if (salle == null) {
+            return;
+        }
+        if (message.equals(MESSAGE_RESYNCHRONISATION)) {
+            salle.resynchroniser(session);
+        } else {
+            salle.addInput(message);
+        }
+    }
+
+    /**
+     * Retire un client de sa salle, et programme la fermeture de la salle si elle est vide
+     */
+    public void quitter(Session session) {
+        Salle salle = getSalle(session);
+        if (salle != null && salle.retirerClient(session) && !salle.getId().equals(SALLE_PAR_DEFAUT)) {
+            salle.programmerFermeture(minuterie.schedule(() -> {
+                if (salle.fermerSiVide()) {
+                    // la salle quitte la table avant que sa partie ne soit abandonnée
+                    retirer(salle);
+                    salle.fermer();
+                }
+            }, delaiAbandonMillis, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private void retirer(Salle salle) {
+        CompletableFuture<Salle> ouverture = salles.get(salle.getId());
+        if (ouverture != null && ouverture.getNow(null) == salle && salles.remove(salle.getId(), ouverture)) {
+            nbSalles.decrementAndGet();
+        }
+    }
+
+    /**
+     * Ferme toutes les salles et abandonne leurs parties
+     */
+    public void arreter() {
+        for (CompletableFuture<Salle> ouverture : salles.values()) {
+            Salle salle = ouverture.getNow(null);
+            if (salle != null) {
+                salle.fermer();
+                retirer(salle);
+            }
+        }
+        minuterie.shutdownNow();
+        executeur.shutdownNow();
+        diffusion.shutdownNow();
+    }
+}
@@ -0,0 +1,310 @@
+package fr.umontpellier.iut.gui;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import javax.websocket.CloseReason;
+import javax.websocket.Session;
+
+import fr.umontpellier.iut.rails.Jeu;
+
+/**
+ * Salle du serveur : une partie et les clients connectés qui la suivent (voir {@link GestionnaireSalles})
+ * <p>
+ * Les clients reçoivent l'état de la partie à chaque changement, complet ou, s'ils l'ont demandé à la connexion,
+ * sous forme de patch depuis l'état précédent (voir {@link EncodeurEtat}). La salle retient la version du dernier
+ * état envoyé à chaque client : un client qui n'a pas l'état précédent (nouveau client, ou client qui demande à être
+ * resynchronisé) reçoit l'état complet.
+ * <p>
+ * Le fil de la partie ne fait que publier un instantané (voir {@link Jeu#getInstantane()}) : la représentation des
+ * états (voir {@link Jeu#dataMap(Jeu.Instantane)}, qui cherche les routes à mettre en surbrillance) est construite
+ * puis encodée par l'exécuteur de diffusion, partagé par toutes les salles, dans l'ordre où les états sont publiés.
+ * Si la partie publie plusieurs états avant que le précédent soit encodé, seul le plus récent est construit et encodé
+ * (les patchs sont calculés depuis le dernier état encodé).
+ * <p>
+ * Les envois sont asynchrones, par la file d'envoi de chaque client (voir {@link FileEnvoi}) : un client lent ne
+ * ralentit ni la partie ni les autres clients, et il est déconnecté s'il prend trop de retard.
+ */
+public class Salle {
+    private final String id;
+    /**
+     * Instance de jeu exécutée dans la salle
+     */
+    private final Jeu jeu;
+    /**
+     * Clients connectés à la salle, avec pour chacun la version du dernier état qui lui a été envoyé
+     */
+    private final Map<Session, Client> clients = new ConcurrentHashMap<>();
+    /**
+     * États successifs de la partie (les envois aux clients se font sous le verrou de l'encodeur)
+     */
+    private final EncodeurEtat encodeur = new EncodeurEtat();
+    /**
+     * Exécuteur qui encode et envoie les états publiés par la partie
+     */
+    private final Executor diffusion;
+    /**
+     * Dernier état publié par la partie et pas encore encodé, construit au moment de l'encodage (null s'il n'y en a
+     * pas)
+     */
+    private final AtomicReference<Supplier<Map<String, Object>>> etatPublie = new AtomicReference<>();
+    /**
+     * Exécution de la partie (null tant qu'elle n'est pas démarrée)
+     */
+    private Future<?> partie;
+    /**
+     * Fermeture programmée de la salle lorsqu'elle est vide (null s'il n'y en a pas)
+     */
+    private ScheduledFuture<?> fermetureProgrammee;
+    private volatile boolean fermee;
+
+    /**
+     * @param diffusion l'exécuteur qui encode et envoie les états de la partie
+     */
+    Salle(String id, Jeu jeu, Executor diffusion) {
+        this.id = id;
+        this.jeu = jeu;
+        this.diffusion = diffusion;
+        jeu.setAffichage(this::setEtatJeu);
+    }
+
+    private static final class Client {
+        /**
+         * Indique si le client accepte les états sous forme de patchs
+         */
+        private final boolean patchs;
+        private final FileEnvoi file;
+        /**
+         * Version du dernier état envoyé au client
+         */
+        private long version = -1;
+
+        private Client(Session session, boolean patchs) {
+            this.patchs = patchs;
+            file = new FileEnvoi(session);
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Jeu getJeu() {
+        return jeu;
+    }
+
+    public int getNbClients() {
+        return clients.size();
+    }
+
+    public boolean estFermee() {
+        return fermee;
+    }
+
+    /**
+     * @return true si la partie est terminée (ou abandonnée)
+     */
+    public synchronized boolean estTerminee() {
+        return partie != null && partie.isDone();
+    }
+
+    /**
+     * Lance l'exécution de la partie. Un fil n'est occupé par la partie que pendant qu'elle calcule : en attente
+     * d'une entrée, elle est suspendue sur sa file d'entrées (si l'exécuteur utilise des fils virtuels).
+     */
+    synchronized void demarrer(ExecutorService executeur) {
+        partie = executeur.submit(() -> {
+            try {
+                jeu.run();
+            } catch (RuntimeException e) {
+                if (!fermee) {
+                    e.printStackTrace();
+                }
+            }
+        });
+    }
+
+    /**
+     * Ajoute un client à la salle, et lui transmet l'état actuel de la partie
+     *
+     * @param patchs indique si le client accepte les états sous forme de patchs
+     * @return false si la salle a été fermée entre-temps (le client doit en rejoindre une autre)
+     */
+    synchronized boolean ajouterClient(Session session, boolean patchs) {
+        if (fermee) {
+            return false;
+        }
+        if (fermetureProgrammee != null) {
+            fermetureProgrammee.cancel(false);
+            fermetureProgrammee = null;
+        }
+        Client client = new Client(session, patchs);
+        synchronized (encodeur) {
+            clients.put(session, client);
+            envoyer(client, encodeur.getComplet());
+        }
+        return true;
+    }
+
+    /**
+     * Renvoie l'état complet de la partie à un client (par exemple s'il n'a pas pu appliquer un patch)
+     */
+    void resynchroniser(Session session) {
+        boolean tropLent = false;
+        synchronized (encodeur) {
+            Client client = clients.get(session);
+            if (client != null) {
+                tropLent = !envoyer(client, encodeur.getComplet());
+            }
+        }
+        if (tropLent) {
+            deconnecter(session);
+        }
+    }
+
+    /**
+     * Retire un client de la salle
+     *
+     * @return true si la salle est maintenant vide
+     */
+    synchronized boolean retirerClient(Session session) {
+        Client client = clients.remove(session);
+        if (client != null) {
+            client.file.fermer();
+        }
+        return clients.isEmpty();
+    }
+
+    synchronized void programmerFermeture(ScheduledFuture<?> fermeture) {
+        if (fermetureProgrammee != null) {
+            fermetureProgrammee.cancel(false);
+        }
+        fermetureProgrammee = fermeture;
+    }
+
+    /**
+     * Ferme la salle si elle est toujours vide : plus aucun client ne peut la rejoindre, mais sa partie n'est
+     * abandonnée que par {@link #fermer()}, pour que la salle puisse d'abord être retirée de la table des salles
+     *
+     * @return true si la salle a été fermée
+     */
+    synchronized boolean fermerSiVide() {
+        if (fermee || !clients.isEmpty()) {
+            return false;
+        }
+        fermee = true;
+        return true;
+    }
+
+    /**
+     * Ferme la salle : la partie est abandonnée (son fil est interrompu)
+     */
+    synchronized void fermer() {
+        fermee = true;
+        if (fermetureProgrammee != null) {
+            fermetureProgrammee.cancel(false);
+        }
+        if (partie != null) {
+            partie.cancel(true);
+        }
+    }
+
+    /**
+     * Ajoute une instruction à la file d'instructions de la partie
+     */
+    public void addInput(String message) {
+        jeu.addInput(message);
+    }
+
+    /**
+     * @return la version du dernier état de la partie encodé
+     */
+    public long getVersion() {
+        synchronized (encodeur) {
+            return encodeur.getVersion();
+        }
+    }
+
+    /**
+     * Publie un nouvel instantané de la partie (cette méthode est appelée par le fil de la partie à chaque
+     * {@link Jeu#prompt}) : sa représentation sera construite, encodée puis envoyée aux clients par l'exécuteur de
+     * diffusion
+     */
+    public void setEtatJeu(Jeu.Instantane etat) {
+        publier(() -> jeu.dataMap(etat));
+    }
+
+    /**
+     * Publie un nouvel état de la partie : il sera encodé puis envoyé aux clients par l'exécuteur de diffusion
+     *
+     * @param etatJeu l'état de la partie, qui ne doit plus être modifié (voir {@link Jeu#dataMap()})
+     */
+    public void setEtatJeu(Map<String, Object> etatJeu) {
+        publier(() -> etatJeu);
+    }
+
+    private void publier(Supplier<Map<String, Object>> etatJeu) {
+        if (etatPublie.getAndSet(etatJeu) == null) {
+            // pas d'encodage en attente : il est programmé (sinon, l'encodage en attente prendra ce nouvel état)
+            diffusion.execute(this::diffuserEtatPublie);
+        }
+    }
+
+    /**
+     * Encode le dernier état publié, et l'envoie à tous les clients de la salle : un patch aux clients qui les
+     * acceptent et ont reçu l'état précédent, l'état complet aux autres
+     */
+    private void diffuserEtatPublie() {
+        List<Session> tropLents = new ArrayList<>();
+        synchronized (encodeur) {
+            // l'état est pris sous le verrou : deux diffusions de la salle ne peuvent pas inverser l'ordre des états
+            Supplier<Map<String, Object>> etatJeu = etatPublie.getAndSet(null);
+            if (etatJeu == null) {
+                return;
+            }
+            long base = encodeur.getVersion();
+            encodeur.mettreAJour(etatJeu.get());
+            for (Map.Entry<Session, Client> entree : clients.entrySet()) {
+                Client client = entree.getValue();
+                String patch = client.patchs && client.version == base ? encodeur.getPatch() : null;
+                if (!envoyer(client, patch != null ? patch : encodeur.getComplet())) {
+                    tropLents.add(entree.getKey());
+                }
+            }
+        }
+        for (Session session : tropLents) {
+            deconnecter(session);
+        }
+    }
+
+    /**
+     * Ajoute l'état courant (complet ou patch) à la file d'envoi du client
+     *
+     * @return false si le client est trop lent
+     */
+    private boolean envoyer(Client client, String message) {
+        client.version = encodeur.getVersion();
+        return client.file.ajouter(message, encodeur::getComplet);
+    }
+
+    /**
+     * Déconnecte un client trop lent
+     */
+    private void deconnecter(Session session) {
+        clients.remove(session);
+        try {
+            session.close(new CloseReason(CloseReason.CloseCodes.VIOLATED_POLICY, "Client trop lent"));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
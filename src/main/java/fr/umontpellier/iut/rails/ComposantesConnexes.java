@@ -0,0 +1,83 @@
+package fr.umontpellier.iut.rails;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Composantes connexes du réseau d'un joueur (les villes reliées par ses routes), tenues à jour route par route par
+ * une structure union-find : relier deux villes et savoir si deux villes sont connectées coûtent un temps quasi
+ * constant (O(α(n))), au lieu d'un parcours du réseau.
+ * <p>
+ * Les villes sont désignées par leur nom (comme dans les destinations), et numérotées dans l'ordre où elles
+ * apparaissent dans le réseau. Une ville qui n'est desservie par aucune route n'est connectée qu'à elle-même.
+ */
+final class ComposantesConnexes {
+    private final Map<String, Integer> indices = new HashMap<>();
+    /**
+     * parent[u] est le parent de la ville d'indice u dans sa composante (u lui-même pour le représentant)
+     */
+    private int[] parent = new int[16];
+    /**
+     * rang[r] est un majorant de la hauteur de l'arbre de représentant r
+     */
+    private byte[] rang = new byte[16];
+
+    /**
+     * Relie deux villes (une route du réseau)
+     *
+     * @return true si les deux villes n'étaient pas déjà connectées
+     */
+    boolean relier(String nomVille1, String nomVille2) {
+        int r1 = trouver(indice(nomVille1));
+        int r2 = trouver(indice(nomVille2));
+        if (r1 == r2) {
+            return false;
+        }
+        // union par rang
+        if (rang[r1] < rang[r2]) {
+            parent[r1] = r2;
+        } else if (rang[r1] > rang[r2]) {
+            parent[r2] = r1;
+        } else {
+            parent[r2] = r1;
+            rang[r1]++;
+        }
+        return true;
+    }
+
+    boolean sontConnectees(String nomVille1, String nomVille2) {
+        if (nomVille1.equals(nomVille2)) {
+            return true;
+        }
+        Integer u1 = indices.get(nomVille1);
+        Integer u2 = indices.get(nomVille2);
+        return u1 != null && u2 != null && trouver(u1) == trouver(u2);
+    }
+
+    /**
+     * @return l'indice de la ville, qui est ajoutée (seule dans sa composante) si elle n'est pas encore numérotée
+     */
+    private int indice(String nomVille) {
+        Integer u = indices.get(nomVille);
+        if (u == null) {
+            u = indices.size();
+            if (u == parent.length) {
+                parent = Arrays.copyOf(parent, 2 * u);
+                rang = Arrays.copyOf(rang, 2 * u);
+            }
+            parent[u] = u;
+            indices.put(nomVille, u);
+        }
+        return u;
+    }
+
+    private int trouver(int u) {
+        // compression des chemins par moitié (chaque ville visitée pointe vers son grand-parent)
+        while (parent[u] != u) {
+            parent[u] = parent[parent[u]];
+            u = parent[u];
+        }
+        return u;
+    }
+}
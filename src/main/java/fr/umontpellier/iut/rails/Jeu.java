@@ -1,12 +1,12 @@
 package fr.umontpellier.iut.rails;
 
-import com.google.gson.Gson;
-import fr.umontpellier.iut.gui.GameServer;
+import fr.umontpellier.iut.graphes.Graphe;
 import fr.umontpellier.iut.rails.data.*;
 
 import java.util.*;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
 
 import javax.naming.spi.DirStateFactory.Result;
 
@@ -52,18 +52,68 @@ public class Jeu implements Runnable {
      */
     private final List<String> log;
 
+    /**
+     * Stratégie qui fournit les choix des joueurs dans une partie sans affichage (null sinon)
+     */
+    private final StrategieJoueur strategie;
+    /**
+     * Nombre de tours de joueurs déjà joués, et nombre de tours au-delà duquel la partie s'arrête
+     */
+    private int nbTours;
+    private int nbToursMax = Integer.MAX_VALUE;
+
+    /**
+     * Destination de l'instantané de la partie publié à chaque {@link #prompt}, par exemple la salle du serveur où se
+     * joue la partie, qui en construit la représentation (voir {@link #dataMap(Instantane)}) sur son propre fil (null
+     * si la partie n'est pas affichée : l'état est seulement tracé dans la console)
+     */
+    private Consumer<Instantane> affichage;
+    /**
+     * Indique si l'état de la partie est aussi tracé dans la console quand il est envoyé à l'affichage (par exemple
+     * si des choix sont lus sur l'entrée standard)
+     */
+    private boolean affichageConsole;
+
     private String instruction;
     private Collection<Bouton> boutons;
     private Plateau plateau;
+    /**
+     * Dernier instantané publié de la partie (null avant le premier, voir {@link #getInstantane()})
+     */
+    private volatile Instantane instantane;
 
     public Jeu(String[] nomJoueurs) {
+        this(nomJoueurs, Plateau.makePlateauMonde(), Destination.makeDestinationsMonde());
+    }
+
+    /**
+     * Crée une partie sur un plateau quelconque (par exemple un plateau généré, voir
+     * {@link GenerateurPlateau})
+     *
+     * @param destinations les destinations de la partie (la liste est recopiée puis mélangée)
+     */
+    public Jeu(String[] nomJoueurs, Plateau plateau, List<Destination> destinations) {
+        this(nomJoueurs, plateau, destinations, null);
+    }
+
+    /**
+     * Crée une partie sans affichage, pour simuler rapidement un grand nombre de parties (équilibrage, joueurs
+     * automatiques) : les choix des joueurs sont demandés à la stratégie plutôt que lus dans la file d'entrées,
+     * {@link #prompt} ne fait rien (pas d'affichage ni d'envoi de l'état à l'interface graphique) et le log est
+     * désactivé.
+     *
+     * @param strategie la stratégie de tous les joueurs (elle reçoit le joueur qui doit choisir) ; null pour une
+     *                  partie normale
+     */
+    public Jeu(String[] nomJoueurs, Plateau plateau, List<Destination> destinations, StrategieJoueur strategie) {
         // initialisation des entrées/sorties
+        this.strategie = strategie;
         inputQueue = new LinkedBlockingQueue<>();
-        log = new ArrayList<>();
+        log = new ListeSuivie<>();
 
-        // création des villes et des routes
-        plateau = Plateau.makePlateauMonde();
-        portsLibres = plateau.getPorts();
+        // villes et routes
+        this.plateau = plateau;
+        portsLibres = new ListeSuivie<>(plateau.getPorts());
         routesLibres = plateau.getRoutes();
 
         // création des piles de pioche et défausses des cartes Transport (wagon et
@@ -100,10 +150,10 @@ public class Jeu implements Runnable {
 
         // création de la liste pile de cartes transport visibles
         // (les cartes seront retournées plus tard, au début de la partie dans run())
-        cartesTransportVisibles = new ArrayList<>();
+        cartesTransportVisibles = new ListeSuivie<>();
 
         // création des destinations
-        pileDestinations = Destination.makeDestinationsMonde();
+        pileDestinations = new ListeSuivie<>(destinations);
         Collections.shuffle(pileDestinations);
 
         // création des joueurs
@@ -122,12 +172,74 @@ public class Jeu implements Runnable {
         return plateau;
     }
 
+    /**
+     * @return la stratégie des joueurs si la partie est sans affichage, null sinon
+     */
+    public StrategieJoueur getStrategie() {
+        return strategie;
+    }
+
+    public boolean estSansAffichage() {
+        return strategie != null;
+    }
+
+    /**
+     * Fixe la destination de l'instantané de la partie (voir {@link #getInstantane()}) publié à chaque
+     * {@link #prompt}
+     */
+    public void setAffichage(Consumer<Instantane> affichage) {
+        this.affichage = affichage;
+    }
+
+    /**
+     * Indique si l'état de la partie est aussi tracé dans la console à chaque {@link #prompt} quand il est envoyé à
+     * l'affichage (il l'est toujours quand la partie n'a pas d'affichage)
+     */
+    public void setAffichageConsole(boolean affichageConsole) {
+        this.affichageConsole = affichageConsole;
+    }
+
+    /**
+     * @return le nombre de tours de joueurs déjà joués
+     */
+    public int getNbTours() {
+        return nbTours;
+    }
+
+    /**
+     * Fixe le nombre maximal de tours de joueurs : une fois ce nombre atteint, la partie s'arrête et les scores
+     * sont calculés (utile pour que des joueurs automatiques qui ne terminent pas la partie ne bloquent pas une
+     * simulation)
+     */
+    public void setNbToursMax(int nbToursMax) {
+        this.nbToursMax = nbToursMax;
+    }
+
+    /**
+     * Construit le graphe de toutes les routes du jeu (libres ou déjà capturées). Le propriétaire de chaque route
+     * capturée est le rang de son joueur dans la liste des joueurs (voir {@link Graphe#getProprietaire}).
+     */
+    public Graphe getGrapheRoutes() {
+        List<Route> routes = new ArrayList<>(routesLibres);
+        Map<Route, Integer> proprietaires = new HashMap<>();
+        for (int i = 0; i < joueurs.size(); i++) {
+            for (Route route : joueurs.get(i).getRoutes()) {
+                routes.add(route);
+                proprietaires.put(route, i);
+            }
+        }
+        return plateau.getGraphe(routes, proprietaires);
+    }
+
     public List<Joueur> getJoueurs() {
         return joueurs;
     }
 
+    /**
+     * @return les ports libres (un instantané non modifiable, voir {@link ListeSuivie})
+     */
     public List<Ville> getPortsLibres() {
-        return new ArrayList<>(portsLibres);
+        return ListeSuivie.instantane(portsLibres);
     }
 
     /**
@@ -146,8 +258,11 @@ public class Jeu implements Runnable {
         return null;
     }
 
+    /**
+     * @return les routes libres (un instantané non modifiable, voir {@link ListeSuivie})
+     */
     public List<Route> getRoutesLibres() {
-        return new ArrayList<>(routesLibres);
+        return ListeSuivie.instantane(routesLibres);
     }
 
     /**
@@ -167,10 +282,10 @@ public class Jeu implements Runnable {
     }
 
     /**
-     * Renvoie une copie de la liste des cartes transport visibles du jeu
+     * Renvoie les cartes transport visibles du jeu (un instantané non modifiable, voir {@link ListeSuivie})
      */
     public List<CarteTransport> getCartesTransportVisibles() {
-        return new ArrayList<>(cartesTransportVisibles);
+        return ListeSuivie.instantane(cartesTransportVisibles);
     }
 
     /**
@@ -210,9 +325,12 @@ public class Jeu implements Runnable {
         }
 
         // Boucle principale (tours des joueurs)
-        while (true) {
-            log(String.format("    --- %s ---", joueurCourant.toLog()));
+        while (nbTours < nbToursMax) {
+            if (!estSansAffichage()) {
+                log(String.format("    --- %s ---", joueurCourant.toLog()));
+            }
             joueurCourant.jouerTour();
+            nbTours++;
             if (joueurCourant.getNbPionsWagon() + joueurCourant.getNbPionsBateau() <= 6) {
                 // un joueur a moins de 6 pions restants à la fin de son tour
                 // chaque joueur joue encore 2 tours et la partie s'arrête
@@ -222,8 +340,9 @@ public class Jeu implements Runnable {
             passeAuJoueurSuivant();
         }
         // 2 derniers tours de jeu
-        for (int i = 0; i < 2 * joueurs.size(); i++) {
+        for (int i = 0; i < 2 * joueurs.size() && nbTours < nbToursMax; i++) {
             joueurCourant.jouerTour();
+            nbTours++;
             passeAuJoueurSuivant();
         }
         // Fin de la partie
@@ -232,6 +351,10 @@ public class Jeu implements Runnable {
             log(String.format("%s : %d points", j.toLog(), j.calculerScoreFinal()));
         }
         prompt("Fin de la partie.", new ArrayList<>(), true);
+        if (estSansAffichage()) {
+            // prompt ne fait rien : l'instruction de fin n'est donnée qu'à l'instantané final
+            publierInstantane("Fin de la partie.", List.of());
+        }
     }
 
     /**
@@ -417,10 +540,12 @@ public class Jeu implements Runnable {
     }
 
     /**
-     * Ajoute un message au log du jeu
+     * Ajoute un message au log du jeu (sauf dans une partie sans affichage)
      */
     public void log(String message) {
-        log.add(message);
+        if (!estSansAffichage()) {
+            log.add(message);
+        }
     }
 
     /**
@@ -437,27 +562,40 @@ public class Jeu implements Runnable {
      *
      * @return une chaîne de caractères correspondant à l'entrée suivante dans la
      *         file
+     * @throws IllegalStateException si le fil de la partie est interrompu pendant l'attente (la partie est
+     *                               abandonnée)
      */
     public String lireLigne() {
         try {
             return inputQueue.take();
         } catch (InterruptedException e) {
-            e.printStackTrace();
-            return null;
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Partie interrompue", e);
         }
     }
 
     /**
-     * Envoie l'état de la partie pour affichage aux joueurs avant de faire un choix
+     * Publie l'instantané de la partie puis l'envoie pour affichage aux joueurs avant de faire un choix (ne fait rien
+     * dans une partie sans affichage)
      *
      * @param instruction l'instruction qui est donnée au joueur
      * @param boutons     labels des choix proposés s'il y en a
      * @param peutPasser  indique si le joueur peut passer sans faire de choix
      */
     public void prompt(String instruction, Collection<Bouton> boutons, boolean peutPasser) {
+        if (estSansAffichage()) {
+            return;
+        }
         this.instruction = instruction;
         this.boutons = boutons;
 
+        Instantane etat = publierInstantane();
+        if (affichage != null) {
+            affichage.accept(etat);
+            if (!affichageConsole) {
+                return;
+            }
+        }
         System.out.println();
         System.out.println(this);
         if (boutons.isEmpty()) {
@@ -469,7 +607,6 @@ public class Jeu implements Runnable {
             }
             System.out.printf(">>> %s: %s [%s] <<<\n", joueurCourant.getNom(), instruction, joiner);
         }
-        GameServer.setEtatJeu(new Gson().toJson(dataMap()));
     }
 
     @Override
@@ -481,21 +618,96 @@ public class Jeu implements Runnable {
         return joiner.toString();
     }
 
+    /**
+     * État de la partie figé à un instant donné, qui peut être lu par d'autres fils (diffusion aux clients,
+     * statistiques, sauvegarde, joueurs automatiques...) pendant que la partie continue. Les listes sont des
+     * instantanés non modifiables (voir {@link ListeSuivie}), et les instantanés successifs partagent tout ce qui n'a
+     * pas changé entre-temps (listes, joueurs et piles).
+     *
+     * @param joueurCourant le rang du joueur dont c'est le tour
+     */
+    public record Instantane(List<Joueur.Instantane> joueurs, int joueurCourant,
+            PilesCartesTransport.Instantane piocheWagon, PilesCartesTransport.Instantane piocheBateau,
+            List<CarteTransport> cartesTransportVisibles, int nbDestinations, List<Route> routesLibres,
+            List<Ville> portsLibres, int nbTours, String instruction, List<Bouton> boutons, List<String> log) {
+    }
+
+    /**
+     * @return le dernier instantané publié de la partie (à chaque {@link #prompt} dans une partie affichée, à la
+     * fin de la partie sinon), ou null si la partie n'en a pas encore publié. Cette méthode peut être appelée par
+     * n'importe quel fil.
+     */
+    public Instantane getInstantane() {
+        return instantane;
+    }
+
+    /**
+     * Prend un instantané de l'état actuel de la partie, et le publie (voir {@link #getInstantane()})
+     */
+    private Instantane publierInstantane() {
+        return publierInstantane(instruction, boutons);
+    }
+
+    /**
+     * Prend un instantané de l'état actuel de la partie avec l'instruction et les boutons donnés, et le publie
+     */
+    private Instantane publierInstantane(String instruction, Collection<Bouton> boutons) {
+        Instantane precedent = instantane;
+        List<Joueur.Instantane> etatsJoueurs = new ArrayList<>(joueurs.size());
+        boolean memesJoueurs = precedent != null && precedent.joueurs().size() == joueurs.size();
+        boolean joueursInchanges = memesJoueurs;
+        for (int i = 0; i < joueurs.size(); i++) {
+            Joueur.Instantane etatPrecedent = memesJoueurs ? precedent.joueurs().get(i) : null;
+            Joueur.Instantane etat = joueurs.get(i).instantane(etatPrecedent);
+            joueursInchanges &= etat == etatPrecedent;
+            etatsJoueurs.add(etat);
+        }
+        instantane = new Instantane(
+                joueursInchanges ? precedent.joueurs() : Collections.unmodifiableList(etatsJoueurs),
+                joueurs.indexOf(joueurCourant),
+                pilesDeCartesWagon.instantane(precedent == null ? null : precedent.piocheWagon()),
+                pilesDeCartesBateau.instantane(precedent == null ? null : precedent.piocheBateau()),
+                ListeSuivie.instantane(cartesTransportVisibles),
+                pileDestinations.size(),
+                ListeSuivie.instantane(routesLibres),
+                ListeSuivie.instantane(portsLibres),
+                nbTours,
+                instruction,
+                boutons == null ? List.of() : List.copyOf(boutons),
+                ListeSuivie.instantane(log));
+        return instantane;
+    }
+
     /**
      * Renvoie une représentation du jeu sous la forme d'un dictionnaire de
      * valeurs sérialisables (qui sera converti en JSON pour l'envoyer à l'interface
-     * graphique)
+     * graphique). Le dictionnaire est construit à partir d'un instantané de la partie (qui est publié, voir
+     * {@link #getInstantane()}), joueurs compris : il peut être lu par un autre fil pendant que la partie continue.
      */
     public Map<String, Object> dataMap() {
+        return dataMap(publierInstantane());
+    }
+
+    /**
+     * Renvoie la représentation d'un instantané de la partie (voir {@link #dataMap()}). Les routes à mettre en
+     * surbrillance pour les destinations des joueurs sont cherchées ici, à partir de l'instantané (et pas à la
+     * publication de l'instantané) : cette méthode peut être appelée par n'importe quel fil, par exemple celui qui
+     * diffuse l'état aux clients.
+     */
+    public Map<String, Object> dataMap(Instantane etat) {
+        List<Map<String, Object>> etatsJoueurs = new ArrayList<>(joueurs.size());
+        for (int i = 0; i < joueurs.size(); i++) {
+            etatsJoueurs.add(joueurs.get(i).dataMap(etat.joueurs().get(i), etat.routesLibres()));
+        }
         return Map.ofEntries(
-                Map.entry("joueurs", joueurs.stream().map(Joueur::dataMap).toList()),
-                Map.entry("joueurCourant", joueurs.indexOf(joueurCourant)),
-                Map.entry("piocheWagon", pilesDeCartesWagon.dataMap()),
-                Map.entry("piocheBateau", pilesDeCartesBateau.dataMap()),
-                Map.entry("cartesTransportVisibles", cartesTransportVisibles),
-                Map.entry("nbDestinations", pileDestinations.size()),
-                Map.entry("instruction", instruction),
-                Map.entry("boutons", boutons),
-                Map.entry("log", log));
+                Map.entry("joueurs", Collections.unmodifiableList(etatsJoueurs)),
+                Map.entry("joueurCourant", etat.joueurCourant()),
+                Map.entry("piocheWagon", etat.piocheWagon().dataMap()),
+                Map.entry("piocheBateau", etat.piocheBateau().dataMap()),
+                Map.entry("cartesTransportVisibles", etat.cartesTransportVisibles()),
+                Map.entry("nbDestinations", etat.nbDestinations()),
+                Map.entry("instruction", etat.instruction()),
+                Map.entry("boutons", etat.boutons()),
+                Map.entry("log", etat.log()));
     }
 }
@@ -1,17 +1,25 @@
 package fr.umontpellier.iut.rails;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringJoiner;
+import java.util.function.Consumer;
 
+import fr.umontpellier.iut.graphes.Arete;
+import fr.umontpellier.iut.graphes.Budget;
+import fr.umontpellier.iut.graphes.Coupe;
 import fr.umontpellier.iut.graphes.Graphe;
+import fr.umontpellier.iut.graphes.ResultatParcours;
 import fr.umontpellier.iut.rails.data.CarteTransport;
 import fr.umontpellier.iut.rails.data.Couleur;
 import fr.umontpellier.iut.rails.data.Destination;
+import fr.umontpellier.iut.rails.data.ListeSuivie;
 import fr.umontpellier.iut.rails.data.Plateau;
 import fr.umontpellier.iut.rails.data.TypeCarteTransport;
 import fr.umontpellier.iut.rails.data.Ville;
@@ -21,6 +29,13 @@ public class Joueur {
         JAUNE, ROUGE, BLEU, VERT, ROSE;
     }
 
+    /**
+     * Budget de la recherche des routes à mettre en surbrillance, faite à chaque construction de la représentation
+     * du joueur envoyée à l'interface : au-delà, c'est le meilleur chemin trouvé qui est affiché
+     */
+    private static final Duration DUREE_SURBRILLANCE = Duration.ofMillis(20);
+    private static final long NOEUDS_SURBRILLANCE = 200_000;
+
     /**
      * Jeu auquel le joueur est rattaché
      */
@@ -75,20 +90,43 @@ public class Joueur {
      * perdus lors des échanges de pions)
      */
     private int score;
+    /**
+     * Composantes connexes du réseau du joueur, tenues à jour à chaque route capturée, et instantané des routes à
+     * partir desquelles elles ont été calculées (voir {@link #getReseau()})
+     */
+    private ComposantesConnexes reseau;
+    private List<Route> routesReseau;
+    /**
+     * Appelé avec chaque destination du joueur qui devient complète quand il capture une route (null si personne
+     * n'est à l'écoute)
+     */
+    private Consumer<Destination> suiviDestinations;
+    /**
+     * Destinations complètes et incomplètes du joueur, telles que calculées au dernier instantané (null avant le
+     * premier)
+     */
+    private Completude completude;
+    /**
+     * Routes à mettre en surbrillance, et dernière représentation du joueur (voir {@link #dataMap(Instantane, List)}),
+     * telles que calculées à la dernière construction de sa représentation (null avant la première). Elles peuvent
+     * être lues et remplacées par un autre fil que celui de la partie.
+     */
+    private volatile Surbrillance surbrillance;
+    private volatile Representation representation;
 
     public Joueur(String nom, Jeu jeu, CouleurJouer couleur) {
         this.nom = nom;
         this.jeu = jeu;
         this.couleur = couleur;
-        this.ports = new ArrayList<>();
-        this.routes = new ArrayList<>();
+        this.ports = new ListeSuivie<>();
+        this.routes = new ListeSuivie<>();
         this.nbPionsWagon = 0;
         this.nbPionsWagonEnReserve = 25;
         this.nbPionsBateau = 0;
         this.nbPionsBateauEnReserve = 50;
-        this.cartesTransport = new ArrayList<>();
-        this.cartesTransportPosees = new ArrayList<>();
-        this.destinations = new ArrayList<>();
+        this.cartesTransport = new ListeSuivie<>();
+        this.cartesTransportPosees = new ListeSuivie<>();
+        this.destinations = new ListeSuivie<>();
         this.score = 0;
     }
 
@@ -104,6 +142,10 @@ public class Joueur {
         return routes;
     }
 
+    public List<Ville> getPorts() {
+        return ports;
+    }
+
     public CouleurJouer getCouleur() {
         return couleur;
     }
@@ -197,6 +239,8 @@ public class Joueur {
      * éventuellement la chaîne vide si l'utilisateur est autorisé à passer) soit
      * reçu.
      * Lorsqu'un choix valide est obtenu, il est renvoyé par la fonction.
+     * Dans une partie sans affichage, le choix est demandé à la stratégie du jeu
+     * (voir {@link StrategieJoueur}).
      * <p>
      * Exemple d'utilisation pour demander à un joueur de répondre à une question
      * par "oui" ou "non" :
@@ -244,12 +288,23 @@ public class Joueur {
         if (boutons == null)
             boutons = new ArrayList<>();
 
-        HashSet<String> choixDistincts = new HashSet<>(choix);
+        Set<String> choixDistincts = new LinkedHashSet<>(choix);
         choixDistincts.addAll(boutons.stream().map(Bouton::valeur).toList());
         if (peutPasser || choixDistincts.isEmpty()) {
             choixDistincts.add("");
         }
 
+        StrategieJoueur strategie = jeu.getStrategie();
+        if (strategie != null) {
+            // partie sans affichage : la stratégie choisit directement parmi les choix valides
+            String choixStrategie = strategie.choisir(this, instruction, new ArrayList<>(choixDistincts));
+            if (!choixDistincts.contains(choixStrategie)) {
+                throw new IllegalStateException(String.format("Choix invalide de la stratégie de %s : \"%s\"",
+                        nom, choixStrategie));
+            }
+            return choixStrategie;
+        }
+
         String entree;
         // Lit l'entrée de l'utilisateur jusqu'à obtenir un choix valide
         while (true) {
@@ -579,8 +634,9 @@ public class Joueur {
 
     private List<String> getOptionsRoutes() {
         List<String> options = new ArrayList<>();
+        CarteTransport.Catalogue catalogue = new CarteTransport.Catalogue(cartesTransport);
         for (Route r : jeu.getRoutesLibres()) {
-            if (r.peutEtreCaptureePar(this)) {
+            if (r.peutEtreCaptureePar(this, catalogue)) {
                 options.add(r.getNom());
             }
         }
@@ -657,50 +713,70 @@ public class Joueur {
             this.nbPionsBateau -= r.getNbPionsBateau();
             this.nbPionsWagon -= r.getNbPionsWagon();
             this.score += r.getScore();
-            routes.add(r);
+            ajouterAuReseau(r);
         }
     }
 
-    private Set<String> getNomsVillesVoisines(String nomVille) {
-        Set<String> nomsVillesVoisines = new HashSet<>();
-        for (Route r : routes) {
-            if (r.getVille1().nom().equals(nomVille)) {
-                nomsVillesVoisines.add(r.getVille2().nom());
-            } else if (r.getVille2().nom().equals(nomVille)) {
-                nomsVillesVoisines.add(r.getVille1().nom());
+    /**
+     * Ajoute une route capturée aux routes du joueur et à son réseau, et signale les destinations qu'elle complète
+     */
+    private void ajouterAuReseau(Route r) {
+        ComposantesConnexes composantes = getReseau();
+        List<Destination> dejaCompletes = null;
+        if (suiviDestinations != null) {
+            dejaCompletes = destinations.stream().filter(this::destinationEstComplete).toList();
+        }
+        routes.add(r);
+        boolean nouvelleConnexion = composantes.relier(r.getVille1().nom(), r.getVille2().nom());
+        routesReseau = ListeSuivie.instantane(routes);
+        if (dejaCompletes != null && nouvelleConnexion) {
+            for (Destination d : List.copyOf(destinations)) {
+                if (!dejaCompletes.contains(d) && destinationEstComplete(d)) {
+                    suiviDestinations.accept(d);
+                }
             }
         }
-        return nomsVillesVoisines;
     }
 
-    boolean villesSontConnectees(String nomVille1, String nomVille2) {
-        List<String> frontiere = new ArrayList<>();
-        Set<String> dejaVues = new HashSet<>();
-        frontiere.add(nomVille1);
-        dejaVues.add(nomVille1);
-
-        while (!frontiere.isEmpty()) {
-            String nomVille = frontiere.remove(0);
-            if (nomVille.equals(nomVille2)) {
-                return true;
-            }
-            for (String nomVilleVoisine : getNomsVillesVoisines(nomVille)) {
-                if (!dejaVues.contains(nomVilleVoisine)) {
-                    frontiere.add(nomVilleVoisine);
-                    dejaVues.add(nomVilleVoisine);
-                }
+    /**
+     * Fixe le suivi des destinations du joueur : il est appelé avec chaque destination qui devient complète, au
+     * moment où le joueur capture la route qui la complète
+     */
+    public void setSuiviDestinations(Consumer<Destination> suiviDestinations) {
+        this.suiviDestinations = suiviDestinations;
+    }
+
+    /**
+     * @return les composantes connexes du réseau du joueur. Elles sont tenues à jour à chaque route capturée, et
+     * recalculées si les routes du joueur ont été modifiées autrement (par exemple directement dans la liste
+     * renvoyée par {@link #getRoutes()}).
+     */
+    private ComposantesConnexes getReseau() {
+        List<Route> instantaneRoutes = ListeSuivie.instantane(routes);
+        if (reseau == null || routesReseau != instantaneRoutes) {
+            reseau = new ComposantesConnexes();
+            for (Route r : instantaneRoutes) {
+                reseau.relier(r.getVille1().nom(), r.getVille2().nom());
             }
+            routesReseau = instantaneRoutes;
         }
-        return false;
+        return reseau;
+    }
+
+    boolean villesSontConnectees(String nomVille1, String nomVille2) {
+        return getReseau().sontConnectees(nomVille1, nomVille2);
     }
 
+    /**
+     * Une destination est complète si ses villes sont toutes connectées par le réseau du joueur (pour les
+     * itinéraires, l'ordre dans lequel les villes sont traversées n'est pas vérifié : seule la valeur simple est
+     * comptée)
+     */
     boolean destinationEstComplete(Destination d) {
-        // ATTENTION : cette méthode est incomplète, car elle ne gère pas complètement
-        // les Destinations Itinéraire (elle n'est pas forcément la plus adaptée si on
-        // veut utiliser des graphes...).
-        // Elle est à réécrire en utilisant les Graphes
-        for (int i = 0; i < d.getVilles().size() - 1; i++) {
-            if (!villesSontConnectees(d.getVilles().get(i), d.getVilles().get(i + 1))) {
+        ComposantesConnexes composantes = getReseau();
+        List<String> villes = d.getVilles();
+        for (int i = 0; i < villes.size() - 1; i++) {
+            if (!composantes.sontConnectees(villes.get(i), villes.get(i + 1))) {
                 return false;
             }
         }
@@ -744,40 +820,187 @@ public class Joueur {
     }
 
     /**
-     * Renvoie une représentation du joueur sous la forme d'un dictionnaire de
-     * valeurs sérialisables (qui sera converti en JSON pour l'envoyer à l'interface
-     * graphique)
+     * Renvoie une coupe minimale du réseau du joueur (le graphe formé par ses routes) : un plus petit ensemble de
+     * routes dont la perte suffirait à couper son réseau en deux. Plus la valeur de la coupe est faible, plus le
+     * réseau est fragile (une valeur de 0 signifie que le réseau n'est déjà pas connexe).
+     *
+     * @return la coupe, ou null si le réseau du joueur relie moins de deux villes
      */
-    Map<String, Object> dataMap() {
-        List<Destination> destinationsCompletes = destinations.stream().filter(this::destinationEstComplete)
-                .toList();
-        List<Destination> destinationsIncompletes = destinations.stream().filter(d -> !destinationEstComplete(d))
-                .toList();
-        List<List<String>> routesPourDestinationsIncompletes = new ArrayList<>();
-        for (Destination d : destinationsIncompletes) {
-            Collection<Route> routes = routesEnSurbrillancePourDestination(d);
-            if (routes == null) {
-                routesPourDestinationsIncompletes.add(new ArrayList<>());
-            } else {
-                routesPourDestinationsIncompletes.add(routes.stream().map(Route::getNom).toList());
+    public Coupe getCoupeMinimaleReseau() {
+        List<Arete> aretes = new ArrayList<>();
+        for (Route r : routes) {
+            aretes.add(new Arete(r.getVille1().getId(), r.getVille2().getId(), r));
+        }
+        return new Graphe(aretes).coupeMinimale();
+    }
+
+    /**
+     * État du joueur figé à un instant donné : les listes sont des instantanés (voir {@link ListeSuivie}), partagés
+     * avec les instantanés précédents tant qu'elles ne changent pas. L'instantané porte aussi les destinations
+     * complètes et incomplètes, mais pas les routes à mettre en surbrillance : elles sont cherchées à la
+     * construction de la représentation du joueur (voir {@link Joueur#dataMap(Instantane, List)}).
+     */
+    public record Instantane(String nom, CouleurJouer couleur, int score, int nbPionsWagon,
+            int nbPionsWagonEnReserve, int nbPionsBateau, int nbPionsBateauEnReserve,
+            List<CarteTransport> cartesTransport, List<CarteTransport> cartesTransportPosees,
+            List<Destination> destinations, List<Ville> ports, List<Route> routes,
+            List<Destination> destinationsCompletes, List<Destination> destinationsIncompletes) {
+
+        /**
+         * Renvoie une représentation du joueur sous la forme d'un dictionnaire de
+         * valeurs sérialisables (qui sera converti en JSON pour l'envoyer à l'interface
+         * graphique)
+         *
+         * @param routesPourDestinations les routes à mettre en surbrillance pour chaque destination incomplète
+         * (leurs noms)
+         */
+        public Map<String, Object> dataMap(List<List<String>> routesPourDestinations) {
+            return Map.ofEntries(
+                    Map.entry("nom", nom),
+                    Map.entry("couleur", couleur),
+                    Map.entry("score", score),
+                    Map.entry("pionsWagon", nbPionsWagon),
+                    Map.entry("pionsWagonReserve", nbPionsWagonEnReserve),
+                    Map.entry("pionsBateau", nbPionsBateau),
+                    Map.entry("pionsBateauReserve", nbPionsBateauEnReserve),
+                    Map.entry("routesPourDestinations", routesPourDestinations),
+                    Map.entry("destinationsIncompletes", destinationsIncompletes),
+                    Map.entry("destinationsCompletes", destinationsCompletes),
+                    Map.entry("main", cartesTransport.stream().sorted().toList()),
+                    Map.entry("inPlay", cartesTransportPosees.stream().sorted().toList()),
+                    Map.entry("ports", ports.stream().map(Ville::nom).toList()),
+                    Map.entry("routes", routes.stream().map(Route::getNom).toList()));
+        }
+    }
+
+    /**
+     * Prend un instantané du joueur. Les destinations complètes ne sont recalculées que si les routes ou les
+     * destinations du joueur ont changé.
+     *
+     * @param precedent le dernier instantané du joueur (ou null), renvoyé tel quel si le joueur n'a pas changé
+     */
+    Instantane instantane(Instantane precedent) {
+        List<Route> instantaneRoutes = ListeSuivie.instantane(routes);
+        Completude completudeCourante = getCompletude(instantaneRoutes, ListeSuivie.instantane(destinations));
+        Instantane instantane = new Instantane(nom, couleur, score, nbPionsWagon, nbPionsWagonEnReserve,
+                nbPionsBateau, nbPionsBateauEnReserve, ListeSuivie.instantane(cartesTransport),
+                ListeSuivie.instantane(cartesTransportPosees), completudeCourante.destinations(),
+                ListeSuivie.instantane(ports), instantaneRoutes, completudeCourante.completes(),
+                completudeCourante.incompletes());
+        // les listes sont comparées par identité : des instantanés différents peuvent avoir le même contenu
+        if (precedent != null && precedent.score() == score && precedent.nbPionsWagon() == nbPionsWagon
+                && precedent.nbPionsWagonEnReserve() == nbPionsWagonEnReserve
+                && precedent.nbPionsBateau() == nbPionsBateau
+                && precedent.nbPionsBateauEnReserve() == nbPionsBateauEnReserve
+                && precedent.cartesTransport() == instantane.cartesTransport()
+                && precedent.cartesTransportPosees() == instantane.cartesTransportPosees()
+                && precedent.destinations() == instantane.destinations()
+                && precedent.ports() == instantane.ports() && precedent.routes() == instantane.routes()
+                && precedent.destinationsCompletes() == instantane.destinationsCompletes()) {
+            return precedent;
+        }
+        return instantane;
+    }
+
+    /**
+     * Destinations complètes et incomplètes d'un joueur, pour des instantanés de ses routes et de ses destinations
+     */
+    private record Completude(List<Route> routes, List<Destination> destinations,
+            List<Destination> completes, List<Destination> incompletes) {
+    }
+
+    /**
+     * Routes à mettre en surbrillance pour chaque destination incomplète d'un joueur (leurs noms), pour des
+     * instantanés de ses routes, de ses destinations incomplètes et des routes libres
+     */
+    private record Surbrillance(List<Route> routes, List<Destination> incompletes, List<Route> routesLibres,
+            List<List<String>> routesPourDestinations) {
+    }
+
+    /**
+     * Représentation d'un joueur, construite à partir de son instantané et des routes à mettre en surbrillance
+     */
+    private record Representation(Instantane etat, List<List<String>> routesPourDestinations,
+            Map<String, Object> dataMap) {
+    }
+
+    /**
+     * @return les destinations complètes et incomplètes du joueur, recalculées seulement si ses routes ou ses
+     * destinations ont changé depuis le dernier calcul
+     */
+    private Completude getCompletude(List<Route> instantaneRoutes, List<Destination> instantaneDestinations) {
+        if (completude == null || completude.routes() != instantaneRoutes
+                || completude.destinations() != instantaneDestinations) {
+            List<Destination> completes = new ArrayList<>();
+            List<Destination> incompletes = new ArrayList<>();
+            for (Destination d : instantaneDestinations) {
+                (destinationEstComplete(d) ? completes : incompletes).add(d);
             }
+            completude = new Completude(instantaneRoutes, instantaneDestinations, List.copyOf(completes),
+                    List.copyOf(incompletes));
+        }
+        return completude;
+    }
+
+    /**
+     * @return les routes à mettre en surbrillance pour les destinations incomplètes d'un instantané du joueur,
+     * recalculées seulement si ses routes ou ses destinations incomplètes, ou les routes libres, ont changé depuis
+     * le dernier calcul (la liste précédente est conservée si le résultat n'a pas changé)
+     */
+    private List<List<String>> getRoutesPourDestinations(Instantane etat, List<Route> routesLibres) {
+        Surbrillance precedente = surbrillance;
+        if (precedente != null && precedente.routes() == etat.routes()
+                && precedente.incompletes() == etat.destinationsIncompletes()
+                && precedente.routesLibres() == routesLibres) {
+            return precedente.routesPourDestinations();
+        }
+        List<List<String>> routesPourDestinations = new ArrayList<>();
+        if (!etat.destinationsIncompletes().isEmpty()) {
+            Graphe graphe = getGrapheRoutesUtilisables(routesLibres, etat.routes());
+            for (Destination d : etat.destinationsIncompletes()) {
+                routesPourDestinations.add(routesEnSurbrillancePourDestination(d, graphe).stream()
+                        .map(Route::getNom).toList());
+            }
+        }
+        if (precedente != null && precedente.routesPourDestinations().equals(routesPourDestinations)) {
+            routesPourDestinations = precedente.routesPourDestinations();
+        } else {
+            routesPourDestinations = Collections.unmodifiableList(routesPourDestinations);
+        }
+        surbrillance = new Surbrillance(etat.routes(), etat.destinationsIncompletes(), routesLibres,
+                routesPourDestinations);
+        return routesPourDestinations;
+    }
+
+    /**
+     * Renvoie la représentation du joueur construite à partir de son instantané (voir
+     * {@link Instantane#dataMap(List)}), avec les routes à mettre en surbrillance pour ses destinations incomplètes.
+     * Elle n'est reconstruite que si l'instantané ou les routes en surbrillance ont changé : si rien n'a changé,
+     * c'est la même représentation qui est renvoyée.
+     * <p>
+     * La recherche des routes en surbrillance ne lit que les instantanés et le plateau : cette méthode peut être
+     * appelée par un autre fil que celui de la partie (par exemple celui qui diffuse l'état aux clients).
+     *
+     * @param routesLibres un instantané des routes libres
+     */
+    Map<String, Object> dataMap(Instantane etat, List<Route> routesLibres) {
+        List<List<String>> routesPourDestinations = getRoutesPourDestinations(etat, routesLibres);
+        Representation precedente = representation;
+        if (precedente != null && precedente.etat() == etat
+                && precedente.routesPourDestinations() == routesPourDestinations) {
+            return precedente.dataMap();
         }
+        Map<String, Object> dataMap = etat.dataMap(routesPourDestinations);
+        representation = new Representation(etat, routesPourDestinations, dataMap);
+        return dataMap;
+    }
 
-        return Map.ofEntries(
-                Map.entry("nom", nom),
-                Map.entry("couleur", couleur),
-                Map.entry("score", score),
-                Map.entry("pionsWagon", nbPionsWagon),
-                Map.entry("pionsWagonReserve", nbPionsWagonEnReserve),
-                Map.entry("pionsBateau", nbPionsBateau),
-                Map.entry("pionsBateauReserve", nbPionsBateauEnReserve),
-                Map.entry("routesPourDestinations", routesPourDestinationsIncompletes),
-                Map.entry("destinationsIncompletes", destinationsIncompletes),
-                Map.entry("destinationsCompletes", destinationsCompletes),
-                Map.entry("main", cartesTransport.stream().sorted().toList()),
-                Map.entry("inPlay", cartesTransportPosees.stream().sorted().toList()),
-                Map.entry("ports", ports.stream().map(Ville::nom).toList()),
-                Map.entry("routes", routes.stream().map(Route::getNom).toList()));
+    /**
+     * Renvoie la représentation de l'état actuel du joueur (voir {@link #dataMap(Instantane, List)})
+     */
+    Map<String, Object> dataMap() {
+        Representation precedente = representation;
+        return dataMap(instantane(precedente == null ? null : precedente.etat()), jeu.getRoutesLibres());
     }
 
     /**
@@ -851,11 +1074,46 @@ public class Joueur {
     /**
      * Renvoie une collection de routes que l'on souhaite mettre en surbrillance
      * dans l'interface graphique lorsque le curseur passe sur le nom d'une
-     * destination.
-     * 
-     * @return
+     * destination : un plus court chemin (en longueur totale) qui relie ses villes
+     * en n'utilisant que des routes libres ou déjà capturées par le joueur.
+     * <p>
+     * La recherche est bornée en temps (voir {@link Budget}) : le chemin renvoyé
+     * n'est pas forcément le plus court. La collection est vide si aucun chemin
+     * n'a été trouvé.
      */
     public Collection<Route> routesEnSurbrillancePourDestination(Destination d) {
-        throw new RuntimeException("Méthode non implémentée");
+        return routesEnSurbrillancePourDestination(d,
+                getGrapheRoutesUtilisables(jeu.getRoutesLibres(), ListeSuivie.instantane(routes)));
+    }
+
+    /**
+     * @return le graphe des routes que le joueur peut utiliser : les routes libres et les siennes
+     */
+    private Graphe getGrapheRoutesUtilisables(List<Route> routesLibres, List<Route> routesJoueur) {
+        List<Route> routesUtilisables = new ArrayList<>(routesLibres);
+        routesUtilisables.addAll(routesJoueur);
+        return jeu.getPlateau().getGraphe(routesUtilisables);
+    }
+
+    private Collection<Route> routesEnSurbrillancePourDestination(Destination d, Graphe graphe) {
+        Plateau plateau = jeu.getPlateau();
+        List<Integer> sousListe = new ArrayList<>();
+        for (String nomVille : d.getVilles()) {
+            for (Ville ville : plateau.getVilles()) {
+                if (nomVille.equals(ville.nom())) {
+                    sousListe.add(ville.getId());
+                    break;
+                }
+            }
+        }
+
+        ResultatParcours resultat = graphe.parcoursSansRepetition(sousListe, true,
+                new Budget(NOEUDS_SURBRILLANCE, DUREE_SURBRILLANCE));
+        List<Integer> cheminVille = resultat.chemin();
+        List<Route> cheminRoute = new ArrayList<>();
+        for (int i = 0; i < cheminVille.size() - 1; i++) {
+            cheminRoute.add(graphe.getArete(cheminVille.get(i), cheminVille.get(i + 1)).route());
+        }
+        return cheminRoute;
     }
 }
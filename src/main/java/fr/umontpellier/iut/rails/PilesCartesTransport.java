@@ -1,6 +1,7 @@
 package fr.umontpellier.iut.rails;
 
 import fr.umontpellier.iut.rails.data.CarteTransport;
+import fr.umontpellier.iut.rails.data.ListeSuivie;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -12,8 +13,8 @@ public class PilesCartesTransport {
     private final List<CarteTransport> pileDefausse;
 
     public PilesCartesTransport(List<CarteTransport> cartes) {
-        pilePioche = cartes;
-        pileDefausse = new ArrayList<>();
+        pilePioche = new ListeSuivie<>(cartes);
+        pileDefausse = new ListeSuivie<>();
         // on mélange la pile de pioche
         Collections.shuffle(pilePioche);
     }
@@ -53,9 +54,31 @@ public class PilesCartesTransport {
         return cartes;
     }
 
+    /**
+     * État des piles figé à un instant donné (la défausse est un instantané, voir {@link ListeSuivie})
+     *
+     * @param nbPioche le nombre de cartes de la pioche (face cachée)
+     */
+    public record Instantane(int nbPioche, List<CarteTransport> defausse) {
+        public Map<String, Object> dataMap() {
+            return Map.ofEntries(
+                    Map.entry("pioche", nbPioche),
+                    Map.entry("defausse", defausse));
+        }
+    }
+
+    /**
+     * @param precedent le dernier instantané des piles (ou null), renvoyé tel quel si les piles n'ont pas changé
+     */
+    Instantane instantane(Instantane precedent) {
+        List<CarteTransport> defausse = ListeSuivie.instantane(pileDefausse);
+        if (precedent != null && precedent.nbPioche() == pilePioche.size() && precedent.defausse() == defausse) {
+            return precedent;
+        }
+        return new Instantane(pilePioche.size(), defausse);
+    }
+
     public Map<String, Object> dataMap() {
-        return Map.ofEntries(
-                Map.entry("pioche", pilePioche.size()),
-                Map.entry("defausse", pileDefausse));
+        return instantane(null).dataMap();
     }
 }
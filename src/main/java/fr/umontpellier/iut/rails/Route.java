@@ -1,6 +1,8 @@
 package fr.umontpellier.iut.rails;
 
+import fr.umontpellier.iut.rails.data.CarteTransport;
 import fr.umontpellier.iut.rails.data.Couleur;
+import fr.umontpellier.iut.rails.data.Identifiants;
 import fr.umontpellier.iut.rails.data.Ville;
 
 public abstract class Route {
@@ -42,7 +44,15 @@ public abstract class Route {
         this.ville2 = ville2;
         this.couleur = couleur;
         this.longueur = longueur;
-        this.nom = "R" + compteur++;
+        Identifiants identifiants = Identifiants.courants();
+        this.nom = "R" + (identifiants != null ? identifiants.numeroRouteSuivant() : numeroSuivant());
+    }
+
+    /**
+     * @return le numéro suivant du compteur statique, pour une route créée hors de tout {@link Identifiants}
+     */
+    private static synchronized int numeroSuivant() {
+        return compteur++;
     }
 
     public Ville getVille1() {
@@ -123,6 +133,14 @@ public abstract class Route {
         }
     }
 
+    /**
+     * Comme {@link #peutEtreCaptureePar(Joueur)}, avec le catalogue des cartes en main du joueur déjà construit :
+     * le même catalogue sert pour tester toutes les routes libres à chaque tour
+     */
+    boolean peutEtreCaptureePar(Joueur joueur, CarteTransport.Catalogue cartesTransport) {
+        return peutEtreCaptureePar(joueur);
+    }
+
     public abstract void payerPar(Joueur joueur);
 
     public String toLog() {
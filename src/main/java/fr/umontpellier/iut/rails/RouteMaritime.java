@@ -20,6 +20,11 @@ public class RouteMaritime extends Route {
     }
 
     public boolean peutEtreCaptureePar(Joueur joueur) {
+        return peutEtreCaptureePar(joueur, new CarteTransport.Catalogue(joueur.getCartesTransport()));
+    }
+
+    @Override
+    boolean peutEtreCaptureePar(Joueur joueur, CarteTransport.Catalogue cartesTransport) {
         if (!super.peutEtreCaptureePar(joueur)) {
             return false;
         }
@@ -27,7 +32,6 @@ public class RouteMaritime extends Route {
             return false;
         }
 
-        CarteTransport.Catalogue cartesTransport = new CarteTransport.Catalogue(joueur.getCartesTransport());
         return cartesTransport.getValeur(TypeCarteTransport.BATEAU, getCouleur(), true) >= getLongueur();
     }
 
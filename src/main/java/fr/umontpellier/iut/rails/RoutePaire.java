@@ -19,6 +19,11 @@ public class RoutePaire extends Route {
     }
 
     public boolean peutEtreCaptureePar(Joueur joueur) {
+        return peutEtreCaptureePar(joueur, new CarteTransport.Catalogue(joueur.getCartesTransport()));
+    }
+
+    @Override
+    boolean peutEtreCaptureePar(Joueur joueur, CarteTransport.Catalogue cartesTransport) {
         if (!super.peutEtreCaptureePar(joueur)) {
             return false;
         }
@@ -26,7 +31,6 @@ public class RoutePaire extends Route {
             return false;
         }
 
-        CarteTransport.Catalogue cartesTransport = new CarteTransport.Catalogue(joueur.getCartesTransport());
         int nbPaires = 0;
         int nbIsolees = 0;
         int nbJokers = cartesTransport.get(TypeCarteTransport.JOKER, Couleur.GRIS).size();
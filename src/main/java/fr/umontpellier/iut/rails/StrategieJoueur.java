@@ -0,0 +1,36 @@
+package fr.umontpellier.iut.rails;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Stratégie de choix des joueurs d'une partie sans affichage (voir
+ * {@link Jeu#Jeu(String[], fr.umontpellier.iut.rails.data.Plateau, List, StrategieJoueur)}) : à chaque choix
+ * demandé par {@link Joueur#choisir}, la stratégie répond directement, à la place des entrées de l'interface
+ * graphique.
+ */
+@FunctionalInterface
+public interface StrategieJoueur {
+    /**
+     * @param joueur       le joueur qui doit faire un choix
+     * @param instruction  l'instruction qui lui est donnée
+     * @param choixValides les réponses acceptées, sans doublons, dans l'ordre où elles sont proposées (la chaîne vide,
+     *                     si elle est présente, signifie que le joueur passe)
+     * @return l'un des choix valides
+     */
+    String choisir(Joueur joueur, String instruction, List<String> choixValides);
+
+    /**
+     * @return une stratégie qui choisit au hasard parmi les choix valides autres que passer (et ne passe que s'il
+     * n'y a pas d'autre choix)
+     */
+    static StrategieJoueur aleatoire(Random aleatoire) {
+        return (joueur, instruction, choixValides) -> {
+            List<String> actions = choixValides.stream().filter(c -> !c.isEmpty()).toList();
+            if (actions.isEmpty()) {
+                return "";
+            }
+            return actions.get(aleatoire.nextInt(actions.size()));
+        };
+    }
+}
@@ -0,0 +1,246 @@
+package fr.umontpellier.iut.rails;
+
+import fr.umontpellier.iut.rails.data.Destination;
+import fr.umontpellier.iut.rails.data.GenerateurPlateau;
+import fr.umontpellier.iut.rails.data.Identifiants;
+import fr.umontpellier.iut.rails.data.Plateau;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Tournoi entre joueurs automatiques : un grand nombre de parties sans affichage (voir
+ * {@link Jeu#Jeu(String[], Plateau, List, StrategieJoueur)}), jouées en parallèle sur tous les cœurs, une partie par
+ * tâche.
+ * <p>
+ * Chaque partie a ses propres {@link Identifiants} et sa propre graine (la graine du tournoi plus le numéro de la
+ * partie), à partir de laquelle chaque joueur crée sa stratégie. Le résultat de chaque partie (nombre de tours, puis
+ * pour chaque joueur son score final, son nombre de routes et son nombre de ports) est écrit au fur et à mesure, dans
+ * l'ordre où les parties se terminent, sur une ligne CSV. L'avancement et le nombre de parties par seconde sont
+ * affichés régulièrement.
+ */
+public final class Tournoi {
+    /**
+     * Nombre de parties soumises d'avance par fil d'exécution (les résultats sont écrits au fur et à mesure : seules
+     * ces parties-là sont en mémoire en même temps)
+     */
+    private static final int PARTIES_EN_AVANCE = 4;
+    private static final long INTERVALLE_PROGRES_NANOS = 1_000_000_000L;
+
+    private final List<String> nomsJoueurs;
+    /**
+     * Pour chaque joueur, la création de sa stratégie à partir d'un générateur aléatoire propre à la partie
+     */
+    private final List<Function<Random, StrategieJoueur>> strategies;
+    private int nbFils = Runtime.getRuntime().availableProcessors();
+    private int nbToursMax = 2000;
+    private long graine;
+    /**
+     * Nombre de villes des plateaux générés, ou 0 pour le plateau Monde
+     */
+    private int nbVillesPlateau;
+    private PrintStream progres = System.err;
+
+    /**
+     * @param strategies pour chaque joueur (dans l'ordre des noms), la création de sa stratégie à partir du
+     *                   générateur aléatoire de la partie
+     */
+    public Tournoi(List<String> nomsJoueurs, List<Function<Random, StrategieJoueur>> strategies) {
+        if (nomsJoueurs.size() != strategies.size() || nomsJoueurs.size() < 2) {
+            throw new IllegalArgumentException("Il faut une stratégie par joueur, et au moins deux joueurs");
+        }
+        this.nomsJoueurs = List.copyOf(nomsJoueurs);
+        this.strategies = List.copyOf(strategies);
+    }
+
+    public void setNbFils(int nbFils) {
+        this.nbFils = nbFils;
+    }
+
+    /**
+     * Fixe le nombre maximal de tours de chaque partie (voir {@link Jeu#setNbToursMax})
+     */
+    public void setNbToursMax(int nbToursMax) {
+        this.nbToursMax = nbToursMax;
+    }
+
+    public void setGraine(long graine) {
+        this.graine = graine;
+    }
+
+    /**
+     * Fait jouer les parties sur des plateaux générés de nbVillesPlateau villes (un plateau différent par partie,
+     * voir {@link GenerateurPlateau}) plutôt que sur le plateau Monde
+     */
+    public void setNbVillesPlateau(int nbVillesPlateau) {
+        this.nbVillesPlateau = nbVillesPlateau;
+    }
+
+    /**
+     * Fixe le flux où l'avancement est affiché (null pour ne rien afficher)
+     */
+    public void setProgres(PrintStream progres) {
+        this.progres = progres;
+    }
+
+    /**
+     * Résultat d'une partie : pour chaque joueur (dans l'ordre des noms), son score final, son nombre de routes
+     * et son nombre de ports
+     */
+    public record ResultatPartie(long numero, int nbTours, int[] scores, int[] nbRoutes, int[] nbPorts) {
+        /**
+         * @return l'en-tête CSV des résultats des parties entre ces joueurs
+         */
+        public static String enTeteCsv(List<String> nomsJoueurs) {
+            StringJoiner joiner = new StringJoiner(",");
+            joiner.add("partie").add("tours");
+            for (String nom : nomsJoueurs) {
+                joiner.add("score_" + nom).add("routes_" + nom).add("ports_" + nom);
+            }
+            return joiner.toString();
+        }
+
+        public String toCsv() {
+            StringJoiner joiner = new StringJoiner(",");
+            joiner.add(String.valueOf(numero)).add(String.valueOf(nbTours));
+            for (int i = 0; i < scores.length; i++) {
+                joiner.add(String.valueOf(scores[i])).add(String.valueOf(nbRoutes[i])).add(String.valueOf(nbPorts[i]));
+            }
+            return joiner.toString();
+        }
+    }
+
+    /**
+     * Joue une partie (les parties sont indépendantes : cette méthode peut être appelée par plusieurs fils)
+     *
+     * @param numero le numéro de la partie, qui détermine sa graine
+     */
+    public ResultatPartie jouerPartie(long numero) {
+        Random aleatoire = new Random(graine + numero);
+        List<StrategieJoueur> strategiesPartie = new ArrayList<>();
+        for (Function<Random, StrategieJoueur> strategie : strategies) {
+            strategiesPartie.add(strategie.apply(new Random(aleatoire.nextLong())));
+        }
+        StrategieJoueur parJoueur = (joueur, instruction, choixValides) -> strategiesPartie
+                .get(joueur.getJeu().getJoueurs().indexOf(joueur)).choisir(joueur, instruction, choixValides);
+        long grainePlateau = aleatoire.nextLong();
+        Jeu jeu = new Identifiants().creer(() -> {
+            String[] noms = nomsJoueurs.toArray(new String[0]);
+            if (nbVillesPlateau == 0) {
+                return new Jeu(noms, Plateau.makePlateauMonde(), Destination.makeDestinationsMonde(), parJoueur);
+            }
+            GenerateurPlateau generateur = new GenerateurPlateau(grainePlateau);
+            Plateau plateau = generateur.genererPlateau(nbVillesPlateau);
+            return new Jeu(noms, plateau, generateur.genererDestinations(plateau, nbVillesPlateau * 3 / 2),
+                    parJoueur);
+        });
+        jeu.setNbToursMax(nbToursMax);
+        jeu.run();
+
+        List<Joueur> joueurs = jeu.getJoueurs();
+        int[] scores = new int[joueurs.size()];
+        int[] nbRoutes = new int[joueurs.size()];
+        int[] nbPorts = new int[joueurs.size()];
+        for (int i = 0; i < joueurs.size(); i++) {
+            scores[i] = joueurs.get(i).calculerScoreFinal();
+            nbRoutes[i] = joueurs.get(i).getRoutes().size();
+            nbPorts[i] = joueurs.get(i).getPorts().size();
+        }
+        return new ResultatPartie(numero, jeu.getNbTours(), scores, nbRoutes, nbPorts);
+    }
+
+    /**
+     * Joue nbParties parties en parallèle et écrit leurs résultats au format CSV (en-tête compris) au fur et à
+     * mesure qu'elles se terminent. Si une partie échoue, les parties restantes sont abandonnées et l'erreur est
+     * levée.
+     *
+     * @return le nombre de parties jouées par seconde
+     */
+    public double jouer(int nbParties, Writer sortie) throws IOException {
+        ExecutorService executeur = Executors.newFixedThreadPool(nbFils, tache -> {
+            Thread fil = new Thread(tache, "tournoi");
+            fil.setDaemon(true);
+            return fil;
+        });
+        CompletionService<ResultatPartie> resultats = new ExecutorCompletionService<>(executeur);
+        long debut = System.nanoTime();
+        long prochainProgres = debut + INTERVALLE_PROGRES_NANOS;
+        try {
+            sortie.write(ResultatPartie.enTeteCsv(nomsJoueurs));
+            sortie.write('\n');
+            int nbSoumises = 0;
+            for (int nbTerminees = 0; nbTerminees < nbParties; nbTerminees++) {
+                while (nbSoumises < nbParties && nbSoumises - nbTerminees < PARTIES_EN_AVANCE * nbFils) {
+                    long numero = nbSoumises++;
+                    resultats.submit(() -> jouerPartie(numero));
+                }
+                sortie.write(resultats.take().get().toCsv());
+                sortie.write('\n');
+                long maintenant = System.nanoTime();
+                if (maintenant >= prochainProgres) {
+                    afficherProgres(nbTerminees + 1, nbParties, maintenant - debut);
+                    prochainProgres = maintenant + INTERVALLE_PROGRES_NANOS;
+                }
+            }
+            sortie.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tournoi interrompu", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Échec d'une partie du tournoi", e.getCause());
+        } finally {
+            executeur.shutdownNow();
+        }
+        long duree = System.nanoTime() - debut;
+        afficherProgres(nbParties, nbParties, duree);
+        return nbParties * 1e9 / Math.max(1, duree);
+    }
+
+    private void afficherProgres(int nbTerminees, int nbParties, long dureeNanos) {
+        if (progres != null) {
+            progres.printf("%d/%d parties, %.1f parties/s%n", nbTerminees, nbParties,
+                    nbTerminees * 1e9 / Math.max(1, dureeNanos));
+        }
+    }
+
+    /**
+     * Lance un tournoi entre joueurs aléatoires.
+     * Arguments : nombre de parties, fichier CSV des résultats, nombre de joueurs (4 par défaut), nombre de villes
+     * des plateaux générés (plateau Monde par défaut)
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage : Tournoi <nombre de parties> <fichier.csv> [joueurs] [villes]");
+            return;
+        }
+        int nbParties = Integer.parseInt(args[0]);
+        int nbJoueurs = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        List<String> noms = new ArrayList<>();
+        for (int i = 1; i <= nbJoueurs; i++) {
+            noms.add("Joueur" + i);
+        }
+        Tournoi tournoi = new Tournoi(noms, Collections.nCopies(nbJoueurs, StrategieJoueur::aleatoire));
+        if (args.length > 3) {
+            tournoi.setNbVillesPlateau(Integer.parseInt(args[3]));
+        }
+        try (BufferedWriter sortie = Files.newBufferedWriter(Path.of(args[1]), StandardCharsets.UTF_8)) {
+            tournoi.jouer(nbParties, sortie);
+        }
+    }
+}
@@ -21,7 +21,15 @@ public final class CarteTransport implements Comparable<CarteTransport> {
         this.couleur = couleur;
         this.estDouble = estDouble;
         this.ancre = ancre;
-        this.nom = "C" + compteur++;
+        Identifiants identifiants = Identifiants.courants();
+        this.nom = "C" + (identifiants != null ? identifiants.numeroCarteTransportSuivant() : numeroSuivant());
+    }
+
+    /**
+     * @return le numéro suivant du compteur statique, pour une carte créée hors de tout {@link Identifiants}
+     */
+    private static synchronized int numeroSuivant() {
+        return compteur++;
     }
 
     @Override
@@ -118,11 +126,13 @@ public final class CarteTransport implements Comparable<CarteTransport> {
     }
 
     public static class Catalogue {
-        private final Map<TypeCarteTransport, Map<Couleur, List<CarteTransport>>> catalogue = new HashMap<>();
+        private final Map<TypeCarteTransport, Map<Couleur, List<CarteTransport>>> catalogue =
+                new EnumMap<>(TypeCarteTransport.class);
 
         public Catalogue(List<CarteTransport> cartes) {
+            // un catalogue est construit à chaque choix de route ou de port : tables indexées par les énumérations
             for (TypeCarteTransport t : TypeCarteTransport.values()) {
-                catalogue.put(t, new HashMap<>());
+                catalogue.put(t, new EnumMap<>(Couleur.class));
                 for (Couleur c : Couleur.values()) {
                     catalogue.get(t).put(c, new ArrayList<>());
                 }
@@ -24,7 +24,8 @@ public class Destination {
      */
     private final int penalite;
     /**
-     * Nom de la destination automatiquement assigné à la création en fonction du compteur statique.
+     * Nom de la destination automatiquement assigné à la création en fonction du compteur statique (ou des
+     * {@link Identifiants} de la partie en cours de création).
      * Le nom d'une destination est "Dxx" (où xx est le numéro de la destination)
      */
     private final String nom;
@@ -41,7 +42,15 @@ public class Destination {
         this.valeurSimple = valeurSimple;
         this.valeurMax = valeurMax;
         this.penalite = penalite;
-        this.nom = "D" + compteur++;
+        Identifiants identifiants = Identifiants.courants();
+        this.nom = "D" + (identifiants != null ? identifiants.numeroDestinationSuivant() : numeroSuivant());
+    }
+
+    /**
+     * @return le numéro suivant du compteur statique, pour une destination créée hors de tout {@link Identifiants}
+     */
+    private static synchronized int numeroSuivant() {
+        return compteur++;
     }
 
     public Destination(String ville1, String ville2, int valeur) {
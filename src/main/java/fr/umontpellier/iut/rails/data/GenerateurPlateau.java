@@ -0,0 +1,301 @@
+package fr.umontpellier.iut.rails.data;
+
+import fr.umontpellier.iut.graphes.Graphe;
+import fr.umontpellier.iut.rails.Route;
+import fr.umontpellier.iut.rails.RouteMaritime;
+import fr.umontpellier.iut.rails.RoutePaire;
+import fr.umontpellier.iut.rails.RouteTerrestre;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Générateur de plateaux synthétiques de taille quelconque (et des destinations qui vont avec), pour tester le
+ * comportement du jeu et des algorithmes de graphes sur des plateaux beaucoup plus grands que le plateau Monde.
+ * <p>
+ * Les villes sont réparties en continents d'environ {@link #VILLES_PAR_CONTINENT} villes, placés au hasard dans le
+ * plan ; les villes d'un continent sont regroupées autour de son centre. Dans un continent, les villes sont reliées
+ * par des routes terrestres (un arbre couvrant de longueur minimale, plus quelques routes vers les voisines les plus
+ * proches) ; les villes les plus éloignées du centre sont des ports, et les continents sont reliés entre eux par des
+ * routes maritimes entre ports (arbre couvrant des continents, plus une liaison vers le continent le plus proche).
+ * La longueur d'une route dépend de la distance entre ses villes. Comme sur le plateau Monde, certaines routes sont
+ * doublées (routes parallèles de couleurs différentes) et quelques routes terrestres sont des routes paires.
+ * <p>
+ * Le plateau obtenu est toujours connexe. Deux générateurs créés avec la même graine produisent les mêmes plateaux
+ * et les mêmes destinations, aux identifiants des villes, routes et destinations près : ils sont donnés par les
+ * {@link Identifiants} courants quand le plateau est généré dans {@link Identifiants#creer} (comme dans un tournoi),
+ * par les compteurs statiques sinon.
+ */
+public final class GenerateurPlateau {
+    /**
+     * Nombre moyen de villes par continent
+     */
+    public static final int VILLES_PAR_CONTINENT = 8;
+    /**
+     * Écart moyen entre deux centres de continents voisins, et dispersion des villes autour du centre de leur
+     * continent (en unités de longueur de route)
+     */
+    private static final double ECART_CONTINENTS = 9;
+    private static final double DISPERSION_VILLES = 1.6;
+    private static final double PROPORTION_PORTS = 0.4;
+    private static final double PROPORTION_PARALLELES = 0.3;
+    private static final double PROPORTION_PAIRES = 0.05;
+    private static final double PROPORTION_ITINERAIRES = 0.1;
+    private static final int LONGUEUR_MAX_TERRESTRE = 6;
+    private static final int LONGUEUR_MAX_MARITIME = 8;
+
+    private final Random aleatoire;
+
+    public GenerateurPlateau(long graine) {
+        aleatoire = new Random(graine);
+    }
+
+    /**
+     * @return un nouveau plateau de nbVilles villes
+     */
+    public Plateau genererPlateau(int nbVilles) {
+        if (nbVilles < 2) {
+            throw new IllegalArgumentException("Un plateau doit avoir au moins 2 villes");
+        }
+        int nbContinents = Math.max(1, Math.round((float) nbVilles / VILLES_PAR_CONTINENT));
+        double cote = ECART_CONTINENTS * Math.sqrt(nbContinents);
+        double[] centresX = new double[nbContinents];
+        double[] centresY = new double[nbContinents];
+        for (int c = 0; c < nbContinents; c++) {
+            centresX[c] = aleatoire.nextDouble() * cote;
+            centresY[c] = aleatoire.nextDouble() * cote;
+        }
+
+        // répartition des villes : chaque continent en reçoit au moins une
+        List<List<Integer>> continents = new ArrayList<>();
+        for (int c = 0; c < nbContinents; c++) {
+            continents.add(new ArrayList<>());
+        }
+        double[] x = new double[nbVilles];
+        double[] y = new double[nbVilles];
+        for (int v = 0; v < nbVilles; v++) {
+            int c = v < nbContinents ? v : aleatoire.nextInt(nbContinents);
+            continents.get(c).add(v);
+            x[v] = centresX[c] + aleatoire.nextGaussian() * DISPERSION_VILLES;
+            y[v] = centresY[c] + aleatoire.nextGaussian() * DISPERSION_VILLES;
+        }
+
+        // les ports sont les villes les plus éloignées du centre de leur continent
+        boolean[] ports = new boolean[nbVilles];
+        List<List<Integer>> portsParContinent = new ArrayList<>();
+        for (int c = 0; c < nbContinents; c++) {
+            int centre = c;
+            List<Integer> parEloignement = new ArrayList<>(continents.get(c));
+            parEloignement.sort((u, v) -> Double.compare(
+                    Math.hypot(x[v] - centresX[centre], y[v] - centresY[centre]),
+                    Math.hypot(x[u] - centresX[centre], y[u] - centresY[centre])));
+            int nbPorts = Math.max(1, (int) Math.round(PROPORTION_PORTS * parEloignement.size()));
+            List<Integer> portsContinent = parEloignement.subList(0, nbPorts);
+            for (int v : portsContinent) {
+                ports[v] = true;
+            }
+            portsParContinent.add(new ArrayList<>(portsContinent));
+        }
+
+        List<Ville> villes = new ArrayList<>();
+        for (int v = 0; v < nbVilles; v++) {
+            villes.add(new Ville("Ville " + v, ports[v]));
+        }
+
+        List<Route> routes = new ArrayList<>();
+        Set<Long> reliees = new HashSet<>();
+        // routes terrestres : arbre couvrant minimal du continent, puis vers la voisine la plus proche
+        for (List<Integer> continent : continents) {
+            int k = continent.size();
+            double[] xs = new double[k];
+            double[] ys = new double[k];
+            for (int i = 0; i < k; i++) {
+                xs[i] = x[continent.get(i)];
+                ys[i] = y[continent.get(i)];
+            }
+            for (int[] arete : arbreCouvrant(xs, ys)) {
+                int u = continent.get(arete[0]);
+                int v = continent.get(arete[1]);
+                ajouterRoute(villes, routes, reliees, u, v, distance(x, y, u, v), false);
+            }
+            for (int u : continent) {
+                int plusProche = -1;
+                for (int v : continent) {
+                    if (v != u && !reliees.contains(cle(u, v))
+                            && (plusProche < 0 || distance(x, y, u, v) < distance(x, y, u, plusProche))) {
+                        plusProche = v;
+                    }
+                }
+                if (plusProche >= 0 && aleatoire.nextBoolean()) {
+                    ajouterRoute(villes, routes, reliees, u, plusProche, distance(x, y, u, plusProche), false);
+                }
+            }
+        }
+
+        // routes maritimes : arbre couvrant minimal des continents, puis vers le continent le plus proche
+        List<int[]> liaisons = arbreCouvrant(centresX, centresY);
+        for (int c = 0; c < nbContinents; c++) {
+            int plusProche = -1;
+            for (int d = 0; d < nbContinents; d++) {
+                if (d != c && (plusProche < 0
+                        || distance(centresX, centresY, c, d) < distance(centresX, centresY, c, plusProche))) {
+                    plusProche = d;
+                }
+            }
+            if (plusProche >= 0) {
+                liaisons.add(new int[]{c, plusProche});
+            }
+        }
+        for (int[] liaison : liaisons) {
+            int meilleurU = -1;
+            int meilleurV = -1;
+            for (int u : portsParContinent.get(liaison[0])) {
+                for (int v : portsParContinent.get(liaison[1])) {
+                    if (meilleurU < 0 || distance(x, y, u, v) < distance(x, y, meilleurU, meilleurV)) {
+                        meilleurU = u;
+                        meilleurV = v;
+                    }
+                }
+            }
+            if (!reliees.contains(cle(meilleurU, meilleurV))) {
+                ajouterRoute(villes, routes, reliees, meilleurU, meilleurV, distance(x, y, meilleurU, meilleurV),
+                        true);
+            }
+        }
+        return new Plateau(villes, routes);
+    }
+
+    /**
+     * Renvoie une liste de nb destinations entre villes du plateau (dont environ une sur dix est un itinéraire de
+     * trois villes), dont la valeur est la longueur d'un plus court chemin qui relie leurs villes.
+     * <p>
+     * Comme sur le plateau Monde, où quelques grandes villes reviennent dans de nombreuses destinations, chaque
+     * destination passe par l'une des √n "grandes villes" du plateau (tirées au hasard) : ses distances sont
+     * calculées depuis cette grande ville, ce qui permet de les calculer toutes avec un parcours par grande ville.
+     */
+    public ArrayList<Destination> genererDestinations(Plateau plateau, int nb) {
+        List<Ville> villes = new ArrayList<>(plateau.getVilles());
+        Collections.shuffle(villes, aleatoire);
+        int nbGrandesVilles = Math.min(villes.size(), Math.max(3, (int) Math.ceil(Math.sqrt(villes.size()))));
+        List<List<Ville>> etapes = new ArrayList<>();
+        List<Integer> sources = new ArrayList<>();
+        List<Integer> cibles = new ArrayList<>();
+        for (int i = 0; i < nb; i++) {
+            Ville grandeVille = villes.get(aleatoire.nextInt(nbGrandesVilles));
+            int nbEtapes = aleatoire.nextDouble() < PROPORTION_ITINERAIRES && villes.size() >= 3 ? 3 : 2;
+            List<Ville> choisies = new ArrayList<>(List.of(grandeVille));
+            while (choisies.size() < nbEtapes) {
+                Ville ville = villes.get(aleatoire.nextInt(villes.size()));
+                if (!choisies.contains(ville)) {
+                    choisies.add(ville);
+                    sources.add(grandeVille.getId());
+                    cibles.add(ville.getId());
+                }
+            }
+            if (nbEtapes == 3) {
+                // la grande ville est l'étape du milieu : les deux portions partent d'elle
+                Collections.swap(choisies, 0, 1);
+            }
+            etapes.add(choisies);
+        }
+
+        // toutes les distances en un seul lot
+        Graphe graphe = plateau.getGraphe();
+        int[] distances = graphe.distances(sources.stream().mapToInt(Integer::intValue).toArray(),
+                cibles.stream().mapToInt(Integer::intValue).toArray(), true);
+        ArrayList<Destination> destinations = new ArrayList<>();
+        int requete = 0;
+        for (List<Ville> choisies : etapes) {
+            int valeur = 0;
+            for (int j = 0; j < choisies.size() - 1; j++) {
+                valeur += Math.max(1, distances[requete++]);
+            }
+            List<String> noms = new ArrayList<>(choisies.stream().map(Ville::nom).toList());
+            if (choisies.size() == 2) {
+                destinations.add(new Destination(noms.get(0), noms.get(1), valeur));
+            } else {
+                // mêmes proportions que les itinéraires du plateau Monde
+                int valeurMax = valeur * 3 / 2;
+                destinations.add(new Destination(noms, valeur, valeurMax, valeurMax + 6));
+            }
+        }
+        return destinations;
+    }
+
+    private void ajouterRoute(List<Ville> villes, List<Route> routes, Set<Long> reliees, int u, int v,
+                              double distance, boolean maritime) {
+        Ville ville1 = villes.get(Math.min(u, v));
+        Ville ville2 = villes.get(Math.max(u, v));
+        reliees.add(cle(u, v));
+        int longueur = (int) Math.max(1, Math.min(maritime ? LONGUEUR_MAX_MARITIME : LONGUEUR_MAX_TERRESTRE,
+                Math.ceil(distance)));
+        if (!maritime && aleatoire.nextDouble() < PROPORTION_PAIRES) {
+            routes.add(new RoutePaire(ville1, ville2, longueur));
+            return;
+        }
+        List<Couleur> couleurs = new ArrayList<>(List.of(Couleur.values()));
+        Route route = creerRoute(ville1, ville2, couleurs.remove(aleatoire.nextInt(couleurs.size())), longueur,
+                maritime);
+        routes.add(route);
+        if (aleatoire.nextDouble() < PROPORTION_PARALLELES) {
+            couleurs.remove(Couleur.GRIS);
+            Route parallele = creerRoute(ville1, ville2, couleurs.get(aleatoire.nextInt(couleurs.size())),
+                    longueur, maritime);
+            route.setRouteParallele(parallele);
+            parallele.setRouteParallele(route);
+            routes.add(parallele);
+        }
+    }
+
+    private static Route creerRoute(Ville ville1, Ville ville2, Couleur couleur, int longueur, boolean maritime) {
+        return maritime ? new RouteMaritime(ville1, ville2, couleur, longueur)
+                : new RouteTerrestre(ville1, ville2, couleur, longueur);
+    }
+
+    private static double distance(double[] x, double[] y, int u, int v) {
+        return Math.hypot(x[u] - x[v], y[u] - y[v]);
+    }
+
+    private static long cle(int u, int v) {
+        return ((long) Math.min(u, v) << 32) | Math.max(u, v);
+    }
+
+    /**
+     * Algorithme de Prim sur les points (x[i], y[i]) (en O(k²), sans matrice de distances)
+     *
+     * @return les arêtes {i, j} d'un arbre couvrant de longueur minimale
+     */
+    private static List<int[]> arbreCouvrant(double[] x, double[] y) {
+        int k = x.length;
+        List<int[]> aretes = new ArrayList<>();
+        boolean[] dansArbre = new boolean[k];
+        double[] meilleures = new double[k];
+        int[] rattachements = new int[k];
+        Arrays.fill(meilleures, Double.POSITIVE_INFINITY);
+        meilleures[0] = 0;
+        for (int etape = 0; etape < k; etape++) {
+            int u = -1;
+            for (int v = 0; v < k; v++) {
+                if (!dansArbre[v] && (u < 0 || meilleures[v] < meilleures[u])) {
+                    u = v;
+                }
+            }
+            dansArbre[u] = true;
+            if (etape > 0) {
+                aretes.add(new int[]{rattachements[u], u});
+            }
+            for (int v = 0; v < k; v++) {
+                if (!dansArbre[v] && distance(x, y, u, v) < meilleures[v]) {
+                    meilleures[v] = distance(x, y, u, v);
+                    rattachements[v] = u;
+                }
+            }
+        }
+        return aretes;
+    }
+}
@@ -0,0 +1,71 @@
+package fr.umontpellier.iut.rails.data;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Numérotation propre à une partie (ou à un plateau) des villes, routes, destinations et cartes transport.
+ * <p>
+ * Par défaut, ces objets sont numérotés par des compteurs statiques partagés par toutes les parties : les numéros
+ * (et donc les noms "R12", "D3", "C40"...) augmentent d'une partie à l'autre. Les objets créés par
+ * {@link #creer(Supplier)} sont au contraire numérotés par cet objet, comme dans une partie seule : deux parties
+ * créées chacune avec ses propres identifiants ont les mêmes noms de routes, de destinations et de cartes, et
+ * peuvent être créées en même temps dans des fils différents.
+ * <p>
+ * Exemple : {@code Jeu jeu = new Identifiants().creer(() -> new Jeu(nomJoueurs));}
+ */
+public final class Identifiants {
+    /**
+     * Identifiants utilisés par les créations en cours dans chaque fil (null hors de {@link #creer})
+     */
+    private static final ThreadLocal<Identifiants> COURANTS = new ThreadLocal<>();
+
+    private final AtomicInteger villes = new AtomicInteger(0);
+    private final AtomicInteger routes = new AtomicInteger(1);
+    private final AtomicInteger destinations = new AtomicInteger(1);
+    private final AtomicInteger cartesTransport = new AtomicInteger(1);
+
+    /**
+     * Exécute la création (par exemple celle d'un plateau ou d'une partie) en numérotant avec ces identifiants les
+     * objets créés par le fil courant. Les appels peuvent être imbriqués.
+     *
+     * @return le résultat de la création
+     */
+    public <T> T creer(Supplier<T> creation) {
+        Identifiants precedents = COURANTS.get();
+        COURANTS.set(this);
+        try {
+            return creation.get();
+        } finally {
+            if (precedents == null) {
+                COURANTS.remove();
+            } else {
+                COURANTS.set(precedents);
+            }
+        }
+    }
+
+    /**
+     * @return les identifiants des créations en cours dans le fil courant, ou null s'il n'y en a pas (les objets
+     * sont alors numérotés par les compteurs statiques)
+     */
+    public static Identifiants courants() {
+        return COURANTS.get();
+    }
+
+    public int numeroVilleSuivant() {
+        return villes.getAndIncrement();
+    }
+
+    public int numeroRouteSuivant() {
+        return routes.getAndIncrement();
+    }
+
+    public int numeroDestinationSuivant() {
+        return destinations.getAndIncrement();
+    }
+
+    public int numeroCarteTransportSuivant() {
+        return cartesTransport.getAndIncrement();
+    }
+}
@@ -0,0 +1,169 @@
+package fr.umontpellier.iut.rails.data;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Liste modifiable dont on peut prendre à tout moment un instantané : une vue non modifiable du contenu de la liste
+ * à cet instant, qui ne change pas quand la liste est modifiée ensuite.
+ * <p>
+ * Un instantané ne recopie pas les éléments, il partage le tableau de la liste (et deux instantanés d'une liste qui
+ * n'a pas été modifiée entre-temps sont le même objet). Le tableau n'est recopié qu'à la première modification d'un
+ * élément vu par un instantané : les ajouts en fin de liste se font sans copie. Prendre un instantané coûte donc
+ * O(1), et la liste a le coût d'une {@link ArrayList} tant qu'aucun instantané n'est pris.
+ * <p>
+ * La liste n'est pas synchronisée : elle ne doit être modifiée que par un seul fil (celui de la partie). Ses
+ * instantanés ne sont jamais modifiés, et peuvent être lus par d'autres fils une fois publiés (par un champ
+ * volatile par exemple).
+ */
+public final class ListeSuivie<E> extends AbstractList<E> implements RandomAccess {
+    private static final int CAPACITE_INITIALE = 10;
+
+    private Object[] elements;
+    private int taille;
+    /**
+     * Nombre d'éléments du tableau vus par des instantanés (ils ne doivent plus être modifiés)
+     */
+    private int taillePartagee;
+    /**
+     * Instantané du contenu actuel de la liste (null si la liste a été modifiée depuis le dernier instantané)
+     */
+    private List<E> instantane;
+
+    public ListeSuivie() {
+        elements = new Object[CAPACITE_INITIALE];
+    }
+
+    public ListeSuivie(Collection<? extends E> elements) {
+        Object[] tableau = elements.toArray();
+        this.elements = Arrays.copyOf(tableau, Math.max(tableau.length, CAPACITE_INITIALE), Object[].class);
+        taille = tableau.length;
+    }
+
+    /**
+     * @return un instantané de la liste si c'en est une {@code ListeSuivie}, une copie non modifiable sinon
+     */
+    public static <E> List<E> instantane(List<E> liste) {
+        if (liste instanceof ListeSuivie<E> listeSuivie) {
+            return listeSuivie.instantane();
+        }
+        return Collections.unmodifiableList(new ArrayList<>(liste));
+    }
+
+    /**
+     * @return une vue non modifiable du contenu actuel de la liste, qui ne changera plus
+     */
+    public List<E> instantane() {
+        if (instantane == null) {
+            instantane = new Instantane<>(elements, taille);
+            taillePartagee = taille;
+        }
+        return instantane;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        Objects.checkIndex(index, taille);
+        return (E) elements[index];
+    }
+
+    @Override
+    public int size() {
+        return taille;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E set(int index, E element) {
+        Objects.checkIndex(index, taille);
+        preparerModification(index, taille);
+        E ancien = (E) elements[index];
+        elements[index] = element;
+        return ancien;
+    }
+
+    @Override
+    public void add(int index, E element) {
+        Objects.checkIndex(index, taille + 1);
+        modCount++;
+        preparerModification(index, taille + 1);
+        System.arraycopy(elements, index, elements, index + 1, taille - index);
+        elements[index] = element;
+        taille++;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E remove(int index) {
+        Objects.checkIndex(index, taille);
+        modCount++;
+        preparerModification(index, taille);
+        E ancien = (E) elements[index];
+        System.arraycopy(elements, index + 1, elements, index, taille - index - 1);
+        elements[--taille] = null;
+        return ancien;
+    }
+
+    @Override
+    public void clear() {
+        modCount++;
+        if (taillePartagee > 0) {
+            elements = new Object[elements.length];
+            taillePartagee = 0;
+        } else {
+            Arrays.fill(elements, 0, taille, null);
+        }
+        taille = 0;
+        instantane = null;
+    }
+
+    /**
+     * Prépare le tableau avant une modification de ses éléments à partir de l'indice debut : il est recopié si
+     * des instantanés en voient un de ces éléments, ou s'il est trop petit
+     *
+     * @param capacite le nombre d'éléments que le tableau doit pouvoir contenir
+     */
+    private void preparerModification(int debut, int capacite) {
+        if (debut < taillePartagee || capacite > elements.length) {
+            int nouvelleCapacite = elements.length;
+            if (capacite > nouvelleCapacite) {
+                nouvelleCapacite = Math.max(capacite, nouvelleCapacite + (nouvelleCapacite >> 1));
+            }
+            elements = Arrays.copyOf(elements, nouvelleCapacite);
+            taillePartagee = 0;
+        }
+        instantane = null;
+    }
+
+    /**
+     * Instantané d'une {@code ListeSuivie} : les taille premiers éléments d'un tableau qui ne sont plus modifiés
+     */
+    private static final class Instantane<E> extends AbstractList<E> implements RandomAccess {
+        private final Object[] elements;
+        private final int taille;
+
+        private Instantane(Object[] elements, int taille) {
+            this.elements = elements;
+            this.taille = taille;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E get(int index) {
+            Objects.checkIndex(index, taille);
+            return (E) elements[index];
+        }
+
+        @Override
+        public int size() {
+            return taille;
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package fr.umontpellier.iut.rails.data;
 
-import fr.umontpellier.iut.graphes.Arete;
+import fr.umontpellier.iut.graphes.ConstructeurGraphe;
 import fr.umontpellier.iut.graphes.Graphe;
 import fr.umontpellier.iut.rails.Route;
 import fr.umontpellier.iut.rails.RouteMaritime;
@@ -22,7 +22,7 @@ public class Plateau {
 
     public Plateau(List<Ville> villes, List<Route> routes) {
         this.villes = villes;
-        this.routes = routes;
+        this.routes = new ListeSuivie<>(routes);
     }
 
     public List<Ville> getPorts() {
@@ -238,15 +238,7 @@ public class Plateau {
      * Les sommets du graphe correspondent aux identifiants des villes (qui sont des entiers).
      */
     public Graphe getGraphe() {
-        Graphe graphe = new Graphe();
-        for(Ville ville : villes) {
-            graphe.ajouterSommet(ville.getId());
-        }
-        for(Route route : routes) {
-            Arete arete = new Arete(route.getVille1().getId(), route.getVille2().getId(), route);
-            graphe.ajouterArete(arete);
-        }
-        return graphe;
+        return getGraphe(routes);
     }
 
     /**
@@ -254,14 +246,24 @@ public class Plateau {
      * Les sommets du graphe correspondent aux identifiants des villes (qui sont des entiers).
      */
     public Graphe getGraphe(Collection<Route> ensembleDeRoutes) {
-        Graphe graphe = new Graphe();
+        return getGraphe(ensembleDeRoutes, Map.of());
+    }
+
+    /**
+     * Construit le graphe d'un ensemble de routes en renseignant le propriétaire des routes déjà capturées
+     * (voir {@link Graphe#definirProprietaire}) : la colonne des propriétaires est remplie en même temps que le
+     * reste de la représentation compacte.
+     *
+     * @param proprietaires identifiant du propriétaire de chaque route capturée
+     */
+    public Graphe getGraphe(Collection<Route> ensembleDeRoutes, Map<Route, Integer> proprietaires) {
+        ConstructeurGraphe constructeur = new ConstructeurGraphe(ensembleDeRoutes.size());
         for(Ville ville : villes) {
-            graphe.ajouterSommet(ville.getId());
+            constructeur.ajouterSommet(ville.getId());
         }
         for(Route route : ensembleDeRoutes) {
-            Arete arete = new Arete(route.getVille1().getId(), route.getVille2().getId(), route);
-            graphe.ajouterArete(arete);
+            constructeur.ajouterArete(route.getVille1().getId(), route.getVille2().getId(), route);
         }
-        return graphe;
+        return constructeur.construire(proprietaires);
     }
 }
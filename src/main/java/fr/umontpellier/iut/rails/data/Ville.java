@@ -13,7 +13,15 @@ public final class Ville {
             boolean estPort) {
         this.nom = nom;
         this.estPort = estPort;
-        id = compteur++;
+        Identifiants identifiants = Identifiants.courants();
+        id = identifiants != null ? identifiants.numeroVilleSuivant() : numeroSuivant();
+    }
+
+    /**
+     * @return le numéro suivant du compteur statique, pour une ville créée hors de tout {@link Identifiants}
+     */
+    private static synchronized int numeroSuivant() {
+        return compteur++;
     }
 
     @Override
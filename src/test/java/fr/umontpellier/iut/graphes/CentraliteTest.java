@@ -0,0 +1,90 @@
+package fr.umontpellier.iut.graphes;
+
+import fr.umontpellier.iut.rails.RouteTerrestre;
+import fr.umontpellier.iut.rails.data.Couleur;
+import fr.umontpellier.iut.rails.data.Ville;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CentraliteTest {
+    private Graphe graphe;
+
+    @BeforeEach
+    void setUp() {
+        List<Arete> aretes = new ArrayList<>();
+        aretes.add(new Arete(0, 1));
+        aretes.add(new Arete(1, 2));
+        aretes.add(new Arete(2, 3));
+        aretes.add(new Arete(1, 3));
+        graphe = new Graphe(aretes);
+    }
+
+    @Test
+    void testCentraliteSommetsNonPonderee() {
+        Map<Integer, Double> centralites = graphe.centraliteIntermediaireSommets(false);
+        assertEquals(0.0, centralites.get(0), 1e-9);
+        assertEquals(2.0, centralites.get(1), 1e-9);
+        assertEquals(0.0, centralites.get(2), 1e-9);
+        assertEquals(0.0, centralites.get(3), 1e-9);
+    }
+
+    @Test
+    void testCentraliteAretesNonPonderee() {
+        Map<Arete, Double> centralites = graphe.centraliteIntermediaireAretes(false);
+        assertEquals(3.0, centralites.get(new Arete(0, 1)), 1e-9);
+        assertEquals(2.0, centralites.get(new Arete(1, 2)), 1e-9);
+        assertEquals(2.0, centralites.get(new Arete(1, 3)), 1e-9);
+        assertEquals(1.0, centralites.get(new Arete(2, 3)), 1e-9);
+    }
+
+    @Test
+    void testCentralitePondereeEviteLesRoutesLongues() {
+        Ville a = new Ville("A", false);
+        Ville b = new Ville("B", false);
+        Ville c = new Ville("C", false);
+        Graphe g = new Graphe();
+        Arete ab = new Arete(0, 1, new RouteTerrestre(a, b, Couleur.GRIS, 1));
+        Arete bc = new Arete(1, 2, new RouteTerrestre(b, c, Couleur.GRIS, 1));
+        Arete ac = new Arete(0, 2, new RouteTerrestre(a, c, Couleur.GRIS, 5));
+        g.ajouterArete(ab);
+        g.ajouterArete(bc);
+        g.ajouterArete(ac);
+
+        assertEquals(0.0, g.centraliteIntermediaireSommets(false).get(1), 1e-9);
+        assertEquals(1.0, g.centraliteIntermediaireSommets(true).get(1), 1e-9);
+        assertEquals(0.0, g.centraliteIntermediaireAretes(true).get(ac), 1e-9);
+        assertNotEquals(ac, g.aretesLesPlusCentrales(1, true).get(0));
+    }
+
+    @Test
+    void testCentraliteIdentiqueQuelQueSoitLePool() {
+        Map<Integer, Double> sequentiel = graphe.centraliteIntermediaireSommets(false, new ForkJoinPool(1));
+        graphe.ajouterSommet(10);
+        graphe.supprimerSommet(10);
+        Map<Integer, Double> parallele = graphe.centraliteIntermediaireSommets(false, new ForkJoinPool(4));
+        assertEquals(sequentiel, parallele);
+    }
+
+    @Test
+    void testCentraliteMiseAJourApresModification() {
+        assertEquals(2.0, graphe.centraliteIntermediaireSommets(false).get(1), 1e-9);
+        graphe.ajouterArete(new Arete(0, 2));
+        assertEquals(0.5, graphe.centraliteIntermediaireSommets(false).get(1), 1e-9);
+    }
+
+    @Test
+    void testGrapheFigeNePeutPlusEtreModifie() {
+        graphe.figer();
+        assertTrue(graphe.estFige());
+        assertThrows(UnsupportedOperationException.class, () -> graphe.ajouterArete(new Arete(0, 2)));
+        assertThrows(UnsupportedOperationException.class, () -> graphe.supprimerSommet(0));
+        assertEquals(2.0, graphe.centraliteIntermediaireSommets(false).get(1), 1e-9);
+    }
+}
@@ -0,0 +1,160 @@
+package fr.umontpellier.iut.graphes;
+
+import fr.umontpellier.iut.rails.Route;
+import fr.umontpellier.iut.rails.RouteTerrestre;
+import fr.umontpellier.iut.rails.data.Couleur;
+import fr.umontpellier.iut.rails.data.Plateau;
+import fr.umontpellier.iut.rails.data.Ville;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConstructeurGrapheTest {
+
+    @Test
+    void testDoublonsEtBoucles() {
+        ConstructeurGraphe constructeur = new ConstructeurGraphe(1);
+        constructeur.ajouterArete(3, 1);
+        constructeur.ajouterArete(1, 3);
+        constructeur.ajouterArete(1, 1);
+        constructeur.ajouterArete(1, 1);
+        constructeur.ajouterArete(7, 3);
+        Graphe g = constructeur.construire();
+        Graphe attendu = new Graphe();
+        attendu.ajouterArete(new Arete(1, 3));
+        attendu.ajouterArete(new Arete(1, 1));
+        attendu.ajouterArete(new Arete(3, 7));
+        assertEquals(3, g.nbSommets());
+        assertEquals(attendu.nbAretes(), g.nbAretes());
+        assertEquals(Set.of(1, 7), g.getVoisins(3));
+        assertTrue(g.existeArete(new Arete(1, 1)));
+        assertTrue(g.existeArete(new Arete(3, 7)));
+    }
+
+    @Test
+    void testAretesParalleles() {
+        Ville a = new Ville("A", false);
+        Ville b = new Ville("B", false);
+        Route r1 = new RouteTerrestre(a, b, Couleur.GRIS, 1);
+        Route r2 = new RouteTerrestre(a, b, Couleur.GRIS, 2);
+        ConstructeurGraphe constructeur = new ConstructeurGraphe();
+        constructeur.ajouterArete(a.getId(), b.getId(), r1);
+        constructeur.ajouterArete(b.getId(), a.getId(), r2);
+        constructeur.ajouterArete(b.getId(), a.getId(), r1);
+        Graphe g = constructeur.construire();
+        assertEquals(2, g.nbAretes());
+        assertEquals(2, g.degre(a.getId()));
+        assertEquals(r1, g.getArete(a.getId(), b.getId()).route());
+    }
+
+    @Test
+    void testSommetsIsoles() {
+        ConstructeurGraphe constructeur = new ConstructeurGraphe();
+        constructeur.ajouterSommet(10);
+        constructeur.ajouterSommet(10);
+        constructeur.ajouterSommet(2);
+        constructeur.ajouterArete(2, 5);
+        Graphe g = constructeur.construire();
+        assertEquals(Set.of(2, 5, 10), g.ensembleSommets());
+        assertEquals(0, g.degre(10));
+        assertFalse(g.estConnexe());
+    }
+
+    @Test
+    void testMemeGrapheQueParAjoutsSuccessifs() {
+        List<Arete> aretes = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            aretes.add(new Arete(i % 97, (i * 31) % 89));
+            aretes.add(new Arete((i * 31) % 89, i % 97));
+        }
+        Graphe parAjouts = new Graphe();
+        for (Arete a : aretes) {
+            parAjouts.ajouterArete(a);
+        }
+        Graphe enMasse = new Graphe(aretes);
+        assertEquals(parAjouts.nbSommets(), enMasse.nbSommets());
+        assertEquals(parAjouts.nbAretes(), enMasse.nbAretes());
+        for (int v : parAjouts.ensembleSommets()) {
+            assertEquals(parAjouts.degre(v), enMasse.degre(v));
+            assertEquals(parAjouts.getVoisins(v), enMasse.getVoisins(v));
+        }
+        assertEquals(parAjouts.getEnsembleClassesConnexite(), enMasse.getEnsembleClassesConnexite());
+    }
+
+    @Test
+    void testConstruireHorsTas() {
+        ConstructeurGraphe constructeur = new ConstructeurGraphe();
+        for (int i = 0; i < 1000; i++) {
+            constructeur.ajouterArete(i, (7 * i + 3) % 1000);
+        }
+        Graphe tas = constructeur.construire();
+        Graphe horsTas = constructeur.construireHorsTas();
+        assertEquals(tas.nbAretes(), horsTas.nbAretes());
+        assertEquals(tas.getEnsembleClassesConnexite(), horsTas.getEnsembleClassesConnexite());
+        assertEquals(tas.centraliteIntermediaireSommets(false), horsTas.centraliteIntermediaireSommets(false));
+        horsTas.ajouterArete(new Arete(0, 500));
+        assertTrue(horsTas.getVoisins(500).contains(0));
+    }
+
+    @Test
+    void testAretesStockeesHorsTas() {
+        ConstructeurGraphe tas = new ConstructeurGraphe(1);
+        ConstructeurGraphe horsTas = new ConstructeurGraphe(1, true);
+        for (ConstructeurGraphe constructeur : List.of(tas, horsTas)) {
+            for (int i = 0; i < 1000; i++) {
+                constructeur.ajouterArete(3 * i, (21 * i + 9) % 3000);
+                // doublon, dans l'autre sens
+                constructeur.ajouterArete((21 * i + 9) % 3000, 3 * i);
+            }
+            constructeur.ajouterSommet(-5);
+        }
+        Graphe attendu = tas.construire();
+        Graphe g = horsTas.construireHorsTas();
+        assertEquals(attendu.nbAretes(), g.nbAretes());
+        assertEquals(attendu.ensembleSommets(), g.ensembleSommets());
+        for (int v : attendu.ensembleSommets()) {
+            assertEquals(attendu.getVoisins(v), g.getVoisins(v));
+        }
+        assertEquals(attendu.getEnsembleClassesConnexite(), g.getEnsembleClassesConnexite());
+    }
+
+    @Test
+    void testColonnesHorsTas() {
+        Plateau plateau = Plateau.makePlateauMonde();
+        ConstructeurGraphe tas = new ConstructeurGraphe(1);
+        ConstructeurGraphe horsTas = new ConstructeurGraphe(1, true);
+        for (ConstructeurGraphe constructeur : List.of(tas, horsTas)) {
+            for (Route route : plateau.getRoutes()) {
+                constructeur.ajouterArete(route.getVille1().getId(), route.getVille2().getId(), route);
+            }
+        }
+        GrapheCompact attendu = tas.construireCompact(Map.of());
+        GrapheCompact g = horsTas.construireCompact(Map.of(), true);
+        assertEquals(attendu.nbAretes(), g.nbAretes());
+        for (int e = 0; e < g.nbAretes(); e++) {
+            assertEquals(attendu.extremite1(e), g.extremite1(e));
+            assertEquals(attendu.extremite2(e), g.extremite2(e));
+            assertEquals(attendu.longueur(e), g.longueur(e));
+            assertEquals(attendu.coutWagon(e), g.coutWagon(e));
+            assertEquals(attendu.coutBateau(e), g.coutBateau(e));
+            assertEquals(attendu.couleur(e), g.couleur(e));
+            assertEquals(attendu.proprietaire(e), g.proprietaire(e));
+        }
+    }
+
+    @Test
+    void testModificationApresConstruction() {
+        Graphe plateau = Plateau.makePlateauMonde().getGraphe();
+        int nbAretes = plateau.nbAretes();
+        int v = plateau.ensembleSommets().iterator().next();
+        plateau.ajouterArete(new Arete(v, -1));
+        assertEquals(nbAretes + 1, plateau.nbAretes());
+        assertTrue(plateau.getVoisins(-1).contains(v));
+        assertTrue(plateau.estConnexe());
+    }
+}
@@ -0,0 +1,79 @@
+package fr.umontpellier.iut.graphes;
+
+import fr.umontpellier.iut.rails.data.Plateau;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CoupeMinimaleTest {
+    private Graphe deuxCliques;
+
+    /**
+     * Deux cliques de 4 sommets (0..3 et 4..7) reliées par les arêtes {0,4} et {1,5}
+     */
+    @BeforeEach
+    void setUp() {
+        List<Arete> aretes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            for (int j = i + 1; j < 4; j++) {
+                aretes.add(new Arete(i, j));
+                aretes.add(new Arete(i + 4, j + 4));
+            }
+        }
+        aretes.add(new Arete(0, 4));
+        aretes.add(new Arete(1, 5));
+        deuxCliques = new Graphe(aretes);
+    }
+
+    private void verifierCoupeEntreCliques(Coupe coupe) {
+        assertEquals(2, coupe.valeur());
+        assertTrue(coupe.partie().equals(Set.of(0, 1, 2, 3)) || coupe.partie().equals(Set.of(4, 5, 6, 7)));
+        assertEquals(Set.of(new Arete(0, 4), new Arete(1, 5)), coupe.aretes());
+    }
+
+    @Test
+    void testStoerWagner() {
+        verifierCoupeEntreCliques(deuxCliques.coupeMinimaleStoerWagner());
+    }
+
+    @Test
+    void testKargerStein() {
+        verifierCoupeEntreCliques(deuxCliques.coupeMinimaleKargerStein(20, 42));
+    }
+
+    @Test
+    void testCoupeMinimale() {
+        verifierCoupeEntreCliques(deuxCliques.coupeMinimale());
+    }
+
+    @Test
+    void testCoupeMinimaleGrapheNonConnexe() {
+        deuxCliques.supprimerArete(new Arete(0, 4));
+        deuxCliques.supprimerArete(new Arete(1, 5));
+        Coupe coupe = deuxCliques.coupeMinimale();
+        assertEquals(0, coupe.valeur());
+        assertTrue(coupe.aretes().isEmpty());
+    }
+
+    @Test
+    void testCoupeMinimaleGrapheTropPetit() {
+        assertNull(new Graphe(1).coupeMinimale());
+    }
+
+    @Test
+    void testCoupeMinimaleAretesParalleles() {
+        Graphe g = new Graphe(List.of(new Arete(0, 1), new Arete(1, 2), new Arete(2, 0)));
+        assertEquals(2, g.coupeMinimaleStoerWagner().valeur());
+    }
+
+    @Test
+    void testStoerWagnerEtKargerSteinSurLePlateau() {
+        Graphe plateau = Plateau.makePlateauMonde().getGraphe();
+        assertEquals(plateau.coupeMinimaleStoerWagner().valeur(), plateau.coupeMinimaleKargerStein(30, 1).valeur());
+    }
+}
@@ -0,0 +1,97 @@
+package fr.umontpellier.iut.graphes;
+
+import fr.umontpellier.iut.rails.data.Plateau;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FichierGrapheTest {
+    private Path fichier;
+    private Path texte;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fichier = Files.createTempFile("graphe", ".bin");
+        texte = Files.createTempFile("aretes", ".txt");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(fichier);
+        Files.deleteIfExists(texte);
+    }
+
+    @Test
+    void testEcrireEtChargerLePlateau() throws IOException {
+        Graphe plateau = Plateau.makePlateauMonde().getGraphe();
+        FichierGraphe.ecrire(plateau, fichier);
+        Graphe charge = FichierGraphe.charger(fichier);
+
+        assertTrue(charge.estFige());
+        assertEquals(plateau.nbSommets(), charge.nbSommets());
+        assertEquals(plateau.nbAretes(), charge.nbAretes());
+        for (int v : plateau.ensembleSommets()) {
+            assertEquals(plateau.degre(v), charge.degre(v));
+            assertEquals(plateau.getVoisins(v), charge.getVoisins(v));
+        }
+        assertEquals(plateau.estConnexe(), charge.estConnexe());
+
+        GrapheCompact g = plateau.getCompact();
+        GrapheCompact h = charge.getCompact();
+        for (int e = 0; e < g.nbAretes(); e++) {
+            assertEquals(g.extremite1(e), h.extremite1(e));
+            assertEquals(g.longueur(e), h.longueur(e));
+            assertEquals(g.coutBateau(e), h.coutBateau(e));
+            assertEquals(g.couleur(e), h.couleur(e));
+            assertNull(h.route(e));
+        }
+        assertThrows(UnsupportedOperationException.class, () -> charge.ajouterArete(new Arete(-1, -2)));
+    }
+
+    @Test
+    void testConvertirListeAretes() throws IOException {
+        Files.writeString(texte, """
+                # commentaire
+                1 2
+                2\t1 17
+                % autre commentaire
+
+                -5   1
+                3 3
+                2 -5 extra""");
+        FichierGraphe.convertirListeAretes(texte, fichier);
+        Graphe charge = FichierGraphe.charger(fichier);
+        assertEquals(Set.of(-5, 1, 2, 3), charge.ensembleSommets());
+        assertEquals(Set.of(1, 2), charge.getVoisins(-5));
+        assertTrue(charge.existeArete(new Arete(3, 3)));
+        assertFalse(charge.existeArete(new Arete(1, 3)));
+        assertEquals(2, charge.degre(1));
+        assertEquals(Set.of(-5, 1, 2), charge.getClasseConnexite(2));
+    }
+
+    @Test
+    void testLigneMalFormee() throws IOException {
+        Files.writeString(texte, "1 2\n3\n");
+        IOException e = assertThrows(IOException.class, () -> FichierGraphe.convertirListeAretes(texte, fichier));
+        assertTrue(e.getMessage().startsWith("Ligne 2"));
+        Files.writeString(texte, "1 x\n");
+        assertThrows(IOException.class, () -> FichierGraphe.convertirListeAretes(texte, fichier));
+    }
+
+    @Test
+    void testFichierInvalide() throws IOException {
+        Files.writeString(fichier, "pas un graphe");
+        assertThrows(IOException.class, () -> FichierGraphe.charger(fichier));
+        FichierGraphe.ecrire(new Graphe(3), fichier);
+        Files.write(fichier, new byte[4], StandardOpenOption.APPEND);
+        assertThrows(IOException.class, () -> FichierGraphe.charger(fichier));
+    }
+}
@@ -0,0 +1,98 @@
+package fr.umontpellier.iut.graphes;
+
+import fr.umontpellier.iut.rails.Route;
+import fr.umontpellier.iut.rails.RouteTerrestre;
+import fr.umontpellier.iut.rails.data.Couleur;
+import fr.umontpellier.iut.rails.data.Plateau;
+import fr.umontpellier.iut.rails.data.Ville;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FlotMaximalTest {
+    private Graphe papillon;
+    private Ville[] villes;
+    private Route r01, r02, r12, r23, r24, r34;
+
+    /**
+     * Deux triangles {0,1,2} et {2,3,4} qui partagent le sommet 2
+     */
+    @BeforeEach
+    void setUp() {
+        villes = new Ville[5];
+        for (int i = 0; i < 5; i++) {
+            villes[i] = new Ville("V" + i, false);
+        }
+        r01 = new RouteTerrestre(villes[0], villes[1], Couleur.GRIS, 1);
+        r02 = new RouteTerrestre(villes[0], villes[2], Couleur.GRIS, 1);
+        r12 = new RouteTerrestre(villes[1], villes[2], Couleur.GRIS, 1);
+        r23 = new RouteTerrestre(villes[2], villes[3], Couleur.GRIS, 1);
+        r24 = new RouteTerrestre(villes[2], villes[4], Couleur.GRIS, 1);
+        r34 = new RouteTerrestre(villes[3], villes[4], Couleur.GRIS, 1);
+        papillon = new Graphe(List.of(arete(r01), arete(r02), arete(r12), arete(r23), arete(r24), arete(r34)));
+    }
+
+    private static Arete arete(Route r) {
+        return new Arete(r.getVille1().getId(), r.getVille2().getId(), r);
+    }
+
+    private int id(int i) {
+        return villes[i].getId();
+    }
+
+    @Test
+    void testCheminsAretesDisjoints() {
+        List<List<Route>> chemins = papillon.cheminsAretesDisjoints(id(0), id(4));
+        assertEquals(2, chemins.size());
+        Set<Route> utilisees = new HashSet<>();
+        for (List<Route> chemin : chemins) {
+            for (Route r : chemin) {
+                assertTrue(utilisees.add(r));
+            }
+        }
+        assertTrue(chemins.contains(List.of(r02, r24)) || chemins.contains(List.of(r02, r23, r34)));
+    }
+
+    @Test
+    void testCheminsSommetsDisjoints() {
+        // tous les chemins de 0 à 4 passent par le sommet 2
+        assertEquals(1, papillon.cheminsSommetsDisjoints(id(0), id(4)).size());
+        assertEquals(2, papillon.cheminsSommetsDisjoints(id(0), id(2)).size());
+    }
+
+    @Test
+    void testCheminsVillesIdentiquesOuAbsentes() {
+        assertTrue(papillon.cheminsAretesDisjoints(id(0), id(0)).isEmpty());
+        assertTrue(papillon.cheminsAretesDisjoints(id(0), -1).isEmpty());
+        assertTrue(papillon.cheminsSommetsDisjoints(-1, id(0)).isEmpty());
+    }
+
+    @Test
+    void testEnsembleBloquant() {
+        Set<Route> bloquant = papillon.ensembleBloquant(id(0), id(4));
+        assertEquals(2, bloquant.size());
+        Graphe g = new Graphe(papillon);
+        for (Route r : bloquant) {
+            g.supprimerArete(arete(r));
+        }
+        assertFalse(g.getClasseConnexite(id(0)).contains(id(4)));
+    }
+
+    @Test
+    void testEnsembleBloquantEtCheminsSurLePlateau() {
+        Graphe plateau = Plateau.makePlateauMonde().getGraphe();
+        List<Integer> sommets = plateau.ensembleSommets().stream().sorted().toList();
+        for (int i = 0; i + 1 < sommets.size(); i += 5) {
+            int s = sommets.get(i);
+            int t = sommets.get(i + 1);
+            int nbChemins = plateau.cheminsAretesDisjoints(s, t).size();
+            assertEquals(nbChemins, plateau.ensembleBloquant(s, t).size());
+            assertTrue(plateau.cheminsSommetsDisjoints(s, t).size() <= nbChemins);
+        }
+    }
+}
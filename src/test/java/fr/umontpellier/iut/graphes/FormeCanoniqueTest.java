@@ -0,0 +1,210 @@
+package fr.umontpellier.iut.graphes;
+
+import fr.umontpellier.iut.rails.data.GenerateurPlateau;
+import fr.umontpellier.iut.rails.data.Plateau;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FormeCanoniqueTest {
+
+    private static Graphe grapheAleatoire(int n, int nbAretes, Random r) {
+        Graphe g = new Graphe(n);
+        while (g.nbAretes() < nbAretes) {
+            int i = r.nextInt(n);
+            int j = r.nextInt(n);
+            if (i != j) {
+                g.ajouterArete(new Arete(i, j));
+            }
+        }
+        return g;
+    }
+
+    /**
+     * @return une copie de g dont les sommets sont renumérotés au hasard (et décalés de 100)
+     */
+    private static Graphe renumeroter(Graphe g, Random r) {
+        List<Integer> sommets = new ArrayList<>(g.ensembleSommets());
+        List<Integer> images = new ArrayList<>(sommets);
+        Collections.shuffle(images, r);
+        Graphe h = new Graphe();
+        for (int i = 0; i < sommets.size(); i++) {
+            h.ajouterSommet(100 + images.get(i));
+        }
+        for (int v : sommets) {
+            for (int u : g.getVoisins(v)) {
+                h.ajouterArete(new Arete(100 + images.get(sommets.indexOf(v)), 100 + images.get(sommets.indexOf(u))));
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Isomorphisme par essai de toutes les permutations des sommets 0..n-1 (graphes simples)
+     */
+    private static boolean isomorphesParPermutations(Graphe g1, Graphe g2, int[] permutation, int k) {
+        int n = permutation.length;
+        if (k == n) {
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    if (g1.sontAdjacents(i, j) != g2.sontAdjacents(permutation[i], permutation[j])) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        for (int i = k; i < n; i++) {
+            int t = permutation[k];
+            permutation[k] = permutation[i];
+            permutation[i] = t;
+            boolean trouve = isomorphesParPermutations(g1, g2, permutation, k + 1);
+            permutation[i] = permutation[k];
+            permutation[k] = t;
+            if (trouve) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    void testRenumerotationsEtGraphesAleatoires() {
+        Random r = new Random(2);
+        for (int essai = 0; essai < 200; essai++) {
+            Graphe g1 = grapheAleatoire(6, 5 + r.nextInt(4), r);
+            Graphe g2 = grapheAleatoire(6, g1.nbAretes(), r);
+            FormeCanonique f1 = g1.getFormeCanonique();
+            assertTrue(f1.estComplete());
+            assertEquals(f1, renumeroter(g1, r).getFormeCanonique());
+            assertEquals(f1.hachage(), renumeroter(g1, r).getFormeCanonique().hachage());
+
+            boolean attendu = isomorphesParPermutations(g1, g2, new int[]{0, 1, 2, 3, 4, 5}, 0);
+            assertEquals(attendu, f1.equals(g2.getFormeCanonique()));
+            assertEquals(attendu, Graphe.sontIsomorphes(g1, g2));
+        }
+    }
+
+    @Test
+    void testGraphesReguliers() {
+        // un cycle de 6 sommets et deux triangles : l'affinage seul ne les distingue pas
+        Graphe cycle = new Graphe(6);
+        Graphe triangles = new Graphe(6);
+        for (int i = 0; i < 6; i++) {
+            cycle.ajouterArete(new Arete(i, (i + 1) % 6));
+            triangles.ajouterArete(new Arete(i, i % 3 == 2 ? i - 2 : i + 1));
+        }
+        assertTrue(cycle.getFormeCanonique().estComplete());
+        assertNotEquals(cycle.getFormeCanonique(), triangles.getFormeCanonique());
+        assertFalse(Graphe.sontIsomorphes(cycle, triangles));
+
+        // graphe complet et sommets isolés : les sommets de même voisinage ne sont essayés qu'une fois
+        Graphe complet = new Graphe(30);
+        for (int i = 0; i < 12; i++) {
+            for (int j = i + 1; j < 12; j++) {
+                complet.ajouterArete(new Arete(i, j));
+            }
+        }
+        assertTrue(complet.getFormeCanonique().estComplete());
+        assertTrue(Graphe.sontIsomorphes(complet, renumeroter(complet, new Random(1))));
+    }
+
+    @Test
+    @Timeout(20)
+    void testAutomorphismesEtFormeIncomplete() {
+        // hypercube de dimension 6 : 46080 automorphismes, sans sommets de même voisinage ; les automorphismes
+        // découverts en chemin évitent d'essayer toutes les numérotations
+        Graphe hypercube = new Graphe(64);
+        for (int v = 0; v < 64; v++) {
+            for (int b = 0; b < 6; b++) {
+                if ((v ^ (1 << b)) > v) {
+                    hypercube.ajouterArete(new Arete(v, v ^ (1 << b)));
+                }
+            }
+        }
+        Graphe renumerote = renumeroter(hypercube, new Random(4));
+        assertTrue(hypercube.getFormeCanonique().estComplete());
+        assertEquals(hypercube.getFormeCanonique(), renumerote.getFormeCanonique());
+
+        // en limitant le nombre de numérotations comparées, la forme est incomplète
+        FormeCanonique forme = FormeCanonique.calculer(hypercube.getCompact(), 8);
+        assertFalse(forme.estComplete());
+        assertNotEquals(forme, FormeCanonique.calculer(renumerote.getCompact(), 8));
+        assertTrue(forme.peutEtreIsomorphe(FormeCanonique.calculer(renumerote.getCompact(), 8)));
+        Graphe modifie = new Graphe(hypercube);
+        modifie.supprimerArete(new Arete(0, 1));
+        assertFalse(forme.peutEtreIsomorphe(FormeCanonique.calculer(modifie.getCompact(), 8)));
+        assertFalse(Graphe.sontIsomorphes(hypercube, modifie));
+    }
+
+    @Test
+    @Timeout(20)
+    void testSymetriesIndependantes() {
+        // chemin de 50 sommets portant chacun un cycle de longueur 5 : chaque cycle peut être retourné
+        // indépendamment des autres (2^50 automorphismes), chaque symétrie est découverte puis évitée
+        Graphe g = new Graphe();
+        for (int v = 0; v < 50; v++) {
+            if (v > 0) {
+                g.ajouterArete(new Arete(v - 1, v));
+            }
+            int s = 50 + 4 * v;
+            g.ajouterArete(new Arete(v, s));
+            g.ajouterArete(new Arete(s, s + 1));
+            g.ajouterArete(new Arete(s + 1, s + 2));
+            g.ajouterArete(new Arete(s + 2, s + 3));
+            g.ajouterArete(new Arete(s + 3, v));
+        }
+        assertTrue(g.getFormeCanonique().estComplete());
+        assertEquals(g.getFormeCanonique(), renumeroter(g, new Random(7)).getFormeCanonique());
+    }
+
+    @Test
+    @Timeout(20)
+    void testPlateauGenere() {
+        // plateau de 2000 villes : de nombreuses symétries indépendantes, chacune découverte puis évitée
+        Graphe g1 = new GenerateurPlateau(2023).genererPlateau(2000).getGraphe();
+        Graphe g2 = new GenerateurPlateau(2023).genererPlateau(2000).getGraphe();
+        assertTrue(g1.getFormeCanonique().estComplete());
+        assertTrue(Graphe.sontIsomorphes(g1, g2));
+    }
+
+    @Test
+    void testMultigrapheEtPlateau() {
+        Graphe plateau = Plateau.makePlateauMonde().getGraphe();
+        FormeCanonique forme = plateau.getFormeCanonique();
+        assertTrue(forme.estComplete());
+        // arêtes multiples : le même plateau, construit une seconde fois (autres identifiants de villes)
+        assertEquals(forme, Plateau.makePlateauMonde().getGraphe().getFormeCanonique());
+        Graphe moinsUneRoute = Plateau.makePlateauMonde().getGraphe();
+        moinsUneRoute.supprimerArete(moinsUneRoute.getCompact().arete(0));
+        assertNotEquals(forme, moinsUneRoute.getFormeCanonique());
+    }
+
+    @Test
+    void testCacheCanonique() {
+        Random r = new Random(8);
+        List<Graphe> modeles = List.of(grapheAleatoire(9, 12, r), grapheAleatoire(9, 12, r),
+                grapheAleatoire(9, 14, r));
+        CacheCanonique<Graphe> cache = new CacheCanonique<>();
+        int[] nbCalculs = new int[1];
+        for (int i = 0; i < 30; i++) {
+            Graphe modele = modeles.get(i % 3);
+            Graphe candidat = renumeroter(modele, r);
+            Graphe representant = cache.calculerSiAbsent(candidat, g -> {
+                nbCalculs[0]++;
+                return g;
+            });
+            assertTrue(Graphe.sontIsomorphes(modele, representant));
+        }
+        assertEquals(3, nbCalculs[0]);
+        assertEquals(3, cache.taille());
+        assertEquals(27, cache.getNbSucces());
+        assertNull(cache.obtenir(grapheAleatoire(9, 3, r)));
+    }
+}
@@ -0,0 +1,111 @@
+package fr.umontpellier.iut.graphes;
+
+import fr.umontpellier.iut.rails.data.Plateau;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GrapheConcurrentTest {
+
+    @Test
+    void testInstantanesIndependants() {
+        Graphe initial = new Graphe(3);
+        initial.ajouterArete(new Arete(0, 1));
+        GrapheConcurrent partage = new GrapheConcurrent(initial);
+        initial.ajouterArete(new Arete(1, 2));
+
+        Graphe avant = partage.lire();
+        assertTrue(avant.estFige());
+        assertEquals(1, avant.nbAretes());
+        assertThrows(UnsupportedOperationException.class, () -> avant.ajouterArete(new Arete(0, 2)));
+
+        partage.ajouterArete(new Arete(0, 2));
+        assertEquals(1, partage.getVersion());
+        assertEquals(1, avant.nbAretes());
+        assertEquals(2, partage.lire().nbAretes());
+        assertTrue(partage.lire().existeArete(new Arete(0, 2)));
+
+        partage.supprimerArete(new Arete(0, 1));
+        assertEquals(Set.of(0, 2), partage.lire().getClasseConnexite(0));
+        assertEquals(Set.of(0, 1), avant.getClasseConnexite(0));
+    }
+
+    @Test
+    @Timeout(10)
+    void testLecturesEtEcrituresConcurrentes() throws Exception {
+        int nbEcrivains = 4;
+        int nbAretesParEcrivain = 50;
+        GrapheConcurrent partage = new GrapheConcurrent(new Graphe(nbEcrivains * nbAretesParEcrivain + 1));
+        ExecutorService executeur = Executors.newFixedThreadPool(2 * nbEcrivains);
+        try {
+            List<Future<?>> taches = new ArrayList<>();
+            for (int t = 0; t < nbEcrivains; t++) {
+                int premier = t * nbAretesParEcrivain;
+                taches.add(executeur.submit(() -> {
+                    for (int i = premier; i < premier + nbAretesParEcrivain; i++) {
+                        partage.ajouterArete(new Arete(i, i + 1));
+                    }
+                }));
+                taches.add(executeur.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        // chaque instantané est cohérent : la représentation compacte et la liste d'incidences
+                        // décrivent le même graphe
+                        Graphe g = partage.lire();
+                        int somme = 0;
+                        for (int v : g.ensembleSommets()) {
+                            somme += g.degre(v);
+                        }
+                        assertEquals(2 * g.nbAretes(), somme);
+                        assertEquals(g.nbAretes(), g.getCompact().nbAretes());
+                    }
+                }));
+            }
+            for (Future<?> tache : taches) {
+                tache.get();
+            }
+        } finally {
+            executeur.shutdownNow();
+        }
+        // aucune modification n'est perdue
+        assertEquals(nbEcrivains * nbAretesParEcrivain, partage.lire().nbAretes());
+        assertEquals(nbEcrivains * nbAretesParEcrivain, partage.getVersion());
+        assertTrue(partage.lire().estConnexe());
+    }
+
+    @Test
+    @Timeout(10)
+    void testCachesConstruitsEnConcurrence() throws Exception {
+        // graphe construit en masse : sa liste d'incidences et ses centralités sont calculées à la première lecture
+        Plateau donnees = Plateau.makePlateauMonde();
+        Graphe plateau = donnees.getGraphe();
+        Graphe fige = donnees.getGraphe();
+        fige.figer();
+        ExecutorService executeur = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<Arete>>> taches = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                taches.add(executeur.submit(() -> {
+                    assertEquals(plateau.ensembleSommets(), fige.ensembleSommets());
+                    for (int v : plateau.ensembleSommets()) {
+                        assertEquals(plateau.getVoisinsAvecArete(v), fige.getVoisinsAvecArete(v));
+                    }
+                    return fige.aretesLesPlusCentrales(5, true);
+                }));
+            }
+            List<Arete> attendu = taches.get(0).get();
+            for (Future<List<Arete>> tache : taches) {
+                assertEquals(attendu, tache.get());
+            }
+        } finally {
+            executeur.shutdownNow();
+        }
+    }
+}
@@ -4,6 +4,7 @@ package fr.umontpellier.iut.graphes;
 import fr.umontpellier.iut.rails.Route;
 import fr.umontpellier.iut.rails.RouteMaritime;
 import fr.umontpellier.iut.rails.RouteTerrestre;
+import fr.umontpellier.iut.rails.TestUtils;
 import fr.umontpellier.iut.rails.data.Couleur;
 import fr.umontpellier.iut.rails.data.Plateau;
 import fr.umontpellier.iut.rails.data.Ville;
@@ -18,6 +19,8 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -595,6 +598,28 @@ public class GrapheTest {
         assertTrue(graphe2.sontAdjacents(2, 4));
     }
 
+    @Test
+    void testFusionnerGroupes(){
+        List<Arete> aretes = new ArrayList<>();
+        aretes.add(new Arete(0, 1));
+        aretes.add(new Arete(1, 2));
+        aretes.add(new Arete(2, 0));
+
+        aretes.add(new Arete(3, 4));
+        aretes.add(new Arete(4, 5));
+        aretes.add(new Arete(5, 6));
+        Graphe graphe2 = new Graphe(aretes);
+        graphe2.fusionnerGroupes(List.of(List.of(0, 1, 2), List.of(4, 5)));
+
+        assertEquals(4, graphe2.nbSommets());
+        assertFalse(graphe2.contientSommet(1));
+        assertFalse(graphe2.contientSommet(5));
+        assertEquals(0, graphe2.degre(0));
+        assertTrue(graphe2.sontAdjacents(3, 4));
+        assertTrue(graphe2.sontAdjacents(4, 6));
+        assertEquals(2, graphe2.nbAretes());
+    }
+
     @Test
     void testSontIsomorphes(){
         List<Arete> aretes = new ArrayList<>();
@@ -837,6 +862,91 @@ public class GrapheTest {
         assertTrue(collectionsDansLeMemeOrdre(parcoursAttendu, resultat));
     }
 
+    @Test
+    void testColonnesAttributsAretes(){
+        Route terrestre = new RouteTerrestre(new Ville("1", false), new Ville("2", false), Couleur.ROUGE, 3);
+        Route maritime = new RouteMaritime(new Ville("2", false), new Ville("3", false), Couleur.VERT, 4);
+        List<Arete> aretes = new ArrayList<>();
+        aretes.add(new Arete(1, 2, terrestre));
+        aretes.add(new Arete(2, 3, maritime));
+        aretes.add(new Arete(3, 4));
+        Graphe graphe2 = new Graphe(aretes);
+        graphe2.definirProprietaire(maritime, 1);
+
+        GrapheCompact g = graphe2.getCompact();
+        int e12 = g.premiereArete(g.indice(1), g.indice(2));
+        int e23 = g.premiereArete(g.indice(2), g.indice(3));
+        int e34 = g.premiereArete(g.indice(3), g.indice(4));
+        assertEquals(3, g.longueur(e12));
+        assertEquals(3, g.coutWagon(e12));
+        assertEquals(0, g.coutBateau(e12));
+        assertEquals(Couleur.ROUGE.ordinal(), g.couleur(e12));
+        assertEquals(-1, g.proprietaire(e12));
+        assertEquals(0, g.coutWagon(e23));
+        assertEquals(4, g.coutBateau(e23));
+        assertEquals(1, g.proprietaire(e23));
+        assertEquals(1, g.longueur(e34));
+        assertEquals(-1, g.couleur(e34));
+        assertEquals(-1, g.premiereArete(g.indice(1), g.indice(4)));
+
+        graphe2.definirProprietaire(terrestre, 0);
+        // la représentation déjà obtenue ne change pas, la nouvelle porte le propriétaire
+        assertEquals(-1, g.proprietaire(e12));
+        GrapheCompact h = graphe2.getCompact();
+        assertNotSame(g, h);
+        assertEquals(0, h.proprietaire(h.premiereArete(h.indice(1), h.indice(2))));
+        assertEquals(1, h.proprietaire(h.premiereArete(h.indice(2), h.indice(3))));
+        graphe2.definirProprietaire(terrestre, 0);
+        assertSame(h, graphe2.getCompact());
+        assertEquals(0, new Graphe(graphe2).getProprietaire(terrestre));
+    }
+
+    @Test
+    void testRequetesSurUnGrapheModifie(){
+        Route terrestre = new RouteTerrestre(new Ville("1", false), new Ville("2", false), Couleur.ROUGE, 3);
+        Route maritime = new RouteMaritime(new Ville("2", false), new Ville("3", false), Couleur.VERT, 4);
+        Graphe graphe2 = new Graphe();
+        graphe2.ajouterArete(new Arete(1, 2, terrestre));
+        graphe2.ajouterArete(new Arete(2, 3, maritime));
+        graphe2.ajouterArete(new Arete(3, 4));
+        graphe2.ajouterSommet(5);
+        Graphe fige = new Graphe(graphe2);
+        fige.figer();
+
+        for (Graphe g : List.of(graphe2, fige)) {
+            assertEquals(new Arete(2, 3, maritime), g.getArete(3, 2));
+            assertNull(g.getArete(1, 3));
+            assertFalse(g.estConnexe());
+            assertEquals(Set.of(1, 2, 3, 4), g.getClasseConnexite(4));
+            assertEquals(List.of(1, 2, 3, 4), g.parcoursSansRepetition(1, 4, true));
+            assertEquals(List.of(1, 2, 3, 4), g.parcoursSansRepetition(1, 4, 4, 4));
+            assertEquals(List.of(), g.parcoursSansRepetition(1, 4, 3, 3));
+        }
+        // les requêtes ponctuelles sur un graphe modifiable lisent la liste d'incidences
+        assertNull(TestUtils.getAttribute(graphe2, "compact"));
+        assertNotNull(TestUtils.getAttribute(fige, "compact"));
+
+        graphe2.ajouterArete(new Arete(4, 5));
+        assertTrue(graphe2.estConnexe());
+        assertNull(TestUtils.getAttribute(graphe2, "compact"));
+    }
+
+    @Test
+    void testProprietairesALaConstruction(){
+        Route terrestre = new RouteTerrestre(new Ville("1", false), new Ville("2", false), Couleur.ROUGE, 3);
+        Route maritime = new RouteMaritime(new Ville("2", false), new Ville("3", false), Couleur.VERT, 4);
+        ConstructeurGraphe constructeur = new ConstructeurGraphe(2);
+        constructeur.ajouterArete(1, 2, terrestre);
+        constructeur.ajouterArete(2, 3, maritime);
+        Graphe graphe2 = constructeur.construire(Map.of(maritime, 2));
+
+        GrapheCompact g = graphe2.getCompact();
+        assertEquals(-1, g.proprietaire(g.premiereArete(g.indice(1), g.indice(2))));
+        assertEquals(2, g.proprietaire(g.premiereArete(g.indice(2), g.indice(3))));
+        assertEquals(2, graphe2.getProprietaire(maritime));
+        assertEquals(-1, graphe2.getProprietaire(terrestre));
+    }
+
     @Test
     void testEstComplet1(){
         List<Arete> aretes = new ArrayList<>();
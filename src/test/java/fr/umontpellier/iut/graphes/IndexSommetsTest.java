@@ -0,0 +1,59 @@
+package fr.umontpellier.iut.graphes;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexSommetsTest {
+
+    @Test
+    void testAjouterEtRetrouver() {
+        IndexSommets index = new IndexSommets(2);
+        List<Integer> identifiants = List.of(1_000_000, -3, 0, 42, Integer.MIN_VALUE, Integer.MAX_VALUE, 7);
+        for (int i = 0; i < identifiants.size(); i++) {
+            assertEquals(i, index.ajouter(identifiants.get(i)));
+        }
+        assertEquals(identifiants.size(), index.taille());
+        for (int i = 0; i < identifiants.size(); i++) {
+            assertEquals(i, index.indice(identifiants.get(i)));
+            assertEquals(identifiants.get(i), index.identifiant(i));
+        }
+        assertEquals(-1, index.indice(43));
+    }
+
+    @Test
+    void testAjouterDeuxFoisLeMemeIdentifiant() {
+        IndexSommets index = new IndexSommets(4);
+        assertEquals(0, index.ajouter(12));
+        assertEquals(1, index.ajouter(15));
+        assertEquals(0, index.ajouter(12));
+        assertEquals(2, index.taille());
+    }
+
+    @Test
+    void testIdentifiantsEspacesAvecAgrandissement() {
+        IndexSommets index = new IndexSommets(1);
+        for (int i = 0; i < 10_000; i++) {
+            index.ajouter(i * 1024);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, index.indice(i * 1024));
+        }
+        assertEquals(-1, index.indice(1));
+    }
+
+    @Test
+    void testGrapheAvecIdentifiantsDisperses() {
+        Graphe graphe = new Graphe(List.of(new Arete(1_000_003, 5), new Arete(5, 77_777), new Arete(-8, 9)));
+        GrapheCompact g = graphe.getCompact();
+        assertEquals(5, g.nbSommets());
+        assertEquals(-8, g.sommet(0));
+        assertEquals(1_000_003, g.sommet(4));
+        assertEquals(2, g.indice(9));
+        assertEquals(Set.of(5, 77_777, 1_000_003), graphe.getClasseConnexite(77_777));
+        assertFalse(graphe.estConnexe());
+    }
+}
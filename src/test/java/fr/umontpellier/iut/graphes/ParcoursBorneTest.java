@@ -0,0 +1,204 @@
+package fr.umontpellier.iut.graphes;
+
+import fr.umontpellier.iut.rails.Route;
+import fr.umontpellier.iut.rails.RouteMaritime;
+import fr.umontpellier.iut.rails.RouteTerrestre;
+import fr.umontpellier.iut.rails.data.Ville;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParcoursBorneTest {
+
+    /**
+     * Graphe aléatoire de n sommets 0..n-1, avec des routes terrestres et maritimes de longueurs variées
+     * (et quelques arêtes parallèles)
+     */
+    private static Graphe grapheAleatoire(int n, int nbAretes, Random r) {
+        List<Ville> villes = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            villes.add(new Ville("v" + i, false));
+        }
+        List<Arete> aretes = new ArrayList<>();
+        for (int k = 0; k < nbAretes; k++) {
+            int i = r.nextInt(n);
+            int j = r.nextInt(n);
+            if (i != j) {
+                int longueur = 1 + r.nextInt(4);
+                Route route = r.nextBoolean()
+                        ? new RouteTerrestre(villes.get(i), villes.get(j), null, longueur)
+                        : new RouteMaritime(villes.get(i), villes.get(j), null, longueur);
+                aretes.add(new Arete(i, j, route));
+            }
+        }
+        Graphe graphe = new Graphe(aretes);
+        for (int i = 0; i < n; i++) {
+            graphe.ajouterSommet(i);
+        }
+        return graphe;
+    }
+
+    private static long cout(Graphe graphe, List<Integer> chemin, RechercheCheminBornee.Cout cout) {
+        GrapheCompact g = graphe.getCompact();
+        long total = 0;
+        for (int i = 0; i < chemin.size() - 1; i++) {
+            int e = g.premiereArete(g.indice(chemin.get(i)), g.indice(chemin.get(i + 1)));
+            total += switch (cout) {
+                case ARETES -> 1;
+                case LONGUEUR -> g.longueur(e);
+                case PIONS -> g.coutWagon(e) + g.coutBateau(e);
+            };
+        }
+        return total;
+    }
+
+    /**
+     * Coût minimal d'un chemin élémentaire de u à arrivee (énumération de tous les chemins), -1 s'il n'y en a pas
+     */
+    private static long coutMinimal(GrapheCompact g, int u, int arrivee, boolean[] vus, RechercheCheminBornee.Cout cout,
+                                    long wagons, long bateaux) {
+        if (wagons < 0 || bateaux < 0) {
+            return -1;
+        }
+        if (u == arrivee) {
+            return 0;
+        }
+        vus[u] = true;
+        long meilleur = -1;
+        for (int k = g.debut(u); k < g.fin(u); k++) {
+            int v = g.voisin(k);
+            int e = g.areteIncidente(k);
+            if (!vus[v] && g.premiereArete(u, v) == e) {
+                long reste = coutMinimal(g, v, arrivee, vus, cout, wagons - g.coutWagon(e), bateaux - g.coutBateau(e));
+                long c = cout == RechercheCheminBornee.Cout.LONGUEUR ? g.longueur(e)
+                        : cout == RechercheCheminBornee.Cout.PIONS ? g.coutWagon(e) + g.coutBateau(e) : 1;
+                if (reste >= 0 && (meilleur < 0 || c + reste < meilleur)) {
+                    meilleur = c + reste;
+                }
+            }
+        }
+        vus[u] = false;
+        return meilleur;
+    }
+
+    @Test
+    void testIllimiteCommeLaRechercheExhaustive() {
+        Random r = new Random(11);
+        for (int essai = 0; essai < 60; essai++) {
+            Graphe graphe = grapheAleatoire(8, 14, r);
+            GrapheCompact g = graphe.getCompact();
+            int depart = r.nextInt(8);
+            int arrivee = r.nextInt(8);
+            int nbWagons = r.nextInt(8);
+            int nbBateaux = r.nextInt(8);
+
+            for (boolean pondere : new boolean[]{false, true}) {
+                RechercheCheminBornee.Cout cout = pondere ? RechercheCheminBornee.Cout.LONGUEUR
+                        : RechercheCheminBornee.Cout.ARETES;
+                long attendu = coutMinimal(g, g.indice(depart), g.indice(arrivee), new boolean[8], cout,
+                        Long.MAX_VALUE / 2, Long.MAX_VALUE / 2);
+                ResultatParcours resultat = graphe.parcoursSansRepetition(depart, arrivee, pondere,
+                        Budget.illimite());
+                assertTrue(resultat.optimal());
+                assertEquals(attendu, resultat.chemin().isEmpty() ? -1 : cout(graphe, resultat.chemin(), cout));
+                // même coût que la recherche exhaustive sans budget
+                assertEquals(cout(graphe, graphe.parcoursSansRepetition(depart, arrivee, pondere), cout),
+                        cout(graphe, resultat.chemin(), cout));
+            }
+
+            long attendu = coutMinimal(g, g.indice(depart), g.indice(arrivee), new boolean[8],
+                    RechercheCheminBornee.Cout.PIONS, nbWagons, nbBateaux);
+            ResultatParcours resultat = graphe.parcoursSansRepetition(depart, arrivee, nbWagons, nbBateaux,
+                    Budget.illimite());
+            assertTrue(resultat.optimal());
+            List<Integer> chemin = resultat.chemin();
+            assertEquals(attendu, chemin.isEmpty() ? -1 : cout(graphe, chemin, RechercheCheminBornee.Cout.PIONS));
+            if (!chemin.isEmpty()) {
+                assertEquals(depart, chemin.get(0));
+                assertEquals(arrivee, chemin.get(chemin.size() - 1));
+                assertEquals(chemin.size(), chemin.stream().distinct().count());
+            }
+        }
+    }
+
+    @Test
+    void testSousListeIllimitee() {
+        Random r = new Random(3);
+        for (int essai = 0; essai < 20; essai++) {
+            Graphe graphe = grapheAleatoire(9, 18, r);
+            List<Integer> etapes = List.of(0, 4, 8);
+            List<Integer> attendu = graphe.parcoursSansRepetition(etapes, true);
+            ResultatParcours resultat = graphe.parcoursSansRepetition(etapes, true, Budget.illimite());
+            assertTrue(resultat.optimal());
+            assertEquals(attendu.isEmpty(), resultat.chemin().isEmpty());
+            assertEquals(cout(graphe, attendu, RechercheCheminBornee.Cout.LONGUEUR),
+                    cout(graphe, resultat.chemin(), RechercheCheminBornee.Cout.LONGUEUR));
+        }
+    }
+
+    @Test
+    void testPionsSansCheminDirect() {
+        List<Arete> aretes = new ArrayList<>();
+        aretes.add(new Arete(1, 2, new RouteTerrestre(new Ville("1", false), new Ville("2", false), null, 2)));
+        aretes.add(new Arete(2, 3, new RouteTerrestre(new Ville("2", false), new Ville("3", false), null, 2)));
+        aretes.add(new Arete(1, 3, new RouteMaritime(new Ville("1", false), new Ville("3", false), null, 3)));
+        Graphe graphe = new Graphe(aretes);
+
+        ResultatParcours resultat = graphe.parcoursSansRepetition(1, 3, 4, 2, Budget.illimite());
+        assertEquals(List.of(1, 2, 3), resultat.chemin());
+        assertTrue(resultat.optimal());
+
+        resultat = graphe.parcoursSansRepetition(1, 3, 3, 2, Budget.illimite());
+        assertTrue(resultat.chemin().isEmpty());
+        assertTrue(resultat.optimal());
+    }
+
+    @Test
+    void testAreteParalleleNonEmpruntee() {
+        Ville v1 = new Ville("1", false);
+        Ville v2 = new Ville("2", false);
+        Ville v3 = new Ville("3", false);
+        List<Arete> aretes = new ArrayList<>();
+        aretes.add(new Arete(1, 2, new RouteTerrestre(v1, v2, null, 4)));
+        aretes.add(new Arete(1, 2, new RouteTerrestre(v1, v2, null, 1)));
+        aretes.add(new Arete(1, 3, new RouteTerrestre(v1, v3, null, 1)));
+        aretes.add(new Arete(3, 2, new RouteTerrestre(v3, v2, null, 1)));
+        Graphe graphe = new Graphe(aretes);
+        GrapheCompact g = graphe.getCompact();
+        assertEquals(4, g.longueur(g.premiereArete(g.indice(1), g.indice(2))));
+
+        // le pas 1 -> 2 coûte la première arête (longueur 4) : le chemin des minorants passe par 3 et il est
+        // optimal sans qu'aucun sommet ne soit développé
+        Budget budget = Budget.noeuds(0);
+        ResultatParcours resultat = graphe.parcoursSansRepetition(1, 2, true, budget);
+        assertEquals(List.of(1, 3, 2), resultat.chemin());
+        assertTrue(resultat.optimal());
+    }
+
+    @Test
+    void testBudgetEpuise() {
+        List<Arete> aretes = new ArrayList<>();
+        aretes.add(new Arete(1, 2, new RouteTerrestre(new Ville("1", false), new Ville("2", false), null, 2)));
+        aretes.add(new Arete(2, 3, new RouteTerrestre(new Ville("2", false), new Ville("3", false), null, 2)));
+        aretes.add(new Arete(1, 3, new RouteMaritime(new Ville("1", false), new Ville("3", false), null, 3)));
+        Graphe graphe = new Graphe(aretes);
+
+        Budget budget = Budget.noeuds(0);
+        ResultatParcours resultat = graphe.parcoursSansRepetition(1, 3, 4, 2, budget);
+        assertFalse(resultat.optimal());
+        assertTrue(budget.estEpuise());
+
+        // sur un grand graphe, l'exploration ne peut pas être terminée en 100 sommets : le meilleur chemin
+        // trouvé est renvoyé sans garantie
+        Random r = new Random(7);
+        Graphe grand = grapheAleatoire(200, 600, r);
+        budget = Budget.noeuds(100);
+        resultat = grand.parcoursSansRepetition(0, 199, 12, 3, budget);
+        assertFalse(resultat.optimal());
+        assertTrue(budget.getNoeuds() <= 101);
+    }
+}
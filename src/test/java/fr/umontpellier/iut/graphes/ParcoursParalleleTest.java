@@ -0,0 +1,102 @@
+package fr.umontpellier.iut.graphes;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParcoursParalleleTest {
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Graphe aléatoire peu dense (beaucoup de petites composantes) auquel on ajoute une longue chaîne
+     */
+    private static GrapheCompact grapheAleatoire(int n, int m, long graine) {
+        Random r = new Random(graine);
+        ConstructeurGraphe constructeur = new ConstructeurGraphe(m);
+        for (int u = 0; u < n; u++) {
+            constructeur.ajouterSommet(3 * u);
+        }
+        for (int e = 0; e < m; e++) {
+            constructeur.ajouterArete(3 * r.nextInt(n), 3 * r.nextInt(n));
+        }
+        for (int u = 0; u < n / 4; u++) {
+            constructeur.ajouterArete(3 * u, 3 * (u + 1));
+        }
+        return constructeur.construireCompact(Map.of());
+    }
+
+    private static int[] distancesSequentielles(GrapheCompact g, int s) {
+        int[] d = new int[g.nbSommets()];
+        Arrays.fill(d, -1);
+        d[s] = 0;
+        ArrayDeque<Integer> file = new ArrayDeque<>();
+        file.add(s);
+        while (!file.isEmpty()) {
+            int u = file.poll();
+            for (int k = g.debut(u); k < g.fin(u); k++) {
+                if (d[g.voisin(k)] < 0) {
+                    d[g.voisin(k)] = d[u] + 1;
+                    file.add(g.voisin(k));
+                }
+            }
+        }
+        return d;
+    }
+
+    @Test
+    void testComposantes() {
+        GrapheCompact g = grapheAleatoire(60_000, 40_000, 1);
+        int[] etiquettes = ParcoursParallele.composantes(g, pool);
+        boolean[] vu = new boolean[g.nbSommets()];
+        int[] file = new int[g.nbSommets()];
+        for (int u = 0; u < g.nbSommets(); u++) {
+            if (!vu[u]) {
+                // u est le plus petit sommet de sa composante
+                int nb = g.parcoursLargeur(u, vu, file);
+                for (int i = 0; i < nb; i++) {
+                    assertEquals(u, etiquettes[file[i]]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testDistancesLargeur() {
+        GrapheCompact g = grapheAleatoire(50_000, 200_000, 2);
+        for (int s : new int[]{0, 17, 49_999}) {
+            assertArrayEquals(distancesSequentielles(g, s), ParcoursParallele.distancesLargeur(g, s, pool));
+        }
+        GrapheCompact chaine = grapheAleatoire(20_000, 0, 3);
+        assertArrayEquals(distancesSequentielles(chaine, 0), ParcoursParallele.distancesLargeur(chaine, 0, pool));
+    }
+
+    @Test
+    void testEnsembleClassesConnexite() {
+        Graphe g = new Graphe(6);
+        g.ajouterArete(new Arete(0, 4));
+        g.ajouterArete(new Arete(4, 2));
+        g.ajouterArete(new Arete(5, 3));
+        assertEquals(Set.of(Set.of(0, 2, 4), Set.of(3, 5), Set.of(1)), g.getEnsembleClassesConnexite(pool));
+        assertEquals(Map.of(0, 0, 4, 1, 2, 2), g.distancesEnAretes(0, pool));
+        assertTrue(g.distancesEnAretes(42).isEmpty());
+    }
+}
@@ -0,0 +1,119 @@
+package fr.umontpellier.iut.graphes;
+
+import fr.umontpellier.iut.rails.data.Plateau;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequetesGroupeesTest {
+    private Graphe plateau;
+    private GrapheCompact g;
+    private int[] sources;
+    private int[] cibles;
+
+    @BeforeEach
+    void setUp() {
+        plateau = Plateau.makePlateauMonde().getGraphe();
+        g = plateau.getCompact();
+        List<Integer> sommets = plateau.ensembleSommets().stream().sorted().toList();
+        Random r = new Random(5);
+        int nb = 500;
+        sources = new int[nb];
+        cibles = new int[nb];
+        for (int q = 0; q < nb; q++) {
+            // peu de sources distinctes, pour que les groupes comptent plusieurs requêtes
+            sources[q] = sommets.get(r.nextInt(8));
+            cibles[q] = sommets.get(r.nextInt(sommets.size()));
+        }
+        sources[0] = -1;
+        cibles[1] = -1;
+        cibles[2] = sources[2];
+    }
+
+    /**
+     * Dijkstra naïf (en O(n²)) depuis le sommet d'indice s
+     */
+    private long[] distancesAttendues(int s, boolean pondere) {
+        int n = g.nbSommets();
+        long[] d = new long[n];
+        Arrays.fill(d, Long.MAX_VALUE);
+        boolean[] fixe = new boolean[n];
+        d[s] = 0;
+        for (int i = 0; i < n; i++) {
+            int u = -1;
+            for (int v = 0; v < n; v++) {
+                if (!fixe[v] && d[v] != Long.MAX_VALUE && (u < 0 || d[v] < d[u])) {
+                    u = v;
+                }
+            }
+            if (u < 0) {
+                break;
+            }
+            fixe[u] = true;
+            for (int k = g.debut(u); k < g.fin(u); k++) {
+                long poids = pondere ? g.longueur(g.areteIncidente(k)) : 1;
+                d[g.voisin(k)] = Math.min(d[g.voisin(k)], d[u] + poids);
+            }
+        }
+        return d;
+    }
+
+    private long poidsMinimal(int i, int j, boolean pondere) {
+        long poids = Long.MAX_VALUE;
+        int u = g.indice(i);
+        for (int k = g.debut(u); k < g.fin(u); k++) {
+            if (g.sommet(g.voisin(k)) == j) {
+                poids = Math.min(poids, pondere ? g.longueur(g.areteIncidente(k)) : 1);
+            }
+        }
+        return poids;
+    }
+
+    @Test
+    void testDistancesEtChemins() {
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            for (boolean pondere : new boolean[]{false, true}) {
+                int[] distances = plateau.distances(sources, cibles, pondere, pool);
+                int[][] chemins = plateau.plusCourtsChemins(sources, cibles, pondere, pool);
+                assertEquals(-1, distances[0]);
+                assertEquals(0, chemins[1].length);
+                assertEquals(0, distances[2]);
+                assertArrayEquals(new int[]{sources[2]}, chemins[2]);
+                for (int q = 3; q < sources.length; q++) {
+                    long attendue = distancesAttendues(g.indice(sources[q]), pondere)[g.indice(cibles[q])];
+                    assertEquals(attendue == Long.MAX_VALUE ? -1 : attendue, distances[q]);
+                    if (distances[q] >= 0) {
+                        int[] chemin = chemins[q];
+                        assertEquals(sources[q], chemin[0]);
+                        assertEquals(cibles[q], chemin[chemin.length - 1]);
+                        long total = 0;
+                        for (int i = 0; i + 1 < chemin.length; i++) {
+                            total += poidsMinimal(chemin[i], chemin[i + 1], pondere);
+                        }
+                        assertEquals(distances[q], total);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testSontConnectes() {
+        Graphe graphe = new Graphe(5);
+        graphe.ajouterArete(new Arete(0, 1));
+        graphe.ajouterArete(new Arete(3, 4));
+        boolean[] resultat = graphe.sontConnectes(new int[]{0, 1, 0, 2, 9}, new int[]{1, 0, 3, 2, 9});
+        assertArrayEquals(new boolean[]{true, true, false, true, false}, resultat);
+        assertArrayEquals(new int[]{1, -1, -1}, graphe.distances(new int[]{0, 0, 7}, new int[]{1, 4, 0}, false));
+        assertThrows(IllegalArgumentException.class, () -> graphe.distances(new int[1], new int[2], false));
+    }
+}
@@ -0,0 +1,81 @@
+package fr.umontpellier.iut.graphes;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TableauEntiersTest {
+
+    @Test
+    void testEnMorceaux() {
+        IntBuffer[] morceaux = {IntBuffer.allocate(4), IntBuffer.allocate(4), IntBuffer.allocate(3)};
+        TableauEntiers t = TableauEntiers.enMorceaux(morceaux, 2);
+        assertEquals(11, t.longueur());
+        for (int i = 0; i < 11; i++) {
+            t.modifier(i, 10 * i);
+        }
+        for (int i = 0; i < 11; i++) {
+            assertEquals(10 * i, t.valeur(i));
+        }
+        assertEquals(50, morceaux[1].get(1));
+        assertEquals(100, morceaux[2].get(2));
+    }
+
+    @Test
+    void testCopieHorsTas() {
+        TableauEntiers t = TableauEntiers.de(new int[]{3, -1, 4, 1, 5});
+        TableauEntiers copie = t.copieHorsTas();
+        assertEquals(5, copie.longueur());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(t.valeur(i), copie.valeur(i));
+        }
+        copie.modifier(0, 9);
+        assertEquals(3, t.valeur(0));
+        assertEquals(0, TableauEntiers.horsTas(0).longueur());
+    }
+
+    @Test
+    void testCopieAgrandie() {
+        TableauEntiers tas = TableauEntiers.de(new int[]{3, -1, 4});
+        TableauEntiers horsTas = tas.copieHorsTas();
+        for (TableauEntiers t : new TableauEntiers[]{tas, horsTas}) {
+            TableauEntiers copie = t.copie(5);
+            assertEquals(5, copie.longueur());
+            assertEquals(4, copie.valeur(2));
+            assertEquals(0, copie.valeur(4));
+            // la copie est stockée comme l'original
+            assertEquals(t.tableau() == null, copie.tableau() == null);
+        }
+        assertNull(TableauEntiers.allouer(3, true).tableau());
+        assertArrayEquals(new int[3], TableauEntiers.allouer(3, false).tableau());
+    }
+
+    @Test
+    void testProjectionEnMorceaux() throws IOException {
+        Path fichier = Files.createTempFile("tableau", ".bin");
+        try {
+            Graphe g = new Graphe(10);
+            for (int i = 0; i < 9; i++) {
+                g.ajouterArete(new Arete(i, i + 1));
+            }
+            FichierGraphe.ecrire(g, fichier);
+            try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+                // les identifiants des sommets commencent juste après l'en-tête (6 entiers)
+                TableauEntiers identifiants = FichierGraphe.projeter(canal, 24, 10, 2);
+                assertEquals(10, identifiants.longueur());
+                for (int i = 0; i < 10; i++) {
+                    assertEquals(i, identifiants.valeur(i));
+                }
+            }
+        } finally {
+            Files.deleteIfExists(fichier);
+        }
+    }
+}
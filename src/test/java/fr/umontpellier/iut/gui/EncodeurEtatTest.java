@@ -0,0 +1,96 @@
+package fr.umontpellier.iut.gui;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EncodeurEtatTest {
+    private static final Gson GSON = new Gson();
+
+    private static Map<String, Object> etat(List<String> log, int score1, int score2, String instruction) {
+        return Map.of(
+                "joueurs", List.of(Map.of("nom", "Guybrush", "score", score1), Map.of("nom", "Largo", "score", score2)),
+                "joueurCourant", 0,
+                "instruction", instruction,
+                "log", List.copyOf(log));
+    }
+
+    @Test
+    void testPatchs() {
+        EncodeurEtat encodeur = new EncodeurEtat();
+        assertEquals("", encodeur.getComplet());
+        List<String> log = new ArrayList<>(List.of("a", "b"));
+        encodeur.mettreAJour(etat(log, 0, 0, "Début"));
+        assertEquals(1, encodeur.getVersion());
+        assertNull(encodeur.getPatch());
+        JsonObject complet = GSON.fromJson(encodeur.getComplet(), JsonObject.class);
+        assertEquals(1, complet.get("version").getAsInt());
+        assertEquals(2, complet.getAsJsonArray("log").size());
+        assertEquals(2, complet.getAsJsonArray("joueurs").size());
+
+        log.add("c");
+        encodeur.mettreAJour(etat(log, 0, 5, "Début"));
+        JsonObject patch = GSON.fromJson(encodeur.getPatch(), JsonObject.class);
+        assertEquals(2, patch.get("version").getAsInt());
+        assertEquals(1, patch.get("base").getAsInt());
+        // seul le score du second joueur a changé, l'instruction est la même, une ligne a été ajoutée au log
+        assertEquals(1, patch.getAsJsonObject("joueurs").size());
+        assertEquals("{\"modifications\":{\"score\":5}}", patch.getAsJsonObject("joueurs").get("1").toString());
+        assertFalse(patch.has("modifications"));
+        assertEquals("{\"debut\":2,\"retires\":0,\"elements\":[\"c\"]}",
+                patch.getAsJsonObject("listes").get("log").toString());
+
+        encodeur.mettreAJour(etat(log, 0, 5, "Fin"));
+        patch = GSON.fromJson(encodeur.getPatch(), JsonObject.class);
+        assertEquals("Fin", patch.getAsJsonObject("modifications").get("instruction").getAsString());
+        assertEquals(0, patch.getAsJsonObject("joueurs").size());
+        assertFalse(patch.has("listes"));
+    }
+
+    @Test
+    void testPatchsDesCartesDeplacees() {
+        EncodeurEtat encodeur = new EncodeurEtat();
+        encodeur.mettreAJour(Map.of(
+                "joueurs", List.of(Map.of("nom", "Guybrush", "main", List.of("a", "c", "d"))),
+                "piocheWagon", Map.of("pioche", 40, "defausse", List.of("x", "y")),
+                "cartesTransportVisibles", List.of("p", "q", "r", "s"),
+                "log", List.of()));
+        // une carte visible est prise (et rangée dans la main), remplacée par une carte piochée, et une carte est
+        // défaussée
+        encodeur.mettreAJour(Map.of(
+                "joueurs", List.of(Map.of("nom", "Guybrush", "main", List.of("a", "b", "c", "d"))),
+                "piocheWagon", Map.of("pioche", 39, "defausse", List.of("x", "y", "z")),
+                "cartesTransportVisibles", List.of("p", "b", "r", "s"),
+                "log", List.of()));
+        JsonObject patch = GSON.fromJson(encodeur.getPatch(), JsonObject.class);
+        assertEquals("{\"listes\":{\"main\":{\"debut\":1,\"retires\":0,\"elements\":[\"b\"]}}}",
+                patch.getAsJsonObject("joueurs").get("0").toString());
+        assertEquals("{\"debut\":1,\"retires\":1,\"elements\":[\"b\"]}",
+                patch.getAsJsonObject("listes").get("cartesTransportVisibles").toString());
+        assertEquals("{\"modifications\":{\"pioche\":39},\"listes\":{\"defausse\":{\"debut\":2,\"retires\":0,"
+                        + "\"elements\":[\"z\"]}}}",
+                patch.getAsJsonObject("objets").get("piocheWagon").toString());
+        assertFalse(patch.has("modifications"));
+    }
+
+    @Test
+    void testEtatCompletSiPatchImpossible() {
+        EncodeurEtat encodeur = new EncodeurEtat();
+        encodeur.mettreAJour(etat(List.of("a", "b"), 0, 0, "Début"));
+        // log raccourci
+        encodeur.mettreAJour(etat(List.of("a"), 0, 0, "Début"));
+        assertNull(encodeur.getPatch());
+        // joueur en moins
+        encodeur.mettreAJour(Map.of("joueurs", List.of(Map.of("nom", "Guybrush")), "log", List.of("a")));
+        assertNull(encodeur.getPatch());
+        encodeur.mettreAJour(Map.of("joueurs", List.of(Map.of("nom", "Guybrush")), "log", List.of("a")));
+        assertNotNull(encodeur.getPatch());
+        assertEquals(4, encodeur.getVersion());
+    }
+}
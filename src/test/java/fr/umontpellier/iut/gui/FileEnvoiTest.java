@@ -0,0 +1,69 @@
+package fr.umontpellier.iut.gui;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileEnvoiTest {
+
+    @Test
+    void testEnvoisDansLOrdre() {
+        SessionFactice client = new SessionFactice(null, false, true);
+        FileEnvoi file = new FileEnvoi(client.session);
+        assertTrue(file.ajouter("1", () -> "complet"));
+        assertTrue(file.ajouter("2", () -> "complet"));
+        assertTrue(file.ajouter("3", () -> "complet"));
+        // un seul envoi à la fois
+        assertEquals(List.of("1"), client.messages);
+        assertEquals(2, file.getNbMessagesEnAttente());
+        while (client.terminerEnvoi()) {
+            // le message suivant part quand le précédent est envoyé
+        }
+        assertEquals(List.of("1", "2", "3"), client.messages);
+        assertEquals(0, file.getNbMessagesEnAttente());
+        assertTrue(file.ajouter("4", () -> "complet"));
+        assertEquals(List.of("1", "2", "3", "4"), client.messages);
+    }
+
+    @Test
+    void testDebordementRemplaceParEtatComplet() {
+        SessionFactice client = new SessionFactice(null, false, true);
+        FileEnvoi file = new FileEnvoi(client.session);
+        file.ajouter("0", () -> "complet0");
+        for (int i = 1; i <= FileEnvoi.TAILLE_MAX; i++) {
+            assertTrue(file.ajouter("patch" + i, () -> "complet"));
+        }
+        assertEquals(FileEnvoi.TAILLE_MAX, file.getNbMessagesEnAttente());
+        assertTrue(file.ajouter("patch", () -> "complet9"));
+        assertEquals(1, file.getNbMessagesEnAttente());
+        client.terminerEnvoi();
+        assertEquals(List.of("0", "complet9"), client.messages);
+        // la file s'est vidée : les débordements sont oubliés
+        client.terminerEnvoi();
+        assertEquals(0, file.getNbMessagesEnAttente());
+    }
+
+    @Test
+    void testClientTropLent() {
+        SessionFactice client = new SessionFactice(null, false, true);
+        FileEnvoi file = new FileEnvoi(client.session);
+        file.ajouter("0", () -> "complet");
+        for (int i = 0; i < FileEnvoi.TAILLE_MAX; i++) {
+            file.ajouter("patch", () -> "complet");
+        }
+        // chaque série déborde une fois (la file ne contient plus que l'état complet) puis se remplit de nouveau
+        for (int i = 0; i < FileEnvoi.DEBORDEMENTS_MAX; i++) {
+            for (int j = 0; j < FileEnvoi.TAILLE_MAX; j++) {
+                assertTrue(file.ajouter("patch", () -> "complet"));
+            }
+        }
+        assertFalse(file.ajouter("patch", () -> "complet"));
+        assertEquals(0, file.getNbMessagesEnAttente());
+        // les messages suivants sont ignorés
+        assertTrue(file.ajouter("patch", () -> "complet"));
+        client.terminerEnvoi();
+        assertEquals(List.of("0"), client.messages);
+    }
+}
@@ -0,0 +1,185 @@
+package fr.umontpellier.iut.gui;
+
+import fr.umontpellier.iut.rails.Jeu;
+import fr.umontpellier.iut.rails.data.Identifiants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GestionnaireSallesTest {
+    private GestionnaireSalles salles;
+
+    private static void attendre(BooleanSupplier condition) throws InterruptedException {
+        while (!condition.getAsBoolean()) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static GestionnaireSalles nouveauGestionnaire(int nbSallesMax, long delaiAbandonMillis) {
+        return new GestionnaireSalles(nbSallesMax, delaiAbandonMillis,
+                id -> new Identifiants().creer(() -> new Jeu(new String[]{"Guybrush", "Largo"})));
+    }
+
+    @AfterEach
+    void arreter() {
+        salles.arreter();
+    }
+
+    @Test
+    @Timeout(10)
+    void testPartiesIndependantesParSalle() throws InterruptedException {
+        salles = nouveauGestionnaire(10, 60_000);
+        SessionFactice a1 = new SessionFactice("a");
+        SessionFactice a2 = new SessionFactice("a");
+        SessionFactice b = new SessionFactice("b");
+        SessionFactice parDefaut = new SessionFactice(null);
+        Salle salleA = salles.rejoindre(a1.session);
+        assertSame(salleA, salles.rejoindre(a2.session));
+        Salle salleB = salles.rejoindre(b.session);
+        Salle salle = salles.rejoindre(parDefaut.session);
+        assertNotSame(salleA, salleB);
+        assertEquals(GestionnaireSalles.SALLE_PAR_DEFAUT, salle.getId());
+        assertEquals(3, salles.getNbSalles());
+
+        // chaque partie attend le choix de destinations de son premier joueur
+        attendre(() -> a1.dernierMessage().contains("Guybrush") && b.dernierMessage().contains("Guybrush"));
+        attendre(() -> a2.dernierMessage().equals(a1.dernierMessage()));
+        String etatA = a1.dernierMessage();
+        String etatB = b.dernierMessage();
+        // une entrée d'un client de la salle a est transmise à sa seule partie
+        salles.addInput(a2.session, "");
+        attendre(() -> !a1.dernierMessage().equals(etatA));
+        attendre(() -> a2.dernierMessage().equals(a1.dernierMessage()));
+        Thread.sleep(50);
+        assertEquals(etatB, b.dernierMessage());
+    }
+
+    @Test
+    @Timeout(10)
+    void testPatchsEtResynchronisation() throws InterruptedException {
+        salles = nouveauGestionnaire(10, 60_000);
+        SessionFactice complet = new SessionFactice("a");
+        SessionFactice delta = new SessionFactice("a", true, false);
+        Salle salle = salles.rejoindre(complet.session);
+        attendre(() -> salle.getVersion() == 1);
+        salles.rejoindre(delta.session);
+        // un nouveau client reçoit l'état complet
+        attendre(() -> delta.dernierMessage().contains("\"version\":1"));
+        assertFalse(delta.dernierMessage().contains("\"base\""));
+
+        salles.addInput(complet.session, "");
+        attendre(() -> salle.getVersion() == 2);
+        attendre(() -> delta.messages.size() == 2 && complet.dernierMessage().contains("\"version\":2"));
+        assertTrue(delta.dernierMessage().contains("\"base\":1"));
+        assertFalse(complet.dernierMessage().contains("\"base\""));
+        assertTrue(delta.dernierMessage().length() < complet.dernierMessage().length());
+
+        // la demande de resynchronisation n'est pas transmise à la partie
+        salles.addInput(delta.session, GestionnaireSalles.MESSAGE_RESYNCHRONISATION);
+        assertEquals(3, delta.messages.size());
+        assertEquals(complet.dernierMessage(), delta.dernierMessage());
+        Thread.sleep(50);
+        assertEquals(2, salle.getVersion());
+    }
+
+    @Test
+    @Timeout(10)
+    void testClientLentDeconnecte() throws InterruptedException {
+        salles = nouveauGestionnaire(10, 60_000);
+        SessionFactice rapide = new SessionFactice("a");
+        SessionFactice lent = new SessionFactice("a", true, true);
+        Salle salle = salles.rejoindre(rapide.session);
+        salles.rejoindre(lent.session);
+        attendre(() -> salle.getVersion() == 1);
+        // la partie avance sans attendre le client lent, qui finit par être déconnecté
+        long version = 1;
+        while (!lent.fermee) {
+            assertTrue(version < 100);
+            salles.addInput(rapide.session, "");
+            long attendue = ++version;
+            attendre(() -> salle.getVersion() == attendue);
+        }
+        long derniere = version;
+        attendre(() -> rapide.dernierMessage().contains("\"version\":" + derniere));
+        assertEquals(derniere, rapide.messages.stream().filter(m -> !m.isEmpty()).count());
+        assertFalse(rapide.fermee);
+        assertEquals(1, salle.getNbClients());
+        // seul le premier envoi a été fait au client lent
+        assertEquals(1, lent.messages.size());
+    }
+
+    @Test
+    @Timeout(10)
+    void testNombreDeSallesBorne() {
+        salles = nouveauGestionnaire(2, 60_000);
+        assertNotNull(salles.rejoindre(new SessionFactice("a").session));
+        assertNotNull(salles.rejoindre(new SessionFactice("b").session));
+        SessionFactice refuse = new SessionFactice("c");
+        assertNull(salles.rejoindre(refuse.session));
+        assertTrue(refuse.fermee);
+        // les salles existantes restent accessibles
+        assertNotNull(salles.rejoindre(new SessionFactice("a").session));
+        assertEquals(2, salles.getNbSalles());
+    }
+
+    @Test
+    @Timeout(10)
+    void testSalleOuverteEnMemeTempsParPlusieursClients() throws InterruptedException {
+        salles = nouveauGestionnaire(2, 60_000);
+        Salle[] ouvertes = new Salle[8];
+        Thread[] fils = new Thread[ouvertes.length];
+        for (int i = 0; i < fils.length; i++) {
+            int rang = i;
+            fils[i] = new Thread(() -> ouvertes[rang] = salles.getSalle("a"));
+            fils[i].start();
+        }
+        for (Thread fil : fils) {
+            fil.join();
+        }
+        for (Salle salle : ouvertes) {
+            assertSame(ouvertes[0], salle);
+        }
+        assertEquals(1, salles.getNbSalles());
+        assertNotNull(salles.getSalle("b"));
+    }
+
+    @Test
+    @Timeout(10)
+    void testSalleVideFermee() throws InterruptedException {
+        salles = nouveauGestionnaire(10, 20);
+        SessionFactice client = new SessionFactice("a");
+        Salle salle = salles.rejoindre(client.session);
+        SessionFactice parDefaut = new SessionFactice(null);
+        Salle salleParDefaut = salles.rejoindre(parDefaut.session);
+
+        salles.quitter(client.session);
+        salles.quitter(parDefaut.session);
+        attendre(salle::estTerminee);
+        assertTrue(salle.estFermee());
+        assertEquals(1, salles.getNbSalles());
+        // la salle par défaut n'est jamais fermée
+        Thread.sleep(50);
+        assertFalse(salleParDefaut.estFermee());
+
+        // un nouveau client de la salle y démarre une nouvelle partie
+        Salle nouvelle = salles.rejoindre(new SessionFactice("a").session);
+        assertNotSame(salle, nouvelle);
+        assertEquals(2, salles.getNbSalles());
+    }
+
+    @Test
+    @Timeout(10)
+    void testClientRevenuAvantLeDelai() throws InterruptedException {
+        salles = nouveauGestionnaire(10, 100);
+        SessionFactice client = new SessionFactice("a");
+        Salle salle = salles.rejoindre(client.session);
+        salles.quitter(client.session);
+        assertSame(salle, salles.rejoindre(new SessionFactice("a").session));
+        Thread.sleep(200);
+        assertFalse(salle.estFermee());
+    }
+}
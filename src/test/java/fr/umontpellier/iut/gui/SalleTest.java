@@ -0,0 +1,42 @@
+package fr.umontpellier.iut.gui;
+
+import fr.umontpellier.iut.rails.Jeu;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SalleTest {
+
+    @Test
+    void testEtatsPubliesEncodesHorsDuFilDeLaPartie() {
+        List<Runnable> diffusions = new ArrayList<>();
+        Salle salle = new Salle("a", new Jeu(new String[]{"Guybrush", "Largo"}), diffusions::add);
+        SessionFactice client = new SessionFactice("a", true, false);
+        salle.ajouterClient(client.session, true);
+
+        // la publication ne fait qu'enregistrer l'état et programmer son encodage
+        salle.setEtatJeu(Map.of("instruction", "1", "log", List.of()));
+        assertEquals(1, diffusions.size());
+        assertEquals(0, salle.getVersion());
+        // les états publiés avant l'encodage sont remplacés par le plus récent
+        salle.setEtatJeu(Map.of("instruction", "2", "log", List.of()));
+        salle.setEtatJeu(Map.of("instruction", "3", "log", List.of("a")));
+        assertEquals(1, diffusions.size());
+
+        diffusions.remove(0).run();
+        assertEquals(1, salle.getVersion());
+        assertTrue(client.dernierMessage().contains("\"instruction\":\"3\""));
+
+        salle.setEtatJeu(Map.of("instruction", "4", "log", List.of("a", "b")));
+        assertEquals(1, diffusions.size());
+        diffusions.remove(0).run();
+        assertEquals(2, salle.getVersion());
+        assertEquals("{\"modifications\":{\"instruction\":\"4\"},\"listes\":{\"log\":{\"debut\":1,\"retires\":0,"
+                        + "\"elements\":[\"b\"]}},\"joueurs\":{},\"version\":2,\"base\":1}",
+                client.dernierMessage());
+    }
+}
@@ -0,0 +1,91 @@
+package fr.umontpellier.iut.gui;
+
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Client factice : une session websocket qui enregistre les messages reçus. Les envois asynchrones se terminent
+ * immédiatement, sauf pour un client lent dont les envois ne se terminent que lorsque le test le décide.
+ */
+class SessionFactice {
+    final List<String> messages = new CopyOnWriteArrayList<>();
+    final Session session;
+    volatile boolean fermee;
+    private final boolean lent;
+    private final Queue<SendHandler> envoisEnCours = new ArrayDeque<>();
+
+    SessionFactice(String salle) {
+        this(salle, false, false);
+    }
+
+    SessionFactice(String salle, boolean patchs, boolean lent) {
+        this.lent = lent;
+        Map<String, Object> proprietes = new HashMap<>();
+        Map<String, List<String>> parametres = new HashMap<>();
+        if (salle != null) {
+            parametres.put(GestionnaireSalles.PARAMETRE_SALLE, List.of(salle));
+        }
+        if (patchs) {
+            parametres.put(GestionnaireSalles.PARAMETRE_PATCHS, List.of(""));
+        }
+        RemoteEndpoint.Async remote = (RemoteEndpoint.Async) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{RemoteEndpoint.Async.class},
+                (proxy, methode, args) -> {
+                    if (methode.getName().equals("sendText") && args.length == 2) {
+                        messages.add((String) args[0]);
+                        SendHandler handler = (SendHandler) args[1];
+                        if (this.lent) {
+                            synchronized (envoisEnCours) {
+                                envoisEnCours.add(handler);
+                            }
+                        } else {
+                            handler.onResult(new SendResult());
+                        }
+                    }
+                    return null;
+                });
+        session = (Session) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Session.class},
+                (proxy, methode, args) -> switch (methode.getName()) {
+                    case "getRequestParameterMap" -> parametres;
+                    case "getUserProperties" -> proprietes;
+                    case "getAsyncRemote" -> remote;
+                    case "close" -> {
+                        fermee = true;
+                        yield null;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+    }
+
+    /**
+     * Termine l'envoi en cours d'un client lent
+     *
+     * @return false s'il n'y a pas d'envoi en cours
+     */
+    boolean terminerEnvoi() {
+        SendHandler handler;
+        synchronized (envoisEnCours) {
+            handler = envoisEnCours.poll();
+        }
+        if (handler == null) {
+            return false;
+        }
+        handler.onResult(new SendResult());
+        return true;
+    }
+
+    String dernierMessage() {
+        return messages.isEmpty() ? "" : messages.get(messages.size() - 1);
+    }
+}
@@ -0,0 +1,64 @@
+package fr.umontpellier.iut.rails;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ComposantesConnexesTest {
+
+    @Test
+    void testVillesIsolees() {
+        ComposantesConnexes composantes = new ComposantesConnexes();
+        assertTrue(composantes.sontConnectees("Athina", "Athina"));
+        assertFalse(composantes.sontConnectees("Athina", "Tehran"));
+        assertTrue(composantes.relier("Athina", "Tehran"));
+        assertFalse(composantes.relier("Tehran", "Athina"));
+        assertTrue(composantes.sontConnectees("Tehran", "Athina"));
+        assertFalse(composantes.sontConnectees("Tehran", "Al-Qahira"));
+    }
+
+    /**
+     * @return les villes atteignables depuis ville par les arêtes (parcours en largeur)
+     */
+    private static Set<Integer> atteignables(List<int[]> aretes, int ville) {
+        Set<Integer> vues = new HashSet<>(List.of(ville));
+        List<Integer> frontiere = new ArrayList<>(List.of(ville));
+        while (!frontiere.isEmpty()) {
+            int u = frontiere.remove(frontiere.size() - 1);
+            for (int[] arete : aretes) {
+                for (int k = 0; k < 2; k++) {
+                    if (arete[k] == u && vues.add(arete[1 - k])) {
+                        frontiere.add(arete[1 - k]);
+                    }
+                }
+            }
+        }
+        return vues;
+    }
+
+    @Test
+    void testCommeUnParcours() {
+        Random aleatoire = new Random(7);
+        int n = 60;
+        ComposantesConnexes composantes = new ComposantesConnexes();
+        List<int[]> aretes = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            int u = aleatoire.nextInt(n);
+            int v = aleatoire.nextInt(n);
+            boolean dejaConnectees = atteignables(aretes, u).contains(v);
+            assertEquals(!dejaConnectees, composantes.relier("V" + u, "V" + v));
+            aretes.add(new int[]{u, v});
+            for (int j = 0; j < 20; j++) {
+                int a = aleatoire.nextInt(n);
+                int b = aleatoire.nextInt(n);
+                assertEquals(atteignables(aretes, a).contains(b), composantes.sontConnectees("V" + a, "V" + b));
+            }
+        }
+    }
+}
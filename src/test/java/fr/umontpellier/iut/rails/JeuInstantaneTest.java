@@ -0,0 +1,127 @@
+package fr.umontpellier.iut.rails;
+
+import fr.umontpellier.iut.rails.data.CarteTransport;
+import fr.umontpellier.iut.rails.data.Couleur;
+import fr.umontpellier.iut.rails.data.Destination;
+import fr.umontpellier.iut.rails.data.Identifiants;
+import fr.umontpellier.iut.rails.data.Plateau;
+import fr.umontpellier.iut.rails.data.TypeCarteTransport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JeuInstantaneTest {
+
+    @Test
+    void testInstantanesPartagentCeQuiNaPasChange() {
+        Jeu jeu = new Identifiants().creer(() -> new Jeu(new String[]{"Guybrush", "Largo"}));
+        List<Jeu.Instantane> etats = new ArrayList<>();
+        jeu.setAffichage(etats::add);
+        assertNull(jeu.getInstantane());
+
+        jeu.prompt("Début du tour", List.of(new Bouton("Passer", "")), true);
+        Jeu.Instantane premier = jeu.getInstantane();
+        assertNotNull(premier);
+        assertEquals(List.of(premier), etats);
+        assertEquals("Début du tour", premier.instruction());
+        assertEquals(List.of(new Bouton("Passer", "")), premier.boutons());
+
+        jeu.prompt("Encore", List.of(), true);
+        Jeu.Instantane deuxieme = jeu.getInstantane();
+        assertNotSame(premier, deuxieme);
+        assertSame(premier.joueurs(), deuxieme.joueurs());
+        assertSame(premier.piocheWagon(), deuxieme.piocheWagon());
+        assertSame(premier.routesLibres(), deuxieme.routesLibres());
+        assertSame(premier.log(), deuxieme.log());
+
+        Joueur guybrush = jeu.getJoueurs().get(0);
+        guybrush.getCartesTransport().add(new CarteTransport(TypeCarteTransport.WAGON, Couleur.ROUGE, false, false));
+        Route route = jeu.retirerRouteLibre("R1");
+        guybrush.getRoutes().add(route);
+        jeu.log("Guybrush capture R1");
+        jeu.prompt("Fin", List.of(), true);
+        Jeu.Instantane troisieme = jeu.getInstantane();
+
+        // seul le joueur modifié a un nouvel instantané
+        assertNotSame(premier.joueurs().get(0), troisieme.joueurs().get(0));
+        assertSame(premier.joueurs().get(1), troisieme.joueurs().get(1));
+        assertEquals(1, troisieme.joueurs().get(0).cartesTransport().size());
+        assertEquals(List.of(route), troisieme.joueurs().get(0).routes());
+        assertEquals(premier.routesLibres().size() - 1, troisieme.routesLibres().size());
+        assertEquals(List.of("Guybrush capture R1"), troisieme.log());
+
+        // les instantanés précédents n'ont pas changé
+        assertTrue(premier.joueurs().get(0).cartesTransport().isEmpty());
+        assertTrue(premier.joueurs().get(0).routes().isEmpty());
+        assertTrue(premier.routesLibres().contains(route));
+        assertTrue(premier.log().isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> troisieme.routesLibres().remove(0));
+
+        // les joueurs de l'état affiché sont construits à partir de leurs instantanés
+        assertSame(troisieme, etats.get(2));
+        List<?> joueursPrecedents = (List<?>) jeu.dataMap(premier).get("joueurs");
+        List<?> joueursAffiches = (List<?>) jeu.dataMap(troisieme).get("joueurs");
+        assertEquals(troisieme.joueurs().get(0).dataMap(List.of()), joueursAffiches.get(0));
+        assertSame(joueursPrecedents.get(1), joueursAffiches.get(1));
+    }
+
+    @Test
+    void testSurbrillanceChercheeALaConstructionDeLEtat() {
+        Jeu jeu = new Identifiants().creer(() -> new Jeu(new String[]{"Guybrush", "Largo"}));
+        List<Jeu.Instantane> etats = new ArrayList<>();
+        jeu.setAffichage(etats::add);
+        Joueur guybrush = jeu.getJoueurs().get(0);
+        guybrush.getDestinations().add(new Destination("Al-Qahira", "Tehran", 4));
+
+        // la publication de l'instantané ne cherche pas les routes à mettre en surbrillance
+        jeu.prompt("Début du tour", List.of(), true);
+        assertNull(TestUtils.getAttribute(guybrush, "surbrillance"));
+
+        Map<String, Object> etat = jeu.dataMap(etats.get(0));
+        assertNotNull(TestUtils.getAttribute(guybrush, "surbrillance"));
+        Map<?, ?> joueurAffiche = (Map<?, ?>) ((List<?>) etat.get("joueurs")).get(0);
+        assertEquals(1, ((List<?>) joueurAffiche.get("routesPourDestinations")).size());
+        assertSame(joueurAffiche, ((List<?>) jeu.dataMap(etats.get(0)).get("joueurs")).get(0));
+    }
+
+    @Test
+    void testRoutesLibresNonModifiables() {
+        Jeu jeu = new Identifiants().creer(() -> new Jeu(new String[]{"Guybrush", "Largo"}));
+        List<Route> routes = jeu.getRoutesLibres();
+        assertThrows(UnsupportedOperationException.class, () -> routes.remove(0));
+        int nbRoutes = routes.size();
+        jeu.retirerRouteLibre(routes.get(0).getNom());
+        assertEquals(nbRoutes, routes.size());
+        assertEquals(nbRoutes - 1, jeu.getRoutesLibres().size());
+    }
+
+    @Test
+    @Timeout(20)
+    void testInstantanePublieEnFinDePartieSansAffichage() throws InterruptedException {
+        Jeu jeu = new Identifiants().creer(() -> new Jeu(new String[]{"Guybrush", "Largo", "LeChuck"},
+                Plateau.makePlateauMonde(),
+                Destination.makeDestinationsMonde(), StrategieJoueur.aleatoire(new Random(5))));
+        Thread partie = new Thread(jeu);
+        partie.start();
+        partie.join();
+
+        Jeu.Instantane instantane = jeu.getInstantane();
+        assertNotNull(instantane);
+        assertEquals(jeu.getNbTours(), instantane.nbTours());
+        for (int i = 0; i < 3; i++) {
+            Joueur joueur = jeu.getJoueurs().get(i);
+            assertEquals(joueur.getNom(), instantane.joueurs().get(i).nom());
+            assertEquals(joueur.getRoutes(), instantane.joueurs().get(i).routes());
+            assertEquals(joueur.getScore(), instantane.joueurs().get(i).score());
+        }
+        Map<String, Object> data = jeu.dataMap(instantane);
+        assertEquals("Fin de la partie.", data.get("instruction"));
+        assertEquals(List.of(), data.get("boutons"));
+    }
+}
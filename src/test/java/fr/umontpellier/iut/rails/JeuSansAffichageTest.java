@@ -0,0 +1,81 @@
+package fr.umontpellier.iut.rails;
+
+import fr.umontpellier.iut.rails.data.Destination;
+import fr.umontpellier.iut.rails.data.GenerateurPlateau;
+import fr.umontpellier.iut.rails.data.Plateau;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JeuSansAffichageTest {
+    private static final String[] NOMS = {"Guybrush", "Largo", "LeChuck", "Elaine"};
+
+    private static Jeu nouveauJeu(StrategieJoueur strategie) {
+        return new Jeu(NOMS, Plateau.makePlateauMonde(), Destination.makeDestinationsMonde(), strategie);
+    }
+
+    @Test
+    @Timeout(20)
+    void testPartiesCompletesAleatoires() {
+        Random aleatoire = new Random(1);
+        for (int i = 0; i < 20; i++) {
+            Jeu jeu = nouveauJeu(StrategieJoueur.aleatoire(aleatoire));
+            assertTrue(jeu.estSansAffichage());
+            jeu.run();
+            // la partie s'est terminée normalement : un joueur n'a presque plus de pions
+            assertTrue(jeu.getJoueurs().stream()
+                    .anyMatch(j -> j.getNbPionsWagon() + j.getNbPionsBateau() <= 6));
+            assertTrue(jeu.getNbTours() > 0);
+            assertTrue(((List<?>) TestUtils.getAttribute(jeu, "log")).isEmpty());
+            assertNull(TestUtils.getAttribute(jeu, "instruction"));
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void testChoixValidesEtLimiteDeTours() {
+        List<String> instructions = new ArrayList<>();
+        Jeu jeu = nouveauJeu((joueur, instruction, choixValides) -> {
+            assertFalse(choixValides.isEmpty());
+            assertEquals(choixValides.size(), new HashSet<>(choixValides).size());
+            instructions.add(instruction);
+            // passe dès que possible
+            return choixValides.contains("") ? "" : choixValides.get(0);
+        });
+        jeu.setNbToursMax(40);
+        jeu.run();
+        assertEquals(40, jeu.getNbTours());
+        assertTrue(instructions.contains("Choisissez le nombre de pions wagon à prendre"));
+        assertTrue(instructions.contains("Début du tour"));
+        // les joueurs ont gardé toutes leurs destinations et pris 20 pions wagon par défaut
+        for (Joueur joueur : jeu.getJoueurs()) {
+            assertEquals(5, joueur.getDestinations().size());
+            assertEquals(20, joueur.getNbPionsWagon());
+        }
+    }
+
+    @Test
+    void testChoixInvalide() {
+        Jeu jeu = nouveauJeu((joueur, instruction, choixValides) -> "n'importe quoi");
+        assertThrows(IllegalStateException.class, jeu::run);
+    }
+
+    @Test
+    @Timeout(20)
+    void testPartieSurPlateauGenere() {
+        GenerateurPlateau generateur = new GenerateurPlateau(4);
+        Plateau plateau = generateur.genererPlateau(300);
+        Jeu jeu = new Jeu(new String[]{"Guybrush", "Largo"}, plateau, generateur.genererDestinations(plateau, 60),
+                StrategieJoueur.aleatoire(new Random(2)));
+        jeu.setNbToursMax(2000);
+        jeu.run();
+        assertTrue(jeu.getNbTours() <= 2000);
+        assertTrue(jeu.getJoueurs().stream().allMatch(j -> !j.getRoutes().isEmpty()));
+    }
+}
@@ -0,0 +1,84 @@
+package fr.umontpellier.iut.rails;
+
+import fr.umontpellier.iut.rails.data.Destination;
+import fr.umontpellier.iut.rails.data.Identifiants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JoueurDataMapTest {
+    private Jeu jeu;
+    private Joueur guybrush;
+    private Joueur largo;
+    private Destination caireTeheran;
+
+    @BeforeEach
+    void setUp() {
+        jeu = new Identifiants().creer(() -> new Jeu(new String[]{"Guybrush", "Largo"}));
+        guybrush = jeu.getJoueurs().get(0);
+        largo = jeu.getJoueurs().get(1);
+        caireTeheran = new Destination("Al-Qahira", "Tehran", 4);
+        guybrush.getDestinations().add(caireTeheran);
+    }
+
+    private void capturer(Joueur joueur, String nomRoute) {
+        joueur.getRoutes().add(jeu.retirerRouteLibre(nomRoute));
+    }
+
+    private static List<?> chemin(Map<String, Object> dataMap) {
+        return (List<?>) ((List<?>) dataMap.get("routesPourDestinations")).get(0);
+    }
+
+    @Test
+    void testMemeRepresentationSiRienNaChange() {
+        Map<String, Object> dataMap = guybrush.dataMap();
+        assertSame(dataMap, guybrush.dataMap());
+        assertEquals(List.of(caireTeheran), dataMap.get("destinationsIncompletes"));
+        assertEquals(List.of(), dataMap.get("destinationsCompletes"));
+        assertEquals(1, chemin(dataMap).size());
+
+        // seul le score a changé : les destinations ne sont pas recalculées
+        TestUtils.setAttribute(guybrush, "score", 12);
+        Map<String, Object> suivante = guybrush.dataMap();
+        assertNotSame(dataMap, suivante);
+        assertEquals(12, suivante.get("score"));
+        assertSame(dataMap.get("destinationsIncompletes"), suivante.get("destinationsIncompletes"));
+        assertSame(dataMap.get("routesPourDestinations"), suivante.get("routesPourDestinations"));
+    }
+
+    @Test
+    void testSurbrillanceRecalculeeQuandLesRoutesLibresChangent() {
+        Map<String, Object> dataMap = guybrush.dataMap();
+        capturer(largo, "R5");
+        capturer(largo, "R6");
+
+        Map<String, Object> suivante = guybrush.dataMap();
+        assertSame(dataMap.get("destinationsIncompletes"), suivante.get("destinationsIncompletes"));
+        assertFalse(chemin(suivante).contains("R5"));
+        assertFalse(chemin(suivante).contains("R6"));
+        assertTrue(chemin(suivante).size() > 1);
+    }
+
+    @Test
+    void testDestinationsRecalculeesQuandLeJoueurChange() {
+        guybrush.dataMap();
+        capturer(largo, "R5");
+        capturer(largo, "R6");
+        capturer(guybrush, "R1");
+        capturer(guybrush, "R13");
+        Map<String, Object> dataMap = guybrush.dataMap();
+        assertEquals(List.of(caireTeheran), dataMap.get("destinationsCompletes"));
+        assertEquals(List.of(), dataMap.get("routesPourDestinations"));
+
+        Destination caireDjibouti = new Destination("Al-Qahira", "Djibouti", 4);
+        guybrush.getDestinations().add(caireDjibouti);
+        dataMap = guybrush.dataMap();
+        assertEquals(List.of(caireTeheran), dataMap.get("destinationsCompletes"));
+        assertEquals(List.of(caireDjibouti), dataMap.get("destinationsIncompletes"));
+        assertEquals(1, chemin(dataMap).size());
+    }
+}
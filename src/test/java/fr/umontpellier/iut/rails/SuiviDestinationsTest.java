@@ -0,0 +1,67 @@
+package fr.umontpellier.iut.rails;
+
+import fr.umontpellier.iut.rails.data.CarteTransport;
+import fr.umontpellier.iut.rails.data.Couleur;
+import fr.umontpellier.iut.rails.data.Destination;
+import fr.umontpellier.iut.rails.data.TypeCarteTransport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SuiviDestinationsTest extends BaseTestClass {
+    private final List<Destination> completees = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        setUpJeu(4);
+        initialisation();
+        joueur1.setSuiviDestinations(completees::add);
+    }
+
+    @Test
+    void testDestinationSignaleeQuandElleDevientComplete() {
+        routesJoueur1.clear();
+        destinationsJoueur1.clear();
+
+        Destination d1 = getDestination("D19"); // Hong Kong - Jakarta (5)
+        destinationsJoueur1.add(d1);
+
+        cartesJoueur1.clear();
+        cartesJoueur1.add(new CarteTransport(TypeCarteTransport.WAGON, Couleur.VIOLET, false, true)); // C141
+        cartesJoueur1.add(new CarteTransport(TypeCarteTransport.BATEAU, Couleur.BLANC, false, true)); // C142
+        cartesJoueur1.add(new CarteTransport(TypeCarteTransport.BATEAU, Couleur.BLANC, false, true)); // C143
+
+        jeu.setInput("R15", // Hong Kong - Bangkok (T, VIOLET, 1)
+                "C141");
+        joueur1.jouerTour();
+        assertTrue(completees.isEmpty());
+
+        jeu.setInput("R16", // Bangkok - Jakarta (M, BLANC, 2)
+                "C142",
+                "C143");
+        joueur1.jouerTour();
+        assertEquals(List.of(d1), completees);
+        assertTrue(joueur1.destinationEstComplete(d1));
+    }
+
+    @Test
+    void testReseauRecalculeSiLesRoutesSontModifiees() {
+        routesJoueur1.clear();
+        destinationsJoueur1.clear();
+        Destination d1 = getDestination("D19"); // Hong Kong - Jakarta (5)
+        destinationsJoueur1.add(d1);
+
+        routesJoueur1.add(TestUtils.getRoute(routes, "R15")); // Hong Kong - Bangkok
+        assertFalse(joueur1.destinationEstComplete(d1));
+        routesJoueur1.add(TestUtils.getRoute(routes, "R16")); // Bangkok - Jakarta
+        assertTrue(joueur1.destinationEstComplete(d1));
+        routesJoueur1.remove(0);
+        assertFalse(joueur1.destinationEstComplete(d1));
+        // les routes n'ont pas été capturées : aucune destination n'est signalée
+        assertTrue(completees.isEmpty());
+    }
+}
@@ -84,4 +84,18 @@ public class TestPerso {
 
     }
 
+    @Test
+    @Timeout(value = 1, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    void testRoutesEnSurbrillancePourDestination() {
+        Destination d = jeu.piocherDestination();
+        routes.remove(0);
+        List<Route> r = (List<Route>) joueur1.routesEnSurbrillancePourDestination(d);
+        assertFalse(r.isEmpty());
+        assertTrue(routes.containsAll(r));
+        for (String nomVille : d.getVilles()) {
+            assertTrue(r.stream().anyMatch(route -> route.getVille1().nom().equals(nomVille)
+                    || route.getVille2().nom().equals(nomVille)));
+        }
+    }
+
 }
@@ -0,0 +1,78 @@
+package fr.umontpellier.iut.rails;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TournoiTest {
+
+    @Test
+    @Timeout(30)
+    void testTournoiParallele() throws IOException {
+        Tournoi tournoi = new Tournoi(List.of("Guybrush", "Largo", "LeChuck"),
+                List.of(StrategieJoueur::aleatoire, StrategieJoueur::aleatoire, StrategieJoueur::aleatoire));
+        tournoi.setNbFils(3);
+        tournoi.setNbToursMax(500);
+        ByteArrayOutputStream progres = new ByteArrayOutputStream();
+        tournoi.setProgres(new PrintStream(progres, true));
+        StringWriter sortie = new StringWriter();
+
+        double partiesParSeconde = tournoi.jouer(20, sortie);
+
+        assertTrue(partiesParSeconde > 0);
+        assertTrue(progres.toString().contains("20/20 parties"));
+        List<String> lignes = sortie.toString().lines().toList();
+        assertEquals(21, lignes.size());
+        assertEquals("partie,tours,score_Guybrush,routes_Guybrush,ports_Guybrush,score_Largo,routes_Largo,"
+                + "ports_Largo,score_LeChuck,routes_LeChuck,ports_LeChuck", lignes.get(0));
+        Set<Integer> numeros = new HashSet<>();
+        for (String ligne : lignes.subList(1, lignes.size())) {
+            int[] valeurs = Arrays.stream(ligne.split(",")).mapToInt(Integer::parseInt).toArray();
+            assertEquals(11, valeurs.length);
+            assertTrue(numeros.add(valeurs[0]));
+            assertTrue(valeurs[1] > 0 && valeurs[1] <= 500);
+            // routes et ports de chaque joueur
+            for (int j = 0; j < 3; j++) {
+                assertTrue(valeurs[3 + 3 * j] > 0);
+                assertTrue(valeurs[4 + 3 * j] <= 3);
+            }
+        }
+        assertEquals(20, numeros.size());
+    }
+
+    @Test
+    @Timeout(10)
+    void testStrategieParJoueur() {
+        Function<Random, StrategieJoueur> passe = aleatoire -> (joueur, instruction, choixValides) ->
+                choixValides.contains("") ? "" : choixValides.get(0);
+        Tournoi tournoi = new Tournoi(List.of("Guybrush", "Largo"), List.of(passe, StrategieJoueur::aleatoire));
+        tournoi.setNbToursMax(60);
+        Tournoi.ResultatPartie resultat = tournoi.jouerPartie(7);
+        assertEquals(7, resultat.numero());
+        assertEquals(60, resultat.nbTours());
+        // le premier joueur passe toujours : il ne prend ni route ni port
+        assertEquals(0, resultat.nbRoutes()[0]);
+        assertEquals(0, resultat.nbPorts()[0]);
+        assertTrue(resultat.nbRoutes()[1] > 0);
+    }
+
+    @Test
+    void testPartieEnEchec() {
+        Function<Random, StrategieJoueur> invalide = aleatoire -> (joueur, instruction, choixValides) -> "?";
+        Tournoi tournoi = new Tournoi(List.of("Guybrush", "Largo"), List.of(invalide, invalide));
+        tournoi.setProgres(null);
+        assertThrows(IllegalStateException.class, () -> tournoi.jouer(5, new StringWriter()));
+    }
+}
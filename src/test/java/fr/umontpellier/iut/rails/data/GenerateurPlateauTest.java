@@ -0,0 +1,119 @@
+package fr.umontpellier.iut.rails.data;
+
+import fr.umontpellier.iut.graphes.Graphe;
+import fr.umontpellier.iut.rails.Jeu;
+import fr.umontpellier.iut.rails.Route;
+import fr.umontpellier.iut.rails.RouteMaritime;
+import fr.umontpellier.iut.rails.RoutePaire;
+import fr.umontpellier.iut.rails.RouteTerrestre;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GenerateurPlateauTest {
+
+    @Test
+    void testPlateauConnexeEtRoutesVariees() {
+        Plateau plateau = new GenerateurPlateau(3).genererPlateau(200);
+        assertEquals(200, plateau.getVilles().size());
+        assertTrue(plateau.getGraphe().estConnexe());
+        assertFalse(plateau.getPorts().isEmpty());
+        assertTrue(plateau.getPorts().stream().allMatch(Ville::estPort));
+
+        Set<Ville> villes = new HashSet<>(plateau.getVilles());
+        boolean maritime = false, paire = false, parallele = false;
+        for (Route route : plateau.getRoutes()) {
+            assertTrue(villes.contains(route.getVille1()) && villes.contains(route.getVille2()));
+            assertTrue(route.getLongueur() >= 1);
+            if (route instanceof RouteMaritime) {
+                maritime = true;
+                assertTrue(route.getVille1().estPort() && route.getVille2().estPort());
+            }
+            paire |= route instanceof RoutePaire;
+            if (route.getRouteParallele() != null) {
+                parallele = true;
+                assertSame(route, route.getRouteParallele().getRouteParallele());
+            }
+        }
+        assertTrue(maritime);
+        assertTrue(paire);
+        assertTrue(parallele);
+        assertTrue(plateau.getRoutes().stream().anyMatch(r -> r instanceof RouteTerrestre));
+    }
+
+    @Test
+    void testMemeGraineMemePlateau() {
+        Plateau p1 = new GenerateurPlateau(12).genererPlateau(100);
+        Plateau p2 = new GenerateurPlateau(12).genererPlateau(100);
+        assertEquals(p1.getRoutes().size(), p2.getRoutes().size());
+        for (int i = 0; i < p1.getRoutes().size(); i++) {
+            Route r1 = p1.getRoutes().get(i);
+            Route r2 = p2.getRoutes().get(i);
+            assertEquals(r1.getClass(), r2.getClass());
+            assertEquals(r1.getLongueur(), r2.getLongueur());
+            assertEquals(r1.getVille1().nom(), r2.getVille1().nom());
+            assertEquals(r1.getVille2().nom(), r2.getVille2().nom());
+        }
+        assertTrue(Graphe.sontIsomorphes(p1.getGraphe(), p2.getGraphe()));
+    }
+
+    @Test
+    void testDestinations() {
+        GenerateurPlateau generateur = new GenerateurPlateau(5);
+        Plateau plateau = generateur.genererPlateau(300);
+        List<Destination> destinations = generateur.genererDestinations(plateau, 400);
+        assertEquals(400, destinations.size());
+        Set<String> noms = new HashSet<>();
+        for (Ville ville : plateau.getVilles()) {
+            noms.add(ville.nom());
+        }
+        boolean itineraire = false;
+        for (Destination destination : destinations) {
+            assertTrue(noms.containsAll(destination.getVilles()));
+            assertEquals(destination.getVilles().size(), new HashSet<>(destination.getVilles()).size());
+            assertTrue(destination.getValeurSimple() >= 1);
+            if (destination.getVilles().size() == 3) {
+                itineraire = true;
+                assertTrue(destination.getValeurMax() > destination.getValeurSimple());
+            }
+        }
+        assertTrue(itineraire);
+    }
+
+    @Test
+    void testDestinationSimpleEgaleAuPlusCourtChemin() {
+        GenerateurPlateau generateur = new GenerateurPlateau(9);
+        Plateau plateau = generateur.genererPlateau(40);
+        Graphe graphe = plateau.getGraphe();
+        for (Destination destination : generateur.genererDestinations(plateau, 30)) {
+            if (destination.getVilles().size() == 2) {
+                int[] ids = destination.getVilles().stream().mapToInt(nom -> plateau.getVilles().stream()
+                        .filter(v -> v.nom().equals(nom)).findFirst().orElseThrow().getId()).toArray();
+                List<Integer> chemin = graphe.parcoursSansRepetition(ids[0], ids[1], true);
+                int longueur = 0;
+                for (int i = 0; i < chemin.size() - 1; i++) {
+                    int u = chemin.get(i), v = chemin.get(i + 1);
+                    longueur += graphe.getVoisinsAvecArete(u).get(v).route().getLongueur();
+                }
+                assertEquals(longueur, destination.getValeurSimple());
+            }
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void testPartieSurPlateauGenere() {
+        GenerateurPlateau generateur = new GenerateurPlateau(1);
+        Plateau plateau = generateur.genererPlateau(1000);
+        List<Destination> destinations = generateur.genererDestinations(plateau, 150);
+        Jeu jeu = new Jeu(new String[]{"Guybrush", "Largo"}, plateau, destinations);
+        assertSame(plateau, jeu.getPlateau());
+        assertEquals(plateau.getRoutes().size(), jeu.getRoutesLibres().size());
+        assertEquals(2, jeu.getJoueurs().size());
+    }
+}
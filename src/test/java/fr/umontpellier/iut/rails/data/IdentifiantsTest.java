@@ -0,0 +1,99 @@
+package fr.umontpellier.iut.rails.data;
+
+import fr.umontpellier.iut.rails.Jeu;
+import fr.umontpellier.iut.rails.Route;
+import fr.umontpellier.iut.rails.RouteTerrestre;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdentifiantsTest {
+
+    private static List<String> nomsRoutes(Jeu jeu) {
+        return jeu.getRoutesLibres().stream().map(Route::getNom).toList();
+    }
+
+    @Test
+    void testNumerotationPropreAChaquePartie() {
+        Jeu jeu1 = new Identifiants().creer(() -> new Jeu(new String[]{"Guybrush", "Largo"}));
+        Jeu jeu2 = new Identifiants().creer(() -> new Jeu(new String[]{"Guybrush", "Largo"}));
+        assertEquals("R1", jeu1.getRoutesLibres().get(0).getNom());
+        assertEquals(nomsRoutes(jeu1), nomsRoutes(jeu2));
+        // villes numérotées de 0 à n-1
+        List<Integer> ids = jeu1.getPlateau().getVilles().stream().map(Ville::getId).sorted().toList();
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i, ids.get(i));
+        }
+        assertEquals(jeu1.getPlateau().getVilles().stream().map(Ville::getId).toList(),
+                jeu2.getPlateau().getVilles().stream().map(Ville::getId).toList());
+
+        List<Destination> destinations = new Identifiants().creer(Destination::makeDestinationsMonde);
+        assertEquals("D1", destinations.get(0).getNom());
+        CarteTransport carte = new Identifiants().creer(
+                () -> new CarteTransport(TypeCarteTransport.JOKER, Couleur.GRIS, false, true));
+        assertEquals("C1", carte.getNom());
+        assertNull(Identifiants.courants());
+    }
+
+    @Test
+    void testContextesImbriques() {
+        Identifiants externes = new Identifiants();
+        Identifiants internes = new Identifiants();
+        externes.creer(() -> {
+            assertEquals(0, new Ville("A", false).getId());
+            internes.creer(() -> {
+                assertSame(internes, Identifiants.courants());
+                assertEquals(0, new Ville("B", false).getId());
+                return null;
+            });
+            assertSame(externes, Identifiants.courants());
+            assertEquals(1, new Ville("C", false).getId());
+            return null;
+        });
+        assertNull(Identifiants.courants());
+    }
+
+    @Test
+    @Timeout(20)
+    void testPartiesCreeesEnParallele() throws Exception {
+        ExecutorService executeur = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Jeu>> parties = new ArrayList<>();
+            List<Future<List<String>>> nomsHorsContexte = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                parties.add(executeur.submit(
+                        () -> new Identifiants().creer(() -> new Jeu(new String[]{"Guybrush", "Largo"}))));
+                nomsHorsContexte.add(executeur.submit(() -> {
+                    List<String> noms = new ArrayList<>();
+                    for (int j = 0; j < 500; j++) {
+                        noms.add(new RouteTerrestre(new Ville("A", false), new Ville("B", false), Couleur.GRIS, 1)
+                                .getNom());
+                    }
+                    return noms;
+                }));
+            }
+            List<String> reference = nomsRoutes(parties.get(0).get());
+            for (Future<Jeu> partie : parties) {
+                assertEquals(reference, nomsRoutes(partie.get()));
+            }
+            // compteurs statiques : aucun nom n'est donné deux fois
+            Set<String> noms = new HashSet<>();
+            for (Future<List<String>> liste : nomsHorsContexte) {
+                for (String nom : liste.get()) {
+                    assertTrue(noms.add(nom));
+                }
+            }
+        } finally {
+            executeur.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package fr.umontpellier.iut.rails.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ListeSuivieTest {
+
+    @Test
+    void testOperationsCommeArrayList() {
+        Random aleatoire = new Random(3);
+        ListeSuivie<Integer> liste = new ListeSuivie<>();
+        List<Integer> attendu = new ArrayList<>();
+        List<List<Integer>> instantanes = new ArrayList<>();
+        List<List<Integer>> contenus = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            int operation = aleatoire.nextInt(8);
+            if (operation <= 2 || attendu.isEmpty()) {
+                int index = aleatoire.nextInt(attendu.size() + 1);
+                liste.add(index, i);
+                attendu.add(index, i);
+            } else if (operation == 3) {
+                liste.add(i);
+                attendu.add(i);
+            } else if (operation == 4) {
+                int index = aleatoire.nextInt(attendu.size());
+                assertEquals(attendu.remove(index), liste.remove(index));
+            } else if (operation == 5) {
+                int index = aleatoire.nextInt(attendu.size());
+                assertEquals(attendu.set(index, -i), liste.set(index, -i));
+            } else if (operation == 6 && aleatoire.nextInt(20) == 0) {
+                liste.clear();
+                attendu.clear();
+            } else {
+                instantanes.add(liste.instantane());
+                contenus.add(new ArrayList<>(attendu));
+            }
+            assertEquals(attendu, liste);
+        }
+        // les instantanés n'ont pas été modifiés par les opérations suivantes
+        for (int i = 0; i < instantanes.size(); i++) {
+            assertEquals(contenus.get(i), instantanes.get(i));
+        }
+    }
+
+    @Test
+    void testInstantanePartageTantQueLaListeNeChangePas() {
+        ListeSuivie<String> liste = new ListeSuivie<>(List.of("a", "b"));
+        List<String> instantane = liste.instantane();
+        assertSame(instantane, liste.instantane());
+        assertSame(instantane, ListeSuivie.instantane(liste));
+        liste.get(0);
+        assertSame(instantane, liste.instantane());
+
+        liste.add("c");
+        List<String> suivant = liste.instantane();
+        assertNotSame(instantane, suivant);
+        assertEquals(List.of("a", "b"), instantane);
+        assertEquals(List.of("a", "b", "c"), suivant);
+
+        liste.remove(0);
+        liste.set(0, "x");
+        Collections.shuffle(liste);
+        assertEquals(List.of("a", "b", "c"), suivant);
+        assertEquals(2, liste.size());
+    }
+
+    @Test
+    void testInstantaneNonModifiable() {
+        ListeSuivie<String> liste = new ListeSuivie<>(Arrays.asList("a", null));
+        List<String> instantane = liste.instantane();
+        assertNull(instantane.get(1));
+        assertThrows(UnsupportedOperationException.class, () -> instantane.add("b"));
+        assertThrows(UnsupportedOperationException.class, () -> instantane.set(0, "b"));
+        assertThrows(UnsupportedOperationException.class, () -> instantane.remove(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> instantane.get(2));
+
+        List<String> copie = ListeSuivie.instantane(new ArrayList<>(List.of("a")));
+        assertThrows(UnsupportedOperationException.class, () -> copie.add("b"));
+    }
+
+    @Test
+    void testModificationPendantParcours() {
+        ListeSuivie<String> liste = new ListeSuivie<>(List.of("a", "b"));
+        Iterator<String> iterateur = liste.iterator();
+        iterateur.next();
+        liste.add("c");
+        assertThrows(ConcurrentModificationException.class, iterateur::next);
+
+        // un instantané peut être parcouru pendant que la liste change
+        List<String> vus = new ArrayList<>();
+        for (String s : liste.instantane()) {
+            vus.add(s);
+            liste.remove(0);
+        }
+        assertEquals(List.of("a", "b", "c"), vus);
+        assertTrue(liste.isEmpty());
+    }
+}